@@ -40,6 +40,9 @@ dependencies {
     implementation("com.google.code.gson:gson:2.10.1")
     implementation("org.jetbrains:annotations:24.1.0")
     
+    // Embedded database for storage.backend = "h2"
+    implementation("com.h2database:h2:2.2.224")
+    
     // Test dependencies
     testImplementation("org.junit.jupiter:junit-jupiter:5.10.0")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
@@ -78,7 +81,10 @@ tasks {
         
         relocate("com.google.gson", "com.eliteessentials.libs.gson")
         
-        minimize()
+        minimize {
+            // Loaded reflectively as a JDBC driver
+            exclude(dependency("com.h2database:h2:.*"))
+        }
     }
     
     test {
@@ -17,7 +17,6 @@ import com.eliteessentials.services.CooldownService;
 import com.eliteessentials.services.CostService;
 import com.eliteessentials.services.DamageTrackingService;
 import com.eliteessentials.services.DataMigrationService;
-import com.eliteessentials.services.DeathTrackingService;
 import com.eliteessentials.services.GodService;
 import com.eliteessentials.services.GroupChatService;
 import com.eliteessentials.services.HomeService;
@@ -27,6 +26,7 @@ import com.eliteessentials.services.MessageService;
 import com.eliteessentials.services.PlayerService;
 import com.eliteessentials.services.PlayTimeRewardService;
 import com.eliteessentials.services.RtpService;
+import com.eliteessentials.services.SchedulerService;
 import com.eliteessentials.services.SleepService;
 import com.eliteessentials.services.SpawnProtectionService;
 import com.eliteessentials.services.TpaService;
@@ -34,14 +34,19 @@ import com.eliteessentials.services.VanishService;
 import com.eliteessentials.services.WarmupService;
 import com.eliteessentials.services.WarpService;
 import com.eliteessentials.storage.DiscordStorage;
+import com.eliteessentials.storage.EconomyLedger;
+import com.eliteessentials.storage.FilePlayerStore;
 import com.eliteessentials.storage.MotdStorage;
 import com.eliteessentials.storage.PlayerFileStorage;
+import com.eliteessentials.storage.PlayerStore;
 import com.eliteessentials.storage.PlayTimeRewardStorage;
 import com.eliteessentials.storage.RulesStorage;
 import com.eliteessentials.storage.SpawnStorage;
+import com.eliteessentials.storage.SqlPlayerStore;
 import com.eliteessentials.storage.WarpStorage;
 import com.eliteessentials.systems.DamageTrackingSystem;
 import com.eliteessentials.systems.PlayerDeathSystem;
+import com.eliteessentials.systems.PlayerSleepSystem;
 import com.eliteessentials.systems.SpawnProtectionSystem;
 import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
@@ -67,6 +72,7 @@ public class EliteEssentials extends JavaPlugin {
     
     private ConfigManager configManager;
     private PlayerFileStorage playerFileStorage;
+    private EconomyLedger economyLedger;
     private WarpStorage warpStorage;
     private SpawnStorage spawnStorage;
     private MotdStorage motdStorage;
@@ -79,9 +85,9 @@ public class EliteEssentials extends JavaPlugin {
     private SleepService sleepService;
     private WarmupService warmupService;
     private CooldownService cooldownService;
+    private SchedulerService scheduler;
     private WarpService warpService;
     private DamageTrackingService damageTrackingService;
-    private DeathTrackingService deathTrackingService;
     private GodService godService;
     private VanishService vanishService;
     private GroupChatService groupChatService;
@@ -97,6 +103,7 @@ public class EliteEssentials extends JavaPlugin {
     private PlayTimeRewardService playTimeRewardService;
     private HytaleFlyCommand flyCommand;
     private PlayerDeathSystem playerDeathSystem;
+    private PlayerSleepSystem playerSleepSystem;
     private DamageTrackingSystem damageTrackingSystem;
     private SpawnProtectionSystem spawnProtectionSystem;
     private RespawnListener respawnListener;
@@ -147,7 +154,10 @@ public class EliteEssentials extends JavaPlugin {
         configManager.loadConfig();
         
         // Initialize per-player file storage (new system)
-        playerFileStorage = new PlayerFileStorage(this.dataFolder);
+        playerFileStorage = new PlayerFileStorage(this.dataFolder, createPlayerStore());
+        scheduler = new SchedulerService();
+        cooldownService = new CooldownService(this.dataFolder, scheduler);
+        applyStorageConfig();
         
         // Run migration from old monolithic files to per-player files
         DataMigrationService migrationService = new DataMigrationService(this.dataFolder, playerFileStorage);
@@ -175,17 +185,15 @@ public class EliteEssentials extends JavaPlugin {
         discordStorage.load();
         
         // Initialize services (now using PlayerFileStorage)
-        cooldownService = new CooldownService();
-        warmupService = new WarmupService();
+        warmupService = new WarmupService(scheduler);
         homeService = new HomeService(playerFileStorage);
         backService = new BackService(configManager, playerFileStorage);
         warpService = new WarpService(warpStorage);
         warpService.setConfigManager(configManager);
         damageTrackingService = new DamageTrackingService();
-        deathTrackingService = new DeathTrackingService(backService, configManager);
-        tpaService = new TpaService(configManager);
-        rtpService = new RtpService(configManager);
-        sleepService = new SleepService(configManager);
+        tpaService = new TpaService(configManager, scheduler);
+        rtpService = new RtpService(configManager, cooldownService);
+        sleepService = new SleepService(configManager, scheduler);
         godService = new GodService();
         vanishService = new VanishService(configManager);
         vanishService.setPlayerFileStorage(playerFileStorage);
@@ -193,17 +201,19 @@ public class EliteEssentials extends JavaPlugin {
         messageService = new MessageService();
         kitService = new KitService(this.dataFolder);
         kitService.setPlayerFileStorage(playerFileStorage);
+        kitService.setCooldownService(cooldownService);
         spawnProtectionService = new SpawnProtectionService(configManager);
-        autoBroadcastService = new AutoBroadcastService(this.dataFolder);
+        autoBroadcastService = new AutoBroadcastService(this.dataFolder, scheduler);
         aliasService = new AliasService(this.dataFolder, getCommandRegistry());
         playerService = new PlayerService(playerFileStorage, configManager);
+        openEconomyLedger();
         costService = new CostService(configManager);
-        mailService = new MailService(playerFileStorage, configManager);
+        mailService = new MailService(playerFileStorage, configManager, cooldownService);
         
         // Initialize playtime rewards
         playTimeRewardStorage = new PlayTimeRewardStorage(this.dataFolder);
         playTimeRewardStorage.load();
-        playTimeRewardService = new PlayTimeRewardService(playTimeRewardStorage, playerService, configManager);
+        playTimeRewardService = new PlayTimeRewardService(playTimeRewardStorage, playerService, configManager, scheduler);
         playTimeRewardService.setPlayerFileStorage(playerFileStorage);
         
         // Initialize VaultUnlocked integration (optional - for cross-plugin economy support)
@@ -238,7 +248,7 @@ public class EliteEssentials extends JavaPlugin {
         getLogger().at(Level.INFO).log("Starter kit system registered.");
         
         // Register join/quit listener for join/quit messages, first join, and MOTD
-        joinQuitListener = new JoinQuitListener(configManager, motdStorage, playerService);
+        joinQuitListener = new JoinQuitListener(configManager, motdStorage, playerService, scheduler);
         joinQuitListener.setPlayerFileStorage(playerFileStorage);
         joinQuitListener.setSpawnStorage(spawnStorage);
         joinQuitListener.setVanishService(vanishService);
@@ -267,11 +277,6 @@ public class EliteEssentials extends JavaPlugin {
                 getLogger().at(Level.INFO).log("PlayerDeathSystem registered - death tracking enabled!");
             } catch (Exception e) {
                 getLogger().at(Level.WARNING).log("Could not register death systems: " + e.getMessage());
-                // Fall back to polling-based death tracking
-                if (deathTrackingService != null && configManager.isBackOnDeathEnabled()) {
-                    deathTrackingService.start();
-                    getLogger().at(Level.INFO).log("Falling back to polling-based death tracking.");
-                }
             }
         }
         
@@ -305,6 +310,15 @@ public class EliteEssentials extends JavaPlugin {
             getLogger().at(Level.WARNING).log("Could not register respawn system: " + e.getMessage());
         }
         
+        // Register sleep tracking (counts sleeping players when their sleep state changes)
+        try {
+            playerSleepSystem = new PlayerSleepSystem(sleepService);
+            EntityStore.REGISTRY.registerSystem(playerSleepSystem);
+            sleepService.registerEvents(getEventRegistry());
+        } catch (Exception e) {
+            getLogger().at(Level.WARNING).log("Could not register sleep system: " + e.getMessage());
+        }
+        
         // Start auto broadcast system
         if (configManager.getConfig().autoBroadcast.enabled) {
             autoBroadcastService.start();
@@ -358,19 +372,16 @@ public class EliteEssentials extends JavaPlugin {
                 // Ignore unregister errors
             }
         }
-        
-        // Save all player data (homes, back locations, etc. are now in player files)
-        if (playerFileStorage != null) {
-            playerFileStorage.saveAll();
-            getLogger().at(Level.INFO).log("Player data saved.");
-        }
-        
-        if (warpService != null) {
-            warpService.save();
-            getLogger().at(Level.INFO).log("Warps saved.");
+        if (playerSleepSystem != null) {
+            try {
+                EntityStore.REGISTRY.unregisterSystem(PlayerSleepSystem.class);
+            } catch (Exception e) {
+                // Ignore unregister errors
+            }
         }
         
-        // Cleanup services
+        // Stop services and the scheduler first: their tasks and final saves still
+        // write through the ledger and player storage, which close last
         if (tpaService != null) {
             tpaService.shutdown();
         }
@@ -380,11 +391,8 @@ public class EliteEssentials extends JavaPlugin {
         if (warmupService != null) {
             warmupService.shutdown();
         }
-        if (deathTrackingService != null) {
-            deathTrackingService.shutdown();
-        }
-        if (joinQuitListener != null) {
-            joinQuitListener.shutdown();
+        if (cooldownService != null) {
+            cooldownService.shutdown();
         }
         if (autoBroadcastService != null) {
             autoBroadcastService.shutdown();
@@ -392,10 +400,36 @@ public class EliteEssentials extends JavaPlugin {
         if (playTimeRewardService != null) {
             playTimeRewardService.stop();
         }
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
         if (vaultUnlockedIntegration != null) {
             vaultUnlockedIntegration.shutdown();
         }
         
+        // Finish queued async economy calls while the ledger and storage are still open
+        if (playerService != null) {
+            playerService.shutdown();
+        }
+        
+        if (warpService != null) {
+            warpService.save();
+            getLogger().at(Level.INFO).log("Warps saved.");
+        }
+        
+        // Write out queued ledger entries
+        if (economyLedger != null) {
+            economyLedger.close();
+        }
+        
+        // Save all player data (homes, back locations, etc. are now in player files)
+        if (playerFileStorage != null) {
+            playerFileStorage.shutdown();
+            getLogger().at(Level.INFO).log("Player data saved.");
+        }
+        
+        LuckPermsIntegration.unsubscribeCacheInvalidation();
+        
         getLogger().at(Level.INFO).log("EliteEssentials disabled.");
     }
     
@@ -420,7 +454,7 @@ public class EliteEssentials extends JavaPlugin {
         
         // RTP command
         if (config.rtp.enabled) {
-            getCommandRegistry().registerCommand(new HytaleRtpCommand(rtpService, backService, configManager, warmupService));
+            getCommandRegistry().registerCommand(new HytaleRtpCommand(rtpService, backService, configManager, warmupService, scheduler));
             registeredCommands.append("/rtp, ");
         }
         
@@ -467,7 +501,8 @@ public class EliteEssentials extends JavaPlugin {
         getCommandRegistry().registerCommand(new HytaleReloadCommand());
         getCommandRegistry().registerCommand(new HytaleAliasCommand());
         getCommandRegistry().registerCommand(new HytaleMigrationCommand());
-        registeredCommands.append("/eliteessentials, /alias, /eemigration, ");
+        getCommandRegistry().registerCommand(new HytalePlayerDataCommand(playerFileStorage));
+        registeredCommands.append("/eliteessentials, /alias, /eemigration, /eeplayerdata, ");
         
         // God command
         if (config.god.enabled) {
@@ -636,12 +671,12 @@ public class EliteEssentials extends JavaPlugin {
         return cooldownService;
     }
     
-    public WarpService getWarpService() {
-        return warpService;
+    public SchedulerService getScheduler() {
+        return scheduler;
     }
     
-    public DeathTrackingService getDeathTrackingService() {
-        return deathTrackingService;
+    public WarpService getWarpService() {
+        return warpService;
     }
     
     public GodService getGodService() {
@@ -774,9 +809,10 @@ public class EliteEssentials extends JavaPlugin {
             groupChatService.reload();
         }
         
-        // Reload player file storage index
+        // Reload player file storage index and write-behind settings
         if (playerFileStorage != null) {
             playerFileStorage.reload();
+            applyStorageConfig();
         }
         
         // Reload playtime rewards
@@ -787,6 +823,74 @@ public class EliteEssentials extends JavaPlugin {
         getLogger().at(Level.INFO).log("Configuration reloaded.");
     }
     
+    /**
+     * Open the economy transaction ledger if enabled, replaying it to restore balances.
+     * Wallet changes still work without it if it can't be opened.
+     */
+    private void openEconomyLedger() {
+        PluginConfig.EconomyConfig economy = configManager.getConfig().economy;
+        if (!economy.ledger) {
+            return;
+        }
+        try {
+            EconomyLedger ledger = new EconomyLedger(this.dataFolder, economy.ledgerSegmentSizeKb,
+                    economy.ledgerKeepSegments, economy.ledgerFsyncIntervalMs);
+            long start = System.currentTimeMillis();
+            int replayed = ledger.open();
+            getLogger().at(Level.INFO).log("Economy ledger opened (" + replayed + " entries replayed in "
+                    + (System.currentTimeMillis() - start) + "ms).");
+            economyLedger = ledger;
+            playerService.setLedger(ledger);
+        } catch (Exception e) {
+            getLogger().at(Level.SEVERE).log("Could not open the economy ledger, transactions won't be recorded: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Create the player data backend selected by storage.backend.
+     * Falls back to player files if the database can't be opened.
+     */
+    private PlayerStore createPlayerStore() {
+        PluginConfig.StorageConfig storage = configManager.getConfig().storage;
+        FilePlayerStore files = new FilePlayerStore(this.dataFolder);
+        if (!"h2".equalsIgnoreCase(storage.backend)) {
+            if (!"file".equalsIgnoreCase(storage.backend)) {
+                getLogger().at(Level.WARNING).log("Unknown storage backend '" + storage.backend + "', using player files.");
+            }
+            return files;
+        }
+        
+        try {
+            SqlPlayerStore database = new SqlPlayerStore(this.dataFolder, storage.databasePoolSize);
+            if (database.count() == 0 && !files.listPlayers().isEmpty()) {
+                long start = System.currentTimeMillis();
+                int imported = database.importFrom(files);
+                getLogger().at(Level.INFO).log("Imported " + imported + " player files into the H2 database in "
+                        + (System.currentTimeMillis() - start) + "ms. The files in data/players were left as a backup.");
+            }
+            getLogger().at(Level.INFO).log("Player data backend: H2 database");
+            return database;
+        } catch (Exception e) {
+            getLogger().at(Level.SEVERE).log("Could not open the H2 player database, using player files: " + e.getMessage());
+            return files;
+        }
+    }
+    
+    /**
+     * Apply storage settings (file format, write-behind flushing, offline cache limits, journal, join prefetch) to the player file storage,
+     * and cooldown persistence to the cooldown service.
+     */
+    private void applyStorageConfig() {
+        PluginConfig.StorageConfig storage = configManager.getConfig().storage;
+        playerFileStorage.configureFormat(storage.format);
+        playerFileStorage.configureWriteBehind(storage.writeBehind, storage.flushIntervalMs, storage.maxFlushBatchSize);
+        playerFileStorage.configureOfflineCache(storage.offlineCacheSize, storage.offlineCacheTtlSeconds);
+        playerFileStorage.configureJournal(storage.journal, storage.journalFsyncIntervalMs,
+                storage.journalCompactIntervalSeconds, storage.journalMaxSizeKb);
+        playerFileStorage.configurePrefetch(storage.prefetchOnConnect, storage.prefetchTimeoutMs);
+        cooldownService.configurePersistence(storage.persistCooldowns, storage.cooldownPersistMinSeconds);
+    }
+    
     /**
      * Find the mods folder in the path hierarchy.
      */
@@ -0,0 +1,153 @@
+package com.eliteessentials.api;
+
+import com.eliteessentials.model.PlayerFile;
+import com.eliteessentials.services.PlayerService;
+import com.hypixel.hytale.server.core.universe.world.World;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous variant of {@link EconomyAPI} that works with any account,
+ * online or offline.
+ *
+ * Every method returns a future completed on EliteEssentials' economy thread,
+ * where offline players are loaded from disk if needed. Callers on a world
+ * thread can use {@link #onWorld} to get the result back on that world.
+ *
+ * Usage from other mods:
+ * <pre>
+ * // Pay an offline shop owner, then message the buyer on their world thread
+ * AsyncEconomyAPI.onWorld(AsyncEconomyAPI.deposit(ownerUuid, 250.0), world)
+ *     .thenAccept(paid -> {
+ *         if (paid) {
+ *             // Safe to touch entities and components here
+ *         }
+ *     });
+ * </pre>
+ */
+public final class AsyncEconomyAPI {
+
+    private AsyncEconomyAPI() {} // Static API class
+
+    /**
+     * Get a player's balance, loading offline players if needed.
+     */
+    public static CompletableFuture<Double> getBalance(UUID playerId) {
+        return supply(() -> EconomyAPI.getBalance(playerId, true), 0.0);
+    }
+
+    /**
+     * Check if a player has at least the specified amount.
+     */
+    public static CompletableFuture<Boolean> has(UUID playerId, double amount) {
+        return supply(() -> EconomyAPI.has(playerId, amount, true), false);
+    }
+
+    /**
+     * Withdraw money from a player's wallet.
+     * Completes with false if insufficient funds or error.
+     */
+    public static CompletableFuture<Boolean> withdraw(UUID playerId, double amount) {
+        return supply(() -> EconomyAPI.withdraw(playerId, amount, true), false);
+    }
+
+    /**
+     * Deposit money into a player's wallet.
+     * Completes with false on error.
+     */
+    public static CompletableFuture<Boolean> deposit(UUID playerId, double amount) {
+        return supply(() -> EconomyAPI.deposit(playerId, amount, true), false);
+    }
+
+    /**
+     * Set a player's balance directly.
+     * Note: Not supported when using external economy.
+     */
+    public static CompletableFuture<Boolean> setBalance(UUID playerId, double amount) {
+        return supply(() -> EconomyAPI.setBalance(playerId, amount, true), false);
+    }
+
+    /**
+     * Transfer money between two players.
+     * Completes with false if insufficient funds or error.
+     */
+    public static CompletableFuture<Boolean> transfer(UUID from, UUID to, double amount) {
+        return supply(() -> EconomyAPI.transfer(from, to, amount, true), false);
+    }
+
+    /**
+     * Deposit the same amount into many wallets, saved in batches.
+     * Completes with the result per player.
+     */
+    public static CompletableFuture<Map<UUID, Boolean>> depositAll(Collection<UUID> playerIds, double amount) {
+        List<UUID> ids = List.copyOf(playerIds);
+        return supply(() -> EconomyAPI.depositAll(ids, amount, true), Collections.emptyMap());
+    }
+
+    /**
+     * Withdraw the same amount from many wallets, saved in batches.
+     * Completes with the result per player.
+     */
+    public static CompletableFuture<Map<UUID, Boolean>> withdrawAll(Collection<UUID> playerIds, double amount) {
+        List<UUID> ids = List.copyOf(playerIds);
+        return supply(() -> EconomyAPI.withdrawAll(ids, amount, true), Collections.emptyMap());
+    }
+
+    /**
+     * Take a percentage of every positive balance, online and offline players alike.
+     * Note: Not supported when using external economy.
+     * @param percent Percentage to take (greater than 0, at most 100)
+     * @return Future of the amount taken per taxed player
+     */
+    public static CompletableFuture<Map<UUID, Double>> taxAll(double percent) {
+        return supply(() -> EconomyAPI.taxAll(percent), Collections.emptyMap());
+    }
+
+    /**
+     * Check if a player has an account.
+     */
+    public static CompletableFuture<Boolean> hasAccount(UUID playerId) {
+        return CompletableFuture.completedFuture(EconomyAPI.hasAccount(playerId));
+    }
+
+    /**
+     * Get player data, loading offline players if needed.
+     * Note: Completes empty when using external economy.
+     */
+    public static CompletableFuture<Optional<PlayerFile>> getPlayerData(UUID playerId) {
+        return supply(() -> EconomyAPI.getPlayerData(playerId, true), Optional.empty());
+    }
+
+    /**
+     * Complete a future's result on a world's thread, for callers that need to
+     * touch entities or components with it. If the world can't run tasks any
+     * more (e.g. it is shutting down) the returned future fails.
+     */
+    public static <T> CompletableFuture<T> onWorld(CompletableFuture<T> future, World world) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((value, error) -> {
+            try {
+                world.execute(() -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> supply(Supplier<T> call, T fallback) {
+        PlayerService service = EconomyAPI.getPlayerService();
+        if (service == null) {
+            return CompletableFuture.completedFuture(fallback);
+        }
+        return service.supplyAsync(call);
+    }
+}
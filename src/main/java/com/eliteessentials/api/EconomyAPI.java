@@ -5,14 +5,20 @@ import com.eliteessentials.integration.VaultUnlockedIntegration;
 import com.eliteessentials.model.PlayerFile;
 import com.eliteessentials.services.PlayerService;
 
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 import java.util.logging.Logger;
 
 /**
  * Public API for EliteEssentials Economy system.
  * Other mods can use this to interact with player wallets.
  * 
+ * The methods here never block on disk, so they are safe to call from a world
+ * thread: they serve players whose data is in memory (everyone online, plus
+ * recently seen players in the offline cache). Balances of other players come
+ * from the in-memory leaderboard index, deposits to them are applied in the
+ * background, and withdrawals from them fail. Use {@link AsyncEconomyAPI} to
+ * work with any offline account.
+ * 
  * Supports VaultUnlocked integration:
  * - When useExternalEconomy is enabled, delegates to external economy via VaultUnlocked
  * - When vaultUnlockedProvider is enabled, other plugins can use VaultUnlocked to access our economy
@@ -34,12 +40,18 @@ import java.util.logging.Logger;
  *     
  *     // Give money
  *     EconomyAPI.deposit(playerUuid, 50.0);
+ *     
+ *     // Pay everyone online at once (saved as one batch)
+ *     Map<UUID, Boolean> paid = EconomyAPI.depositAll(onlineUuids, 25.0);
  * }
  * </pre>
  */
 public final class EconomyAPI {
 
     private static final Logger logger = Logger.getLogger("EliteEssentials");
+    
+    // Ledger source for changes made through this API
+    private static final String LEDGER_SOURCE = "EconomyAPI";
 
     private EconomyAPI() {} // Static API class
 
@@ -107,10 +119,15 @@ public final class EconomyAPI {
 
     /**
      * Get a player's balance.
+     * Offline players not in memory report their last saved balance.
      * @param playerId Player UUID
      * @return Balance, or 0.0 if player not found or economy disabled
      */
     public static double getBalance(UUID playerId) {
+        return getBalance(playerId, false);
+    }
+    
+    static double getBalance(UUID playerId, boolean load) {
         if (!isEnabled()) return 0.0;
         
         // Check for external economy first
@@ -122,7 +139,7 @@ public final class EconomyAPI {
         PlayerService service = getPlayerService();
         if (service == null) return 0.0;
         
-        return service.getBalance(playerId);
+        return load ? service.getBalance(playerId) : service.getCachedBalance(playerId);
     }
 
     /**
@@ -132,6 +149,10 @@ public final class EconomyAPI {
      * @return true if player has enough, false otherwise
      */
     public static boolean has(UUID playerId, double amount) {
+        return has(playerId, amount, false);
+    }
+    
+    static boolean has(UUID playerId, double amount, boolean load) {
         if (!isEnabled()) return false;
         
         // Check for external economy first
@@ -140,16 +161,20 @@ public final class EconomyAPI {
             return vault.externalHas(playerId, amount);
         }
         
-        return getBalance(playerId) >= amount;
+        return getBalance(playerId, load) >= amount;
     }
 
     /**
      * Withdraw money from a player's wallet.
      * @param playerId Player UUID
      * @param amount Amount to withdraw (must be positive)
-     * @return true if successful, false if insufficient funds or error
+     * @return true if successful, false if insufficient funds, error or the player isn't in memory
      */
     public static boolean withdraw(UUID playerId, double amount) {
+        return withdraw(playerId, amount, false);
+    }
+    
+    static boolean withdraw(UUID playerId, double amount, boolean load) {
         if (!isEnabled() || amount <= 0) return false;
         
         // Check for external economy first
@@ -161,16 +186,22 @@ public final class EconomyAPI {
         PlayerService service = getPlayerService();
         if (service == null) return false;
         
-        return service.removeMoney(playerId, amount);
+        return load ? service.removeMoney(playerId, amount, LEDGER_SOURCE)
+                : service.removeMoneyCached(playerId, amount, LEDGER_SOURCE);
     }
 
     /**
      * Deposit money into a player's wallet.
+     * Deposits to offline players not in memory are applied in the background.
      * @param playerId Player UUID
      * @param amount Amount to deposit (must be positive)
-     * @return true if successful, false if error
+     * @return true if successful (or queued), false if error
      */
     public static boolean deposit(UUID playerId, double amount) {
+        return deposit(playerId, amount, false);
+    }
+    
+    static boolean deposit(UUID playerId, double amount, boolean load) {
         if (!isEnabled() || amount <= 0) return false;
         
         // Check for external economy first
@@ -182,7 +213,8 @@ public final class EconomyAPI {
         PlayerService service = getPlayerService();
         if (service == null) return false;
         
-        return service.addMoney(playerId, amount);
+        return load ? service.addMoney(playerId, amount, LEDGER_SOURCE)
+                : service.addMoneyCached(playerId, amount, LEDGER_SOURCE);
     }
 
     /**
@@ -190,9 +222,13 @@ public final class EconomyAPI {
      * Note: Not supported when using external economy.
      * @param playerId Player UUID
      * @param amount New balance (must be non-negative)
-     * @return true if successful, false if error or using external economy
+     * @return true if successful, false if error, using external economy or the player isn't in memory
      */
     public static boolean setBalance(UUID playerId, double amount) {
+        return setBalance(playerId, amount, false);
+    }
+    
+    static boolean setBalance(UUID playerId, double amount, boolean load) {
         if (!isEnabled() || amount < 0) return false;
         
         // External economy doesn't support direct balance setting
@@ -205,7 +241,8 @@ public final class EconomyAPI {
         PlayerService service = getPlayerService();
         if (service == null) return false;
         
-        return service.setBalance(playerId, amount);
+        return load ? service.setBalance(playerId, amount, LEDGER_SOURCE)
+                : service.setBalanceCached(playerId, amount, LEDGER_SOURCE);
     }
 
     /**
@@ -213,28 +250,126 @@ public final class EconomyAPI {
      * @param from Sender UUID
      * @param to Receiver UUID
      * @param amount Amount to transfer
-     * @return true if successful, false if insufficient funds or error
+     * @return true if successful, false if insufficient funds, error or either player isn't in memory
      */
     public static boolean transfer(UUID from, UUID to, double amount) {
+        return transfer(from, to, amount, false);
+    }
+    
+    static boolean transfer(UUID from, UUID to, double amount, boolean load) {
         if (!isEnabled() || amount <= 0) return false;
         if (from.equals(to)) return false;
         
+        // Our own wallets transfer atomically (no window between the check, debit and credit)
+        VaultUnlockedIntegration vault = VaultUnlockedIntegration.get();
+        if (vault == null || !vault.isUsingExternalEconomy()) {
+            PlayerService service = getPlayerService();
+            if (service == null) return false;
+            return load ? service.transfer(from, to, amount, LEDGER_SOURCE)
+                    : service.transferCached(from, to, amount, LEDGER_SOURCE);
+        }
+        
         // Check if sender has enough
-        if (!has(from, amount)) return false;
+        if (!has(from, amount, load)) return false;
         
         // Perform transfer
-        if (withdraw(from, amount)) {
-            if (deposit(to, amount)) {
+        if (withdraw(from, amount, load)) {
+            if (deposit(to, amount, load)) {
                 return true;
             } else {
                 // Rollback if deposit fails
-                deposit(from, amount);
+                deposit(from, amount, load);
                 return false;
             }
         }
         return false;
     }
 
+    /**
+     * Deposit the same amount into many wallets (e.g. a reward for everyone online).
+     * Each wallet changes atomically on its own and the changes are saved in
+     * batches, so paying hundreds of players doesn't rewrite hundreds of files.
+     * Offline players not in memory are paid in the background.
+     * With an external economy this falls back to one deposit per player.
+     * @param playerIds Player UUIDs (duplicates are paid once)
+     * @param amount Amount to deposit into each wallet (must be positive)
+     * @return Result per player, in the given order (empty if disabled or invalid amount)
+     */
+    public static Map<UUID, Boolean> depositAll(Collection<UUID> playerIds, double amount) {
+        return depositAll(playerIds, amount, false);
+    }
+    
+    static Map<UUID, Boolean> depositAll(Collection<UUID> playerIds, double amount, boolean load) {
+        if (!isEnabled() || amount <= 0) return Collections.emptyMap();
+        
+        VaultUnlockedIntegration vault = VaultUnlockedIntegration.get();
+        if (vault != null && vault.isUsingExternalEconomy()) {
+            Map<UUID, Boolean> results = new LinkedHashMap<>();
+            for (UUID playerId : playerIds) {
+                results.putIfAbsent(playerId, vault.externalDeposit(playerId, amount));
+            }
+            return results;
+        }
+        
+        PlayerService service = getPlayerService();
+        if (service == null) return Collections.emptyMap();
+        
+        return load ? service.addMoneyAll(playerIds, amount, LEDGER_SOURCE)
+                : service.addMoneyAllCached(playerIds, amount, LEDGER_SOURCE);
+    }
+
+    /**
+     * Withdraw the same amount from many wallets (e.g. an upkeep fee).
+     * Players who can't afford it (or aren't in memory) are left unchanged and
+     * reported as false.
+     * With an external economy this falls back to one withdrawal per player.
+     * @param playerIds Player UUIDs (duplicates are charged once)
+     * @param amount Amount to withdraw from each wallet (must be positive)
+     * @return Result per player, in the given order (empty if disabled or invalid amount)
+     */
+    public static Map<UUID, Boolean> withdrawAll(Collection<UUID> playerIds, double amount) {
+        return withdrawAll(playerIds, amount, false);
+    }
+    
+    static Map<UUID, Boolean> withdrawAll(Collection<UUID> playerIds, double amount, boolean load) {
+        if (!isEnabled() || amount <= 0) return Collections.emptyMap();
+        
+        VaultUnlockedIntegration vault = VaultUnlockedIntegration.get();
+        if (vault != null && vault.isUsingExternalEconomy()) {
+            Map<UUID, Boolean> results = new LinkedHashMap<>();
+            for (UUID playerId : playerIds) {
+                results.putIfAbsent(playerId, vault.externalWithdraw(playerId, amount));
+            }
+            return results;
+        }
+        
+        PlayerService service = getPlayerService();
+        if (service == null) return Collections.emptyMap();
+        
+        return load ? service.removeMoneyAll(playerIds, amount, LEDGER_SOURCE)
+                : service.removeMoneyAllCached(playerIds, amount, LEDGER_SOURCE);
+    }
+
+    /**
+     * Take a percentage of every positive balance, online and offline players alike.
+     * Loads offline players, so it is only exposed through {@link AsyncEconomyAPI#taxAll}.
+     */
+    static Map<UUID, Double> taxAll(double percent) {
+        if (!isEnabled() || percent <= 0 || percent > 100) return Collections.emptyMap();
+        
+        // We can't enumerate an external economy's accounts
+        VaultUnlockedIntegration vault = VaultUnlockedIntegration.get();
+        if (vault != null && vault.isUsingExternalEconomy()) {
+            logger.warning("taxAll() not supported with external economy");
+            return Collections.emptyMap();
+        }
+        
+        PlayerService service = getPlayerService();
+        if (service == null) return Collections.emptyMap();
+        
+        return service.taxAll(percent, LEDGER_SOURCE);
+    }
+
     /**
      * Format an amount with the currency symbol.
      * @param amount Amount to format
@@ -272,16 +407,20 @@ public final class EconomyAPI {
         PlayerService service = getPlayerService();
         if (service == null) return false;
         
-        return service.getPlayer(playerId).isPresent();
+        return service.hasAccount(playerId);
     }
 
     /**
      * Get player data (for advanced usage).
-     * Note: Returns empty when using external economy.
+     * Note: Returns empty when using external economy, or if the player isn't in memory.
      * @param playerId Player UUID
      * @return Optional containing PlayerFile if found
      */
     public static Optional<PlayerFile> getPlayerData(UUID playerId) {
+        return getPlayerData(playerId, false);
+    }
+    
+    static Optional<PlayerFile> getPlayerData(UUID playerId, boolean load) {
         // External economy doesn't expose player data
         VaultUnlockedIntegration vault = VaultUnlockedIntegration.get();
         if (vault != null && vault.isUsingExternalEconomy()) {
@@ -291,10 +430,10 @@ public final class EconomyAPI {
         PlayerService service = getPlayerService();
         if (service == null) return Optional.empty();
         
-        return service.getPlayer(playerId);
+        return load ? service.getPlayer(playerId) : service.getLoadedPlayer(playerId);
     }
 
-    private static PlayerService getPlayerService() {
+    static PlayerService getPlayerService() {
         EliteEssentials plugin = EliteEssentials.getInstance();
         if (plugin == null) return null;
         return plugin.getPlayerService();
@@ -38,7 +38,7 @@ public class SimpleStringArg extends SingleArgumentType<String> {
     
     // ===== ADMIN =====
     // Action arg (for reload, etc.)
-    public static final SimpleStringArg ACTION = new SimpleStringArg("Action", "Command action", new String[]{"reload"});
+    public static final SimpleStringArg ACTION = new SimpleStringArg("Action", "Command action", new String[]{"reload", "stats"});
     
     // ===== FLY SPEED =====
     // Fly speed multiplier
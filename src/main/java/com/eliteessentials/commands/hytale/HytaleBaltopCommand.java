@@ -3,7 +3,7 @@ package com.eliteessentials.commands.hytale;
 import com.eliteessentials.api.EconomyAPI;
 import com.eliteessentials.config.ConfigManager;
 import com.eliteessentials.config.PluginConfig;
-import com.eliteessentials.model.PlayerFile;
+import com.eliteessentials.model.PlayerSummary;
 import com.eliteessentials.permissions.Permissions;
 import com.eliteessentials.services.PlayerService;
 import com.eliteessentials.util.CommandPermissionUtil;
@@ -65,7 +65,7 @@ public class HytaleBaltopCommand extends AbstractPlayerCommand {
         }
         
         // Get top players
-        List<PlayerFile> topPlayers = playerService.getTopByBalance(economyConfig.baltopLimit);
+        List<PlayerSummary> topPlayers = playerService.getTopByBalance(economyConfig.baltopLimit);
         
         if (topPlayers.isEmpty()) {
             ctx.sendMessage(MessageFormatter.formatWithFallback(configManager.getMessage("baltopEmpty"), "#FFAA00"));
@@ -78,11 +78,11 @@ public class HytaleBaltopCommand extends AbstractPlayerCommand {
         
         // List entries
         int rank = 1;
-        for (PlayerFile data : topPlayers) {
+        for (PlayerSummary data : topPlayers) {
             String entry = configManager.getMessage("baltopEntry",
                 "rank", String.valueOf(rank),
-                "player", data.getName(),
-                "balance", EconomyAPI.format(data.getWallet()));
+                "player", data.name(),
+                "balance", EconomyAPI.format(data.wallet()));
             ctx.sendMessage(MessageFormatter.formatWithFallback(entry, "#FFFFFF"));
             rank++;
         }
@@ -91,5 +91,11 @@ public class HytaleBaltopCommand extends AbstractPlayerCommand {
         double playerBalance = playerService.getBalance(playerId);
         ctx.sendMessage(MessageFormatter.formatWithFallback(
             configManager.getMessage("baltopYourBalance", "balance", EconomyAPI.format(playerBalance)), "#AAAAAA"));
+        
+        int playerRank = playerService.getBalanceRank(playerId);
+        if (playerRank > topPlayers.size()) {
+            ctx.sendMessage(MessageFormatter.formatWithFallback(
+                configManager.getMessage("baltopYourRank", "rank", String.valueOf(playerRank)), "#AAAAAA"));
+        }
     }
 }
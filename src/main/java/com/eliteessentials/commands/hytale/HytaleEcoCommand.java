@@ -6,6 +6,8 @@ import com.eliteessentials.config.PluginConfig;
 import com.eliteessentials.permissions.PermissionService;
 import com.eliteessentials.permissions.Permissions;
 import com.eliteessentials.services.PlayerService;
+import com.eliteessentials.services.WalletEngine;
+import com.eliteessentials.storage.EconomyLedger;
 import com.eliteessentials.util.MessageFormatter;
 import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
@@ -15,6 +17,12 @@ import com.hypixel.hytale.server.core.command.system.basecommands.CommandBase;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.Universe;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
 import javax.annotation.Nonnull;
 
@@ -27,31 +35,41 @@ import javax.annotation.Nonnull;
  * - /eco set <player> <amount> - Set player's balance
  * - /eco add <player> <amount> - Add to player's balance  
  * - /eco remove <player> <amount> - Remove from player's balance
+ * - /eco history <player> [count] - Show the player's latest ledger entries
  * 
  * Examples:
  * - /eco check Steve
  * - /eco set Steve 1000
  * - /eco add Steve 500
  * - /eco remove Steve 100
+ * - /eco history Steve 20
+ * 
+ * check and history accept a unique partial name; set, add and remove need
+ * the player's exact name or UUID.
  * 
  * Can be run from console or by admins in-game.
  * Permission: eliteessentials.command.economy.wallet.admin
  */
 public class HytaleEcoCommand extends CommandBase {
 
+    private static final int DEFAULT_HISTORY = 10;
+    private static final int MAX_HISTORY = 50;
+    private static final DateTimeFormatter HISTORY_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+        .withZone(ZoneId.systemDefault());
+
     private final ConfigManager configManager;
     private final PlayerService playerService;
     private final RequiredArg<String> actionArg;
     private final RequiredArg<String> playerArg;
 
     public HytaleEcoCommand(ConfigManager configManager, PlayerService playerService) {
-        super("eco", "Economy management (check/set/add/remove)");
+        super("eco", "Economy management (check/set/add/remove/history)");
         this.configManager = configManager;
         this.playerService = playerService;
         
         addAliases("economy");
         
-        this.actionArg = withRequiredArg("action", "check, set, add, or remove", ArgTypes.STRING);
+        this.actionArg = withRequiredArg("action", "check, set, add, remove, or history", ArgTypes.STRING);
         this.playerArg = withRequiredArg("player", "Player name (online or offline)", ArgTypes.STRING);
         
         // Add variant with amount for set/add/remove
@@ -81,20 +99,26 @@ public class HytaleEcoCommand extends CommandBase {
         String action = ctx.get(actionArg).toLowerCase();
         String playerName = ctx.get(playerArg);
         
-        // Only "check" works without amount
-        if (!action.equals("check")) {
+        // Only "check" and "history" work without amount
+        if (!action.equals("check") && !action.equals("history")) {
             ctx.sendMessage(Message.raw("Usage: /eco <set|add|remove> <player> <amount>").color("#FFAA00"));
             ctx.sendMessage(Message.raw("       /eco check <player>").color("#FFAA00"));
+            ctx.sendMessage(Message.raw("       /eco history <player> [count]").color("#FFAA00"));
             return;
         }
         
-        UUID targetId = findPlayerId(playerName);
+        UUID targetId = findPlayerId(playerService, playerName, false);
         if (targetId == null) {
             ctx.sendMessage(MessageFormatter.formatWithFallback(
                 configManager.getMessage("playerNotFound", "player", playerName), "#FF5555"));
             return;
         }
         
+        if (action.equals("history")) {
+            sendHistory(ctx, playerService, targetId, playerName, DEFAULT_HISTORY);
+            return;
+        }
+        
         double balance = playerService.getBalance(targetId);
         ctx.sendMessage(MessageFormatter.formatWithFallback(
             configManager.getMessage("walletBalanceOther",
@@ -103,15 +127,81 @@ public class HytaleEcoCommand extends CommandBase {
                 "currency", EconomyAPI.getCurrencyNamePlural()), "#55FF55"));
     }
     
-    private UUID findPlayerId(String name) {
+    /**
+     * Show a player's latest ledger entries, newest first.
+     * Read from the ledger's per-player index - no scan of the ledger files.
+     */
+    private static void sendHistory(CommandContext ctx, PlayerService playerService, UUID targetId, String playerName, int limit) {
+        EconomyLedger ledger = playerService.getLedger();
+        if (ledger == null) {
+            ctx.sendMessage(Message.raw("The economy ledger is disabled (economy.ledger in config).").color("#FF5555"));
+            return;
+        }
+        
+        List<EconomyLedger.Entry> entries = playerService.getTransactionHistory(targetId, limit);
+        ctx.sendMessage(Message.raw("Transactions of " + playerName + " (newest first):").color("#FFFFFF"));
+        if (entries.isEmpty()) {
+            ctx.sendMessage(Message.raw("  No transactions recorded.").color("#AAAAAA"));
+        }
+        for (EconomyLedger.Entry entry : entries) {
+            ctx.sendMessage(Message.raw(formatEntry(playerService, entry, targetId)).color("#AAAAAA"));
+        }
+        
+        OptionalLong replayed = ledger.getReplayedBalance(targetId);
+        if (replayed.isPresent()) {
+            double ledgerBalance = WalletEngine.toAmount(replayed.getAsLong());
+            double walletBalance = playerService.getBalance(targetId);
+            boolean matches = WalletEngine.toUnits(walletBalance) == replayed.getAsLong();
+            ctx.sendMessage(Message.raw("Ledger balance: " + EconomyAPI.format(ledgerBalance) + " | wallet: " + EconomyAPI.format(walletBalance)
+                + (matches ? "" : " (MISMATCH)")).color(matches ? "#55FF55" : "#FF5555"));
+        }
+    }
+    
+    private static String formatEntry(PlayerService playerService, EconomyLedger.Entry entry, UUID viewer) {
+        String time = HISTORY_TIME.format(Instant.ofEpochMilli(entry.timestamp()));
+        String amount = EconomyAPI.format(WalletEngine.toAmount(entry.amount()));
+        String detail;
+        long balance;
+        switch (entry.type()) {
+            case DEPOSIT -> { detail = "+" + amount; balance = entry.balance(); }
+            case WITHDRAW -> { detail = "-" + amount; balance = entry.balance(); }
+            case SET -> { detail = "set to " + amount; balance = entry.balance(); }
+            default -> {
+                boolean sent = viewer.equals(entry.account());
+                UUID other = sent ? entry.counterparty() : entry.account();
+                String otherName = playerService.getPlayerName(other).orElse(other.toString());
+                detail = sent ? "-" + amount + " to " + otherName : "+" + amount + " from " + otherName;
+                balance = sent ? entry.balance() : entry.counterpartyBalance();
+            }
+        }
+        return "  #" + entry.txid() + " " + time + " " + detail + " -> " + EconomyAPI.format(WalletEngine.toAmount(balance))
+            + " [" + entry.source() + "]";
+    }
+    
+    /**
+     * Resolve the target of an /eco action. Read-only actions (check, history) accept
+     * a unique prefix; actions that change a balance need the exact name or a UUID,
+     * so a shortened name can never land on a different player.
+     */
+    private static UUID findPlayerId(PlayerService playerService, String name, boolean exact) {
+        try {
+            UUID uuid = UUID.fromString(name);
+            if (Universe.get().getPlayer(uuid) != null || playerService.getPlayerName(uuid).isPresent()) {
+                return uuid;
+            }
+            return null;
+        } catch (IllegalArgumentException ignored) {
+            // Not a UUID - look it up by name
+        }
         // Check online players first
         for (PlayerRef p : Universe.get().getPlayers()) {
             if (p.getUsername().equalsIgnoreCase(name)) {
                 return p.getUuid();
             }
         }
-        // Check offline players in cache
-        return playerService.getPlayerByName(name).map(d -> d.getUuid()).orElse(null);
+        // Check offline players in the name index
+        Optional<UUID> found = exact ? playerService.getPlayerIdByName(name) : playerService.resolvePlayerId(name);
+        return found.orElse(null);
     }
     
     /**
@@ -129,9 +219,9 @@ public class HytaleEcoCommand extends CommandBase {
             super("eco");
             this.configManager = configManager;
             this.playerService = playerService;
-            this.actionArg = withRequiredArg("action", "set, add, or remove", ArgTypes.STRING);
-            this.playerArg = withRequiredArg("player", "Player name (online or offline)", ArgTypes.STRING);
-            this.amountArg = withRequiredArg("amount", "Amount of currency", ArgTypes.DOUBLE);
+            this.actionArg = withRequiredArg("action", "set, add, remove, or history", ArgTypes.STRING);
+            this.playerArg = withRequiredArg("player", "Exact player name or UUID (online or offline)", ArgTypes.STRING);
+            this.amountArg = withRequiredArg("amount", "Amount of currency (entry count for history)", ArgTypes.DOUBLE);
         }
         
         @Override
@@ -158,9 +248,20 @@ public class HytaleEcoCommand extends CommandBase {
             String playerName = ctx.get(playerArg);
             double amount = ctx.get(amountArg);
             
+            if (action.equals("history")) {
+                UUID targetId = findPlayerId(playerService, playerName, false);
+                if (targetId == null) {
+                    ctx.sendMessage(MessageFormatter.formatWithFallback(
+                        configManager.getMessage("playerNotFound", "player", playerName), "#FF5555"));
+                    return;
+                }
+                sendHistory(ctx, playerService, targetId, playerName, (int) Math.max(1, Math.min(MAX_HISTORY, amount)));
+                return;
+            }
+            
             // Validate action
             if (!action.equals("set") && !action.equals("add") && !action.equals("remove")) {
-                ctx.sendMessage(Message.raw("Invalid action. Use: set, add, remove, or check").color("#FF5555"));
+                ctx.sendMessage(Message.raw("Invalid action. Use: set, add, remove, check, or history").color("#FF5555"));
                 return;
             }
             
@@ -174,16 +275,20 @@ public class HytaleEcoCommand extends CommandBase {
                 return;
             }
             
-            UUID targetId = findPlayerId(playerName);
+            UUID targetId = findPlayerId(playerService, playerName, true);
             if (targetId == null) {
-                ctx.sendMessage(MessageFormatter.formatWithFallback(
-                    configManager.getMessage("playerNotFound", "player", playerName), "#FF5555"));
+                if (playerService.resolvePlayerId(playerName).isPresent()) {
+                    ctx.sendMessage(Message.raw("Use the player's full name or UUID to change a balance.").color("#FF5555"));
+                } else {
+                    ctx.sendMessage(MessageFormatter.formatWithFallback(
+                        configManager.getMessage("playerNotFound", "player", playerName), "#FF5555"));
+                }
                 return;
             }
             
             switch (action) {
                 case "set" -> {
-                    if (playerService.setBalance(targetId, amount)) {
+                    if (playerService.setBalance(targetId, amount, "/eco")) {
                         ctx.sendMessage(MessageFormatter.formatWithFallback(
                             configManager.getMessage("walletSet",
                                 "player", playerName,
@@ -194,7 +299,7 @@ public class HytaleEcoCommand extends CommandBase {
                     }
                 }
                 case "add" -> {
-                    if (playerService.addMoney(targetId, amount)) {
+                    if (playerService.addMoney(targetId, amount, "/eco")) {
                         double newBalance = playerService.getBalance(targetId);
                         ctx.sendMessage(MessageFormatter.formatWithFallback(
                             configManager.getMessage("walletAdded",
@@ -206,7 +311,7 @@ public class HytaleEcoCommand extends CommandBase {
                     }
                 }
                 case "remove" -> {
-                    if (playerService.removeMoney(targetId, amount)) {
+                    if (playerService.removeMoney(targetId, amount, "/eco")) {
                         double newBalance = playerService.getBalance(targetId);
                         ctx.sendMessage(MessageFormatter.formatWithFallback(
                             configManager.getMessage("walletRemoved",
@@ -220,14 +325,5 @@ public class HytaleEcoCommand extends CommandBase {
                 }
             }
         }
-        
-        private UUID findPlayerId(String name) {
-            for (PlayerRef p : Universe.get().getPlayers()) {
-                if (p.getUsername().equalsIgnoreCase(name)) {
-                    return p.getUuid();
-                }
-            }
-            return playerService.getPlayerByName(name).map(d -> d.getUuid()).orElse(null);
-        }
     }
 }
@@ -1,5 +1,6 @@
 package com.eliteessentials.commands.hytale;
 
+import com.eliteessentials.EliteEssentials;
 import com.eliteessentials.config.ConfigManager;
 import com.eliteessentials.permissions.Permissions;
 import com.eliteessentials.services.MessageService;
@@ -10,11 +11,9 @@ import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
 import com.hypixel.hytale.server.core.command.system.basecommands.AbstractPlayerCommand;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
-import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 
-import java.util.List;
 import java.util.UUID;
 
 import javax.annotation.Nonnull;
@@ -111,15 +110,9 @@ public class HytaleMsgCommand extends AbstractPlayerCommand {
     }
 
     /**
-     * Find a player by name (case-insensitive).
+     * Find an online player by full or partial name (case-insensitive).
      */
     private PlayerRef findPlayer(String name) {
-        List<PlayerRef> players = Universe.get().getPlayers();
-        for (PlayerRef p : players) {
-            if (p.getUsername().equalsIgnoreCase(name)) {
-                return p;
-            }
-        }
-        return null;
+        return EliteEssentials.getInstance().getPlayerService().findOnlinePlayer(name);
     }
 }
@@ -118,8 +118,8 @@ public class HytalePayCommand extends AbstractPlayerCommand {
             return;
         }
         
-        // Perform transfer
-        if (EconomyAPI.transfer(senderId, targetId, amount)) {
+        // Perform transfer (atomic - the balance check above is only for the message)
+        if (playerService.transfer(senderId, targetId, amount, "/pay")) {
             // Notify sender
             ctx.sendMessage(MessageFormatter.formatWithFallback(
                 configManager.getMessage("paySent", 
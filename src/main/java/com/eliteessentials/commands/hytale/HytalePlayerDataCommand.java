@@ -0,0 +1,106 @@
+package com.eliteessentials.commands.hytale;
+
+import com.eliteessentials.EliteEssentials;
+import com.eliteessentials.permissions.PermissionService;
+import com.eliteessentials.permissions.Permissions;
+import com.eliteessentials.storage.PlayerFileStorage;
+import com.eliteessentials.util.MessageFormatter;
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.arguments.system.RequiredArg;
+import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
+import com.hypixel.hytale.server.core.command.system.basecommands.CommandBase;
+
+import java.io.File;
+import java.util.UUID;
+import javax.annotation.Nonnull;
+
+/**
+ * Command: /eeplayerdata <export|import> <player>
+ * Converts a player's data file to/from JSON for manual editing.
+ * Mostly useful when storage.format is "binary" or storage.backend is "h2".
+ *
+ * Usage:
+ * - /eeplayerdata export <player> - Write player_exports/{uuid}.json
+ * - /eeplayerdata import <player> - Replace the player's data with player_exports/{uuid}.json
+ *
+ * Import only works while the player is offline.
+ *
+ * Permissions:
+ * - Admin only (simple mode)
+ * - eliteessentials.admin.reload (advanced mode)
+ */
+public class HytalePlayerDataCommand extends CommandBase {
+
+    private final PlayerFileStorage storage;
+    private final RequiredArg<String> actionArg;
+    private final RequiredArg<String> playerArg;
+
+    public HytalePlayerDataCommand(PlayerFileStorage storage) {
+        super("eeplayerdata", "Export or import player data as JSON");
+        this.storage = storage;
+
+        this.actionArg = withRequiredArg("action", "export or import", ArgTypes.STRING);
+        this.playerArg = withRequiredArg("player", "Player name (online or offline)", ArgTypes.STRING);
+    }
+
+    @Override
+    protected boolean canGeneratePermission() {
+        return false;
+    }
+
+    @Override
+    protected void executeSync(@Nonnull CommandContext ctx) {
+        // Check admin permission
+        PermissionService perms = PermissionService.get();
+        if (!perms.canUseAdminCommand(ctx.sender(), Permissions.ADMIN_RELOAD, true)) {
+            ctx.sendMessage(MessageFormatter.formatWithFallback(
+                EliteEssentials.getInstance().getConfigManager().getMessage("noPermission"), "#FF5555"));
+            return;
+        }
+
+        String action = ctx.get(actionArg).toLowerCase();
+        String playerName = ctx.get(playerArg);
+
+        UUID uuid = storage.getUuidByName(playerName).orElse(null);
+        if (uuid == null) {
+            ctx.sendMessage(Message.raw("No player data found for '" + playerName + "'.").color("#FF5555"));
+            return;
+        }
+
+        switch (action) {
+            case "export" -> handleExport(ctx, playerName, uuid);
+            case "import" -> handleImport(ctx, playerName, uuid);
+            default -> ctx.sendMessage(Message.raw("Usage: /eeplayerdata <export|import> <player>").color("#FFAA00"));
+        }
+    }
+
+    private void handleExport(CommandContext ctx, String playerName, UUID uuid) {
+        try {
+            File file = storage.exportJson(uuid);
+            if (file == null) {
+                ctx.sendMessage(Message.raw("No player data found for '" + playerName + "'.").color("#FF5555"));
+                return;
+            }
+            ctx.sendMessage(Message.raw("Exported " + playerName + " to " + file.getPath()).color("#55FF55"));
+            ctx.sendMessage(Message.raw("Edit the file, then run /eeplayerdata import " + playerName + " while they are offline.").color("#AAAAAA"));
+        } catch (Exception e) {
+            ctx.sendMessage(Message.raw("Export failed: " + e.getMessage()).color("#FF5555"));
+        }
+    }
+
+    private void handleImport(CommandContext ctx, String playerName, UUID uuid) {
+        try {
+            if (storage.importJson(uuid) == null) {
+                ctx.sendMessage(Message.raw("No export found. Expected: "
+                    + new File(storage.getExportFolder(), uuid + ".json").getPath()).color("#FF5555"));
+                return;
+            }
+            ctx.sendMessage(Message.raw("Imported " + playerName + " (saved to " + storage.describeStore() + ").").color("#55FF55"));
+        } catch (IllegalStateException e) {
+            ctx.sendMessage(Message.raw(playerName + " is online. Imports only work for offline players.").color("#FF5555"));
+        } catch (Exception e) {
+            ctx.sendMessage(Message.raw("Import failed: " + e.getMessage()).color("#FF5555"));
+        }
+    }
+}
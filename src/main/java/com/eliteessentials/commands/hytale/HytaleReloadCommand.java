@@ -3,9 +3,13 @@ package com.eliteessentials.commands.hytale;
 import com.eliteessentials.EliteEssentials;
 import com.eliteessentials.commands.args.SimpleStringArg;
 import com.eliteessentials.config.ConfigManager;
+import com.eliteessentials.permissions.PermissionCache;
 import com.eliteessentials.permissions.PermissionService;
 import com.eliteessentials.permissions.Permissions;
 import com.eliteessentials.services.EssentialsCoreMigrationService;
+import com.eliteessentials.services.SchedulerService;
+import com.eliteessentials.storage.EconomyLedger;
+import com.eliteessentials.storage.PlayerFileStorage;
 import com.eliteessentials.util.MessageFormatter;
 import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
@@ -20,6 +24,7 @@ import javax.annotation.Nonnull;
  * 
  * Actions:
  * - reload: Reload configuration
+ * - stats: Show storage, cache and scheduler statistics
  * - migration essentialscore: Migrate data from nhulston's EssentialsCore
  * 
  * Permissions:
@@ -38,7 +43,7 @@ public class HytaleReloadCommand extends CommandBase {
         
         // Permission check handled in executeSync()
         
-        this.actionArg = withRequiredArg("action", "Action to perform (reload, migration)", SimpleStringArg.ACTION);
+        this.actionArg = withRequiredArg("action", "Action to perform (reload, stats, migration)", SimpleStringArg.ACTION);
     }
 
     @Override
@@ -59,6 +64,8 @@ public class HytaleReloadCommand extends CommandBase {
         
         if ("reload".equalsIgnoreCase(action)) {
             handleReload(ctx);
+        } else if ("stats".equalsIgnoreCase(action)) {
+            handleStats(ctx);
         } else if ("migration".equalsIgnoreCase(action)) {
             ctx.sendMessage(Message.raw("Usage: /eemigration <essentialscore|hyssentials|essentialsplus|homesplus>").color("#FFAA00"));
             ctx.sendMessage(Message.raw("  essentialscore - Import warps, kits, and homes from nhulston's EssentialsCore").color("#AAAAAA"));
@@ -66,7 +73,67 @@ public class HytaleReloadCommand extends CommandBase {
             ctx.sendMessage(Message.raw("  essentialsplus - Import warps, kits, and homes from fof1092's EssentialsPlus").color("#AAAAAA"));
             ctx.sendMessage(Message.raw("  homesplus - Import homes from HomesPlus").color("#AAAAAA"));
         } else {
-            ctx.sendMessage(Message.raw("Unknown action. Available: reload, migration").color("#FF5555"));
+            ctx.sendMessage(Message.raw("Unknown action. Available: reload, stats, migration").color("#FF5555"));
+        }
+    }
+    
+    private void handleStats(CommandContext ctx) {
+        PlayerFileStorage storage = EliteEssentials.getInstance().getPlayerFileStorage();
+        
+        ctx.sendMessage(Message.raw("=== EliteEssentials Stats ===").color("#55FFFF"));
+        
+        PlayerFileStorage.FlushStats flush = storage.getFlushStats();
+        ctx.sendMessage(Message.raw("Player saves: " + (flush.writeBehind() ? "write-behind" : "synchronous")
+                + " | queued: " + flush.queueDepth()).color("#FFFFFF"));
+        ctx.sendMessage(Message.raw(String.format("  flushes: %d | files written: %d | last batch: %d",
+                flush.flushes(), flush.filesWritten(), flush.lastBatchSize())).color("#AAAAAA"));
+        ctx.sendMessage(Message.raw(String.format("  flush latency: last %.2fms | avg %.2fms | max %.2fms",
+                flush.lastFlushMs(), flush.avgFlushMs(), flush.maxFlushMs())).color("#AAAAAA"));
+        
+        PlayerFileStorage.CacheStats cache = storage.getCacheStats();
+        ctx.sendMessage(Message.raw("Player cache: " + cache.onlineEntries() + " online | "
+                + cache.offlineEntries() + "/" + cache.offlineCapacity() + " offline").color("#FFFFFF"));
+        ctx.sendMessage(Message.raw(String.format("  hits: %d | misses: %d | hit ratio: %.1f%% | evictions: %d | write-backs: %d",
+                cache.hits(), cache.misses(), cache.hitRatio() * 100, cache.evictions(), cache.writeBacks())).color("#AAAAAA"));
+        ctx.sendMessage(Message.raw("  uncached scalar reads: " + cache.scalarReads()).color("#AAAAAA"));
+        
+        PlayerFileStorage.PrefetchStats prefetch = storage.getPrefetchStats();
+        ctx.sendMessage(Message.raw("Join prefetch: " + (prefetch.enabled() ? "enabled" : "disabled")
+                + " | in flight: " + prefetch.inFlight()).color("#FFFFFF"));
+        ctx.sendMessage(Message.raw(String.format("  prefetches: %d | joins that waited: %d | timeouts: %d",
+                prefetch.prefetches(), prefetch.waits(), prefetch.timeouts())).color("#AAAAAA"));
+        
+        PlayerFileStorage.JournalStats journal = storage.getJournalStats();
+        ctx.sendMessage(Message.raw("Player journal: " + (journal.enabled() ? "enabled" : "disabled")
+                + " | size: " + (journal.sizeBytes() / 1024) + "KB").color("#FFFFFF"));
+        ctx.sendMessage(Message.raw(String.format("  appends: %d | compactions: %d | last: %d players in %.2fms",
+                journal.appends(), journal.compactions(), journal.lastCompactionPlayers(), journal.lastCompactionMs())).color("#AAAAAA"));
+        
+        PermissionCache.Stats permissions = PermissionService.get().getCache().getStats();
+        ctx.sendMessage(Message.raw("Permission cache: " + (permissions.enabled() ? "enabled" : "disabled (needs LuckPerms)")
+                + " | players: " + permissions.players()).color("#FFFFFF"));
+        ctx.sendMessage(Message.raw(String.format("  hits: %d | misses: %d | hit ratio: %.1f%% | invalidations: %d player, %d full",
+                permissions.hits(), permissions.misses(), permissions.hitRatio() * 100,
+                permissions.playerInvalidations(), permissions.fullInvalidations())).color("#AAAAAA"));
+        
+        EconomyLedger ledger = EliteEssentials.getInstance().getPlayerService().getLedger();
+        if (ledger != null) {
+            EconomyLedger.LedgerStats stats = ledger.getStats();
+            ctx.sendMessage(Message.raw("Economy ledger: last txid " + stats.lastTxid() + " | queued: " + stats.queued()
+                    + " | segments: " + stats.segments()).color("#FFFFFF"));
+            ctx.sendMessage(Message.raw(String.format("  written: %d | batches: %d (%.1f per batch) | fsyncs: %d",
+                    stats.written(), stats.batches(), stats.entriesPerBatch(), stats.syncs())).color("#AAAAAA"));
+            if (stats.lastError() != null) {
+                ctx.sendMessage(Message.raw("  write failures: " + stats.writeFailures()
+                        + " | failing: " + stats.lastError()).color("#FF5555"));
+            }
+        }
+        
+        SchedulerService scheduler = EliteEssentials.getInstance().getScheduler();
+        ctx.sendMessage(Message.raw("Scheduler: " + scheduler.getQueuedTasks() + " queued tasks").color("#FFFFFF"));
+        for (SchedulerService.TaskStats task : scheduler.getStats()) {
+            ctx.sendMessage(Message.raw(String.format("  %s: %d runs | avg %.2fms | max %.2fms | overruns: %d | failures: %d",
+                    task.name(), task.runs(), task.avgMs(), task.maxMs(), task.overruns(), task.failures())).color("#AAAAAA"));
         }
     }
     
@@ -87,6 +154,7 @@ public class HytaleReloadCommand extends CommandBase {
         
         try {
             EliteEssentials.getInstance().reloadConfig();
+            PermissionService.get().getCache().invalidateAll();
             ctx.sendMessage(Message.raw("EliteEssentials configuration reloaded!").color("#55FF55"));
             
             // Retry external economy detection if configured
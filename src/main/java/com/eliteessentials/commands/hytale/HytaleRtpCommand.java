@@ -7,6 +7,7 @@ import com.eliteessentials.permissions.Permissions;
 import com.eliteessentials.permissions.PermissionService;
 import com.eliteessentials.services.BackService;
 import com.eliteessentials.services.RtpService;
+import com.eliteessentials.services.SchedulerService;
 import com.eliteessentials.services.WarmupService;
 import com.eliteessentials.util.CommandPermissionUtil;
 import com.eliteessentials.util.MessageFormatter;
@@ -35,8 +36,6 @@ import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import java.lang.reflect.Method;
 import java.util.UUID;
 import java.util.Random;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
@@ -62,20 +61,22 @@ import javax.annotation.Nonnull;
 public class HytaleRtpCommand extends CommandBase {
 
     private static final Logger logger = Logger.getLogger("EliteEssentials");
-    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
     private static final String COMMAND_NAME = "rtp";
     
     private final RtpService rtpService;
     private final BackService backService;
     private final ConfigManager configManager;
     private final WarmupService warmupService;
+    private final SchedulerService scheduler;
 
-    public HytaleRtpCommand(RtpService rtpService, BackService backService, ConfigManager configManager, WarmupService warmupService) {
+    public HytaleRtpCommand(RtpService rtpService, BackService backService, ConfigManager configManager,
+                            WarmupService warmupService, SchedulerService scheduler) {
         super(COMMAND_NAME, "Teleport to a random location");
         this.rtpService = rtpService;
         this.backService = backService;
         this.configManager = configManager;
         this.warmupService = warmupService;
+        this.scheduler = scheduler;
         
         setAllowsExtraArguments(true);
     }
@@ -170,12 +171,6 @@ public class HytaleRtpCommand extends CommandBase {
         
         UUID playerId = targetPlayer.getUuid();
         
-        // Register player for death tracking
-        com.eliteessentials.EliteEssentials plugin = com.eliteessentials.EliteEssentials.getInstance();
-        if (plugin != null && plugin.getDeathTrackingService() != null) {
-            plugin.getDeathTrackingService().trackPlayer(playerId);
-        }
-        
         // Permission check for self-RTP (with cost)
         if (isSelfRtp) {
             if (!CommandPermissionUtil.canExecuteWithCost(ctx, targetPlayer, Permissions.RTP, 
@@ -627,24 +622,22 @@ public class HytaleRtpCommand extends CommandBase {
             
             // Capture playerId for fresh ref lookup - avoids stale ref after rapid teleports
             final UUID targetPlayerId = playerId;
-            scheduler.schedule(() -> {
-                world.execute(() -> {
-                    try {
-                        // Get fresh player ref - original ref may be stale after teleport
-                        PlayerRef freshPlayer = findPlayerByUuid(targetPlayerId);
-                        if (freshPlayer == null) return;
-                        
-                        Ref<EntityStore> freshRef = freshPlayer.getReference();
-                        if (freshRef == null || !freshRef.isValid()) return;
-                        
-                        Store<EntityStore> freshStore = freshRef.getStore();
-                        if (freshStore == null) return;
-                        
-                        freshStore.removeComponent(freshRef, Invulnerable.getComponentType());
-                    } catch (Exception e) {
-                        // Player may have logged out or changed worlds - safe to ignore
-                    }
-                });
+            scheduler.scheduleOnWorld("rtp.invulnerability", world, () -> {
+                try {
+                    // Get fresh player ref - original ref may be stale after teleport
+                    PlayerRef freshPlayer = findPlayerByUuid(targetPlayerId);
+                    if (freshPlayer == null) return;
+                    
+                    Ref<EntityStore> freshRef = freshPlayer.getReference();
+                    if (freshRef == null || !freshRef.isValid()) return;
+                    
+                    Store<EntityStore> freshStore = freshRef.getStore();
+                    if (freshStore == null) return;
+                    
+                    freshStore.removeComponent(freshRef, Invulnerable.getComponentType());
+                } catch (Exception e) {
+                    // Player may have logged out or changed worlds - safe to ignore
+                }
             }, invulnerabilitySeconds, TimeUnit.SECONDS);
         }
         
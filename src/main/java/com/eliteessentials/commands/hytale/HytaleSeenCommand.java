@@ -1,7 +1,7 @@
 package com.eliteessentials.commands.hytale;
 
 import com.eliteessentials.config.ConfigManager;
-import com.eliteessentials.model.PlayerFile;
+import com.eliteessentials.model.PlayerSummary;
 import com.eliteessentials.permissions.Permissions;
 import com.eliteessentials.services.PlayerService;
 import com.eliteessentials.util.CommandPermissionUtil;
@@ -70,8 +70,8 @@ public class HytaleSeenCommand extends AbstractPlayerCommand {
             }
         }
         
-        // Look up in player cache
-        Optional<PlayerFile> dataOpt = playerService.getPlayerByName(targetName);
+        // Look up in the player stats index (doesn't load the player's file)
+        Optional<PlayerSummary> dataOpt = playerService.getSummaryByName(targetName);
         
         if (dataOpt.isEmpty()) {
             ctx.sendMessage(MessageFormatter.formatWithFallback(
@@ -79,13 +79,13 @@ public class HytaleSeenCommand extends AbstractPlayerCommand {
             return;
         }
         
-        PlayerFile data = dataOpt.get();
-        long lastSeen = data.getLastSeen();
+        PlayerSummary data = dataOpt.get();
+        long lastSeen = data.lastSeen();
         String relativeTime = formatRelativeTime(lastSeen);
         
         ctx.sendMessage(MessageFormatter.formatWithFallback(
             configManager.getMessage("seenLastSeen", 
-                "player", data.getName(),
+                "player", data.name(),
                 "time", relativeTime), "#AAAAAA"));
     }
     
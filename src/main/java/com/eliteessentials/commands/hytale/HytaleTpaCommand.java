@@ -17,12 +17,10 @@ import com.hypixel.hytale.server.core.command.system.arguments.system.RequiredAr
 import com.hypixel.hytale.server.core.command.system.basecommands.AbstractPlayerCommand;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
-import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import com.eliteessentials.gui.TpaSelectionPage;
 
-import java.util.List;
 import java.util.UUID;
 
 import javax.annotation.Nonnull;
@@ -72,21 +70,18 @@ public class HytaleTpaCommand extends AbstractPlayerCommand {
     }
     
     /**
-     * Find a player by name (case-insensitive).
+     * Find an online player by full or partial name (case-insensitive).
      */
     private PlayerRef findPlayer(String name, PlayerRef requester) {
+        PlayerRef p = EliteEssentials.getInstance().getPlayerService().findOnlinePlayer(name);
+        if (p == null) {
+            return null;
+        }
         VanishService vanishService = EliteEssentials.getInstance().getVanishService();
-        boolean canSeeVanished = canSeeVanishedPlayers(requester);
-        List<PlayerRef> players = Universe.get().getPlayers();
-        for (PlayerRef p : players) {
-            if (p.getUsername().equalsIgnoreCase(name)) {
-                if (vanishService != null && vanishService.isVanished(p.getUuid()) && !canSeeVanished) {
-                    return null;
-                }
-                return p;
-            }
+        if (vanishService != null && vanishService.isVanished(p.getUuid()) && !canSeeVanishedPlayers(requester)) {
+            return null;
         }
-        return null;
+        return p;
     }
 
     private boolean canSeeVanishedPlayers(PlayerRef requester) {
@@ -20,11 +20,9 @@ import com.hypixel.hytale.server.core.modules.entity.component.HeadRotation;
 import com.hypixel.hytale.server.core.modules.entity.component.TransformComponent;
 import com.hypixel.hytale.server.core.modules.entity.teleport.Teleport;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
-import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 
-import java.util.List;
 
 import javax.annotation.Nonnull;
 
@@ -158,15 +156,9 @@ public class HytaleTphereCommand extends AbstractPlayerCommand {
     }
     
     /**
-     * Find a player by name (case-insensitive).
+     * Find an online player by full or partial name (case-insensitive).
      */
     private PlayerRef findPlayer(String name) {
-        List<PlayerRef> players = Universe.get().getPlayers();
-        for (PlayerRef p : players) {
-            if (p.getUsername().equalsIgnoreCase(name)) {
-                return p;
-            }
-        }
-        return null;
+        return EliteEssentials.getInstance().getPlayerService().findOnlinePlayer(name);
     }
 }
@@ -212,7 +212,7 @@ public class HytaleWalletCommand extends AbstractPlayerCommand {
             
             switch (action) {
                 case "set" -> {
-                    if (playerService.setBalance(targetId, amount)) {
+                    if (playerService.setBalance(targetId, amount, "/wallet")) {
                         ctx.sendMessage(MessageFormatter.formatWithFallback(
                             configManager.getMessage("walletSet",
                                 "player", targetName,
@@ -223,7 +223,7 @@ public class HytaleWalletCommand extends AbstractPlayerCommand {
                     }
                 }
                 case "add" -> {
-                    if (playerService.addMoney(targetId, amount)) {
+                    if (playerService.addMoney(targetId, amount, "/wallet")) {
                         double newBalance = playerService.getBalance(targetId);
                         ctx.sendMessage(MessageFormatter.formatWithFallback(
                             configManager.getMessage("walletAdded",
@@ -235,7 +235,7 @@ public class HytaleWalletCommand extends AbstractPlayerCommand {
                     }
                 }
                 case "remove" -> {
-                    if (playerService.removeMoney(targetId, amount)) {
+                    if (playerService.removeMoney(targetId, amount, "/wallet")) {
                         double newBalance = playerService.getBalance(targetId);
                         ctx.sendMessage(MessageFormatter.formatWithFallback(
                             configManager.getMessage("walletRemoved",
@@ -261,7 +261,7 @@ public class HytaleWalletCommand extends AbstractPlayerCommand {
                 return p.getUuid();
             }
         }
-        // Check offline players in cache
-        return playerService.getPlayerByName(name).map(d -> d.getUuid()).orElse(null);
+        // Check offline players (full or partial name) in the name index
+        return playerService.resolvePlayerId(name).orElse(null);
     }
 }
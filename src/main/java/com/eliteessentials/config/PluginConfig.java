@@ -103,6 +103,8 @@ public class PluginConfig {
         messages.put("tpaRequestFailed", "&cCould not send teleport request.");
         messages.put("tpaNoPending", "&cYou have no pending teleport requests.");
         messages.put("tpaExpired", "&cTeleport request has expired.");
+        messages.put("tpaExpiredRequester", "&cYour teleport request to &f{player} &chas expired.");
+        messages.put("tpaExpiredTarget", "&cTeleport request from &f{player} &chas expired.");
         messages.put("tpaPlayerOffline", "&c{player} is no longer online.");
         messages.put("tpaAccepted", "&aTeleport request accepted! &f{player} &awill teleport to you shortly.");
         messages.put("tpaAcceptedRequester", "&a{player} accepted your teleport request!");
@@ -331,6 +333,7 @@ public class PluginConfig {
         messages.put("costInsufficientFunds", "&cInsufficient funds. Cost: &e{cost} {currency}&c, Balance: &e{balance} {currency}");
         messages.put("costFailed", "&cFailed to process payment.");
         messages.put("baltopYourBalance", "&7Your balance: &a{balance}");
+        messages.put("baltopYourRank", "&7Your rank: &e#{rank}");
         messages.put("baltopEmpty", "&cNo player data found.");
         
         // ==================== MAIL ====================
@@ -1114,6 +1117,28 @@ public class PluginConfig {
          * useExternalEconomy takes precedence (we consume, not provide).
          */
         public boolean useExternalEconomy = false;
+        
+        // ==================== TRANSACTION LEDGER ====================
+        
+        /**
+         * Record every wallet change (amount, resulting balance, source plugin or command)
+         * in an append-only ledger in data/ledger, viewable with /eco history.
+         * Changes are queued and written in batches by a background thread.
+         * Read at startup only.
+         */
+        public boolean ledger = true;
+        
+        /**
+         * How often (in milliseconds) ledger writes are fsynced.
+         * 0 = after every batch written (group commit).
+         */
+        public int ledgerFsyncIntervalMs = 0;
+        
+        /** Start a new ledger segment file once the current one reaches this size (in KB) */
+        public int ledgerSegmentSizeKb = 4096;
+        
+        /** Number of ledger segment files kept; older ones are deleted */
+        public int ledgerKeepSegments = 8;
     }
     
     // ==================== MAIL ====================
@@ -1187,4 +1212,105 @@ public class PluginConfig {
          */
         public long enabledTimestamp = 0;
     }
+    
+    // ==================== STORAGE ====================
+    
+    public StorageConfig storage = new StorageConfig();
+    
+    public static class StorageConfig {
+        /**
+         * Where player data is stored (read at startup, requires a restart).
+         * "file": one file per player in data/players (default, see format below).
+         * "h2": embedded H2 database in data/playerdata.mv.db with indexed name,
+         *   wallet, play time and last seen columns. On first start with an empty
+         *   database, existing player files are imported (and left in place).
+         */
+        public String backend = "file";
+        
+        /** Number of pooled database connections (h2 backend only) */
+        public int databasePoolSize = 4;
+        
+        /**
+         * On-disk format for player files (file backend only).
+         * "json": players/ab/cd/{uuid}.json, human-readable (default).
+         * "binary": players/ab/cd/{uuid}.dat, compact and faster to save/load.
+         * Switching converts each player the next time their file is saved.
+         * Use /eeplayerdata export|import to edit binary player files by hand.
+         */
+        public String format = "json";
+        
+        /**
+         * Write-behind mode for player files.
+         * When true: changes (wallet, homes, kits, mail...) only mark the player dirty and
+         * a background thread writes dirty players in batches.
+         * When false: every change rewrites the player file immediately on the calling thread.
+         * Players are always flushed on disconnect and on server shutdown.
+         * A crash with this on loses up to flushIntervalMs of changes that the player
+         * journal doesn't cover (homes, kit claims, mail), so it is opt-in.
+         */
+        public boolean writeBehind = false;
+        
+        /** How often (in milliseconds) dirty player files are flushed to disk */
+        public int flushIntervalMs = 2000;
+        
+        /**
+         * Flush early once this many players are waiting to be written,
+         * instead of waiting for the next interval.
+         */
+        public int maxFlushBatchSize = 256;
+        
+        /**
+         * Maximum number of offline players kept in memory after a lookup
+         * (eco targets, mail recipients, balance checks from other plugins).
+         * Online players are always kept and don't count towards this limit.
+         */
+        public int offlineCacheSize = 500;
+        
+        /** Seconds an offline player stays cached after its last access */
+        public int offlineCacheTtlSeconds = 300;
+        
+        /**
+         * Append-only journal for wallet, play time, last seen and vanish changes.
+         * When true: these changes append a small record to player_journal.log instead of
+         * rewriting the whole player file, and the journal is periodically compacted
+         * into the player files. A journal left by a crash is replayed on startup.
+         */
+        public boolean journal = true;
+        
+        /**
+         * How often (in milliseconds) journal appends are fsynced to disk.
+         * 0 = fsync on every change (safest, slowest).
+         */
+        public int journalFsyncIntervalMs = 1000;
+        
+        /** How often (in seconds) the journal is compacted into the player files */
+        public int journalCompactIntervalSeconds = 60;
+        
+        /** Compact early once the journal grows past this size (in KB) */
+        public int journalMaxSizeKb = 4096;
+        
+        /**
+         * Load player data on a background thread as soon as a player connects,
+         * so it is already in memory when they finish loading into a world.
+         * When false: player data is loaded on the world thread during join.
+         */
+        public boolean prefetchOnConnect = true;
+        
+        /**
+         * Maximum time (in milliseconds) the join handler waits for a prefetch that
+         * hasn't finished yet before loading the player data itself.
+         */
+        public int prefetchTimeoutMs = 2000;
+        
+        /**
+         * Save running cooldowns (commands, /rtp, kits, mail) to cooldowns.dat every minute
+         * and on shutdown, and restore them on startup.
+         * Kit cooldowns of at least cooldownPersistMinSeconds are also kept in the player
+         * file, so they survive a restart even with this disabled.
+         */
+        public boolean persistCooldowns = true;
+        
+        /** Only cooldowns with at least this many seconds left are saved */
+        public int cooldownPersistMinSeconds = 60;
+    }
 }
@@ -76,8 +76,7 @@ public class StarterKitEvent {
             }
             
             // Check if player file exists on disk
-            java.io.File playerFile = new java.io.File(playerFileStorage.getPlayersFolder(), uuid.toString() + ".json");
-            boolean isNewPlayer = !playerFile.exists();
+            boolean isNewPlayer = !playerFileStorage.hasPlayerFile(uuid);
             
             if (!isNewPlayer) {
                 logger.info("Player " + username + " has joined before, skipping starter kit");
@@ -9,12 +9,19 @@ import org.jetbrains.annotations.NotNull;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 /**
  * EliteEssentials implementation of the VaultUnlocked Economy interface.
  * This allows other plugins to interact with EliteEssentials economy through VaultUnlocked.
  * 
+ * The interface methods are synchronous and may be called on a world thread, so
+ * they never block on disk: they work on players in memory (online or recently
+ * seen), read other balances from the leaderboard index, queue deposits to
+ * other players, and fail withdrawals from them. The *Async methods work with
+ * any account on EliteEssentials' economy thread.
+ * 
  * Based on Ecotale's implementation pattern.
  */
 public class EliteEssentialsEconomy implements Economy {
@@ -123,7 +130,7 @@ public class EliteEssentialsEconomy implements Economy {
         }
         
         // Account is created automatically when player joins
-        return playerService.getPlayer(accountID).isPresent();
+        return playerService.hasAccount(accountID);
     }
     
     @Override
@@ -145,12 +152,12 @@ public class EliteEssentialsEconomy implements Economy {
     
     @Override
     public Optional<String> getAccountName(@NotNull UUID accountID) {
-        return playerService.getPlayer(accountID).map(p -> p.getName());
+        return playerService.getPlayerName(accountID);
     }
     
     @Override
     public boolean hasAccount(@NotNull UUID accountID) {
-        return playerService.getPlayer(accountID).isPresent();
+        return playerService.hasAccount(accountID);
     }
     
     @Override
@@ -188,7 +195,7 @@ public class EliteEssentialsEconomy implements Economy {
     @NotNull
     @Override
     public BigDecimal getBalance(@NotNull String pluginName, @NotNull UUID accountID) {
-        return BigDecimal.valueOf(playerService.getBalance(accountID));
+        return BigDecimal.valueOf(playerService.getCachedBalance(accountID));
     }
     
     @NotNull
@@ -205,7 +212,7 @@ public class EliteEssentialsEconomy implements Economy {
     
     @Override
     public boolean has(@NotNull String pluginName, @NotNull UUID accountID, @NotNull BigDecimal amount) {
-        double balance = playerService.getBalance(accountID);
+        double balance = playerService.getCachedBalance(accountID);
         return balance >= amount.doubleValue();
     }
     
@@ -222,6 +229,10 @@ public class EliteEssentialsEconomy implements Economy {
     @NotNull
     @Override
     public EconomyResponse withdraw(@NotNull String pluginName, @NotNull UUID accountID, @NotNull BigDecimal amount) {
+        return withdraw(pluginName, accountID, amount, false);
+    }
+    
+    private EconomyResponse withdraw(String pluginName, UUID accountID, BigDecimal amount, boolean load) {
         if (amount.compareTo(BigDecimal.ZERO) < 0) {
             return new EconomyResponse(
                 BigDecimal.ZERO,
@@ -231,29 +242,40 @@ public class EliteEssentialsEconomy implements Economy {
             );
         }
         
-        double balance = playerService.getBalance(accountID);
-        if (balance < amount.doubleValue()) {
+        // The funds check and the withdrawal happen atomically in the wallet engine
+        boolean success = load
+            ? playerService.removeMoney(accountID, amount.doubleValue(), pluginName)
+            : playerService.removeMoneyCached(accountID, amount.doubleValue(), pluginName);
+        if (!success) {
             return new EconomyResponse(
                 BigDecimal.ZERO,
-                BigDecimal.valueOf(balance),
+                getBalance(pluginName, accountID),
                 EconomyResponse.ResponseType.FAILURE,
-                "Insufficient funds"
+                failureMessage(accountID, load, "Insufficient funds")
             );
         }
         
-        boolean success = playerService.removeMoney(accountID, amount.doubleValue());
-        EconomyResponse.ResponseType status = success ? 
-            EconomyResponse.ResponseType.SUCCESS : 
-            EconomyResponse.ResponseType.FAILURE;
-        
         return new EconomyResponse(
             amount,
             getBalance(pluginName, accountID),
-            status,
-            success ? null : "Transaction failed"
+            EconomyResponse.ResponseType.SUCCESS,
+            null
         );
     }
     
+    /**
+     * Why a wallet change failed: no account, not loaded (sync calls only), or the given reason.
+     */
+    private String failureMessage(UUID accountID, boolean load, String reason) {
+        if (!hasAccount(accountID)) {
+            return "Transaction failed";
+        }
+        if (!load && !playerService.isLoaded(accountID)) {
+            return "Account not loaded, use withdrawAsync";
+        }
+        return reason;
+    }
+    
     @NotNull
     @Override
     public EconomyResponse withdraw(@NotNull String pluginName, @NotNull UUID accountID, @NotNull String worldName, @NotNull BigDecimal amount) {
@@ -269,6 +291,10 @@ public class EliteEssentialsEconomy implements Economy {
     @NotNull
     @Override
     public EconomyResponse deposit(@NotNull String pluginName, @NotNull UUID accountID, @NotNull BigDecimal amount) {
+        return deposit(pluginName, accountID, amount, false);
+    }
+    
+    private EconomyResponse deposit(String pluginName, UUID accountID, BigDecimal amount, boolean load) {
         if (amount.compareTo(BigDecimal.ZERO) < 0) {
             return new EconomyResponse(
                 BigDecimal.ZERO,
@@ -278,7 +304,10 @@ public class EliteEssentialsEconomy implements Economy {
             );
         }
         
-        boolean success = playerService.addMoney(accountID, amount.doubleValue());
+        // Deposits to players not in memory are queued, so the balance shown may lag behind
+        boolean success = load
+            ? playerService.addMoney(accountID, amount.doubleValue(), pluginName)
+            : playerService.addMoneyCached(accountID, amount.doubleValue(), pluginName);
         EconomyResponse.ResponseType status = success ? 
             EconomyResponse.ResponseType.SUCCESS : 
             EconomyResponse.ResponseType.FAILURE;
@@ -303,6 +332,105 @@ public class EliteEssentialsEconomy implements Economy {
         return deposit(pluginName, accountID, amount);
     }
     
+    // Async and bulk methods - not part of the Economy interface, for plugins that hold this provider directly
+    
+    /**
+     * Get an account's balance, loading offline players if needed.
+     */
+    @NotNull
+    public CompletableFuture<BigDecimal> getBalanceAsync(@NotNull UUID accountID) {
+        return playerService.supplyAsync(() -> BigDecimal.valueOf(playerService.getBalance(accountID)));
+    }
+    
+    /**
+     * Withdraw from any account, loading offline players if needed.
+     */
+    @NotNull
+    public CompletableFuture<EconomyResponse> withdrawAsync(@NotNull String pluginName, @NotNull UUID accountID, @NotNull BigDecimal amount) {
+        return playerService.supplyAsync(() -> withdraw(pluginName, accountID, amount, true));
+    }
+    
+    /**
+     * Deposit into any account, loading offline players if needed.
+     */
+    @NotNull
+    public CompletableFuture<EconomyResponse> depositAsync(@NotNull String pluginName, @NotNull UUID accountID, @NotNull BigDecimal amount) {
+        return playerService.supplyAsync(() -> deposit(pluginName, accountID, amount, true));
+    }
+    
+    /**
+     * Deposit the same amount into many accounts, saved as one batch.
+     * Each account changes atomically on its own. Accounts not in memory are
+     * paid in the background.
+     */
+    @NotNull
+    public Map<UUID, EconomyResponse> depositAll(@NotNull String pluginName, @NotNull Collection<UUID> accountIDs, @NotNull BigDecimal amount) {
+        if (amount.compareTo(BigDecimal.ZERO) < 0) {
+            return failAll(pluginName, accountIDs, "Cannot deposit negative amount");
+        }
+        return toResponses(pluginName, playerService.addMoneyAllCached(accountIDs, amount.doubleValue(), pluginName), amount, "Transaction failed");
+    }
+    
+    /**
+     * Withdraw the same amount from many accounts, saved as one batch.
+     * Accounts that can't afford it, or aren't in memory, are left unchanged.
+     */
+    @NotNull
+    public Map<UUID, EconomyResponse> withdrawAll(@NotNull String pluginName, @NotNull Collection<UUID> accountIDs, @NotNull BigDecimal amount) {
+        if (amount.compareTo(BigDecimal.ZERO) < 0) {
+            return failAll(pluginName, accountIDs, "Cannot withdraw negative amount");
+        }
+        return toResponses(pluginName, playerService.removeMoneyAllCached(accountIDs, amount.doubleValue(), pluginName), amount, "Insufficient funds");
+    }
+    
+    /**
+     * Take a percentage of every positive balance, online and offline.
+     * Completes with a response (with the amount taken) for each taxed account.
+     */
+    @NotNull
+    public CompletableFuture<Map<UUID, EconomyResponse>> taxAllAsync(@NotNull String pluginName, @NotNull BigDecimal percent) {
+        return playerService.supplyAsync(() -> {
+            Map<UUID, EconomyResponse> responses = new LinkedHashMap<>();
+            for (Map.Entry<UUID, Double> entry : playerService.taxAll(percent.doubleValue(), pluginName).entrySet()) {
+                responses.put(entry.getKey(), new EconomyResponse(
+                    BigDecimal.valueOf(entry.getValue()),
+                    getBalance(pluginName, entry.getKey()),
+                    EconomyResponse.ResponseType.SUCCESS,
+                    null
+                ));
+            }
+            return responses;
+        });
+    }
+    
+    private Map<UUID, EconomyResponse> toResponses(String pluginName, Map<UUID, Boolean> results, BigDecimal amount, String failure) {
+        Map<UUID, EconomyResponse> responses = new LinkedHashMap<>();
+        for (Map.Entry<UUID, Boolean> entry : results.entrySet()) {
+            UUID accountID = entry.getKey();
+            boolean success = entry.getValue();
+            responses.put(accountID, new EconomyResponse(
+                success ? amount : BigDecimal.ZERO,
+                getBalance(pluginName, accountID),
+                success ? EconomyResponse.ResponseType.SUCCESS : EconomyResponse.ResponseType.FAILURE,
+                success ? null : failureMessage(accountID, false, failure)
+            ));
+        }
+        return responses;
+    }
+    
+    private Map<UUID, EconomyResponse> failAll(String pluginName, Collection<UUID> accountIDs, String message) {
+        Map<UUID, EconomyResponse> responses = new LinkedHashMap<>();
+        for (UUID accountID : accountIDs) {
+            responses.putIfAbsent(accountID, new EconomyResponse(
+                BigDecimal.ZERO,
+                getBalance(pluginName, accountID),
+                EconomyResponse.ResponseType.FAILURE,
+                message
+            ));
+        }
+        return responses;
+    }
+    
     // Shared account methods - not supported
     
     @Override
@@ -1,10 +1,20 @@
 package com.eliteessentials.integration;
 
+import com.eliteessentials.integration.luckperms.LuckPermsAdapter;
+import com.eliteessentials.integration.luckperms.NoopLuckPermsAdapter;
+import com.eliteessentials.permissions.PermissionCache;
+import com.eliteessentials.permissions.PermissionService;
 import com.eliteessentials.permissions.Permissions;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.logging.Logger;
 
 /**
@@ -14,12 +24,30 @@ import java.util.logging.Logger;
  * LuckPerms discovers permissions when they are checked at runtime.
  * This class "offers" all our permissions to LuckPerms on startup so they
  * appear in the dropdown immediately without needing to be used first.
+ * 
+ * Player lookups and changes go through a LuckPermsAdapter bound to the
+ * LuckPerms API the first time it is available, so they are direct calls
+ * instead of reflection on every use.
+ * 
+ * Lookups never block on LuckPerms loading a user. Online players are loaded
+ * at join; for a player LuckPerms doesn't have loaded a lookup finds nothing,
+ * starts a load in the background and the next lookup sees the data. Callers
+ * that need an offline player's data use loadUser or the *Async lookups.
  */
 public class LuckPermsIntegration {
 
     private static final Logger logger = Logger.getLogger("EliteEssentials");
     private static boolean registered = false;
     
+    // Minimum time between attempts to bind to LuckPerms while it isn't loaded
+    private static final long BIND_RETRY_MS = 1000;
+    
+    private static volatile LuckPermsAdapter adapter = NoopLuckPermsAdapter.INSTANCE;
+    private static long nextBindAttempt = 0;
+    
+    // Event subscriptions that keep the permission cache in sync
+    private static final List<AutoCloseable> subscriptions = new ArrayList<>();
+    
     private LuckPermsIntegration() {}
     
     /**
@@ -39,6 +67,7 @@ public class LuckPermsIntegration {
                 }
                 
                 if (tryRegisterPermissions()) {
+                    subscribeCacheInvalidation(PermissionService.get().getCache());
                     return; // Success
                 }
             }
@@ -60,12 +89,8 @@ public class LuckPermsIntegration {
         }
         
         try {
-            // Try to get LuckPerms API
-            Class<?> providerClass = Class.forName("net.luckperms.api.LuckPermsProvider");
-            Method getMethod = providerClass.getMethod("get");
-            Object luckPerms = getMethod.invoke(null);
-            
-            if (luckPerms == null) {
+            // LuckPerms not installed or not ready yet
+            if (!isAvailable()) {
                 return false;
             }
             
@@ -85,18 +110,53 @@ public class LuckPermsIntegration {
                 return true;
             }
             
-        } catch (ClassNotFoundException e) {
-            // LuckPerms not installed yet
-            return false;
-        } catch (IllegalStateException e) {
-            // LuckPerms not ready yet
-            return false;
         } catch (Exception e) {
             logger.warning("[LuckPerms] Error registering permissions: " + e.getMessage());
             return false;
         }
     }
     
+    // ==================== CACHE INVALIDATION ====================
+    
+    /**
+     * Subscribe to LuckPerms data recalculation events and enable the permission
+     * cache. A user's recalculation drops that player's cached decisions; a
+     * group's recalculation or a network sync drops everyone's, since any
+     * player may inherit the group. If subscribing fails the cache stays off.
+     */
+    private static synchronized void subscribeCacheInvalidation(PermissionCache cache) {
+        if (!subscriptions.isEmpty()) {
+            return;
+        }
+        try {
+            subscriptions.addAll(adapter().subscribeChanges(cache::invalidate, cache::invalidateAll));
+            if (subscriptions.isEmpty()) {
+                throw new IllegalStateException("LuckPerms is not bound");
+            }
+            
+            cache.setEnabled(true);
+            logger.info("[LuckPerms] Permission decision cache enabled.");
+        } catch (Exception e) {
+            unsubscribeCacheInvalidation();
+            logger.warning("[LuckPerms] Could not subscribe to permission changes, permission cache disabled: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Close the LuckPerms event subscriptions and disable the permission cache (plugin shutdown).
+     */
+    public static synchronized void unsubscribeCacheInvalidation() {
+        PermissionService.get().getCache().setEnabled(false);
+        for (AutoCloseable subscription : subscriptions) {
+            try {
+                subscription.close();
+            } catch (Exception ignored) {
+                // LuckPerms may already be disabled
+            }
+        }
+        subscriptions.clear();
+    }
+    
     /**
      * Try to register permissions via LuckPerms' internal PermissionRegistry.
      */
@@ -351,18 +411,134 @@ public class LuckPermsIntegration {
         return perms;
     }
     
-    // ==================== LUCKPERMS UTILITY METHODS ====================
+    // ==================== ADAPTER BINDING ====================
     
     /**
-     * Check if LuckPerms is available.
+     * The bound LuckPerms adapter, or the no-op adapter while LuckPerms is
+     * absent or not loaded yet. Binding is retried at most once per
+     * BIND_RETRY_MS, so lookups before LuckPerms loads stay cheap.
      */
-    public static boolean isAvailable() {
+    private static LuckPermsAdapter adapter() {
+        LuckPermsAdapter current = adapter;
+        if (current.isAvailable()) {
+            return current;
+        }
+        return bindAdapter();
+    }
+    
+    /**
+     * Resolve the LuckPerms API once and bind an adapter to it. The adapter is
+     * loaded by name so its LuckPerms API references are only resolved when
+     * LuckPerms is actually installed.
+     */
+    private static synchronized LuckPermsAdapter bindAdapter() {
+        if (adapter.isAvailable()) {
+            return adapter;
+        }
+        long now = System.currentTimeMillis();
+        if (now < nextBindAttempt) {
+            return adapter;
+        }
+        nextBindAttempt = now + BIND_RETRY_MS;
+        
         try {
             Class.forName("net.luckperms.api.LuckPermsProvider");
-            return true;
         } catch (ClassNotFoundException e) {
-            return false;
+            // LuckPerms not installed (or not loaded yet)
+            return adapter;
+        }
+        
+        try {
+            adapter = (LuckPermsAdapter) Class.forName("com.eliteessentials.integration.luckperms.BoundLuckPermsAdapter")
+                    .getConstructor().newInstance();
+            logger.info("[LuckPerms] Bound to the LuckPerms API.");
+        } catch (InvocationTargetException e) {
+            if (!(e.getCause() instanceof IllegalStateException)) {
+                logger.warning("[LuckPerms] Could not bind to the LuckPerms API: " + e.getCause());
+            }
+            // IllegalStateException: LuckPerms not ready yet
+        } catch (Exception | LinkageError e) {
+            logger.warning("[LuckPerms] Could not bind to the LuckPerms API: " + e);
+        }
+        return adapter;
+    }
+    
+    /**
+     * The adapter for a lookup of a player's data. If LuckPerms doesn't have the
+     * player loaded the lookup finds nothing this time, and a load is started.
+     */
+    private static LuckPermsAdapter adapterFor(UUID playerId) {
+        LuckPermsAdapter current = adapter();
+        if (current.isAvailable() && !current.isUserLoaded(playerId)) {
+            loadUser(playerId);
+        }
+        return current;
+    }
+    
+    // ==================== USER LOADING ====================
+    
+    /**
+     * Load a player into LuckPerms without blocking (e.g. an offline player).
+     * Once loaded, permission decisions cached while they weren't are dropped.
+     * 
+     * @param playerId Player UUID
+     * @return Future completed (on a LuckPerms thread) with whether the player was loaded
+     */
+    public static CompletableFuture<Boolean> loadUser(UUID playerId) {
+        LuckPermsAdapter current = adapter();
+        if (current.isUserLoaded(playerId)) {
+            return CompletableFuture.completedFuture(true);
         }
+        return current.loadUser(playerId).thenApply(loaded -> {
+            if (loaded) {
+                PermissionService.get().getCache().invalidate(playerId);
+            }
+            return loaded;
+        });
+    }
+    
+    /**
+     * Run a lookup once the player is loaded into LuckPerms.
+     */
+    private static <T> CompletableFuture<T> afterLoad(UUID playerId, Function<UUID, T> lookup) {
+        return loadUser(playerId).thenApply(loaded -> lookup.apply(playerId));
+    }
+    
+    /**
+     * Get all groups for a player, loading them into LuckPerms if needed.
+     * @param playerId Player UUID
+     * @return Future completed (on a LuckPerms thread) with the group names
+     */
+    public static CompletableFuture<List<String>> getGroupsAsync(UUID playerId) {
+        return afterLoad(playerId, LuckPermsIntegration::getGroups);
+    }
+    
+    /**
+     * Get a player's resolved permissions, loading them into LuckPerms if needed.
+     * @param playerId Player UUID
+     * @return Future completed (on a LuckPerms thread) with the permission map
+     */
+    public static CompletableFuture<Map<String, Boolean>> getPermissionMapAsync(UUID playerId) {
+        return afterLoad(playerId, LuckPermsIntegration::getPermissionMap);
+    }
+    
+    /**
+     * Get a meta value for a player, loading them into LuckPerms if needed.
+     * @param playerId Player UUID
+     * @param metaKey Meta key to look up
+     * @return Future completed (on a LuckPerms thread) with the value, or null if not found
+     */
+    public static CompletableFuture<String> getMetaValueAsync(UUID playerId, String metaKey) {
+        return afterLoad(playerId, id -> getMetaValue(id, metaKey));
+    }
+    
+    // ==================== LUCKPERMS UTILITY METHODS ====================
+    
+    /**
+     * Check if LuckPerms is installed and loaded.
+     */
+    public static boolean isAvailable() {
+        return adapter().isAvailable();
     }
     
     /**
@@ -372,26 +548,7 @@ public class LuckPermsIntegration {
      */
     public static String getPrimaryGroup(java.util.UUID playerId) {
         try {
-            Class<?> providerClass = Class.forName("net.luckperms.api.LuckPermsProvider");
-            Method getMethod = providerClass.getMethod("get");
-            Object luckPerms = getMethod.invoke(null);
-            
-            // Get UserManager
-            Method getUserManagerMethod = luckPerms.getClass().getMethod("getUserManager");
-            Object userManager = getUserManagerMethod.invoke(luckPerms);
-            
-            // Get User
-            Method getUserMethod = userManager.getClass().getMethod("getUser", java.util.UUID.class);
-            Object user = getUserMethod.invoke(userManager, playerId);
-            
-            if (user == null) {
-                return null;
-            }
-            
-            // Get primary group
-            Method getPrimaryGroupMethod = user.getClass().getMethod("getPrimaryGroup");
-            return (String) getPrimaryGroupMethod.invoke(user);
-            
+            return adapterFor(playerId).getPrimaryGroup(playerId);
         } catch (Exception e) {
             return null;
         }
@@ -403,84 +560,14 @@ public class LuckPermsIntegration {
      * @return List of group names, or empty list if not found
      */
     public static List<String> getGroups(java.util.UUID playerId) {
-        List<String> groups = new ArrayList<>();
-        Logger logger = Logger.getLogger("EliteEssentials");
-        
-        try {
-            Class<?> providerClass = Class.forName("net.luckperms.api.LuckPermsProvider");
-            Method getMethod = providerClass.getMethod("get");
-            Object luckPerms = getMethod.invoke(null);
-            
-            // Get UserManager
-            Method getUserManagerMethod = luckPerms.getClass().getMethod("getUserManager");
-            Object userManager = getUserManagerMethod.invoke(luckPerms);
-            
-            // Try to get user from cache first
-            Method getUserMethod = userManager.getClass().getMethod("getUser", java.util.UUID.class);
-            Object user = getUserMethod.invoke(userManager, playerId);
-            
-            // If user not in cache, try to load it synchronously (blocking, but necessary for chat)
-            if (user == null) {
-                try {
-                    Method loadUserMethod = userManager.getClass().getMethod("loadUser", java.util.UUID.class);
-                    Object completableFuture = loadUserMethod.invoke(userManager, playerId);
-                    
-                    // Wait for user to load (with timeout)
-                    Method joinMethod = completableFuture.getClass().getMethod("join");
-                    user = joinMethod.invoke(completableFuture);
-                } catch (Exception loadEx) {
-                    logger.warning("[LuckPerms] Failed to load user: " + loadEx.getMessage());
-                    return groups;
-                }
-            }
-            
-            if (user == null) {
-                logger.warning("[LuckPerms] User is null after load attempt");
-                return groups;
-            }
-            
-            // Get the user's nodes to find group memberships
-            // Try different methods to get groups
-            try {
-                // Method 1: Try getNodes() and filter for group nodes
-                Method getNodesMethod = user.getClass().getMethod("getNodes");
-                Object nodesCollection = getNodesMethod.invoke(user);
-                
-                if (nodesCollection instanceof java.util.Collection) {
-                    for (Object node : (java.util.Collection<?>) nodesCollection) {
-                        // Check if this is a group node
-                        Method getKeyMethod = node.getClass().getMethod("getKey");
-                        String key = (String) getKeyMethod.invoke(node);
-                        
-                        // Group nodes start with "group."
-                        if (key.startsWith("group.")) {
-                            String groupName = key.substring(6); // Remove "group." prefix
-                            groups.add(groupName);
-                        }
-                    }
-                }
-            } catch (Exception e1) {
-                // Method 2: Try getPrimaryGroup() as fallback
-                try {
-                    Method getPrimaryGroupMethod = user.getClass().getMethod("getPrimaryGroup");
-                    String primaryGroup = (String) getPrimaryGroupMethod.invoke(user);
-                    if (primaryGroup != null) {
-                        groups.add(primaryGroup);
-                    }
-                } catch (Exception e2) {
-                    logger.warning("[LuckPerms] Could not get groups using any method");
-                }
-            }
-            
-        } catch (Exception e) {
-            logger.warning("[LuckPerms] Error getting groups: " + e.getMessage());
-        }
-        
-        return groups;
+        return adapterFor(playerId).getGroups(playerId);
     }
     
     // ==================== LUCKPERMS MODIFICATION METHODS ====================
     
+    // These may load the player and wait for LuckPerms to save the change,
+    // so call them off the world thread.
+    
     /**
      * Set a player's primary group (removes all other groups and sets this one).
      * Equivalent to: /lp user <player> parent set <group>
@@ -490,87 +577,7 @@ public class LuckPermsIntegration {
      * @return true if successful
      */
     public static boolean setGroup(java.util.UUID playerId, String groupName) {
-        Logger logger = Logger.getLogger("EliteEssentials");
-        
-        try {
-            Object[] lpObjects = getLuckPermsObjects(playerId);
-            if (lpObjects == null) {
-                logger.warning("[LuckPerms] Could not get LuckPerms objects for setGroup");
-                return false;
-            }
-            
-            Object luckPerms = lpObjects[0];
-            Object userManager = lpObjects[1];
-            Object user = lpObjects[2];
-            
-            // Create InheritanceNode for the new group
-            Class<?> inheritanceNodeClass = Class.forName("net.luckperms.api.node.types.InheritanceNode");
-            Method builderMethod = inheritanceNodeClass.getMethod("builder", String.class);
-            Object nodeBuilder = builderMethod.invoke(null, groupName);
-            Method buildMethod = nodeBuilder.getClass().getMethod("build");
-            Object newGroupNode = buildMethod.invoke(nodeBuilder);
-            
-            // Get user's data
-            Method dataMethod = user.getClass().getMethod("data");
-            Object userData = dataMethod.invoke(user);
-            
-            // Clear existing group nodes - find and use the clear method with setAccessible
-            Class<?> nodeClass = Class.forName("net.luckperms.api.node.Node");
-            
-            // Try to clear by NodeType first
-            try {
-                Class<?> nodeTypeClass = Class.forName("net.luckperms.api.node.NodeType");
-                java.lang.reflect.Field inheritanceField = nodeTypeClass.getField("INHERITANCE");
-                Object inheritanceType = inheritanceField.get(null);
-                
-                Method clearMethod = findMethodByParamType(userData.getClass(), "clear", nodeTypeClass);
-                if (clearMethod != null) {
-                    clearMethod.setAccessible(true);
-                    clearMethod.invoke(userData, inheritanceType);
-                }
-            } catch (Exception clearEx) {
-                // Fallback: remove existing group nodes manually
-                Method getNodesMethod = user.getClass().getMethod("getNodes");
-                Object nodesCollection = getNodesMethod.invoke(user);
-                if (nodesCollection instanceof java.util.Collection) {
-                    Method removeMethod = findMethodByParamType(userData.getClass(), "remove", nodeClass);
-                    if (removeMethod != null) {
-                        removeMethod.setAccessible(true);
-                        for (Object node : new ArrayList<>((java.util.Collection<?>) nodesCollection)) {
-                            Method getKeyMethod = node.getClass().getMethod("getKey");
-                            String key = (String) getKeyMethod.invoke(node);
-                            if (key.startsWith("group.")) {
-                                removeMethod.invoke(userData, node);
-                            }
-                        }
-                    }
-                }
-            }
-            
-            // Add the new group node
-            Method addMethod = findMethodByParamType(userData.getClass(), "add", nodeClass);
-            if (addMethod != null) {
-                addMethod.setAccessible(true);
-                addMethod.invoke(userData, newGroupNode);
-            }
-            
-            // Save the user
-            Class<?> userClass = Class.forName("net.luckperms.api.model.user.User");
-            Method saveUserMethod = findMethodByParamType(userManager.getClass(), "saveUser", userClass);
-            if (saveUserMethod != null) {
-                saveUserMethod.setAccessible(true);
-                Object saveFuture = saveUserMethod.invoke(userManager, user);
-                Method joinMethod = saveFuture.getClass().getMethod("join");
-                joinMethod.invoke(saveFuture);
-            }
-            
-            return true;
-            
-        } catch (Exception e) {
-            logger.warning("[LuckPerms] Error setting group: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        return adapter().setGroup(playerId, groupName);
     }
     
     /**
@@ -582,53 +589,7 @@ public class LuckPermsIntegration {
      * @return true if successful
      */
     public static boolean addGroup(java.util.UUID playerId, String groupName) {
-        Logger logger = Logger.getLogger("EliteEssentials");
-        
-        try {
-            Object[] lpObjects = getLuckPermsObjects(playerId);
-            if (lpObjects == null) {
-                logger.warning("[LuckPerms] Could not get LuckPerms objects for addGroup");
-                return false;
-            }
-            
-            Object luckPerms = lpObjects[0];
-            Object userManager = lpObjects[1];
-            Object user = lpObjects[2];
-            
-            // Create InheritanceNode for the group
-            Class<?> inheritanceNodeClass = Class.forName("net.luckperms.api.node.types.InheritanceNode");
-            Method builderMethod = inheritanceNodeClass.getMethod("builder", String.class);
-            Object nodeBuilder = builderMethod.invoke(null, groupName);
-            Method buildMethod = nodeBuilder.getClass().getMethod("build");
-            Object newGroupNode = buildMethod.invoke(nodeBuilder);
-            
-            // Add to user's data
-            Class<?> nodeClass = Class.forName("net.luckperms.api.node.Node");
-            Method dataMethod = user.getClass().getMethod("data");
-            Object userData = dataMethod.invoke(user);
-            Method addMethod = findMethodByParamType(userData.getClass(), "add", nodeClass);
-            if (addMethod != null) {
-                addMethod.setAccessible(true);
-                addMethod.invoke(userData, newGroupNode);
-            }
-            
-            // Save the user
-            Class<?> userClass = Class.forName("net.luckperms.api.model.user.User");
-            Method saveUserMethod = findMethodByParamType(userManager.getClass(), "saveUser", userClass);
-            if (saveUserMethod != null) {
-                saveUserMethod.setAccessible(true);
-                Object saveFuture = saveUserMethod.invoke(userManager, user);
-                Method joinMethod = saveFuture.getClass().getMethod("join");
-                joinMethod.invoke(saveFuture);
-            }
-            
-            return true;
-            
-        } catch (Exception e) {
-            logger.warning("[LuckPerms] Error adding group: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        return adapter().addGroup(playerId, groupName);
     }
     
     /**
@@ -640,53 +601,7 @@ public class LuckPermsIntegration {
      * @return true if successful
      */
     public static boolean removeGroup(java.util.UUID playerId, String groupName) {
-        Logger logger = Logger.getLogger("EliteEssentials");
-        
-        try {
-            Object[] lpObjects = getLuckPermsObjects(playerId);
-            if (lpObjects == null) {
-                logger.warning("[LuckPerms] Could not get LuckPerms objects for removeGroup");
-                return false;
-            }
-            
-            Object luckPerms = lpObjects[0];
-            Object userManager = lpObjects[1];
-            Object user = lpObjects[2];
-            
-            // Create InheritanceNode for the group to remove
-            Class<?> inheritanceNodeClass = Class.forName("net.luckperms.api.node.types.InheritanceNode");
-            Method builderMethod = inheritanceNodeClass.getMethod("builder", String.class);
-            Object nodeBuilder = builderMethod.invoke(null, groupName);
-            Method buildMethod = nodeBuilder.getClass().getMethod("build");
-            Object groupNode = buildMethod.invoke(nodeBuilder);
-            
-            // Remove from user's data
-            Class<?> nodeClass = Class.forName("net.luckperms.api.node.Node");
-            Method dataMethod = user.getClass().getMethod("data");
-            Object userData = dataMethod.invoke(user);
-            Method removeMethod = findMethodByParamType(userData.getClass(), "remove", nodeClass);
-            if (removeMethod != null) {
-                removeMethod.setAccessible(true);
-                removeMethod.invoke(userData, groupNode);
-            }
-            
-            // Save the user
-            Class<?> userClass = Class.forName("net.luckperms.api.model.user.User");
-            Method saveUserMethod = findMethodByParamType(userManager.getClass(), "saveUser", userClass);
-            if (saveUserMethod != null) {
-                saveUserMethod.setAccessible(true);
-                Object saveFuture = saveUserMethod.invoke(userManager, user);
-                Method joinMethod = saveFuture.getClass().getMethod("join");
-                joinMethod.invoke(saveFuture);
-            }
-            
-            return true;
-            
-        } catch (Exception e) {
-            logger.warning("[LuckPerms] Error removing group: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        return adapter().removeGroup(playerId, groupName);
     }
     
     /**
@@ -699,58 +614,7 @@ public class LuckPermsIntegration {
      * @return true if successful
      */
     public static boolean setPermission(java.util.UUID playerId, String permission, boolean value) {
-        Logger logger = Logger.getLogger("EliteEssentials");
-        
-        try {
-            Object[] lpObjects = getLuckPermsObjects(playerId);
-            if (lpObjects == null) {
-                logger.warning("[LuckPerms] Could not get LuckPerms objects for setPermission");
-                return false;
-            }
-            
-            Object luckPerms = lpObjects[0];
-            Object userManager = lpObjects[1];
-            Object user = lpObjects[2];
-            
-            // Create PermissionNode
-            Class<?> permissionNodeClass = Class.forName("net.luckperms.api.node.types.PermissionNode");
-            Method builderMethod = permissionNodeClass.getMethod("builder", String.class);
-            Object nodeBuilder = builderMethod.invoke(null, permission);
-            
-            // Set value (true/false)
-            Method valueMethod = nodeBuilder.getClass().getMethod("value", boolean.class);
-            nodeBuilder = valueMethod.invoke(nodeBuilder, value);
-            
-            Method buildMethod = nodeBuilder.getClass().getMethod("build");
-            Object permNode = buildMethod.invoke(nodeBuilder);
-            
-            // Add to user's data
-            Class<?> nodeClass = Class.forName("net.luckperms.api.node.Node");
-            Method dataMethod = user.getClass().getMethod("data");
-            Object userData = dataMethod.invoke(user);
-            Method addMethod = findMethodByParamType(userData.getClass(), "add", nodeClass);
-            if (addMethod != null) {
-                addMethod.setAccessible(true);
-                addMethod.invoke(userData, permNode);
-            }
-            
-            // Save the user
-            Class<?> userClass = Class.forName("net.luckperms.api.model.user.User");
-            Method saveUserMethod = findMethodByParamType(userManager.getClass(), "saveUser", userClass);
-            if (saveUserMethod != null) {
-                saveUserMethod.setAccessible(true);
-                Object saveFuture = saveUserMethod.invoke(userManager, user);
-                Method joinMethod = saveFuture.getClass().getMethod("join");
-                joinMethod.invoke(saveFuture);
-            }
-            
-            return true;
-            
-        } catch (Exception e) {
-            logger.warning("[LuckPerms] Error setting permission: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        return adapter().setPermission(playerId, permission, value);
     }
     
     /**
@@ -762,155 +626,7 @@ public class LuckPermsIntegration {
      * @return true if successful
      */
     public static boolean unsetPermission(java.util.UUID playerId, String permission) {
-        Logger logger = Logger.getLogger("EliteEssentials");
-        
-        try {
-            Object[] lpObjects = getLuckPermsObjects(playerId);
-            if (lpObjects == null) {
-                logger.warning("[LuckPerms] Could not get LuckPerms objects for unsetPermission");
-                return false;
-            }
-            
-            Object luckPerms = lpObjects[0];
-            Object userManager = lpObjects[1];
-            Object user = lpObjects[2];
-            
-            // Create PermissionNode to remove
-            Class<?> permissionNodeClass = Class.forName("net.luckperms.api.node.types.PermissionNode");
-            Method builderMethod = permissionNodeClass.getMethod("builder", String.class);
-            Object nodeBuilder = builderMethod.invoke(null, permission);
-            Method buildMethod = nodeBuilder.getClass().getMethod("build");
-            Object permNode = buildMethod.invoke(nodeBuilder);
-            
-            // Remove from user's data
-            Class<?> nodeClass = Class.forName("net.luckperms.api.node.Node");
-            Method dataMethod = user.getClass().getMethod("data");
-            Object userData = dataMethod.invoke(user);
-            Method removeMethod = findMethodByParamType(userData.getClass(), "remove", nodeClass);
-            if (removeMethod != null) {
-                removeMethod.setAccessible(true);
-                removeMethod.invoke(userData, permNode);
-            }
-            
-            // Save the user
-            Class<?> userClass = Class.forName("net.luckperms.api.model.user.User");
-            Method saveUserMethod = findMethodByParamType(userManager.getClass(), "saveUser", userClass);
-            if (saveUserMethod != null) {
-                saveUserMethod.setAccessible(true);
-                Object saveFuture = saveUserMethod.invoke(userManager, user);
-                Method joinMethod = saveFuture.getClass().getMethod("join");
-                joinMethod.invoke(saveFuture);
-            }
-            
-            return true;
-            
-        } catch (Exception e) {
-            logger.warning("[LuckPerms] Error unsetting permission: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
-    }
-    
-    /**
-     * Helper method to get LuckPerms API objects for a player.
-     * @return [luckPerms, userManager, user] or null if failed
-     */
-    private static Object[] getLuckPermsObjects(java.util.UUID playerId) {
-        Logger logger = Logger.getLogger("EliteEssentials");
-        
-        try {
-            Class<?> providerClass = Class.forName("net.luckperms.api.LuckPermsProvider");
-            Method getMethod = providerClass.getMethod("get");
-            Object luckPerms = getMethod.invoke(null);
-            
-            if (luckPerms == null) {
-                return null;
-            }
-            
-            // Get UserManager
-            Method getUserManagerMethod = luckPerms.getClass().getMethod("getUserManager");
-            Object userManager = getUserManagerMethod.invoke(luckPerms);
-            
-            // Try to get user from cache first
-            Method getUserMethod = userManager.getClass().getMethod("getUser", java.util.UUID.class);
-            Object user = getUserMethod.invoke(userManager, playerId);
-            
-            // If user not in cache, load it
-            if (user == null) {
-                Method loadUserMethod = userManager.getClass().getMethod("loadUser", java.util.UUID.class);
-                Object completableFuture = loadUserMethod.invoke(userManager, playerId);
-                Method joinMethod = completableFuture.getClass().getMethod("join");
-                user = joinMethod.invoke(completableFuture);
-            }
-            
-            if (user == null) {
-                return null;
-            }
-            
-            return new Object[] { luckPerms, userManager, user };
-            
-        } catch (Exception e) {
-            logger.warning("[LuckPerms] Error getting LP objects: " + e.getMessage());
-            return null;
-        }
-    }
-    
-    /**
-     * Find and invoke a method, making it accessible if needed.
-     */
-    private static Object invokeMethod(Object target, String methodName, Class<?>[] paramTypes, Object... args) throws Exception {
-        Method method = null;
-        
-        // Try public methods first
-        try {
-            method = target.getClass().getMethod(methodName, paramTypes);
-        } catch (NoSuchMethodException e) {
-            // Try declared methods (including private)
-            method = target.getClass().getDeclaredMethod(methodName, paramTypes);
-        }
-        
-        method.setAccessible(true);
-        return method.invoke(target, args);
-    }
-    
-    /**
-     * Find a method by name with a specific parameter type name.
-     */
-    private static Method findMethod(Class<?> clazz, String name, String paramTypeName) {
-        for (Method method : clazz.getMethods()) {
-            if (method.getName().equals(name)) {
-                Class<?>[] params = method.getParameterTypes();
-                if (params.length == 1 && params[0].getName().equals(paramTypeName)) {
-                    return method;
-                }
-            }
-        }
-        return null;
-    }
-    
-    /**
-     * Find a method by name with a specific parameter type class.
-     */
-    private static Method findMethodByParamType(Class<?> clazz, String name, Class<?> paramType) {
-        // Check all methods including inherited
-        for (Method method : clazz.getMethods()) {
-            if (method.getName().equals(name)) {
-                Class<?>[] params = method.getParameterTypes();
-                if (params.length == 1 && params[0].isAssignableFrom(paramType)) {
-                    return method;
-                }
-            }
-        }
-        // Also check declared methods
-        for (Method method : clazz.getDeclaredMethods()) {
-            if (method.getName().equals(name)) {
-                Class<?>[] params = method.getParameterTypes();
-                if (params.length == 1 && params[0].isAssignableFrom(paramType)) {
-                    return method;
-                }
-            }
-        }
-        return null;
+        return adapter().unsetPermission(playerId, permission);
     }
     
     /**
@@ -922,75 +638,7 @@ public class LuckPermsIntegration {
      * @return true if successful
      */
     public static boolean promote(java.util.UUID playerId, String trackName) {
-        Logger logger = Logger.getLogger("EliteEssentials");
-        
-        try {
-            Object[] lpObjects = getLuckPermsObjects(playerId);
-            if (lpObjects == null) {
-                logger.warning("[LuckPerms] Could not get LuckPerms objects for promote");
-                return false;
-            }
-            
-            Object luckPerms = lpObjects[0];
-            Object userManager = lpObjects[1];
-            Object user = lpObjects[2];
-            
-            // Get TrackManager
-            Method getTrackManagerMethod = luckPerms.getClass().getMethod("getTrackManager");
-            Object trackManager = getTrackManagerMethod.invoke(luckPerms);
-            
-            // Get the track
-            Method getTrackMethod = trackManager.getClass().getMethod("getTrack", String.class);
-            Object track = getTrackMethod.invoke(trackManager, trackName);
-            
-            if (track == null) {
-                logger.warning("[LuckPerms] Track not found: " + trackName);
-                return false;
-            }
-            
-            // Get track groups
-            Method getGroupsMethod = track.getClass().getMethod("getGroups");
-            @SuppressWarnings("unchecked")
-            List<String> trackGroups = (List<String>) getGroupsMethod.invoke(track);
-            
-            if (trackGroups == null || trackGroups.isEmpty()) {
-                logger.warning("[LuckPerms] Track has no groups: " + trackName);
-                return false;
-            }
-            
-            // Get user's current primary group
-            Method getPrimaryGroupMethod = user.getClass().getMethod("getPrimaryGroup");
-            String currentGroup = (String) getPrimaryGroupMethod.invoke(user);
-            
-            // Find current position in track
-            int currentIndex = trackGroups.indexOf(currentGroup);
-            
-            // Determine next group
-            String nextGroup;
-            if (currentIndex == -1) {
-                // Not on track, add to first group
-                nextGroup = trackGroups.get(0);
-            } else if (currentIndex >= trackGroups.size() - 1) {
-                // Already at top of track
-                return true;
-            } else {
-                // Promote to next group
-                nextGroup = trackGroups.get(currentIndex + 1);
-            }
-            
-            // Remove current group if on track, add next group
-            if (currentIndex >= 0) {
-                removeGroup(playerId, currentGroup);
-            }
-            boolean result = addGroup(playerId, nextGroup);
-            
-            return result;
-            
-        } catch (Exception e) {
-            logger.warning("[LuckPerms] Error promoting: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        return adapter().promote(playerId, trackName);
     }
     
     /**
@@ -1002,75 +650,26 @@ public class LuckPermsIntegration {
      * @return true if successful
      */
     public static boolean demote(java.util.UUID playerId, String trackName) {
-        Logger logger = Logger.getLogger("EliteEssentials");
-        
+        return adapter().demote(playerId, trackName);
+    }
+    
+    // ==================== PERMISSION VALUE EXTRACTION ====================
+    
+    /**
+     * Get a player's resolved permissions, including those inherited from groups.
+     * 
+     * @param playerId Player UUID
+     * @return Permission node to value, or an empty map if not found
+     */
+    public static Map<String, Boolean> getPermissionMap(java.util.UUID playerId) {
         try {
-            Object[] lpObjects = getLuckPermsObjects(playerId);
-            if (lpObjects == null) {
-                logger.warning("[LuckPerms] Could not get LuckPerms objects for demote");
-                return false;
-            }
-            
-            Object luckPerms = lpObjects[0];
-            Object userManager = lpObjects[1];
-            Object user = lpObjects[2];
-            
-            // Get TrackManager
-            Method getTrackManagerMethod = luckPerms.getClass().getMethod("getTrackManager");
-            Object trackManager = getTrackManagerMethod.invoke(luckPerms);
-            
-            // Get the track
-            Method getTrackMethod = trackManager.getClass().getMethod("getTrack", String.class);
-            Object track = getTrackMethod.invoke(trackManager, trackName);
-            
-            if (track == null) {
-                logger.warning("[LuckPerms] Track not found: " + trackName);
-                return false;
-            }
-            
-            // Get track groups
-            Method getGroupsMethod = track.getClass().getMethod("getGroups");
-            @SuppressWarnings("unchecked")
-            List<String> trackGroups = (List<String>) getGroupsMethod.invoke(track);
-            
-            if (trackGroups == null || trackGroups.isEmpty()) {
-                logger.warning("[LuckPerms] Track has no groups: " + trackName);
-                return false;
-            }
-            
-            // Get user's current primary group
-            Method getPrimaryGroupMethod = user.getClass().getMethod("getPrimaryGroup");
-            String currentGroup = (String) getPrimaryGroupMethod.invoke(user);
-            
-            // Find current position in track
-            int currentIndex = trackGroups.indexOf(currentGroup);
-            
-            if (currentIndex == -1) {
-                // Not on track
-                return false;
-            } else if (currentIndex == 0) {
-                // Already at bottom of track
-                return true;
-            }
-            
-            // Demote to previous group
-            String prevGroup = trackGroups.get(currentIndex - 1);
-            
-            // Remove current group, add previous group
-            removeGroup(playerId, currentGroup);
-            boolean result = addGroup(playerId, prevGroup);
-            
-            return result;
-            
+            return adapterFor(playerId).getPermissionMap(playerId);
         } catch (Exception e) {
-            logger.warning("[LuckPerms] Error demoting: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+            logger.warning("[LuckPerms] Error getting permissions: " + e.getMessage());
+            return Collections.emptyMap();
         }
     }
     
-    // ==================== PERMISSION VALUE EXTRACTION ====================
-    
     /**
      * Get a numeric value from a permission node pattern.
      * Scans user's permissions for nodes matching the prefix and extracts the number.
@@ -1084,29 +683,10 @@ public class LuckPermsIntegration {
      */
     public static int getPermissionValue(java.util.UUID playerId, String permissionPrefix) {
         try {
-            Object[] lpObjects = getLuckPermsObjects(playerId);
-            if (lpObjects == null) {
-                return -1;
-            }
-            
-            Object user = lpObjects[2];
-            
-            // Get all nodes from the user (includes inherited permissions)
-            Method getNodesMethod = user.getClass().getMethod("getNodes");
-            Object nodesCollection = getNodesMethod.invoke(user);
-            
-            if (!(nodesCollection instanceof java.util.Collection)) {
-                return -1;
-            }
-            
             int lowestValue = Integer.MAX_VALUE;
             boolean found = false;
             
-            for (Object node : (java.util.Collection<?>) nodesCollection) {
-                // Get the permission key
-                Method getKeyMethod = node.getClass().getMethod("getKey");
-                String key = (String) getKeyMethod.invoke(node);
-                
+            for (String key : adapterFor(playerId).getNodeKeys(playerId)) {
                 // Check if it matches our prefix
                 if (key.startsWith(permissionPrefix)) {
                     String valuePart = key.substring(permissionPrefix.length());
@@ -1140,55 +720,31 @@ public class LuckPermsIntegration {
      */
     public static int getInheritedPermissionValue(java.util.UUID playerId, String permissionPrefix) {
         try {
-            Object[] lpObjects = getLuckPermsObjects(playerId);
-            if (lpObjects == null) {
-                return -1;
-            }
-            
-            Object user = lpObjects[2];
+            int lowestValue = Integer.MAX_VALUE;
+            boolean found = false;
             
-            // Try to get resolved/inherited nodes using CachedData
-            try {
-                Method getCachedDataMethod = user.getClass().getMethod("getCachedData");
-                Object cachedData = getCachedDataMethod.invoke(user);
-                
-                Method getPermissionDataMethod = cachedData.getClass().getMethod("getPermissionData");
-                Object permissionData = getPermissionDataMethod.invoke(cachedData);
-                
-                // Get the permission map
-                Method getPermissionMapMethod = permissionData.getClass().getMethod("getPermissionMap");
-                @SuppressWarnings("unchecked")
-                java.util.Map<String, Boolean> permMap = (java.util.Map<String, Boolean>) getPermissionMapMethod.invoke(permissionData);
-                
-                int lowestValue = Integer.MAX_VALUE;
-                boolean found = false;
-                
-                for (java.util.Map.Entry<String, Boolean> entry : permMap.entrySet()) {
-                    if (entry.getValue() && entry.getKey().startsWith(permissionPrefix)) {
-                        String valuePart = entry.getKey().substring(permissionPrefix.length());
-                        try {
-                            int value = Integer.parseInt(valuePart);
-                            if (value < lowestValue) {
-                                lowestValue = value;
-                                found = true;
-                            }
-                        } catch (NumberFormatException ignored) {}
-                    }
-                }
-                
-                if (found) {
-                    return lowestValue;
+            for (Map.Entry<String, Boolean> entry : adapterFor(playerId).getPermissionMap(playerId).entrySet()) {
+                if (entry.getValue() && entry.getKey().startsWith(permissionPrefix)) {
+                    String valuePart = entry.getKey().substring(permissionPrefix.length());
+                    try {
+                        int value = Integer.parseInt(valuePart);
+                        if (value < lowestValue) {
+                            lowestValue = value;
+                            found = true;
+                        }
+                    } catch (NumberFormatException ignored) {}
                 }
-            } catch (Exception e) {
-                // Fall through to direct node check
             }
             
-            // Fallback to direct node check
-            return getPermissionValue(playerId, permissionPrefix);
-            
+            if (found) {
+                return lowestValue;
+            }
         } catch (Exception e) {
-            return -1;
+            // Fall through to direct node check
         }
+        
+        // Fallback to direct node check
+        return getPermissionValue(playerId, permissionPrefix);
     }
     
     /**
@@ -1201,24 +757,7 @@ public class LuckPermsIntegration {
      */
     public static String getMetaValue(java.util.UUID playerId, String metaKey) {
         try {
-            Object[] lpObjects = getLuckPermsObjects(playerId);
-            if (lpObjects == null) {
-                return null;
-            }
-            
-            Object user = lpObjects[2];
-            
-            // Get CachedData -> MetaData
-            Method getCachedDataMethod = user.getClass().getMethod("getCachedData");
-            Object cachedData = getCachedDataMethod.invoke(user);
-            
-            Method getMetaDataMethod = cachedData.getClass().getMethod("getMetaData");
-            Object metaData = getMetaDataMethod.invoke(cachedData);
-            
-            // Get meta value
-            Method getMetaValueMethod = metaData.getClass().getMethod("getMetaValue", String.class);
-            return (String) getMetaValueMethod.invoke(metaData, metaKey);
-            
+            return adapterFor(playerId).getMetaValue(playerId, metaKey);
         } catch (Exception e) {
             return null;
         }
@@ -1257,26 +796,8 @@ public class LuckPermsIntegration {
      */
     public static String getPrefix(java.util.UUID playerId) {
         try {
-            Object[] lpObjects = getLuckPermsObjects(playerId);
-            if (lpObjects == null) {
-                return "";
-            }
-            
-            Object user = lpObjects[2];
-            
-            // Get CachedData -> MetaData
-            Method getCachedDataMethod = user.getClass().getMethod("getCachedData");
-            Object cachedData = getCachedDataMethod.invoke(user);
-            
-            Method getMetaDataMethod = cachedData.getClass().getMethod("getMetaData");
-            Object metaData = getMetaDataMethod.invoke(cachedData);
-            
-            // Get prefix - this returns the highest priority prefix
-            Method getPrefixMethod = metaData.getClass().getMethod("getPrefix");
-            String prefix = (String) getPrefixMethod.invoke(metaData);
-            
+            String prefix = adapterFor(playerId).getPrefix(playerId);
             return prefix != null ? prefix : "";
-            
         } catch (Exception e) {
             return "";
         }
@@ -1293,26 +814,8 @@ public class LuckPermsIntegration {
      */
     public static String getSuffix(java.util.UUID playerId) {
         try {
-            Object[] lpObjects = getLuckPermsObjects(playerId);
-            if (lpObjects == null) {
-                return "";
-            }
-            
-            Object user = lpObjects[2];
-            
-            // Get CachedData -> MetaData
-            Method getCachedDataMethod = user.getClass().getMethod("getCachedData");
-            Object cachedData = getCachedDataMethod.invoke(user);
-            
-            Method getMetaDataMethod = cachedData.getClass().getMethod("getMetaData");
-            Object metaData = getMetaDataMethod.invoke(cachedData);
-            
-            // Get suffix - this returns the highest priority suffix
-            Method getSuffixMethod = metaData.getClass().getMethod("getSuffix");
-            String suffix = (String) getSuffixMethod.invoke(metaData);
-            
+            String suffix = adapterFor(playerId).getSuffix(playerId);
             return suffix != null ? suffix : "";
-            
         } catch (Exception e) {
             return "";
         }
@@ -0,0 +1,314 @@
+package com.eliteessentials.integration.luckperms;
+
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.cacheddata.CachedMetaData;
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.event.sync.PostSyncEvent;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import net.luckperms.api.model.user.User;
+import net.luckperms.api.model.user.UserManager;
+import net.luckperms.api.node.Node;
+import net.luckperms.api.node.NodeType;
+import net.luckperms.api.node.types.InheritanceNode;
+import net.luckperms.api.node.types.PermissionNode;
+import net.luckperms.api.track.Track;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * LuckPermsAdapter calling the LuckPerms API directly.
+ *
+ * The API instance and user manager are resolved once in the constructor
+ * (which throws IllegalStateException while LuckPerms isn't loaded yet), so a
+ * lookup is a plain interface call instead of a chain of reflective calls.
+ * Lookups only read LuckPerms' loaded users; loads are asynchronous.
+ * Only created through LuckPermsIntegration when the LuckPerms classes exist.
+ */
+public class BoundLuckPermsAdapter implements LuckPermsAdapter {
+
+    private static final Logger logger = Logger.getLogger("EliteEssentials");
+
+    private final LuckPerms luckPerms;
+    private final UserManager userManager;
+
+    // Loads in flight, so repeated lookups of an unloaded user start one load
+    private final Map<UUID, CompletableFuture<Boolean>> pendingLoads = new ConcurrentHashMap<>();
+
+    public BoundLuckPermsAdapter() {
+        this.luckPerms = LuckPermsProvider.get();
+        this.userManager = luckPerms.getUserManager();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public boolean isUserLoaded(@NotNull UUID playerId) {
+        return userManager.getUser(playerId) != null;
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> loadUser(@NotNull UUID playerId) {
+        if (isUserLoaded(playerId)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        CompletableFuture<Boolean> load = new CompletableFuture<>();
+        CompletableFuture<Boolean> pending = pendingLoads.putIfAbsent(playerId, load);
+        if (pending != null) {
+            return pending;
+        }
+        userManager.loadUser(playerId).whenComplete((user, error) -> {
+            pendingLoads.remove(playerId, load);
+            if (error != null) {
+                logger.warning("[LuckPerms] Failed to load user: " + error.getMessage());
+                load.complete(false);
+            } else {
+                load.complete(user != null);
+            }
+        });
+        return load;
+    }
+
+    /**
+     * The player's user if LuckPerms has it loaded - lookups never wait for a load.
+     */
+    @Nullable
+    private User getLoadedUser(UUID playerId) {
+        return userManager.getUser(playerId);
+    }
+
+    /**
+     * The player's user, loading it and waiting if needed. Only for changes,
+     * which wait for the save anyway.
+     */
+    @Nullable
+    private User getUserForChange(UUID playerId) {
+        User user = userManager.getUser(playerId);
+        if (user == null) {
+            user = userManager.loadUser(playerId).join();
+        }
+        return user;
+    }
+
+    // ==================== Groups ====================
+
+    @Override
+    public @Nullable String getPrimaryGroup(@NotNull UUID playerId) {
+        User user = getLoadedUser(playerId);
+        return user != null ? user.getPrimaryGroup() : null;
+    }
+
+    @Override
+    public @NotNull List<String> getGroups(@NotNull UUID playerId) {
+        List<String> groups = new ArrayList<>();
+        try {
+            User user = getLoadedUser(playerId);
+            if (user == null) {
+                return groups;
+            }
+            for (InheritanceNode node : user.getNodes(NodeType.INHERITANCE)) {
+                groups.add(node.getGroupName());
+            }
+        } catch (Exception e) {
+            logger.warning("[LuckPerms] Error getting groups: " + e.getMessage());
+        }
+        return groups;
+    }
+
+    @Override
+    public boolean setGroup(@NotNull UUID playerId, @NotNull String groupName) {
+        return modify(playerId, "setGroup", user -> {
+            user.data().clear(NodeType.INHERITANCE::matches);
+            user.data().add(InheritanceNode.builder(groupName).build());
+        });
+    }
+
+    @Override
+    public boolean addGroup(@NotNull UUID playerId, @NotNull String groupName) {
+        return modify(playerId, "addGroup", user -> user.data().add(InheritanceNode.builder(groupName).build()));
+    }
+
+    @Override
+    public boolean removeGroup(@NotNull UUID playerId, @NotNull String groupName) {
+        return modify(playerId, "removeGroup", user -> user.data().remove(InheritanceNode.builder(groupName).build()));
+    }
+
+    // ==================== Permissions ====================
+
+    @Override
+    public boolean setPermission(@NotNull UUID playerId, @NotNull String permission, boolean value) {
+        return modify(playerId, "setPermission", user -> user.data().add(PermissionNode.builder(permission).value(value).build()));
+    }
+
+    @Override
+    public boolean unsetPermission(@NotNull UUID playerId, @NotNull String permission) {
+        return modify(playerId, "unsetPermission", user -> user.data().remove(PermissionNode.builder(permission).build()));
+    }
+
+    /**
+     * Apply a change to a user's own nodes and save it.
+     */
+    private boolean modify(UUID playerId, String operation, Consumer<User> change) {
+        try {
+            User user = getUserForChange(playerId);
+            if (user == null) {
+                logger.warning("[LuckPerms] Could not get LuckPerms user for " + operation);
+                return false;
+            }
+            change.accept(user);
+            userManager.saveUser(user).join();
+            return true;
+        } catch (Exception e) {
+            logger.warning("[LuckPerms] Error in " + operation + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public @NotNull Map<String, Boolean> getPermissionMap(@NotNull UUID playerId) {
+        User user = getLoadedUser(playerId);
+        return user != null ? user.getCachedData().getPermissionData().getPermissionMap() : Collections.emptyMap();
+    }
+
+    @Override
+    public @NotNull Collection<String> getNodeKeys(@NotNull UUID playerId) {
+        User user = getLoadedUser(playerId);
+        if (user == null) {
+            return Collections.emptyList();
+        }
+        Collection<Node> nodes = user.getNodes();
+        List<String> keys = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            keys.add(node.getKey());
+        }
+        return keys;
+    }
+
+    // ==================== Tracks ====================
+
+    @Override
+    public boolean promote(@NotNull UUID playerId, @NotNull String trackName) {
+        try {
+            List<String> trackGroups = getTrackGroups(trackName);
+            User user = trackGroups != null ? getUserForChange(playerId) : null;
+            if (user == null) {
+                return false;
+            }
+            String currentGroup = user.getPrimaryGroup();
+            int currentIndex = trackGroups.indexOf(currentGroup);
+
+            String nextGroup;
+            if (currentIndex == -1) {
+                // Not on track, add to first group
+                nextGroup = trackGroups.get(0);
+            } else if (currentIndex >= trackGroups.size() - 1) {
+                // Already at top of track
+                return true;
+            } else {
+                nextGroup = trackGroups.get(currentIndex + 1);
+            }
+
+            // Remove current group if on track, add next group
+            if (currentIndex >= 0) {
+                removeGroup(playerId, currentGroup);
+            }
+            return addGroup(playerId, nextGroup);
+        } catch (Exception e) {
+            logger.warning("[LuckPerms] Error promoting: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean demote(@NotNull UUID playerId, @NotNull String trackName) {
+        try {
+            List<String> trackGroups = getTrackGroups(trackName);
+            User user = trackGroups != null ? getUserForChange(playerId) : null;
+            if (user == null) {
+                return false;
+            }
+            String currentGroup = user.getPrimaryGroup();
+            int currentIndex = trackGroups.indexOf(currentGroup);
+
+            if (currentIndex == -1) {
+                // Not on track
+                return false;
+            } else if (currentIndex == 0) {
+                // Already at bottom of track
+                return true;
+            }
+
+            removeGroup(playerId, currentGroup);
+            return addGroup(playerId, trackGroups.get(currentIndex - 1));
+        } catch (Exception e) {
+            logger.warning("[LuckPerms] Error demoting: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Groups of a track in order, or null (logged) if it is missing or empty.
+     */
+    @Nullable
+    private List<String> getTrackGroups(String trackName) {
+        Track track = luckPerms.getTrackManager().getTrack(trackName);
+        if (track == null) {
+            logger.warning("[LuckPerms] Track not found: " + trackName);
+            return null;
+        }
+        List<String> groups = track.getGroups();
+        if (groups.isEmpty()) {
+            logger.warning("[LuckPerms] Track has no groups: " + trackName);
+            return null;
+        }
+        return groups;
+    }
+
+    // ==================== Meta ====================
+
+    @Override
+    public @Nullable String getMetaValue(@NotNull UUID playerId, @NotNull String metaKey) {
+        CachedMetaData meta = getMeta(playerId);
+        return meta != null ? meta.getMetaValue(metaKey) : null;
+    }
+
+    @Override
+    public @Nullable String getPrefix(@NotNull UUID playerId) {
+        CachedMetaData meta = getMeta(playerId);
+        return meta != null ? meta.getPrefix() : null;
+    }
+
+    @Override
+    public @Nullable String getSuffix(@NotNull UUID playerId) {
+        CachedMetaData meta = getMeta(playerId);
+        return meta != null ? meta.getSuffix() : null;
+    }
+
+    @Nullable
+    private CachedMetaData getMeta(UUID playerId) {
+        User user = getLoadedUser(playerId);
+        return user != null ? user.getCachedData().getMetaData() : null;
+    }
+
+    // ==================== Events ====================
+
+    @Override
+    public @NotNull List<AutoCloseable> subscribeChanges(@NotNull Consumer<UUID> onUser, @NotNull Runnable onAll) {
+        EventBus eventBus = luckPerms.getEventBus();
+        List<AutoCloseable> subscriptions = new ArrayList<>();
+        subscriptions.add(eventBus.subscribe(UserDataRecalculateEvent.class, event -> onUser.accept(event.getUser().getUniqueId())));
+        subscriptions.add(eventBus.subscribe(GroupDataRecalculateEvent.class, event -> onAll.run()));
+        subscriptions.add(eventBus.subscribe(PostSyncEvent.class, event -> onAll.run()));
+        return subscriptions;
+    }
+}
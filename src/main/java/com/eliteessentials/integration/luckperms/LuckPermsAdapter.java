@@ -0,0 +1,95 @@
+package com.eliteessentials.integration.luckperms;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * The LuckPerms operations EliteEssentials uses, bound once when LuckPerms loads.
+ *
+ * BoundLuckPermsAdapter calls the LuckPerms API directly (it is the only class
+ * that references it, so it is only loaded when LuckPerms is installed).
+ * NoopLuckPermsAdapter stands in while LuckPerms is absent or not loaded yet.
+ *
+ * Lookups only read users LuckPerms already has loaded and never block: for
+ * any other user they find nothing. Use loadUser first (online players are
+ * loaded at join). Changes may load the user and wait for the save, so they
+ * must not be called from a world thread.
+ */
+public interface LuckPermsAdapter {
+
+    /**
+     * Whether this adapter is backed by a loaded LuckPerms.
+     */
+    boolean isAvailable();
+
+    /**
+     * Whether LuckPerms has the user loaded, so lookups see their data.
+     */
+    boolean isUserLoaded(@NotNull UUID playerId);
+
+    /**
+     * Load a user into LuckPerms without blocking. Completes with whether a
+     * user was loaded; concurrent requests for the same user share one load.
+     */
+    @NotNull
+    CompletableFuture<Boolean> loadUser(@NotNull UUID playerId);
+
+    @Nullable
+    String getPrimaryGroup(@NotNull UUID playerId);
+
+    /**
+     * Groups the player is directly a member of.
+     */
+    @NotNull
+    List<String> getGroups(@NotNull UUID playerId);
+
+    boolean setGroup(@NotNull UUID playerId, @NotNull String groupName);
+
+    boolean addGroup(@NotNull UUID playerId, @NotNull String groupName);
+
+    boolean removeGroup(@NotNull UUID playerId, @NotNull String groupName);
+
+    boolean setPermission(@NotNull UUID playerId, @NotNull String permission, boolean value);
+
+    boolean unsetPermission(@NotNull UUID playerId, @NotNull String permission);
+
+    boolean promote(@NotNull UUID playerId, @NotNull String trackName);
+
+    boolean demote(@NotNull UUID playerId, @NotNull String trackName);
+
+    /**
+     * Resolved permissions, including those inherited from groups.
+     */
+    @NotNull
+    Map<String, Boolean> getPermissionMap(@NotNull UUID playerId);
+
+    /**
+     * Keys of the nodes set directly on the player.
+     */
+    @NotNull
+    Collection<String> getNodeKeys(@NotNull UUID playerId);
+
+    @Nullable
+    String getMetaValue(@NotNull UUID playerId, @NotNull String metaKey);
+
+    @Nullable
+    String getPrefix(@NotNull UUID playerId);
+
+    @Nullable
+    String getSuffix(@NotNull UUID playerId);
+
+    /**
+     * Listen for permission data changes: a single user's data was recalculated
+     * (onUser), or data that may affect anyone changed - a group or a network
+     * sync (onAll). Returns the subscriptions to close on shutdown.
+     */
+    @NotNull
+    List<AutoCloseable> subscribeChanges(@NotNull Consumer<UUID> onUser, @NotNull Runnable onAll);
+}
@@ -0,0 +1,109 @@
+package com.eliteessentials.integration.luckperms;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Adapter used while LuckPerms is not installed (or not loaded yet):
+ * every lookup finds nothing and every change fails.
+ */
+public final class NoopLuckPermsAdapter implements LuckPermsAdapter {
+
+    public static final NoopLuckPermsAdapter INSTANCE = new NoopLuckPermsAdapter();
+
+    private NoopLuckPermsAdapter() {}
+
+    @Override
+    public boolean isAvailable() {
+        return false;
+    }
+
+    @Override
+    public boolean isUserLoaded(@NotNull UUID playerId) {
+        return false;
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> loadUser(@NotNull UUID playerId) {
+        return CompletableFuture.completedFuture(false);
+    }
+
+    @Override
+    public @Nullable String getPrimaryGroup(@NotNull UUID playerId) {
+        return null;
+    }
+
+    @Override
+    public @NotNull List<String> getGroups(@NotNull UUID playerId) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public boolean setGroup(@NotNull UUID playerId, @NotNull String groupName) {
+        return false;
+    }
+
+    @Override
+    public boolean addGroup(@NotNull UUID playerId, @NotNull String groupName) {
+        return false;
+    }
+
+    @Override
+    public boolean removeGroup(@NotNull UUID playerId, @NotNull String groupName) {
+        return false;
+    }
+
+    @Override
+    public boolean setPermission(@NotNull UUID playerId, @NotNull String permission, boolean value) {
+        return false;
+    }
+
+    @Override
+    public boolean unsetPermission(@NotNull UUID playerId, @NotNull String permission) {
+        return false;
+    }
+
+    @Override
+    public boolean promote(@NotNull UUID playerId, @NotNull String trackName) {
+        return false;
+    }
+
+    @Override
+    public boolean demote(@NotNull UUID playerId, @NotNull String trackName) {
+        return false;
+    }
+
+    @Override
+    public @NotNull Map<String, Boolean> getPermissionMap(@NotNull UUID playerId) {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public @NotNull Collection<String> getNodeKeys(@NotNull UUID playerId) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public @Nullable String getMetaValue(@NotNull UUID playerId, @NotNull String metaKey) {
+        return null;
+    }
+
+    @Override
+    public @Nullable String getPrefix(@NotNull UUID playerId) {
+        return null;
+    }
+
+    @Override
+    public @Nullable String getSuffix(@NotNull UUID playerId) {
+        return null;
+    }
+
+    @Override
+    public @NotNull List<AutoCloseable> subscribeChanges(@NotNull Consumer<UUID> onUser, @NotNull Runnable onAll) {
+        return Collections.emptyList();
+    }
+}
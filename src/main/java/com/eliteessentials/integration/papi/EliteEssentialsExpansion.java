@@ -10,7 +10,6 @@ import com.eliteessentials.model.PlayerFile;
 import com.eliteessentials.model.Warp;
 import com.eliteessentials.permissions.PermissionService;
 import com.eliteessentials.permissions.Permissions;
-import com.eliteessentials.services.DeathTrackingService;
 import com.eliteessentials.services.HomeService;
 import com.eliteessentials.services.KitService;
 import com.eliteessentials.services.WarpService;
@@ -4,9 +4,11 @@ import com.eliteessentials.EliteEssentials;
 import com.eliteessentials.config.ConfigManager;
 import com.eliteessentials.config.PluginConfig;
 import com.eliteessentials.integration.PAPIIntegration;
+import com.eliteessentials.permissions.PermissionService;
 import com.eliteessentials.services.MailService;
 import com.eliteessentials.services.PlayerService;
 import com.eliteessentials.services.PlayTimeRewardService;
+import com.eliteessentials.services.SchedulerService;
 import com.eliteessentials.storage.MotdStorage;
 import com.eliteessentials.storage.PlayerFileStorage;
 import com.eliteessentials.storage.SpawnStorage;
@@ -15,6 +17,7 @@ import com.hypixel.hytale.component.Holder;
 import com.hypixel.hytale.event.EventRegistry;
 import com.hypixel.hytale.math.vector.Vector3d;
 import com.hypixel.hytale.math.vector.Vector3f;
+import com.hypixel.hytale.server.core.event.events.player.PlayerConnectEvent;
 import com.hypixel.hytale.server.core.event.events.player.PlayerReadyEvent;
 import com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent;
 import com.hypixel.hytale.server.core.event.events.player.AddPlayerToWorldEvent;
@@ -30,8 +33,6 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
@@ -54,7 +55,7 @@ public class JoinQuitListener {
     private final ConfigManager configManager;
     private final MotdStorage motdStorage;
     private final PlayerService playerService;
-    private final ScheduledExecutorService scheduler;
+    private final SchedulerService scheduler;
     private PlayerFileStorage playerFileStorage;
     private SpawnStorage spawnStorage;
     private com.eliteessentials.services.VanishService vanishService;
@@ -69,15 +70,12 @@ public class JoinQuitListener {
     // Track the last world each player was in (to detect world changes when DrainEvent doesn't fire)
     private final ConcurrentHashMap<UUID, String> playerLastWorld = new ConcurrentHashMap<>();
 
-    public JoinQuitListener(ConfigManager configManager, MotdStorage motdStorage, PlayerService playerService) {
+    public JoinQuitListener(ConfigManager configManager, MotdStorage motdStorage, PlayerService playerService,
+                            SchedulerService scheduler) {
         this.configManager = configManager;
         this.motdStorage = motdStorage;
         this.playerService = playerService;
-        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "EliteEssentials-JoinQuit");
-            t.setDaemon(true);
-            return t;
-        });
+        this.scheduler = scheduler;
     }
 
     /**
@@ -114,6 +112,15 @@ public class JoinQuitListener {
     public void registerEvents(EventRegistry eventRegistry) {
         PluginConfig config = configManager.getConfig();
 
+        // Start loading player data as soon as the connection is set up, so the
+        // PlayerReady handler below finds it in memory instead of reading it on the world thread
+        eventRegistry.registerGlobal(PlayerConnectEvent.class, event -> {
+            PlayerRef playerRef = event.getPlayerRef();
+            if (playerRef != null) {
+                playerService.prefetchPlayer(playerRef.getUuid());
+            }
+        });
+
         // Use PlayerReadyEvent for initial server join - fires when player is fully loaded
         eventRegistry.registerGlobal(PlayerReadyEvent.class, event -> {
             onPlayerJoin(event);
@@ -282,6 +289,9 @@ public class JoinQuitListener {
             // Set initial world for world change detection
             playerLastWorld.put(playerId, worldName);
 
+            // Preload LuckPerms data before anything checks the player's permissions
+            PermissionService.get().onPlayerJoin(playerId);
+
             // Update player cache
             playerService.onPlayerJoin(playerId, playerName);
 
@@ -295,7 +305,7 @@ public class JoinQuitListener {
                 // Send vanish reminder if player reconnected while vanished
                 if (playerIsVanished && config.vanish.showReminderOnJoin) {
                     // Delay the reminder so it appears after the MOTD
-                    scheduler.schedule(() -> {
+                    scheduler.schedule("joinquit.vanish-reminder", () -> {
                         vanishService.sendVanishReminder(playerRef);
                     }, 2000, TimeUnit.MILLISECONDS);
                 }
@@ -350,30 +360,28 @@ public class JoinQuitListener {
                                 // Schedule the teleport after a short delay
                                 final String finalTargetWorldName = targetWorldName;
                                 final String finalPlayerName = playerName;
-                                scheduler.schedule(() -> {
-                                    world.execute(() -> {
-                                        try {
-                                            if (!ref.isValid()) {
-                                                logger.warning("[FirstJoin] Player ref no longer valid for cross-world teleport");
-                                                return;
-                                            }
+                                scheduler.scheduleOnWorld("joinquit.firstjoin-spawn", world, () -> {
+                                    try {
+                                        if (!ref.isValid()) {
+                                            logger.warning("[FirstJoin] Player ref no longer valid for cross-world teleport");
+                                            return;
+                                        }
 
-                                            World targetWorld = findWorldByName(finalTargetWorldName);
-                                            if (targetWorld != null) {
-                                                Teleport teleport = new Teleport(targetWorld, spawnPos, spawnRot);
-                                                store.putComponent(ref, Teleport.getComponentType(), teleport);
+                                        World targetWorld = findWorldByName(finalTargetWorldName);
+                                        if (targetWorld != null) {
+                                            Teleport teleport = new Teleport(targetWorld, spawnPos, spawnRot);
+                                            store.putComponent(ref, Teleport.getComponentType(), teleport);
 
-                                                logger.info("[FirstJoin] Teleported new player " + finalPlayerName +
-                                                        " to spawn in world '" + finalTargetWorldName + "' at " +
-                                                        String.format("%.1f, %.1f, %.1f", spawn.x, spawn.y, spawn.z));
-                                            } else {
-                                                logger.warning("[FirstJoin] Target world '" + finalTargetWorldName +
-                                                        "' not found. Player " + finalPlayerName + " spawned at default location.");
-                                            }
-                                        } catch (Exception e) {
-                                            logger.warning("[FirstJoin] Failed cross-world teleport for " + finalPlayerName + ": " + e.getMessage());
+                                            logger.info("[FirstJoin] Teleported new player " + finalPlayerName +
+                                                    " to spawn in world '" + finalTargetWorldName + "' at " +
+                                                    String.format("%.1f, %.1f, %.1f", spawn.x, spawn.y, spawn.z));
+                                        } else {
+                                            logger.warning("[FirstJoin] Target world '" + finalTargetWorldName +
+                                                    "' not found. Player " + finalPlayerName + " spawned at default location.");
                                         }
-                                    });
+                                    } catch (Exception e) {
+                                        logger.warning("[FirstJoin] Failed cross-world teleport for " + finalPlayerName + ": " + e.getMessage());
+                                    }
                                 }, 2, TimeUnit.SECONDS);
                                 
                                 logger.info("[FirstJoin] Scheduled cross-world teleport for " + playerName + 
@@ -382,39 +390,37 @@ public class JoinQuitListener {
                                 // Same world teleport - still needs delay to let player fully load
                                 final String finalPlayerName = playerName;
                                 final String expectedWorldName = worldName;
-                                scheduler.schedule(() -> {
-                                    world.execute(() -> {
-                                        try {
-                                            if (!ref.isValid()) {
+                                scheduler.scheduleOnWorld("joinquit.firstjoin-spawn", world, () -> {
+                                    try {
+                                        if (!ref.isValid()) {
+                                            if (configManager.isDebugEnabled()) {
+                                                logger.info("[FirstJoin] Player ref no longer valid for spawn teleport (player may have changed worlds)");
+                                            }
+                                            return;
+                                        }
+                                        
+                                        // Verify player is still in the expected world
+                                        EntityStore currentEntityStore = store.getExternalData();
+                                        if (currentEntityStore != null) {
+                                            World currentWorld = currentEntityStore.getWorld();
+                                            if (currentWorld != null && !currentWorld.getName().equalsIgnoreCase(expectedWorldName)) {
                                                 if (configManager.isDebugEnabled()) {
-                                                    logger.info("[FirstJoin] Player ref no longer valid for spawn teleport (player may have changed worlds)");
+                                                    logger.info("[FirstJoin] Player " + finalPlayerName + " changed worlds before teleport (now in '" + 
+                                                        currentWorld.getName() + "'), skipping spawn teleport");
                                                 }
                                                 return;
                                             }
-                                            
-                                            // Verify player is still in the expected world
-                                            EntityStore currentEntityStore = store.getExternalData();
-                                            if (currentEntityStore != null) {
-                                                World currentWorld = currentEntityStore.getWorld();
-                                                if (currentWorld != null && !currentWorld.getName().equalsIgnoreCase(expectedWorldName)) {
-                                                    if (configManager.isDebugEnabled()) {
-                                                        logger.info("[FirstJoin] Player " + finalPlayerName + " changed worlds before teleport (now in '" + 
-                                                            currentWorld.getName() + "'), skipping spawn teleport");
-                                                    }
-                                                    return;
-                                                }
-                                            }
-                                            
-                                            // ALWAYS include world in Teleport constructor (even for same-world)
-                                            Teleport teleport = new Teleport(world, spawnPos, spawnRot);
-                                            store.putComponent(ref, Teleport.getComponentType(), teleport);
-                                            
-                                            logger.info("[FirstJoin] Teleported new player " + finalPlayerName + " to spawn at " +
-                                                String.format("%.1f, %.1f, %.1f", spawn.x, spawn.y, spawn.z));
-                                        } catch (Exception e) {
-                                            logger.warning("[FirstJoin] Failed to teleport " + finalPlayerName + " to spawn: " + e.getMessage());
                                         }
-                                    });
+                                        
+                                        // ALWAYS include world in Teleport constructor (even for same-world)
+                                        Teleport teleport = new Teleport(world, spawnPos, spawnRot);
+                                        store.putComponent(ref, Teleport.getComponentType(), teleport);
+                                        
+                                        logger.info("[FirstJoin] Teleported new player " + finalPlayerName + " to spawn at " +
+                                            String.format("%.1f, %.1f, %.1f", spawn.x, spawn.y, spawn.z));
+                                    } catch (Exception e) {
+                                        logger.warning("[FirstJoin] Failed to teleport " + finalPlayerName + " to spawn: " + e.getMessage());
+                                    }
                                 }, 2, TimeUnit.SECONDS);
                                 
                                 logger.info("[FirstJoin] Scheduled same-world spawn teleport for " + playerName + " in 2 seconds");
@@ -459,32 +465,30 @@ public class JoinQuitListener {
                                 // Cross-world teleport needs a delay to let player fully load first
                                 final String finalTargetWorldName = targetWorldName;
                                 final String finalPlayerName = playerName;
-                                scheduler.schedule(() -> {
-                                    world.execute(() -> {
-                                        try {
-                                            if (!ref.isValid()) {
-                                                logger.warning("[SpawnOnLogin] Player ref no longer valid for cross-world teleport");
-                                                return;
-                                            }
+                                scheduler.scheduleOnWorld("joinquit.login-spawn", world, () -> {
+                                    try {
+                                        if (!ref.isValid()) {
+                                            logger.warning("[SpawnOnLogin] Player ref no longer valid for cross-world teleport");
+                                            return;
+                                        }
 
-                                            World targetWorld = findWorldByName(finalTargetWorldName);
-                                            if (targetWorld != null) {
-                                                Teleport teleport = new Teleport(targetWorld, spawnPos, spawnRot);
-                                                store.putComponent(ref, Teleport.getComponentType(), teleport);
+                                        World targetWorld = findWorldByName(finalTargetWorldName);
+                                        if (targetWorld != null) {
+                                            Teleport teleport = new Teleport(targetWorld, spawnPos, spawnRot);
+                                            store.putComponent(ref, Teleport.getComponentType(), teleport);
 
-                                                if (configManager.isDebugEnabled()) {
-                                                    logger.info("[SpawnOnLogin] Teleported " + finalPlayerName +
-                                                            " to spawn in world '" + finalTargetWorldName + "' at " +
-                                                            String.format("%.1f, %.1f, %.1f", spawn.x, spawn.y, spawn.z));
-                                                }
-                                            } else {
-                                                logger.warning("[SpawnOnLogin] Target world '" + finalTargetWorldName +
-                                                        "' not found for player " + finalPlayerName);
+                                            if (configManager.isDebugEnabled()) {
+                                                logger.info("[SpawnOnLogin] Teleported " + finalPlayerName +
+                                                        " to spawn in world '" + finalTargetWorldName + "' at " +
+                                                        String.format("%.1f, %.1f, %.1f", spawn.x, spawn.y, spawn.z));
                                             }
-                                        } catch (Exception e) {
-                                            logger.warning("[SpawnOnLogin] Failed cross-world teleport for " + finalPlayerName + ": " + e.getMessage());
+                                        } else {
+                                            logger.warning("[SpawnOnLogin] Target world '" + finalTargetWorldName +
+                                                    "' not found for player " + finalPlayerName);
                                         }
-                                    });
+                                    } catch (Exception e) {
+                                        logger.warning("[SpawnOnLogin] Failed cross-world teleport for " + finalPlayerName + ": " + e.getMessage());
+                                    }
                                 }, 2, TimeUnit.SECONDS);
                                 
                                 if (configManager.isDebugEnabled()) {
@@ -495,41 +499,39 @@ public class JoinQuitListener {
                                 // Same world teleport - still needs delay to let player fully load
                                 final String finalPlayerName = playerName;
                                 final String expectedWorldName = worldName;
-                                scheduler.schedule(() -> {
-                                    world.execute(() -> {
-                                        try {
-                                            if (!ref.isValid()) {
+                                scheduler.scheduleOnWorld("joinquit.login-spawn", world, () -> {
+                                    try {
+                                        if (!ref.isValid()) {
+                                            if (configManager.isDebugEnabled()) {
+                                                logger.info("[SpawnOnLogin] Player ref no longer valid for spawn teleport (player may have changed worlds)");
+                                            }
+                                            return;
+                                        }
+                                        
+                                        // Verify player is still in the expected world
+                                        EntityStore currentEntityStore = store.getExternalData();
+                                        if (currentEntityStore != null) {
+                                            World currentWorld = currentEntityStore.getWorld();
+                                            if (currentWorld != null && !currentWorld.getName().equalsIgnoreCase(expectedWorldName)) {
                                                 if (configManager.isDebugEnabled()) {
-                                                    logger.info("[SpawnOnLogin] Player ref no longer valid for spawn teleport (player may have changed worlds)");
+                                                    logger.info("[SpawnOnLogin] Player " + finalPlayerName + " changed worlds before teleport (now in '" + 
+                                                        currentWorld.getName() + "'), skipping spawn teleport");
                                                 }
                                                 return;
                                             }
-                                            
-                                            // Verify player is still in the expected world
-                                            EntityStore currentEntityStore = store.getExternalData();
-                                            if (currentEntityStore != null) {
-                                                World currentWorld = currentEntityStore.getWorld();
-                                                if (currentWorld != null && !currentWorld.getName().equalsIgnoreCase(expectedWorldName)) {
-                                                    if (configManager.isDebugEnabled()) {
-                                                        logger.info("[SpawnOnLogin] Player " + finalPlayerName + " changed worlds before teleport (now in '" + 
-                                                            currentWorld.getName() + "'), skipping spawn teleport");
-                                                    }
-                                                    return;
-                                                }
-                                            }
-                                            
-                                            // ALWAYS include world in Teleport constructor (even for same-world)
-                                            Teleport teleport = new Teleport(world, spawnPos, spawnRot);
-                                            store.putComponent(ref, Teleport.getComponentType(), teleport);
-                                            
-                                            if (configManager.isDebugEnabled()) {
-                                                logger.info("[SpawnOnLogin] Teleported " + finalPlayerName + " to spawn at " +
-                                                    String.format("%.1f, %.1f, %.1f", spawn.x, spawn.y, spawn.z));
-                                            }
-                                        } catch (Exception e) {
-                                            logger.warning("[SpawnOnLogin] Failed to teleport " + finalPlayerName + " to spawn: " + e.getMessage());
                                         }
-                                    });
+                                        
+                                        // ALWAYS include world in Teleport constructor (even for same-world)
+                                        Teleport teleport = new Teleport(world, spawnPos, spawnRot);
+                                        store.putComponent(ref, Teleport.getComponentType(), teleport);
+                                        
+                                        if (configManager.isDebugEnabled()) {
+                                            logger.info("[SpawnOnLogin] Teleported " + finalPlayerName + " to spawn at " +
+                                                String.format("%.1f, %.1f, %.1f", spawn.x, spawn.y, spawn.z));
+                                        }
+                                    } catch (Exception e) {
+                                        logger.warning("[SpawnOnLogin] Failed to teleport " + finalPlayerName + " to spawn: " + e.getMessage());
+                                    }
                                 }, 2, TimeUnit.SECONDS);
                                 
                                 if (configManager.isDebugEnabled()) {
@@ -569,7 +571,7 @@ public class JoinQuitListener {
                 if (unreadCount > 0) {
                     int mailDelay = config.mail.notifyDelaySeconds;
                     final int finalUnreadCount = unreadCount;
-                    scheduler.schedule(() -> {
+                    scheduler.schedule("joinquit.mail-notify", () -> {
                         String mailMsg = configManager.getMessage("mailNotifyLogin",
                                 "count", String.valueOf(finalUnreadCount));
                         playerRef.sendMessage(MessageFormatter.format(mailMsg));
@@ -632,6 +634,9 @@ public class JoinQuitListener {
                 broadcastMessage(message, "#FF5555", playerRef);
             }
         }
+        
+        // Drop cached permission decisions last - the quit handling above may still check them
+        PermissionService.get().onPlayerQuit(playerId);
     }
 
     /**
@@ -726,7 +731,7 @@ public class JoinQuitListener {
      * Schedule global MOTD display after delay.
      */
     private void scheduleGlobalMotd(PlayerRef playerRef, int delaySeconds, String worldName) {
-        scheduler.schedule(() -> showGlobalMotd(playerRef, worldName), delaySeconds, TimeUnit.SECONDS);
+        scheduler.schedule("joinquit.motd", () -> showGlobalMotd(playerRef, worldName), delaySeconds, TimeUnit.SECONDS);
     }
 
     /**
@@ -765,21 +770,6 @@ public class JoinQuitListener {
         }
     }
 
-    /**
-     * Shutdown the executor service for clean plugin unload.
-     */
-    public void shutdown() {
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
-    }
-
     /**
      * Update packet filters for all online players.
      * Called on reload to apply new suppressDefaultMessages setting.
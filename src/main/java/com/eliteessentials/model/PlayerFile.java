@@ -5,6 +5,10 @@ import java.util.*;
 /**
  * Unified player data file stored as players/{uuid}.json.
  * Contains all per-player data: homes, back history, kit claims, economy, etc.
+ *
+ * Collection changes hold the instance lock, the same lock player stores hold
+ * while serializing, so a file is never written mid-change. Callers that change
+ * a collection returned by a getter must hold the lock themselves.
  */
 public class PlayerFile {
     
@@ -18,11 +22,14 @@ public class PlayerFile {
     
     // Economy & stats
     private long playTime;  // Total play time in seconds
-    private double wallet;
+    private volatile double wallet;  // Written under WalletEngine locks, read without them
     
     // Admin state
     private boolean vanished;  // Whether player is in vanish mode
     
+    // Last player journal sequence folded into this file (see PlayerJournal)
+    private long journalSeq;
+    
     // Homes: name -> Home
     private Map<String, Home> homes = new LinkedHashMap<>();
     
@@ -136,37 +143,47 @@ public class PlayerFile {
         this.vanished = vanished;
     }
     
+    // ==================== Storage ====================
+    
+    public long getJournalSeq() {
+        return journalSeq;
+    }
+    
+    public void setJournalSeq(long journalSeq) {
+        this.journalSeq = journalSeq;
+    }
+    
     // ==================== Homes ====================
     
     public Map<String, Home> getHomes() {
         return homes;
     }
     
-    public void setHomes(Map<String, Home> homes) {
+    public synchronized void setHomes(Map<String, Home> homes) {
         this.homes = homes != null ? homes : new LinkedHashMap<>();
     }
     
-    public Optional<Home> getHome(String name) {
+    public synchronized Optional<Home> getHome(String name) {
         return Optional.ofNullable(homes.get(name.toLowerCase()));
     }
     
-    public void setHome(Home home) {
+    public synchronized void setHome(Home home) {
         homes.put(home.getName().toLowerCase(), home);
     }
     
-    public boolean deleteHome(String name) {
+    public synchronized boolean deleteHome(String name) {
         return homes.remove(name.toLowerCase()) != null;
     }
     
-    public boolean hasHome(String name) {
+    public synchronized boolean hasHome(String name) {
         return homes.containsKey(name.toLowerCase());
     }
     
-    public int getHomeCount() {
+    public synchronized int getHomeCount() {
         return homes.size();
     }
     
-    public Set<String> getHomeNames() {
+    public synchronized Set<String> getHomeNames() {
         return new HashSet<>(homes.keySet());
     }
     
@@ -176,11 +193,11 @@ public class PlayerFile {
         return backHistory;
     }
     
-    public void setBackHistory(List<Location> backHistory) {
+    public synchronized void setBackHistory(List<Location> backHistory) {
         this.backHistory = backHistory != null ? backHistory : new ArrayList<>();
     }
     
-    public void pushBackLocation(Location location, int maxHistory) {
+    public synchronized void pushBackLocation(Location location, int maxHistory) {
         if (location == null) return;
         backHistory.add(0, location.clone());
         while (backHistory.size() > maxHistory) {
@@ -188,21 +205,21 @@ public class PlayerFile {
         }
     }
     
-    public Optional<Location> peekBackLocation() {
+    public synchronized Optional<Location> peekBackLocation() {
         if (backHistory.isEmpty()) return Optional.empty();
         return Optional.of(backHistory.get(0).clone());
     }
     
-    public Optional<Location> popBackLocation() {
+    public synchronized Optional<Location> popBackLocation() {
         if (backHistory.isEmpty()) return Optional.empty();
         return Optional.of(backHistory.remove(0));
     }
     
-    public int getBackHistorySize() {
+    public synchronized int getBackHistorySize() {
         return backHistory.size();
     }
     
-    public void clearBackHistory() {
+    public synchronized void clearBackHistory() {
         backHistory.clear();
     }
     
@@ -212,15 +229,15 @@ public class PlayerFile {
         return kitClaims;
     }
     
-    public void setKitClaims(Set<String> kitClaims) {
+    public synchronized void setKitClaims(Set<String> kitClaims) {
         this.kitClaims = kitClaims != null ? kitClaims : new HashSet<>();
     }
     
-    public boolean hasClaimedKit(String kitId) {
+    public synchronized boolean hasClaimedKit(String kitId) {
         return kitClaims.contains(kitId.toLowerCase());
     }
     
-    public void claimKit(String kitId) {
+    public synchronized void claimKit(String kitId) {
         kitClaims.add(kitId.toLowerCase());
     }
     
@@ -230,48 +247,48 @@ public class PlayerFile {
         return kitCooldowns;
     }
     
-    public void setKitCooldowns(Map<String, Long> kitCooldowns) {
+    public synchronized void setKitCooldowns(Map<String, Long> kitCooldowns) {
         this.kitCooldowns = kitCooldowns != null ? kitCooldowns : new HashMap<>();
     }
     
-    public long getKitLastUsed(String kitId) {
+    public synchronized long getKitLastUsed(String kitId) {
         return kitCooldowns.getOrDefault(kitId.toLowerCase(), 0L);
     }
     
-    public void setKitUsed(String kitId) {
+    public synchronized void setKitUsed(String kitId) {
         kitCooldowns.put(kitId.toLowerCase(), System.currentTimeMillis());
     }
     
-    public void clearKitCooldowns() {
+    public synchronized void clearKitCooldowns() {
         kitCooldowns.clear();
     }
     
     // ==================== Playtime Claims ====================
     
-    public PlaytimeClaims getPlaytimeClaims() {
+    public synchronized PlaytimeClaims getPlaytimeClaims() {
         if (playtimeClaims == null) {
             playtimeClaims = new PlaytimeClaims();
         }
         return playtimeClaims;
     }
     
-    public void setPlaytimeClaims(PlaytimeClaims playtimeClaims) {
+    public synchronized void setPlaytimeClaims(PlaytimeClaims playtimeClaims) {
         this.playtimeClaims = playtimeClaims != null ? playtimeClaims : new PlaytimeClaims();
     }
     
-    public boolean hasClaimedMilestone(String rewardId) {
+    public synchronized boolean hasClaimedMilestone(String rewardId) {
         return getPlaytimeClaims().claimedMilestones.contains(rewardId);
     }
     
-    public void claimMilestone(String rewardId) {
+    public synchronized void claimMilestone(String rewardId) {
         getPlaytimeClaims().claimedMilestones.add(rewardId);
     }
     
-    public int getRepeatableClaimCount(String rewardId) {
+    public synchronized int getRepeatableClaimCount(String rewardId) {
         return getPlaytimeClaims().repeatableCounts.getOrDefault(rewardId, 0);
     }
     
-    public void incrementRepeatableClaim(String rewardId) {
+    public synchronized void incrementRepeatableClaim(String rewardId) {
         PlaytimeClaims claims = getPlaytimeClaims();
         int current = claims.repeatableCounts.getOrDefault(rewardId, 0);
         claims.repeatableCounts.put(rewardId, current + 1);
@@ -279,26 +296,26 @@ public class PlayerFile {
     
     // ==================== Mailbox ====================
     
-    public List<MailMessage> getMailbox() {
+    public synchronized List<MailMessage> getMailbox() {
         if (mailbox == null) {
             mailbox = new ArrayList<>();
         }
         return mailbox;
     }
     
-    public void setMailbox(List<MailMessage> mailbox) {
+    public synchronized void setMailbox(List<MailMessage> mailbox) {
         this.mailbox = mailbox != null ? mailbox : new ArrayList<>();
     }
     
-    public void addMail(MailMessage mail) {
+    public synchronized void addMail(MailMessage mail) {
         getMailbox().add(0, mail); // Add to front (newest first)
     }
     
-    public int getUnreadMailCount() {
+    public synchronized int getUnreadMailCount() {
         return (int) getMailbox().stream().filter(m -> !m.isRead()).count();
     }
     
-    public void clearMailbox() {
+    public synchronized void clearMailbox() {
         getMailbox().clear();
     }
     
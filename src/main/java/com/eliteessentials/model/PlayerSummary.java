@@ -0,0 +1,20 @@
+package com.eliteessentials.model;
+
+import java.util.UUID;
+
+/**
+ * Lightweight snapshot of the leaderboard fields of a player file.
+ * Used by baltop, playtime and last-seen queries so offline players
+ * never need their full PlayerFile loaded.
+ */
+public record PlayerSummary(
+    UUID uuid,
+    String name,
+    double wallet,
+    long playTime,
+    long lastSeen
+) {
+    public static PlayerSummary of(PlayerFile data) {
+        return new PlayerSummary(data.getUuid(), data.getName(), data.getWallet(), data.getPlayTime(), data.getLastSeen());
+    }
+}
@@ -0,0 +1,75 @@
+package com.eliteessentials.permissions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A player's resolved command rules: bypass flags and permission-based
+ * cooldown, warmup and cost for every command in COMMANDS, plus max homes.
+ *
+ * Resolved once (at join, or on first use after a change) and kept in the
+ * PermissionCache, so a command reads its rules with one lookup instead of
+ * a switch on the command name and several permission checks. The cache drops
+ * it when the player's permissions change and on /ee reload, and the next
+ * command resolves a new one.
+ *
+ * Cooldown, warmup and cost are 0 when bypassed, the permission-based value
+ * when the player has one, or -1 to use the configured default.
+ */
+public final class CommandPolicy {
+
+    /**
+     * Commands resolved into every policy. Other commands are resolved per call.
+     */
+    static final List<String> COMMANDS = List.of(
+            "home", "sethome", "spawn", "warp", "back", "rtp", "tpa", "tpahere", "tphere",
+            "top", "heal", "god", "fly", "repair", "clearinv");
+
+    /**
+     * Resolved rules for one command.
+     */
+    public record Rules(boolean bypassCooldown, boolean bypassWarmup, boolean bypassCost,
+                        int cooldown, int warmup, int cost) {
+
+        public int cooldownOr(int defaultCooldown) {
+            return cooldown >= 0 ? cooldown : defaultCooldown;
+        }
+
+        public int warmupOr(int defaultWarmup) {
+            return warmup >= 0 ? warmup : defaultWarmup;
+        }
+
+        public double costOr(double defaultCost) {
+            return cost >= 0 ? cost : defaultCost;
+        }
+    }
+
+    private final Map<String, Rules> rules;
+    private final int maxHomes;
+
+    private CommandPolicy(Map<String, Rules> rules, int maxHomes) {
+        this.rules = rules;
+        this.maxHomes = maxHomes;
+    }
+
+    static CommandPolicy resolve(PermissionService perms, UUID playerId) {
+        Map<String, Rules> rules = new HashMap<>();
+        for (String command : COMMANDS) {
+            rules.put(command, perms.resolveRules(playerId, command));
+        }
+        return new CommandPolicy(rules, perms.resolveMaxHomes(playerId));
+    }
+
+    /**
+     * Rules for a command, or null if it isn't one of COMMANDS.
+     */
+    public Rules get(String command) {
+        return rules.get(command);
+    }
+
+    public int getMaxHomes() {
+        return maxHomes;
+    }
+}
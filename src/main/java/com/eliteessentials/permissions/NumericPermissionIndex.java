@@ -0,0 +1,100 @@
+package com.eliteessentials.permissions;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A player's numeric permission values (limits, cooldowns, warmups, costs),
+ * indexed by prefix.
+ *
+ * Built in one pass over the resolved permission map: every granted node whose
+ * last segment is a number, like eliteessentials.command.home.limit.5, is filed
+ * under its prefix (eliteessentials.command.home.limit.) with the lowest and
+ * highest number seen. A lookup is then a single hash lookup instead of a scan
+ * of every node the player has.
+ *
+ * Immutable - PermissionCache builds a new index after the player's
+ * permissions change.
+ */
+public final class NumericPermissionIndex {
+
+    public static final NumericPermissionIndex EMPTY = new NumericPermissionIndex(Collections.emptyMap());
+
+    private final Map<String, Range> ranges;
+
+    private record Range(int lowest, int highest) {
+        Range with(int value) {
+            return new Range(Math.min(lowest, value), Math.max(highest, value));
+        }
+    }
+
+    private NumericPermissionIndex(Map<String, Range> ranges) {
+        this.ranges = ranges;
+    }
+
+    /**
+     * Index the granted numeric nodes of a resolved permission map.
+     */
+    public static NumericPermissionIndex of(Map<String, Boolean> permissions) {
+        Map<String, Range> ranges = new HashMap<>();
+        for (Map.Entry<String, Boolean> entry : permissions.entrySet()) {
+            if (!Boolean.TRUE.equals(entry.getValue())) {
+                continue;
+            }
+            String key = entry.getKey();
+            int dot = key.lastIndexOf('.');
+            if (dot < 0 || !isNumber(key, dot + 1)) {
+                continue;
+            }
+            int value;
+            try {
+                value = Integer.parseInt(key, dot + 1, key.length(), 10);
+            } catch (NumberFormatException e) {
+                continue; // Out of int range
+            }
+            ranges.merge(key.substring(0, dot + 1), new Range(value, value),
+                    (existing, added) -> existing.with(added.lowest));
+        }
+        return ranges.isEmpty() ? EMPTY : new NumericPermissionIndex(ranges);
+    }
+
+    private static boolean isNumber(String key, int start) {
+        if (start < key.length() && (key.charAt(start) == '-' || key.charAt(start) == '+')) {
+            start++;
+        }
+        if (start >= key.length()) {
+            return false;
+        }
+        for (int i = start; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lowest value granted under a prefix (e.g. a cooldown), or -1 if none.
+     */
+    public int getLowest(String prefix) {
+        Range range = ranges.get(prefix);
+        return range != null ? range.lowest : -1;
+    }
+
+    /**
+     * Highest value granted under a prefix (e.g. a home limit), or -1 if none.
+     */
+    public int getHighest(String prefix) {
+        Range range = ranges.get(prefix);
+        return range != null ? range.highest : -1;
+    }
+
+    /**
+     * Number of distinct prefixes with at least one numeric node.
+     */
+    public int size() {
+        return ranges.size();
+    }
+}
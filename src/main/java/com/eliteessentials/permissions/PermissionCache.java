@@ -0,0 +1,163 @@
+package com.eliteessentials.permissions;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Per-player cache of permission decisions for PermissionService.
+ *
+ * Caches boolean checks (including negative results) by node, plus the
+ * player's NumericPermissionIndex (cooldowns, warmups, limits, costs) and
+ * CommandPolicy, each built once per permission change. Chat formatting,
+ * GUIs, placeholders and commands repeat the same checks on every message,
+ * refresh or use, so almost all of them become a map lookup.
+ *
+ * Decisions are only correct while nothing changes the player's permissions,
+ * so the cache is only enabled once LuckPerms change events are hooked up:
+ * - a user's data recalculated -> that player's decisions are dropped
+ * - a group's data recalculated, or a network sync -> everything is dropped
+ *   (any player may inherit the group)
+ * - a player quits -> their decisions are dropped
+ *
+ * An invalidation replaces the player's entry instead of clearing it, so a
+ * check that was already resolving with the old permissions stores its result
+ * in the discarded entry and never in the live one.
+ */
+public class PermissionCache {
+
+    private final Map<UUID, Decisions> players = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong playerInvalidations = new AtomicLong();
+    private final AtomicLong fullInvalidations = new AtomicLong();
+
+    private static final class Decisions {
+        final Map<String, Boolean> nodes = new ConcurrentHashMap<>();
+        volatile NumericPermissionIndex numericValues;
+        volatile CommandPolicy policy;
+    }
+
+    // ==================== Lookups ====================
+
+    /**
+     * Whether a player has a permission node, resolving and caching it on a miss.
+     */
+    public boolean hasPermission(UUID playerId, String node, Predicate<String> resolver) {
+        if (!enabled || playerId == null) {
+            return resolver.test(node);
+        }
+        Decisions decisions = players.computeIfAbsent(playerId, id -> new Decisions());
+        Boolean cached = decisions.nodes.get(node);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        boolean value = resolver.test(node);
+        decisions.nodes.put(node, value);
+        return value;
+    }
+
+    /**
+     * A player's numeric permission values, building the index on a miss.
+     * Two threads missing at once may both build it - the result is the same.
+     */
+    public NumericPermissionIndex getNumericValues(UUID playerId, Supplier<NumericPermissionIndex> builder) {
+        if (!enabled || playerId == null) {
+            return builder.get();
+        }
+        Decisions decisions = players.computeIfAbsent(playerId, id -> new Decisions());
+        NumericPermissionIndex cached = decisions.numericValues;
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        NumericPermissionIndex index = builder.get();
+        decisions.numericValues = index;
+        return index;
+    }
+
+    /**
+     * A player's command policy, resolving it on a miss. Null while the cache
+     * is disabled - a policy can't be kept without change events, and
+     * resolving every command for a single check would cost more than it saves.
+     */
+    public CommandPolicy getPolicy(UUID playerId, Supplier<CommandPolicy> resolver) {
+        if (!enabled || playerId == null) {
+            return null;
+        }
+        Decisions decisions = players.computeIfAbsent(playerId, id -> new Decisions());
+        CommandPolicy cached = decisions.policy;
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        CommandPolicy policy = resolver.get();
+        decisions.policy = policy;
+        return policy;
+    }
+
+    // ==================== Invalidation ====================
+
+    /**
+     * Turn caching on (change events are hooked up) or off (dropping everything).
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        players.clear();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * A player's permissions changed.
+     */
+    public void invalidate(UUID playerId) {
+        if (players.remove(playerId) != null) {
+            playerInvalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * Permissions of any number of players changed (group edit, sync, reload).
+     */
+    public void invalidateAll() {
+        players.clear();
+        fullInvalidations.incrementAndGet();
+    }
+
+    /**
+     * A player left - their decisions are no longer needed.
+     */
+    public void remove(UUID playerId) {
+        players.remove(playerId);
+    }
+
+    // ==================== Stats ====================
+
+    public Stats getStats() {
+        return new Stats(enabled, players.size(), hits.get(), misses.get(),
+                playerInvalidations.get(), fullInvalidations.get());
+    }
+
+    /**
+     * Permission cache metrics.
+     */
+    public record Stats(boolean enabled, int players, long hits, long misses,
+                        long playerInvalidations, long fullInvalidations) {
+        public double hitRatio() {
+            long total = hits + misses;
+            return total > 0 ? hits / (double) total : 0.0;
+        }
+    }
+}
@@ -22,6 +22,9 @@ public class PermissionService {
 
     private static final Logger logger = Logger.getLogger("EliteEssentials");
     private static PermissionService instance;
+    
+    // Decisions per player, enabled once LuckPerms change events are hooked up
+    private final PermissionCache cache = new PermissionCache();
 
     private PermissionService() {}
 
@@ -45,6 +48,31 @@ public class PermissionService {
         }
     }
 
+    // ==================== DECISION CACHE ====================
+    
+    /**
+     * The per-player decision cache (LuckPerms invalidates it on changes).
+     */
+    public PermissionCache getCache() {
+        return cache;
+    }
+    
+    /**
+     * Make sure LuckPerms has a joining player loaded, so permission lookups
+     * for them never have to wait for (or miss) a load, then resolve their
+     * command policy so their first command doesn't have to.
+     */
+    public void onPlayerJoin(UUID playerId) {
+        LuckPermsIntegration.loadUser(playerId).thenRun(() -> getPolicy(playerId));
+    }
+    
+    /**
+     * Drop a player's cached decisions when they leave.
+     */
+    public void onPlayerQuit(UUID playerId) {
+        cache.remove(playerId);
+    }
+
     // ==================== BASIC PERMISSION CHECKS ====================
 
     /**
@@ -58,6 +86,13 @@ public class PermissionService {
      * Check if a player has a permission with a default value.
      */
     public boolean hasPermission(UUID playerId, String permission, boolean defaultValue) {
+        if (defaultValue) {
+            return resolvePermission(playerId, permission, true);
+        }
+        return cache.hasPermission(playerId, permission, node -> resolvePermission(playerId, node, false));
+    }
+    
+    private boolean resolvePermission(UUID playerId, String permission, boolean defaultValue) {
         try {
             PermissionsModule perms = PermissionsModule.get();
             return perms.hasPermission(playerId, permission, defaultValue);
@@ -183,12 +218,48 @@ public class PermissionService {
         return hasPermission(sender, advancedPermission) || isAdmin(sender);
     }
 
+    // ==================== COMMAND POLICY ====================
+
+    /**
+     * The player's resolved command policy, or null while the decision cache is
+     * disabled (then each check resolves its permissions directly).
+     */
+    public CommandPolicy getPolicy(UUID playerId) {
+        return cache.getPolicy(playerId, () -> CommandPolicy.resolve(this, playerId));
+    }
+
+    /**
+     * Cached rules for a command, or null if there is no policy or the command isn't in it.
+     */
+    private CommandPolicy.Rules getRules(UUID playerId, String commandName) {
+        CommandPolicy policy = getPolicy(playerId);
+        return policy != null ? policy.get(commandName) : null;
+    }
+
+    /**
+     * Resolve a command's rules from the player's permissions.
+     */
+    CommandPolicy.Rules resolveRules(UUID playerId, String commandName) {
+        return new CommandPolicy.Rules(
+                resolveBypassCooldown(playerId, commandName),
+                resolveBypassWarmup(playerId, commandName),
+                resolveBypassCost(playerId, commandName),
+                resolveCooldown(playerId, commandName),
+                resolveWarmup(playerId, commandName),
+                resolveCost(playerId, commandName));
+    }
+
     // ==================== BYPASS CHECKS ====================
 
     /**
      * Check if a player can bypass cooldown for a command.
      */
     public boolean canBypassCooldown(UUID playerId, String commandName) {
+        CommandPolicy.Rules rules = getRules(playerId, commandName);
+        return rules != null ? rules.bypassCooldown() : resolveBypassCooldown(playerId, commandName);
+    }
+
+    private boolean resolveBypassCooldown(UUID playerId, String commandName) {
         // Check global bypass first
         if (hasPermission(playerId, Permissions.BYPASS_COOLDOWN)) {
             return true;
@@ -201,6 +272,11 @@ public class PermissionService {
      * Check if a player can bypass warmup for a command.
      */
     public boolean canBypassWarmup(UUID playerId, String commandName) {
+        CommandPolicy.Rules rules = getRules(playerId, commandName);
+        return rules != null ? rules.bypassWarmup() : resolveBypassWarmup(playerId, commandName);
+    }
+
+    private boolean resolveBypassWarmup(UUID playerId, String commandName) {
         // Check global bypass first
         if (hasPermission(playerId, Permissions.BYPASS_WARMUP)) {
             return true;
@@ -209,6 +285,28 @@ public class PermissionService {
         return hasPermission(playerId, Permissions.bypassWarmup(commandName));
     }
 
+    /**
+     * Check if a player can bypass cost for a command.
+     * Admins always bypass. Otherwise checks general and specific bypass permissions.
+     */
+    public boolean canBypassCost(UUID playerId, String commandName) {
+        CommandPolicy.Rules rules = getRules(playerId, commandName);
+        return rules != null ? rules.bypassCost() : resolveBypassCost(playerId, commandName);
+    }
+
+    private boolean resolveBypassCost(UUID playerId, String commandName) {
+        // Admins always bypass
+        if (isAdmin(playerId)) {
+            return true;
+        }
+        // Check general bypass permission
+        if (hasPermission(playerId, Permissions.BYPASS_COST)) {
+            return true;
+        }
+        // Check command-specific bypass permission
+        return hasPermission(playerId, Permissions.bypassCost(commandName));
+    }
+
     // ==================== LIMIT CHECKS ====================
 
     /**
@@ -222,6 +320,11 @@ public class PermissionService {
      * Note: Custom limit values require LuckPerms. Without LuckPerms, only config default is used.
      */
     public int getMaxHomes(UUID playerId) {
+        CommandPolicy policy = getPolicy(playerId);
+        return policy != null ? policy.getMaxHomes() : resolveMaxHomes(playerId);
+    }
+
+    int resolveMaxHomes(UUID playerId) {
         ConfigManager configManager = EliteEssentials.getInstance().getConfigManager();
         int defaultMax = configManager.getMaxHomes();
         
@@ -251,118 +354,49 @@ public class PermissionService {
     
     /**
      * Get the highest numeric value from a permission node pattern.
-     * Used for limits where higher is better (e.g., home limits).
+     * Used for limits where higher is better (e.g., home and warp limits).
      * 
      * @param playerId Player UUID
      * @param permissionPrefix Permission prefix to search for
      * @return The highest value found, or -1 if not found
      */
-    private int getHighestPermissionValue(UUID playerId, String permissionPrefix) {
-        ConfigManager configManager = EliteEssentials.getInstance().getConfigManager();
-        boolean debug = configManager != null && configManager.isDebugEnabled();
+    public int getHighestPermissionValue(UUID playerId, String permissionPrefix) {
+        int value = getNumericPermissions(playerId).getHighest(permissionPrefix);
         
-        if (!LuckPermsIntegration.isAvailable()) {
-            if (debug) {
-                logger.info("[HomeLimit] LuckPerms not available");
-            }
-            return -1;
-        }
-        
-        // Use reflection to call a modified version that returns highest instead of lowest
-        try {
-            Object[] lpObjects = getLuckPermsObjectsViaReflection(playerId);
-            if (lpObjects == null) {
-                if (debug) {
-                    logger.info("[HomeLimit] Could not get LuckPerms objects for player");
-                }
-                return -1;
-            }
-            
-            Object user = lpObjects[2];
-            
-            // Get CachedData -> PermissionData -> PermissionMap
-            java.lang.reflect.Method getCachedDataMethod = user.getClass().getMethod("getCachedData");
-            Object cachedData = getCachedDataMethod.invoke(user);
-            
-            java.lang.reflect.Method getPermissionDataMethod = cachedData.getClass().getMethod("getPermissionData");
-            Object permissionData = getPermissionDataMethod.invoke(cachedData);
-            
-            java.lang.reflect.Method getPermissionMapMethod = permissionData.getClass().getMethod("getPermissionMap");
-            @SuppressWarnings("unchecked")
-            java.util.Map<String, Boolean> permMap = (java.util.Map<String, Boolean>) getPermissionMapMethod.invoke(permissionData);
-            
-            if (debug) {
-                logger.info("[HomeLimit] Searching for prefix: " + permissionPrefix);
-                logger.info("[HomeLimit] Permission map has " + permMap.size() + " entries");
-                // Log all permissions that contain "home" or "limit"
-                for (java.util.Map.Entry<String, Boolean> entry : permMap.entrySet()) {
-                    if (entry.getKey().contains("home") || entry.getKey().contains("limit")) {
-                        logger.info("[HomeLimit] Found perm: " + entry.getKey() + " = " + entry.getValue());
-                    }
-                }
-            }
-            
-            int highestValue = -1;
-            
-            for (java.util.Map.Entry<String, Boolean> entry : permMap.entrySet()) {
-                if (entry.getValue() && entry.getKey().startsWith(permissionPrefix)) {
-                    String valuePart = entry.getKey().substring(permissionPrefix.length());
-                    try {
-                        int value = Integer.parseInt(valuePart);
-                        if (debug) {
-                            logger.info("[HomeLimit] Matched: " + entry.getKey() + " -> value " + value);
-                        }
-                        if (value > highestValue) {
-                            highestValue = value;
-                        }
-                    } catch (NumberFormatException ignored) {}
-                }
-            }
-            
-            if (debug) {
-                logger.info("[HomeLimit] Final result for prefix '" + permissionPrefix + "': " + highestValue);
-            }
-            
-            return highestValue;
-            
-        } catch (Exception e) {
-            if (debug) {
-                logger.info("[HomeLimit] Exception: " + e.getMessage());
-            }
-            return -1;
+        ConfigManager configManager = EliteEssentials.getInstance().getConfigManager();
+        if (configManager != null && configManager.isDebugEnabled()) {
+            logger.info("[PermissionValue] Highest value for prefix '" + permissionPrefix + "': " + value);
         }
+        return value;
     }
     
     /**
-     * Helper to get LuckPerms objects via reflection (mirrors LuckPermsIntegration.getLuckPermsObjects)
+     * Lowest numeric value under a permission prefix (most favorable cooldown,
+     * warmup or cost), including inherited permissions. -1 if not found.
      */
-    private Object[] getLuckPermsObjectsViaReflection(UUID playerId) {
-        try {
-            Class<?> providerClass = Class.forName("net.luckperms.api.LuckPermsProvider");
-            java.lang.reflect.Method getMethod = providerClass.getMethod("get");
-            Object luckPerms = getMethod.invoke(null);
-            
-            if (luckPerms == null) return null;
-            
-            java.lang.reflect.Method getUserManagerMethod = luckPerms.getClass().getMethod("getUserManager");
-            Object userManager = getUserManagerMethod.invoke(luckPerms);
-            
-            java.lang.reflect.Method getUserMethod = userManager.getClass().getMethod("getUser", UUID.class);
-            Object user = getUserMethod.invoke(userManager, playerId);
-            
-            if (user == null) {
-                java.lang.reflect.Method loadUserMethod = userManager.getClass().getMethod("loadUser", UUID.class);
-                Object completableFuture = loadUserMethod.invoke(userManager, playerId);
-                java.lang.reflect.Method joinMethod = completableFuture.getClass().getMethod("join");
-                user = joinMethod.invoke(completableFuture);
-            }
-            
-            if (user == null) return null;
-            
-            return new Object[] { luckPerms, userManager, user };
-        } catch (Exception e) {
-            return null;
+    public int getLowestPermissionValue(UUID playerId, String permissionPrefix) {
+        return getNumericPermissions(playerId).getLowest(permissionPrefix);
+    }
+    
+    /**
+     * The player's numeric permission values by prefix, built from LuckPerms'
+     * resolved permissions once per permission change (cached).
+     */
+    private NumericPermissionIndex getNumericPermissions(UUID playerId) {
+        if (!LuckPermsIntegration.isAvailable()) {
+            return NumericPermissionIndex.EMPTY;
         }
+        return cache.getNumericValues(playerId, () -> buildNumericPermissions(playerId));
+    }
+    
+    private NumericPermissionIndex buildNumericPermissions(UUID playerId) {
+        NumericPermissionIndex index = NumericPermissionIndex.of(LuckPermsIntegration.getPermissionMap(playerId));
+        
+        ConfigManager configManager = EliteEssentials.getInstance().getConfigManager();
+        if (configManager != null && configManager.isDebugEnabled()) {
+            logger.info("[PermissionValue] Indexed " + index.size() + " numeric permission prefixes for " + playerId);
+        }
+        return index;
     }
 
     // ==================== HEAL COOLDOWN ====================
@@ -380,22 +414,7 @@ public class PermissionService {
     public int getHealCooldown(UUID playerId) {
         ConfigManager configManager = EliteEssentials.getInstance().getConfigManager();
         int defaultCooldown = configManager.getConfig().heal.cooldownSeconds;
-        
-        // Check for bypass permission first
-        if (hasPermission(playerId, Permissions.HEAL_BYPASS_COOLDOWN)) {
-            return 0;
-        }
-        
-        // Try to get custom cooldown from LuckPerms
-        if (LuckPermsIntegration.isAvailable()) {
-            int lpCooldown = LuckPermsIntegration.getInheritedPermissionValue(playerId, Permissions.HEAL_COOLDOWN_PREFIX);
-            if (lpCooldown >= 0) {
-                return lpCooldown;
-            }
-        }
-        
-        // No specific cooldown permission found, return config default
-        return defaultCooldown;
+        return cooldownOr(playerId, "heal", defaultCooldown);
     }
 
     // ==================== GENERIC COMMAND COOLDOWN ====================
@@ -417,54 +436,60 @@ public class PermissionService {
      * @return Effective cooldown in seconds
      */
     public int getCommandCooldown(UUID playerId, String commandName, int defaultCooldown) {
-        // Get bypass and cooldown prefix based on command
-        String bypassPermission;
-        String cooldownPrefix;
-        
-        switch (commandName.toLowerCase()) {
-            case "god":
-                bypassPermission = Permissions.GOD_BYPASS_COOLDOWN;
-                cooldownPrefix = Permissions.GOD_COOLDOWN_PREFIX;
-                break;
-            case "fly":
-                bypassPermission = Permissions.FLY_BYPASS_COOLDOWN;
-                cooldownPrefix = Permissions.FLY_COOLDOWN_PREFIX;
-                break;
-            case "repair":
-                bypassPermission = Permissions.REPAIR_BYPASS_COOLDOWN;
-                cooldownPrefix = Permissions.REPAIR_COOLDOWN_PREFIX;
-                break;
-            case "clearinv":
-                bypassPermission = Permissions.CLEARINV_BYPASS_COOLDOWN;
-                cooldownPrefix = Permissions.CLEARINV_COOLDOWN_PREFIX;
-                break;
-            case "top":
-                bypassPermission = Permissions.TOP_BYPASS_COOLDOWN;
-                cooldownPrefix = Permissions.TOP_COOLDOWN_PREFIX;
-                break;
-            case "heal":
-                // Use existing heal method for consistency
-                return getHealCooldown(playerId);
-            default:
-                // Unknown command, return default
-                return defaultCooldown;
+        String command = commandName.toLowerCase();
+        if (command.equals("heal")) {
+            // Use existing heal method for consistency
+            return getHealCooldown(playerId);
         }
-        
-        // Check for bypass permission first
-        if (hasPermission(playerId, bypassPermission)) {
-            return 0;
+        if (getCooldownPermissions(command) == null) {
+            // Unknown command, return default
+            return defaultCooldown;
         }
-        
-        // Try to get custom cooldown from LuckPerms
-        if (LuckPermsIntegration.isAvailable()) {
-            int lpCooldown = LuckPermsIntegration.getInheritedPermissionValue(playerId, cooldownPrefix);
-            if (lpCooldown >= 0) {
-                return lpCooldown;
+        return cooldownOr(playerId, command, defaultCooldown);
+    }
+
+    /**
+     * Bypass permission and cooldown prefix of a command with its own cooldown
+     * permissions, or null for teleport commands (tp cooldown permissions).
+     */
+    private static String[] getCooldownPermissions(String commandName) {
+        return switch (commandName) {
+            case "god" -> new String[] { Permissions.GOD_BYPASS_COOLDOWN, Permissions.GOD_COOLDOWN_PREFIX };
+            case "fly" -> new String[] { Permissions.FLY_BYPASS_COOLDOWN, Permissions.FLY_COOLDOWN_PREFIX };
+            case "repair" -> new String[] { Permissions.REPAIR_BYPASS_COOLDOWN, Permissions.REPAIR_COOLDOWN_PREFIX };
+            case "clearinv" -> new String[] { Permissions.CLEARINV_BYPASS_COOLDOWN, Permissions.CLEARINV_COOLDOWN_PREFIX };
+            case "top" -> new String[] { Permissions.TOP_BYPASS_COOLDOWN, Permissions.TOP_COOLDOWN_PREFIX };
+            case "heal" -> new String[] { Permissions.HEAL_BYPASS_COOLDOWN, Permissions.HEAL_COOLDOWN_PREFIX };
+            default -> null;
+        };
+    }
+
+    private int cooldownOr(UUID playerId, String commandName, int defaultCooldown) {
+        CommandPolicy.Rules rules = getRules(playerId, commandName);
+        int cooldown = rules != null ? rules.cooldown() : resolveCooldown(playerId, commandName);
+        return cooldown >= 0 ? cooldown : defaultCooldown;
+    }
+
+    /**
+     * Permission-based cooldown: 0 if bypassed, the LuckPerms value, or -1 for the config default.
+     * Misc commands use their own permissions, everything else the tp cooldown permissions.
+     */
+    private int resolveCooldown(UUID playerId, String commandName) {
+        String[] permissions = getCooldownPermissions(commandName);
+        if (permissions != null) {
+            // Check for bypass permission first
+            if (hasPermission(playerId, permissions[0])) {
+                return 0;
             }
+            return getLowestPermissionValue(playerId, permissions[1]);
         }
         
-        // No specific cooldown permission found, return config default
-        return defaultCooldown;
+        // Check for bypass permission first, then global TP bypass
+        if (hasPermission(playerId, Permissions.tpBypassCooldown(commandName))
+                || hasPermission(playerId, Permissions.TP_BYPASS_COOLDOWN)) {
+            return 0;
+        }
+        return getLowestPermissionValue(playerId, Permissions.TP_COOLDOWN_PREFIX + commandName + ".");
     }
 
     // ==================== TP COMMAND COOLDOWN ====================
@@ -486,27 +511,7 @@ public class PermissionService {
      * @return Effective cooldown in seconds
      */
     public int getTpCommandCooldown(UUID playerId, String commandName, int defaultCooldown) {
-        // Check for bypass permission first
-        if (hasPermission(playerId, Permissions.tpBypassCooldown(commandName))) {
-            return 0;
-        }
-        
-        // Also check global TP bypass
-        if (hasPermission(playerId, Permissions.TP_BYPASS_COOLDOWN)) {
-            return 0;
-        }
-        
-        // Try to get custom cooldown from LuckPerms
-        if (LuckPermsIntegration.isAvailable()) {
-            String cooldownPrefix = Permissions.TP_COOLDOWN_PREFIX + commandName + ".";
-            int lpCooldown = LuckPermsIntegration.getInheritedPermissionValue(playerId, cooldownPrefix);
-            if (lpCooldown >= 0) {
-                return lpCooldown;
-            }
-        }
-        
-        // No specific cooldown permission found, return config default
-        return defaultCooldown;
+        return cooldownOr(playerId, commandName, defaultCooldown);
     }
 
     // ==================== TP COMMAND WARMUP ====================
@@ -528,45 +533,30 @@ public class PermissionService {
      * @return Effective warmup in seconds
      */
     public int getTpCommandWarmup(UUID playerId, String commandName, int defaultWarmup) {
-        // Check for bypass permission first (command-specific)
-        if (hasPermission(playerId, Permissions.tpBypassWarmup(commandName))) {
-            return 0;
-        }
-        
-        // Also check global TP bypass
-        if (hasPermission(playerId, Permissions.TP_BYPASS_WARMUP)) {
+        CommandPolicy.Rules rules = getRules(playerId, commandName);
+        int warmup = rules != null ? rules.warmup() : resolveWarmup(playerId, commandName);
+        return warmup >= 0 ? warmup : defaultWarmup;
+    }
+
+    /**
+     * Permission-based warmup: 0 if bypassed, the LuckPerms value, or -1 for the config default.
+     */
+    private int resolveWarmup(UUID playerId, String commandName) {
+        // Check for bypass permission first (command-specific), then global TP bypass
+        if (hasPermission(playerId, Permissions.tpBypassWarmup(commandName))
+                || hasPermission(playerId, Permissions.TP_BYPASS_WARMUP)) {
             return 0;
         }
         
-        // Try to get custom warmup from LuckPerms based on command type
-        if (LuckPermsIntegration.isAvailable()) {
-            String warmupPrefix;
-            
-            // Route to appropriate warmup prefix based on command
-            switch (commandName.toLowerCase()) {
-                case "home":
-                    warmupPrefix = Permissions.HOME_WARMUP_PREFIX;
-                    break;
-                case "spawn":
-                    warmupPrefix = Permissions.SPAWN_WARMUP_PREFIX;
-                    break;
-                case "warp":
-                    warmupPrefix = Permissions.WARP_WARMUP_PREFIX;
-                    break;
-                default:
-                    // TP commands (rtp, back, tpa, tpahere, top)
-                    warmupPrefix = Permissions.TP_WARMUP_PREFIX + commandName + ".";
-                    break;
-            }
-            
-            int lpWarmup = LuckPermsIntegration.getInheritedPermissionValue(playerId, warmupPrefix);
-            if (lpWarmup >= 0) {
-                return lpWarmup;
-            }
-        }
-        
-        // No specific warmup permission found, return config default
-        return defaultWarmup;
+        // Route to appropriate warmup prefix based on command
+        String warmupPrefix = switch (commandName.toLowerCase()) {
+            case "home" -> Permissions.HOME_WARMUP_PREFIX;
+            case "spawn" -> Permissions.SPAWN_WARMUP_PREFIX;
+            case "warp" -> Permissions.WARP_WARMUP_PREFIX;
+            // TP commands (rtp, back, tpa, tpahere, top)
+            default -> Permissions.TP_WARMUP_PREFIX + commandName + ".";
+        };
+        return getLowestPermissionValue(playerId, warmupPrefix);
     }
 
     // ==================== COMMAND COST ====================
@@ -576,7 +566,8 @@ public class PermissionService {
      * Checks permissions like eliteessentials.cost.home.5, eliteessentials.cost.rtp.100, etc.
      * Returns the lowest cost found (most favorable to player), or the config default if no permission is set.
      * 
-     * Note: We check common cost values since Hytale's PermissionsModule doesn't expose
+     * With LuckPerms any value works (looked up in the player's numeric permission index).
+     * Without it we check common cost values since Hytale's PermissionsModule doesn't expose
      * a way to enumerate all permissions a user has. Server admins should use standard
      * cost values (0, 1, 2, 5, 10, 15, 20, 25, 50, 100, 250, 500, 1000) for best compatibility.
      * 
@@ -586,6 +577,19 @@ public class PermissionService {
      * @return The effective cost for this player
      */
     public double getCommandCost(UUID playerId, String commandName, double defaultCost) {
+        CommandPolicy.Rules rules = getRules(playerId, commandName);
+        int cost = rules != null ? rules.cost() : resolveCost(playerId, commandName);
+        return cost >= 0 ? cost : defaultCost;
+    }
+
+    /**
+     * Permission-based cost, or -1 for the config default.
+     */
+    private int resolveCost(UUID playerId, String commandName) {
+        if (LuckPermsIntegration.isAvailable()) {
+            return getLowestPermissionValue(playerId, Permissions.COST_PREFIX + commandName + ".");
+        }
+        
         // Check for specific cost permissions (common values)
         // We check from lowest to highest and return the first match
         // This way groups with lower costs get priority (VIP pays less)
@@ -597,8 +601,8 @@ public class PermissionService {
             }
         }
         
-        // No specific cost permission found, return config default
-        return defaultCost;
+        // No specific cost permission found
+        return -1;
     }
 
     // ==================== WARP ACCESS ====================
@@ -20,9 +20,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
@@ -41,11 +38,12 @@ public class AutoBroadcastService {
     
     private List<AutoBroadcast> broadcasts;
     private final Map<String, Integer> messageIndices = new ConcurrentHashMap<>();
-    private final Map<String, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
-    private ScheduledExecutorService scheduler;
+    private final Map<String, SchedulerService.Task> scheduledTasks = new ConcurrentHashMap<>();
+    private final SchedulerService scheduler;
     
-    public AutoBroadcastService(File dataFolder) {
+    public AutoBroadcastService(File dataFolder, SchedulerService scheduler) {
         this.dataFile = new File(dataFolder, "autobroadcast.json");
+        this.scheduler = scheduler;
         this.broadcasts = new ArrayList<>();
         load();
     }
@@ -95,15 +93,7 @@ public class AutoBroadcastService {
      * Start all enabled broadcast schedules.
      */
     public void start() {
-        if (scheduler != null && !scheduler.isShutdown()) {
-            shutdown();
-        }
-        
-        scheduler = Executors.newScheduledThreadPool(1, r -> {
-            Thread t = new Thread(r, "EliteEssentials-AutoBroadcast");
-            t.setDaemon(true);
-            return t;
-        });
+        shutdown();
         
         for (AutoBroadcast broadcast : broadcasts) {
             if (broadcast.isEnabled() && broadcast.getIntervalSeconds() > 0) {
@@ -119,10 +109,9 @@ public class AutoBroadcastService {
      * Schedule a single broadcast to run at its interval.
      */
     private void scheduleBroadcast(AutoBroadcast broadcast) {
-        if (scheduler == null || scheduler.isShutdown()) return;
-        
         int interval = broadcast.getIntervalSeconds();
-        ScheduledFuture<?> task = scheduler.scheduleAtFixedRate(
+        SchedulerService.Task task = scheduler.scheduleAtFixedRate(
+            "autobroadcast." + broadcast.getId(),
             () -> sendBroadcast(broadcast),
             interval,
             interval,
@@ -203,23 +192,10 @@ public class AutoBroadcastService {
      */
     public void shutdown() {
         // Cancel all scheduled tasks
-        for (ScheduledFuture<?> task : scheduledTasks.values()) {
-            task.cancel(false);
+        for (SchedulerService.Task task : scheduledTasks.values()) {
+            task.cancel();
         }
         scheduledTasks.clear();
-        
-        // Shutdown scheduler
-        if (scheduler != null && !scheduler.isShutdown()) {
-            scheduler.shutdown();
-            try {
-                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    scheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                scheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        }
     }
     
     /**
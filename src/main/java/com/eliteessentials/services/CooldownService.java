@@ -1,77 +1,386 @@
 package com.eliteessentials.services;
 
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
 /**
- * Service for managing command cooldowns.
+ * Service for managing cooldowns: commands, /rtp, kits and mail sends.
+ *
+ * Each player with an active cooldown has one compact entry holding parallel
+ * arrays of keys and expiry times, so a lookup is one hash lookup plus a scan
+ * of the few keys that player has running, and clearing a player is a single
+ * removal. Keys are command names, or "kit:<id>" / "mail:<recipient>" for
+ * cooldowns owned by other services.
+ *
+ * Expired entries are removed by a CooldownWheel ticking once per second on the
+ * plugin scheduler: each player is scheduled at their earliest expiry, so memory
+ * only holds cooldowns that are still running and expiry never scans idle players.
+ *
+ * Optionally, cooldowns with at least cooldownPersistMinSeconds left are saved
+ * to cooldowns.dat (every minute when something changed, and on shutdown) and
+ * restored on startup, so long command cooldowns survive a restart. Long kit
+ * cooldowns are also written to the player file by KitService, so they survive
+ * a crash or persistence being disabled.
  */
 public class CooldownService {
 
-    // Map of command name -> (player UUID -> expiry timestamp)
-    private final Map<String, Map<UUID, Long>> cooldowns = new ConcurrentHashMap<>();
+    private static final Logger logger = Logger.getLogger("EliteEssentials");
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final long SNAPSHOT_INTERVAL_SECONDS = 60;
+
+    private final File snapshotFile;
+    private final Map<UUID, PlayerCooldowns> players = new HashMap<>();
+    private final CooldownWheel<Wakeup> wheel = new CooldownWheel<>(System.currentTimeMillis() / 1000);
+    private final SchedulerService.Task tickTask;
+    private final SchedulerService.Task snapshotTask;
+
+    private volatile boolean persist;
+    private volatile int persistMinSeconds = 60;
+    private boolean snapshotLoaded;
+    private boolean dirty;
+
+    /**
+     * A player's running cooldowns. Removal swaps the last entry into the gap.
+     */
+    private static final class PlayerCooldowns {
+        final UUID playerId;
+        String[] keys = new String[4];
+        long[] expiries = new long[4];
+        int size;
+        Wakeup wakeup; // The live wheel entry; older ones are ignored when they fire
+
+        PlayerCooldowns(UUID playerId) {
+            this.playerId = playerId;
+        }
+
+        int indexOf(String key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i].equals(key)) return i;
+            }
+            return -1;
+        }
+
+        void put(String key, long expiry) {
+            int index = indexOf(key);
+            if (index >= 0) {
+                expiries[index] = expiry;
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                expiries = Arrays.copyOf(expiries, size * 2);
+            }
+            keys[size] = key;
+            expiries[size] = expiry;
+            size++;
+        }
+
+        void removeAt(int index) {
+            size--;
+            keys[index] = keys[size];
+            expiries[index] = expiries[size];
+            keys[size] = null;
+        }
+
+        void removeExpired(long now) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (expiries[i] <= now) removeAt(i);
+            }
+        }
+
+        long earliestExpiry() {
+            long earliest = Long.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                earliest = Math.min(earliest, expiries[i]);
+            }
+            return earliest;
+        }
+    }
+
+    private record Wakeup(PlayerCooldowns owner, long tick) {}
+
+    public CooldownService(File dataFolder, SchedulerService scheduler) {
+        this.snapshotFile = new File(dataFolder, "cooldowns.dat");
+        this.tickTask = scheduler.scheduleAtFixedRate("cooldowns.expire", this::tick, 1, 1, TimeUnit.SECONDS);
+        this.snapshotTask = scheduler.scheduleAtFixedRate("cooldowns.snapshot", this::saveIfDirty,
+                SNAPSHOT_INTERVAL_SECONDS, SNAPSHOT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Apply persistence settings. The snapshot is loaded the first time persistence is enabled.
+     */
+    public void configurePersistence(boolean enabled, int minSeconds) {
+        this.persistMinSeconds = Math.max(0, minSeconds);
+        this.persist = enabled;
+        if (enabled) {
+            synchronized (this) {
+                if (snapshotLoaded) return;
+                snapshotLoaded = true;
+            }
+            loadSnapshot();
+        }
+    }
+
+    /**
+     * Shortest cooldown (in seconds left) worth keeping across a restart.
+     */
+    public int getPersistMinSeconds() {
+        return persistMinSeconds;
+    }
+
+    // ==================== Command Cooldowns ====================
 
     /**
      * Check if a player is on cooldown for a command.
-     * 
-     * @param command Command name
+     *
+     * @param command Command name (or cooldown key)
      * @param playerId Player UUID
      * @return Seconds remaining, or 0 if not on cooldown
      */
     public int getCooldownRemaining(String command, UUID playerId) {
-        Map<UUID, Long> commandCooldowns = cooldowns.get(command);
-        if (commandCooldowns == null) return 0;
-        
-        Long expiryTime = commandCooldowns.get(playerId);
-        if (expiryTime == null) return 0;
-        
-        long remaining = expiryTime - System.currentTimeMillis();
-        if (remaining <= 0) {
-            commandCooldowns.remove(playerId);
-            return 0;
-        }
-        
-        return (int) Math.ceil(remaining / 1000.0);
+        long remaining = getRemainingMillis(command, playerId);
+        return remaining > 0 ? (int) Math.ceil(remaining / 1000.0) : 0;
+    }
+
+    /**
+     * Milliseconds left on a cooldown, or 0 if not on cooldown.
+     */
+    public synchronized long getRemainingMillis(String key, UUID playerId) {
+        PlayerCooldowns cooldowns = players.get(playerId);
+        if (cooldowns == null) return 0;
+        int index = cooldowns.indexOf(key);
+        if (index < 0) return 0;
+        // Expired entries may linger until the next tick
+        return Math.max(0, cooldowns.expiries[index] - System.currentTimeMillis());
     }
 
     /**
      * Check if a player can use a command (not on cooldown).
      */
     public boolean canUse(String command, UUID playerId) {
-        return getCooldownRemaining(command, playerId) == 0;
+        return getRemainingMillis(command, playerId) == 0;
     }
 
     /**
      * Set a cooldown for a player on a command.
-     * 
-     * @param command Command name
+     *
+     * @param command Command name (or cooldown key)
      * @param playerId Player UUID
      * @param seconds Cooldown duration in seconds
      */
     public void setCooldown(String command, UUID playerId, int seconds) {
         if (seconds <= 0) return;
-        
-        cooldowns.computeIfAbsent(command, k -> new ConcurrentHashMap<>())
-                 .put(playerId, System.currentTimeMillis() + (seconds * 1000L));
+        setExpiry(command, playerId, System.currentTimeMillis() + (seconds * 1000L));
+    }
+
+    /**
+     * Set a cooldown to end at an absolute time (epoch millis).
+     */
+    public synchronized void setExpiry(String key, UUID playerId, long expiry) {
+        if (expiry <= System.currentTimeMillis()) return;
+        PlayerCooldowns cooldowns = players.computeIfAbsent(playerId, PlayerCooldowns::new);
+        cooldowns.put(key, expiry);
+        long tick = toTick(expiry);
+        if (cooldowns.wakeup == null || tick < cooldowns.wakeup.tick) {
+            scheduleWakeup(cooldowns, tick);
+        }
+        dirty = true;
     }
 
     /**
      * Clear a player's cooldown for a command.
      */
-    public void clearCooldown(String command, UUID playerId) {
-        Map<UUID, Long> commandCooldowns = cooldowns.get(command);
-        if (commandCooldowns != null) {
-            commandCooldowns.remove(playerId);
+    public synchronized void clearCooldown(String command, UUID playerId) {
+        PlayerCooldowns cooldowns = players.get(playerId);
+        if (cooldowns == null) return;
+        int index = cooldowns.indexOf(command);
+        if (index >= 0) {
+            cooldowns.removeAt(index);
+            dropIfEmpty(cooldowns);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Clear a player's cooldowns whose key starts with a prefix (e.g. "kit:").
+     */
+    public synchronized void clearCooldowns(UUID playerId, String keyPrefix) {
+        PlayerCooldowns cooldowns = players.get(playerId);
+        if (cooldowns == null) return;
+        for (int i = cooldowns.size - 1; i >= 0; i--) {
+            if (cooldowns.keys[i].startsWith(keyPrefix)) {
+                cooldowns.removeAt(i);
+                dirty = true;
+            }
+        }
+        dropIfEmpty(cooldowns);
+    }
+
+    /**
+     * Clear a cooldown for every player.
+     */
+    public synchronized void clearCooldownForAll(String key) {
+        for (PlayerCooldowns cooldowns : new ArrayList<>(players.values())) {
+            int index = cooldowns.indexOf(key);
+            if (index >= 0) {
+                cooldowns.removeAt(index);
+                dropIfEmpty(cooldowns);
+                dirty = true;
+            }
         }
     }
 
     /**
      * Clear all cooldowns for a player.
      */
-    public void clearAllCooldowns(UUID playerId) {
-        for (Map<UUID, Long> commandCooldowns : cooldowns.values()) {
-            commandCooldowns.remove(playerId);
+    public synchronized void clearAllCooldowns(UUID playerId) {
+        PlayerCooldowns removed = players.remove(playerId);
+        if (removed != null) {
+            removed.wakeup = null;
+            dirty = true;
+        }
+    }
+
+    /**
+     * Number of players with at least one running cooldown.
+     */
+    public synchronized int getTrackedPlayers() {
+        return players.size();
+    }
+
+    // ==================== Expiry ====================
+
+    private static long toTick(long expiry) {
+        return (expiry + 999) / 1000;
+    }
+
+    private void scheduleWakeup(PlayerCooldowns cooldowns, long tick) {
+        Wakeup wakeup = new Wakeup(cooldowns, tick);
+        cooldowns.wakeup = wakeup;
+        wheel.schedule(tick, wakeup);
+    }
+
+    private void dropIfEmpty(PlayerCooldowns cooldowns) {
+        if (cooldowns.size == 0) {
+            players.remove(cooldowns.playerId, cooldowns);
+            cooldowns.wakeup = null;
+        }
+    }
+
+    private synchronized void tick() {
+        long now = System.currentTimeMillis();
+        wheel.advanceTo(now / 1000, wakeup -> {
+            PlayerCooldowns cooldowns = wakeup.owner;
+            if (cooldowns.wakeup != wakeup) return; // Superseded or player cleared
+            cooldowns.wakeup = null;
+            cooldowns.removeExpired(now);
+            if (cooldowns.size == 0) {
+                players.remove(cooldowns.playerId, cooldowns);
+            } else {
+                scheduleWakeup(cooldowns, toTick(cooldowns.earliestExpiry()));
+            }
+        });
+    }
+
+    // ==================== Persistence ====================
+
+    /**
+     * Stop expiring cooldowns and write a final snapshot.
+     */
+    public void shutdown() {
+        tickTask.cancel();
+        snapshotTask.cancel();
+        if (persist) {
+            saveSnapshot();
+        }
+    }
+
+    private void saveIfDirty() {
+        if (!persist) return;
+        synchronized (this) {
+            if (!dirty) return;
+            dirty = false;
+        }
+        saveSnapshot();
+    }
+
+    /**
+     * Written to a temp file and moved into place so a crash never leaves a partial snapshot.
+     */
+    private void saveSnapshot() {
+        long keepAfter = System.currentTimeMillis() + persistMinSeconds * 1000L;
+        Map<UUID, List<Map.Entry<String, Long>>> copy = new HashMap<>();
+        synchronized (this) {
+            for (PlayerCooldowns cooldowns : players.values()) {
+                for (int i = 0; i < cooldowns.size; i++) {
+                    if (cooldowns.expiries[i] >= keepAfter) {
+                        copy.computeIfAbsent(cooldowns.playerId, k -> new ArrayList<>())
+                                .add(Map.entry(cooldowns.keys[i], cooldowns.expiries[i]));
+                    }
+                }
+            }
+        }
+
+        File tmp = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(copy.size());
+                for (Map.Entry<UUID, List<Map.Entry<String, Long>>> player : copy.entrySet()) {
+                    out.writeLong(player.getKey().getMostSignificantBits());
+                    out.writeLong(player.getKey().getLeastSignificantBits());
+                    out.writeInt(player.getValue().size());
+                    for (Map.Entry<String, Long> entry : player.getValue()) {
+                        out.writeUTF(entry.getKey());
+                        out.writeLong(entry.getValue());
+                    }
+                }
+            }
+            try {
+                Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warning("[Cooldowns] Failed to save cooldowns.dat: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Restore saved cooldowns, skipping the ones that ran out while the server was down.
+     */
+    private void loadSnapshot() {
+        if (!snapshotFile.exists()) return;
+        long now = System.currentTimeMillis();
+        int restored = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            int version = in.readInt();
+            if (version != SNAPSHOT_VERSION) {
+                logger.warning("[Cooldowns] Ignoring cooldowns.dat with unknown version " + version);
+                return;
+            }
+            int playerCount = in.readInt();
+            for (int p = 0; p < playerCount; p++) {
+                UUID playerId = new UUID(in.readLong(), in.readLong());
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String key = in.readUTF();
+                    long expiry = in.readLong();
+                    if (expiry > now) {
+                        setExpiry(key, playerId, expiry);
+                        restored++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("[Cooldowns] Failed to load cooldowns.dat: " + e.getMessage());
+        }
+        if (restored > 0) {
+            logger.info("[Cooldowns] Restored " + restored + " cooldowns.");
         }
     }
 }
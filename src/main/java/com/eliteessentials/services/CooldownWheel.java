@@ -0,0 +1,128 @@
+package com.eliteessentials.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel with one-second ticks, used by CooldownService to
+ * find expired cooldowns without scanning every player.
+ *
+ * Four levels of 64 slots: level 0 holds deadlines less than 64 ticks away,
+ * level 1 less than 64^2, and so on up to 64^4 ticks (about 194 days). Each
+ * time a level wraps, the next level's current slot is redistributed into the
+ * lower levels, so an entry moves at most three times before it fires.
+ * Scheduling is O(1) and a tick only touches the one slot that is due.
+ * Deadlines beyond the last level are parked at its edge and re-placed when
+ * they get there.
+ *
+ * Not thread-safe - CooldownService calls it under its own lock.
+ */
+final class CooldownWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private record Timer<T>(long deadline, T value) {}
+
+    private final List<List<Timer<T>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private long currentTick;
+    private int size;
+
+    CooldownWheel(long startTick) {
+        this.currentTick = startTick;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(null);
+        }
+    }
+
+    /**
+     * Schedule a value to fire at a tick. Deadlines already reached fire on the next tick.
+     */
+    void schedule(long deadline, T value) {
+        place(new Timer<>(deadline, value), currentTick + 1);
+        size++;
+    }
+
+    /**
+     * Put a timer in the slot for its deadline, but no earlier than minTick:
+     * the next tick for new timers, the current one while cascading (its
+     * level 0 slot is fired right after).
+     */
+    private void place(Timer<T> timer, long minTick) {
+        long tick = Math.max(timer.deadline, minTick);
+        long delta = tick - currentTick;
+        if (delta >= SPAN) {
+            tick = currentTick + SPAN - 1;
+            delta = SPAN - 1;
+        }
+        int level = 0;
+        while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int index = level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        List<Timer<T>> slot = slots.get(index);
+        if (slot == null) {
+            slot = new ArrayList<>(4);
+            slots.set(index, slot);
+        }
+        slot.add(timer);
+    }
+
+    /**
+     * Advance to a tick, passing every value whose deadline was reached to the consumer.
+     */
+    void advanceTo(long tick, Consumer<T> fire) {
+        while (currentTick < tick) {
+            currentTick++;
+            // Cascade the highest wrapping level first so its entries can land in
+            // the lower-level slots cascaded right after
+            int wrapped = 0;
+            while (wrapped < LEVELS - 1 && ((currentTick >>> (SLOT_BITS * (wrapped + 1))) << (SLOT_BITS * (wrapped + 1))) == currentTick) {
+                wrapped++;
+            }
+            for (int level = wrapped; level >= 1; level--) {
+                cascade(level);
+            }
+            List<Timer<T>> due = take(0, (int) (currentTick & SLOT_MASK));
+            if (due != null) {
+                for (Timer<T> timer : due) {
+                    size--;
+                    fire.accept(timer.value);
+                }
+            }
+        }
+    }
+
+    private void cascade(int level) {
+        List<Timer<T>> slot = take(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+        if (slot != null) {
+            for (Timer<T> timer : slot) {
+                place(timer, currentTick);
+            }
+        }
+    }
+
+    private List<Timer<T>> take(int level, int slotIndex) {
+        int index = level * SLOTS + slotIndex;
+        List<Timer<T>> slot = slots.get(index);
+        if (slot != null) {
+            slots.set(index, null);
+        }
+        return slot;
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Number of scheduled values, including ones their owner no longer needs.
+     */
+    int size() {
+        return size;
+    }
+}
@@ -3,7 +3,6 @@ package com.eliteessentials.services;
 import com.eliteessentials.api.EconomyAPI;
 import com.eliteessentials.config.ConfigManager;
 import com.eliteessentials.permissions.PermissionService;
-import com.eliteessentials.permissions.Permissions;
 import com.eliteessentials.util.MessageFormatter;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
@@ -95,24 +94,7 @@ public class CostService {
      * Admins always bypass. Otherwise checks specific and general bypass permissions.
      */
     public boolean canBypassCost(UUID playerId, String commandName) {
-        PermissionService perms = PermissionService.get();
-        
-        // Admins always bypass
-        if (perms.isAdmin(playerId)) {
-            return true;
-        }
-        
-        // Check general bypass permission
-        if (perms.hasPermission(playerId, Permissions.BYPASS_COST)) {
-            return true;
-        }
-        
-        // Check command-specific bypass permission
-        if (perms.hasPermission(playerId, Permissions.bypassCost(commandName))) {
-            return true;
-        }
-        
-        return false;
+        return PermissionService.get().canBypassCost(playerId, commandName);
     }
 
     /**
@@ -386,7 +386,7 @@ public class EssentialsCoreMigrationService {
                     PlayerFile ourPlayer = playerFileStorage.getPlayer(uuid);
                     if (ourPlayer == null) {
                         // Create new player with unknown name (will update when they join)
-                        ourPlayer = playerFileStorage.getPlayer(uuid, "Unknown");
+                        ourPlayer = playerFileStorage.getOrCreatePlayer(uuid, "Unknown");
                     }
                     
                     int homesForPlayer = 0;
@@ -121,7 +121,7 @@ public class HomesPlusMigrationService {
                     
                     PlayerFile ourPlayer = playerFileStorage.getPlayer(uuid);
                     if (ourPlayer == null) {
-                        ourPlayer = playerFileStorage.getPlayer(uuid, "Unknown");
+                        ourPlayer = playerFileStorage.getOrCreatePlayer(uuid, "Unknown");
                     }
                     
                     int homesForPlayer = 0;
@@ -16,16 +16,22 @@ import java.util.logging.Logger;
 /**
  * Service for managing kits - loading, saving, and cooldown tracking.
  * Kit definitions are stored in kits.json (server-wide).
- * Kit claims and cooldowns are stored in per-player files via PlayerFileStorage.
+ * Kit claims are stored in per-player files via PlayerFileStorage.
+ * Kit cooldowns are checked through CooldownService under "kit:<id>". Kits whose
+ * cooldown is long enough to be persisted are also recorded in the player file
+ * (kit -> last use) when claimed, so they survive a crash or a server running
+ * without persistCooldowns; the service is seeded from the file on first lookup.
  */
 public class KitService {
 
     private static final Logger logger = Logger.getLogger("EliteEssentials");
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private static final String COOLDOWN_PREFIX = "kit:";
 
     private final File dataFolder;
     private final Map<String, Kit> kits = new LinkedHashMap<>();
     private PlayerFileStorage playerFileStorage;
+    private CooldownService cooldownService;
     
     // Lock for file I/O operations to prevent concurrent writes
     private final Object fileLock = new Object();
@@ -41,6 +47,13 @@ public class KitService {
     public void setPlayerFileStorage(PlayerFileStorage storage) {
         this.playerFileStorage = storage;
     }
+    
+    /**
+     * Set the cooldown service (called after initialization).
+     */
+    public void setCooldownService(CooldownService cooldownService) {
+        this.cooldownService = cooldownService;
+    }
 
     /**
      * Load kits from kits.json
@@ -138,34 +151,42 @@ public class KitService {
      */
     public long getRemainingCooldown(UUID playerId, String kitId) {
         Kit kit = getKit(kitId);
-        if (kit == null || kit.getCooldown() <= 0) {
+        if (kit == null || kit.getCooldown() <= 0 || cooldownService == null) {
             return 0;
         }
 
-        if (playerFileStorage == null) {
-            return 0;
+        String key = cooldownKey(kitId);
+        int remaining = cooldownService.getCooldownRemaining(key, playerId);
+        if (remaining > 0 || playerFileStorage == null) {
+            return remaining;
         }
-        
+
+        // Not running in memory - the player file may still have it (restart, crash or an older version)
         PlayerFile playerFile = playerFileStorage.getPlayer(playerId);
         if (playerFile == null) {
             return 0;
         }
-
         long lastUsed = playerFile.getKitLastUsed(kitId);
         if (lastUsed == 0) {
             return 0;
         }
-
-        long elapsed = (System.currentTimeMillis() - lastUsed) / 1000;
-        long remaining = kit.getCooldown() - elapsed;
-        return Math.max(0, remaining);
+        // Expired cooldowns are ignored by setExpiry
+        cooldownService.setExpiry(key, playerId, lastUsed + kit.getCooldown() * 1000L);
+        return cooldownService.getCooldownRemaining(key, playerId);
     }
 
     /**
      * Set cooldown for a player's kit usage
      */
     public void setKitUsed(UUID playerId, String kitId) {
-        if (playerFileStorage == null) return;
+        Kit kit = getKit(kitId);
+        if (kit == null || cooldownService == null) return;
+        
+        cooldownService.setCooldown(cooldownKey(kitId), playerId, kit.getCooldown());
+        
+        // Short cooldowns are only kept in memory; long ones are written with the player file
+        if (playerFileStorage == null || kit.getCooldown() <= 0
+                || kit.getCooldown() < cooldownService.getPersistMinSeconds()) return;
         
         PlayerFile playerFile = playerFileStorage.getPlayer(playerId);
         if (playerFile == null) return;
@@ -178,14 +199,22 @@ public class KitService {
      * Clear cooldowns for a player (on disconnect or admin command)
      */
     public void clearCooldowns(UUID playerId) {
+        if (cooldownService != null) {
+            cooldownService.clearCooldowns(playerId, COOLDOWN_PREFIX);
+        }
+        
         if (playerFileStorage == null) return;
         
         PlayerFile playerFile = playerFileStorage.getPlayer(playerId);
-        if (playerFile == null) return;
+        if (playerFile == null || playerFile.getKitCooldowns().isEmpty()) return;
         
         playerFile.clearKitCooldowns();
         playerFileStorage.saveAndMarkDirty(playerId);
     }
+    
+    private static String cooldownKey(String kitId) {
+        return COOLDOWN_PREFIX + kitId.toLowerCase();
+    }
 
     /**
      * Reload kits from file
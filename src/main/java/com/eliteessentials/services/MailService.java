@@ -6,7 +6,6 @@ import com.eliteessentials.model.PlayerFile;
 import com.eliteessentials.storage.PlayerFileStorage;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -26,12 +25,13 @@ public class MailService {
     private final PlayerFileStorage playerFileStorage;
     private final ConfigManager configManager;
     
-    // Spam protection: sender UUID -> (recipient UUID -> last send timestamp)
-    private final Map<UUID, Map<UUID, Long>> sendCooldowns = new ConcurrentHashMap<>();
+    // Spam protection: per-sender cooldowns keyed "mail:<recipient UUID>"
+    private final CooldownService cooldownService;
     
-    public MailService(PlayerFileStorage playerFileStorage, ConfigManager configManager) {
+    public MailService(PlayerFileStorage playerFileStorage, ConfigManager configManager, CooldownService cooldownService) {
         this.playerFileStorage = playerFileStorage;
         this.configManager = configManager;
+        this.cooldownService = cooldownService;
     }
     
     /**
@@ -58,14 +58,13 @@ public class MailService {
         
         // Check mailbox limit
         int maxMail = configManager.getConfig().mail.maxMailPerPlayer;
-        List<MailMessage> mailbox = recipientFile.getMailbox();
-        if (mailbox.size() >= maxMail) {
-            return new SendResult(false, "mailboxFull", 0);
-        }
-        
-        // Create and add the mail
         MailMessage mail = new MailMessage(senderUuid, senderName, message);
-        recipientFile.addMail(mail);
+        synchronized (recipientFile) {
+            if (recipientFile.getMailbox().size() >= maxMail) {
+                return new SendResult(false, "mailboxFull", 0);
+            }
+            recipientFile.addMail(mail);
+        }
         
         // Save the recipient's file
         playerFileStorage.saveAndMarkDirty(recipientUuid);
@@ -99,7 +98,7 @@ public class MailService {
         if (playerFile == null) {
             return 0;
         }
-        return (int) playerFile.getMailbox().stream().filter(m -> !m.isRead()).count();
+        return playerFile.getUnreadMailCount();
     }
     
     /**
@@ -111,14 +110,20 @@ public class MailService {
             return false;
         }
         
-        for (MailMessage mail : playerFile.getMailbox()) {
-            if (mail.getId().equals(mailId)) {
-                mail.markAsRead();
-                playerFileStorage.saveAndMarkDirty(playerId);
-                return true;
+        boolean found = false;
+        synchronized (playerFile) {
+            for (MailMessage mail : playerFile.getMailbox()) {
+                if (mail.getId().equals(mailId)) {
+                    mail.markAsRead();
+                    found = true;
+                    break;
+                }
             }
         }
-        return false;
+        if (found) {
+            playerFileStorage.saveAndMarkDirty(playerId);
+        }
+        return found;
     }
     
     /**
@@ -131,10 +136,12 @@ public class MailService {
         }
         
         int count = 0;
-        for (MailMessage mail : playerFile.getMailbox()) {
-            if (!mail.isRead()) {
-                mail.markAsRead();
-                count++;
+        synchronized (playerFile) {
+            for (MailMessage mail : playerFile.getMailbox()) {
+                if (!mail.isRead()) {
+                    mail.markAsRead();
+                    count++;
+                }
             }
         }
         
@@ -153,8 +160,11 @@ public class MailService {
             return 0;
         }
         
-        int count = playerFile.getMailbox().size();
-        playerFile.clearMailbox();
+        int count;
+        synchronized (playerFile) {
+            count = playerFile.getMailbox().size();
+            playerFile.clearMailbox();
+        }
         playerFileStorage.saveAndMarkDirty(playerId);
         return count;
     }
@@ -168,10 +178,13 @@ public class MailService {
             return 0;
         }
         
-        List<MailMessage> mailbox = playerFile.getMailbox();
-        int before = mailbox.size();
-        mailbox.removeIf(MailMessage::isRead);
-        int removed = before - mailbox.size();
+        int removed;
+        synchronized (playerFile) {
+            List<MailMessage> mailbox = playerFile.getMailbox();
+            int before = mailbox.size();
+            mailbox.removeIf(MailMessage::isRead);
+            removed = before - mailbox.size();
+        }
         
         if (removed > 0) {
             playerFileStorage.saveAndMarkDirty(playerId);
@@ -188,7 +201,10 @@ public class MailService {
             return false;
         }
         
-        boolean removed = playerFile.getMailbox().removeIf(m -> m.getId().equals(mailId));
+        boolean removed;
+        synchronized (playerFile) {
+            removed = playerFile.getMailbox().removeIf(m -> m.getId().equals(mailId));
+        }
         if (removed) {
             playerFileStorage.saveAndMarkDirty(playerId);
         }
@@ -201,51 +217,29 @@ public class MailService {
      * Check if sender is on cooldown for sending to recipient.
      */
     private boolean isOnCooldown(UUID sender, UUID recipient) {
-        int cooldownSeconds = configManager.getConfig().mail.sendCooldownSeconds;
-        if (cooldownSeconds <= 0) {
-            return false;
-        }
-        
-        Map<UUID, Long> senderCooldowns = sendCooldowns.get(sender);
-        if (senderCooldowns == null) {
+        if (configManager.getConfig().mail.sendCooldownSeconds <= 0) {
             return false;
         }
-        
-        Long lastSend = senderCooldowns.get(recipient);
-        if (lastSend == null) {
-            return false;
-        }
-        
-        long elapsed = System.currentTimeMillis() - lastSend;
-        return elapsed < (cooldownSeconds * 1000L);
+        return !cooldownService.canUse(cooldownKey(recipient), sender);
     }
     
     /**
      * Get remaining cooldown in seconds.
      */
     private long getRemainingCooldown(UUID sender, UUID recipient) {
-        int cooldownSeconds = configManager.getConfig().mail.sendCooldownSeconds;
-        Map<UUID, Long> senderCooldowns = sendCooldowns.get(sender);
-        if (senderCooldowns == null) {
-            return 0;
-        }
-        
-        Long lastSend = senderCooldowns.get(recipient);
-        if (lastSend == null) {
-            return 0;
-        }
-        
-        long elapsed = System.currentTimeMillis() - lastSend;
-        long remaining = (cooldownSeconds * 1000L) - elapsed;
-        return Math.max(0, remaining / 1000);
+        return cooldownService.getCooldownRemaining(cooldownKey(recipient), sender);
     }
     
     /**
      * Record a send for cooldown tracking.
      */
     private void recordSend(UUID sender, UUID recipient) {
-        sendCooldowns.computeIfAbsent(sender, k -> new ConcurrentHashMap<>())
-                .put(recipient, System.currentTimeMillis());
+        cooldownService.setCooldown(cooldownKey(recipient), sender,
+                configManager.getConfig().mail.sendCooldownSeconds);
+    }
+    
+    private static String cooldownKey(UUID recipient) {
+        return "mail:" + recipient;
     }
     
     /**
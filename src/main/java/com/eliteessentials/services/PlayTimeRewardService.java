@@ -33,17 +33,19 @@ public class PlayTimeRewardService {
     private final PlayTimeRewardStorage storage;  // For reward definitions only
     private final PlayerService playerService;
     private final ConfigManager configManager;
+    private final SchedulerService scheduler;
     private PlayerFileStorage playerFileStorage;
     
-    private ScheduledExecutorService scheduler;
+    private SchedulerService.Task checkTask;
     private final Map<UUID, Long> sessionStartTimes = new ConcurrentHashMap<>();
     private final Map<UUID, Long> playerBaselines = new ConcurrentHashMap<>();
 
     public PlayTimeRewardService(PlayTimeRewardStorage storage, PlayerService playerService, 
-                                  ConfigManager configManager) {
+                                  ConfigManager configManager, SchedulerService scheduler) {
         this.storage = storage;
         this.playerService = playerService;
         this.configManager = configManager;
+        this.scheduler = scheduler;
     }
     
     /**
@@ -69,14 +71,9 @@ public class PlayTimeRewardService {
             logger.info("PlayTime Rewards enabled for the first time - timestamp recorded");
         }
         
-        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "EliteEssentials-PlayTimeRewards");
-            t.setDaemon(true);
-            return t;
-        });
-        
         int intervalMinutes = Math.max(1, config.playTimeRewards.checkIntervalMinutes);
-        scheduler.scheduleAtFixedRate(this::checkAllPlayers, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        checkTask = scheduler.scheduleAtFixedRate("playtimerewards.check", this::checkAllPlayers,
+                intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
         
         logger.info("PlayTime Rewards service started (checking every " + intervalMinutes + " minutes)");
         if (config.playTimeRewards.onlyCountNewPlaytime) {
@@ -85,19 +82,12 @@ public class PlayTimeRewardService {
     }
     
     /**
-     * Stop the scheduler.
+     * Stop the reward checks.
      */
     public void stop() {
-        if (scheduler != null) {
-            scheduler.shutdown();
-            try {
-                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    scheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                scheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+        if (checkTask != null) {
+            checkTask.cancel();
+            checkTask = null;
         }
     }
     
@@ -2,10 +2,21 @@ package com.eliteessentials.services;
 
 import com.eliteessentials.config.ConfigManager;
 import com.eliteessentials.model.PlayerFile;
+import com.eliteessentials.model.PlayerSummary;
+import com.eliteessentials.storage.EconomyLedger;
 import com.eliteessentials.storage.PlayerFileStorage;
+import com.eliteessentials.storage.PlayerJournal;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 /**
@@ -16,8 +27,16 @@ public class PlayerService {
 
     private static final Logger logger = Logger.getLogger("EliteEssentials");
     
+    // Ledger source for changes made without naming one
+    private static final String LEDGER_SOURCE = "EliteEssentials";
+    
     private final PlayerFileStorage storage;
     private final ConfigManager configManager;
+    private final WalletEngine wallets;
+    private volatile EconomyLedger ledger;
+    
+    // Runs async economy calls, which may have to load offline players from disk
+    private final ExecutorService economyExecutor;
     
     // Track session start times for play time calculation
     private final Map<UUID, Long> sessionStartTimes = new ConcurrentHashMap<>();
@@ -25,6 +44,20 @@ public class PlayerService {
     public PlayerService(PlayerFileStorage storage, ConfigManager configManager) {
         this.storage = storage;
         this.configManager = configManager;
+        this.wallets = new WalletEngine(storage);
+        this.economyExecutor = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "EliteEssentials-Economy");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Called when a player connects, before they are placed in a world.
+     * Starts loading their data in the background so onPlayerJoin finds it in memory.
+     */
+    public void prefetchPlayer(UUID playerId) {
+        storage.prefetchPlayer(playerId);
     }
 
     /**
@@ -46,8 +79,7 @@ public class PlayerService {
         if (isNew && configManager.getConfig().economy.enabled) {
             double startingBalance = configManager.getConfig().economy.startingBalance;
             if (startingBalance > 0) {
-                data.setWallet(startingBalance);
-                storage.markDirty(playerId);
+                wallets.set(playerId, startingBalance, "starting-balance");
                 logger.info("Set starting balance of " + startingBalance + " for new player " + playerName);
             }
         }
@@ -55,9 +87,9 @@ public class PlayerService {
         // Track session start
         sessionStartTimes.put(playerId, System.currentTimeMillis());
         
-        // Save if new player
+        // Save if new player (queued for the flush thread when write-behind is on)
         if (isNew) {
-            storage.savePlayer(playerId);
+            storage.saveAndMarkDirty(playerId);
         }
         
         return data;
@@ -80,7 +112,7 @@ public class PlayerService {
                 data.addPlayTime(sessionSeconds);
             }
             
-            storage.markDirty(playerId);
+            storage.saveFields(playerId, PlayerJournal.Field.LAST_SEEN, PlayerJournal.Field.PLAY_TIME);
         }
         
         // Unload player (saves if dirty)
@@ -110,58 +142,285 @@ public class PlayerService {
 
     /**
      * Get wallet balance for a player.
+     * Offline players are read without loading their mailbox or homes.
      */
     public double getBalance(UUID playerId) {
-        PlayerFile data = storage.getPlayer(playerId);
-        return data != null ? data.getWallet() : 0.0;
+        return storage.readSummary(playerId).map(PlayerSummary::wallet).orElse(0.0);
     }
 
     /**
      * Add money to a player's wallet.
      */
     public boolean addMoney(UUID playerId, double amount) {
-        PlayerFile data = storage.getPlayer(playerId);
-        if (data == null) {
-            return false;
-        }
-        
-        data.modifyWallet(amount);
-        storage.saveAndMarkDirty(playerId);
-        return true;
+        return addMoney(playerId, amount, LEDGER_SOURCE);
+    }
+
+    /**
+     * Add money to a player's wallet, recording who did it in the ledger.
+     */
+    public boolean addMoney(UUID playerId, double amount, String source) {
+        return wallets.deposit(playerId, amount, source);
     }
 
     /**
      * Remove money from a player's wallet.
-     * Returns false if insufficient funds.
+     * Returns false if insufficient funds. The check and the withdrawal are atomic.
      */
     public boolean removeMoney(UUID playerId, double amount) {
-        PlayerFile data = storage.getPlayer(playerId);
-        if (data == null) {
-            return false;
-        }
-        
-        if (!data.modifyWallet(-amount)) {
-            return false;  // Insufficient funds
-        }
-        
-        storage.saveAndMarkDirty(playerId);
-        return true;
+        return removeMoney(playerId, amount, LEDGER_SOURCE);
+    }
+
+    /**
+     * Remove money from a player's wallet, recording who did it in the ledger.
+     */
+    public boolean removeMoney(UUID playerId, double amount, String source) {
+        return wallets.withdraw(playerId, amount, source);
     }
 
     /**
      * Set a player's wallet balance directly.
      */
     public boolean setBalance(UUID playerId, double amount) {
-        PlayerFile data = storage.getPlayer(playerId);
-        if (data == null) {
+        return setBalance(playerId, amount, LEDGER_SOURCE);
+    }
+
+    /**
+     * Set a player's wallet balance directly, recording who did it in the ledger.
+     */
+    public boolean setBalance(UUID playerId, double amount, String source) {
+        return wallets.set(playerId, amount, source);
+    }
+
+    /**
+     * Move money between two players atomically.
+     * Returns false if the sender can't afford it (nothing changes then).
+     */
+    public boolean transfer(UUID from, UUID to, double amount, String source) {
+        return wallets.transfer(from, to, amount, source);
+    }
+
+    /**
+     * Add money to many wallets (mass payouts). Each wallet changes atomically;
+     * the changes are saved in batches instead of one write per player.
+     */
+    public Map<UUID, Boolean> addMoneyAll(Collection<UUID> playerIds, double amount, String source) {
+        return wallets.depositAll(playerIds, amount, source);
+    }
+
+    /**
+     * Take money from many wallets. Players who can't afford it are skipped.
+     */
+    public Map<UUID, Boolean> removeMoneyAll(Collection<UUID> playerIds, double amount, String source) {
+        return wallets.withdrawAll(playerIds, amount, source);
+    }
+
+    /**
+     * Take a percentage of every positive balance, online or offline.
+     * Returns the amount taken from each taxed player.
+     */
+    public Map<UUID, Double> taxAll(double percent, String source) {
+        return wallets.tax(percent, source);
+    }
+
+    // ==================== Non-blocking Economy ====================
+    //
+    // Used by the synchronous economy APIs, which other plugins may call on a
+    // world thread. These only touch players already in memory (online, or in
+    // the offline cache) and never read the store. Callers that need an
+    // offline account use supplyAsync with the loading methods above.
+
+    /**
+     * Whether a player's data is in memory, so wallet changes won't touch the disk.
+     */
+    public boolean isLoaded(UUID playerId) {
+        return storage.isLoaded(playerId);
+    }
+
+    /**
+     * Whether a player has an account (checked in memory).
+     */
+    public boolean hasAccount(UUID playerId) {
+        return storage.hasPlayer(playerId);
+    }
+
+    /**
+     * A player's data if it is in memory.
+     */
+    public Optional<PlayerFile> getLoadedPlayer(UUID playerId) {
+        return Optional.ofNullable(storage.getIfLoaded(playerId));
+    }
+
+    /**
+     * Wallet balance from memory: the loaded player, else the stats index
+     * (which holds the last saved balance of every player). 0 if unknown.
+     */
+    public double getCachedBalance(UUID playerId) {
+        return storage.getCachedSummary(playerId).map(PlayerSummary::wallet).orElse(0.0);
+    }
+
+    /**
+     * Deposit without blocking. Loaded players are paid right away; other
+     * known players are paid on the economy executor (a deposit can't fail for
+     * lack of funds, so it doesn't need the balance first).
+     *
+     * @return false if the player has no account or the amount is invalid
+     */
+    public boolean addMoneyCached(UUID playerId, double amount, String source) {
+        if (storage.isLoaded(playerId)) {
+            return wallets.deposit(playerId, amount, source);
+        }
+        if (!storage.hasPlayer(playerId) || !isValidAmount(amount)) {
             return false;
         }
-        
-        data.setWallet(amount);
-        storage.saveAndMarkDirty(playerId);
+        depositLater(List.of(playerId), amount, source);
         return true;
     }
 
+    /**
+     * Withdraw without blocking. Fails for players not in memory.
+     */
+    public boolean removeMoneyCached(UUID playerId, double amount, String source) {
+        return storage.isLoaded(playerId) && wallets.withdraw(playerId, amount, source);
+    }
+
+    /**
+     * Set a balance without blocking. Fails for players not in memory.
+     */
+    public boolean setBalanceCached(UUID playerId, double amount, String source) {
+        return storage.isLoaded(playerId) && wallets.set(playerId, amount, source);
+    }
+
+    /**
+     * Transfer without blocking. Fails unless both players are in memory.
+     */
+    public boolean transferCached(UUID from, UUID to, double amount, String source) {
+        return storage.isLoaded(from) && storage.isLoaded(to) && wallets.transfer(from, to, amount, source);
+    }
+
+    /**
+     * Bulk deposit without blocking. Loaded players are paid right away; the
+     * other known players are paid as one batch on the economy executor and
+     * reported as true. Players without an account are reported as false.
+     */
+    public Map<UUID, Boolean> addMoneyAllCached(Collection<UUID> playerIds, double amount, String source) {
+        List<UUID> loaded = new ArrayList<>();
+        List<UUID> deferred = new ArrayList<>();
+        Map<UUID, Boolean> results = new LinkedHashMap<>();
+        boolean valid = isValidAmount(amount);
+        for (UUID playerId : playerIds) {
+            if (playerId == null || results.containsKey(playerId)) continue;
+            if (storage.isLoaded(playerId)) {
+                loaded.add(playerId);
+                results.put(playerId, false);
+            } else if (valid && storage.hasPlayer(playerId)) {
+                deferred.add(playerId);
+                results.put(playerId, true);
+            } else {
+                results.put(playerId, false);
+            }
+        }
+        results.putAll(wallets.depositAll(loaded, amount, source));
+        if (!deferred.isEmpty()) {
+            depositLater(deferred, amount, source);
+        }
+        return results;
+    }
+
+    /**
+     * Bulk withdraw without blocking. Players not in memory are reported as false.
+     */
+    public Map<UUID, Boolean> removeMoneyAllCached(Collection<UUID> playerIds, double amount, String source) {
+        List<UUID> loaded = new ArrayList<>();
+        Map<UUID, Boolean> results = new LinkedHashMap<>();
+        for (UUID playerId : playerIds) {
+            if (playerId == null || results.containsKey(playerId)) continue;
+            results.put(playerId, false);
+            if (storage.isLoaded(playerId)) {
+                loaded.add(playerId);
+            }
+        }
+        results.putAll(wallets.withdrawAll(loaded, amount, source));
+        return results;
+    }
+
+    private static boolean isValidAmount(double amount) {
+        try {
+            return amount > 0 && WalletEngine.toUnits(amount) > 0;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private void depositLater(List<UUID> playerIds, double amount, String source) {
+        supplyAsync(() -> wallets.depositAll(playerIds, amount, source)).whenComplete((results, error) -> {
+            if (error != null) {
+                logger.severe("[Economy] Deferred deposit of " + amount + " by " + source + " failed: " + error.getMessage());
+                return;
+            }
+            for (Map.Entry<UUID, Boolean> entry : results.entrySet()) {
+                if (!entry.getValue()) {
+                    logger.warning("[Economy] Deferred deposit of " + amount + " to " + entry.getKey() + " by " + source + " failed.");
+                }
+            }
+        });
+    }
+
+    /**
+     * Run an economy call on the economy executor, where it may load offline
+     * players from disk. If the executor has been shut down the call runs on
+     * the calling thread.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, economyExecutor);
+        } catch (RejectedExecutionException e) {
+            try {
+                return CompletableFuture.completedFuture(task.get());
+            } catch (Exception ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        }
+    }
+
+    /**
+     * Finish queued async economy calls (plugin shutdown, before storage shuts down).
+     */
+    public void shutdown() {
+        economyExecutor.shutdown();
+        try {
+            if (!economyExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("[Economy] Async economy calls still running at shutdown.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== Ledger ====================
+
+    /**
+     * Start recording wallet changes in the economy ledger (null to stop).
+     */
+    public void setLedger(EconomyLedger ledger) {
+        this.ledger = ledger;
+        wallets.setLedger(ledger);
+    }
+
+    /**
+     * The economy ledger, or null if disabled.
+     */
+    public EconomyLedger getLedger() {
+        return ledger;
+    }
+
+    /**
+     * A player's most recent ledger entries, newest first (empty if the ledger is disabled).
+     */
+    public List<EconomyLedger.Entry> getTransactionHistory(UUID playerId, int limit) {
+        EconomyLedger l = ledger;
+        return l != null ? l.getRecent(playerId, limit) : Collections.emptyList();
+    }
+
     /**
      * Get total unique player count.
      */
@@ -170,27 +429,96 @@ public class PlayerService {
     }
 
     /**
-     * Get all players sorted by last seen.
+     * Get the most recently seen players.
      */
-    public List<PlayerFile> getRecentPlayers(int limit) {
-        List<PlayerFile> players = storage.getPlayersByLastSeen();
-        return players.subList(0, Math.min(limit, players.size()));
+    public List<PlayerSummary> getRecentPlayers(int limit) {
+        return storage.getRecentlySeen(limit);
     }
 
     /**
      * Get top players by play time.
      */
-    public List<PlayerFile> getTopByPlayTime(int limit) {
-        List<PlayerFile> players = storage.getPlayersByPlayTime();
-        return players.subList(0, Math.min(limit, players.size()));
+    public List<PlayerSummary> getTopByPlayTime(int limit) {
+        return storage.getTopByPlayTime(limit);
     }
 
     /**
      * Get top players by wallet balance.
      */
-    public List<PlayerFile> getTopByBalance(int limit) {
-        List<PlayerFile> players = storage.getPlayersByWallet();
-        return players.subList(0, Math.min(limit, players.size()));
+    public List<PlayerSummary> getTopByBalance(int limit) {
+        return storage.getTopByWallet(limit);
+    }
+
+    /**
+     * Get a player's 1-based position on the balance leaderboard, or -1 if unknown.
+     */
+    public int getBalanceRank(UUID playerId) {
+        return storage.getWalletRank(playerId);
+    }
+
+    /**
+     * Get a player's leaderboard summary (name, wallet, play time, last seen) by name.
+     * Does not load the player's file.
+     */
+    public Optional<PlayerSummary> getSummaryByName(String name) {
+        return storage.resolveName(name).flatMap(storage::getSummary);
+    }
+
+    /**
+     * A player's last known name (online or offline), as they type it.
+     * Taken from the loaded player or the stats index, which keep the name from
+     * the player file, falling back to the name index. Never reads a player file.
+     */
+    public Optional<String> getPlayerName(UUID playerId) {
+        Optional<String> name = storage.getCachedSummary(playerId).map(PlayerSummary::name);
+        return name.isPresent() ? name : storage.getNameByUuid(playerId);
+    }
+
+    /**
+     * Look up a player (online or offline) by their exact name, case-insensitive.
+     * Unlike resolvePlayerId, a partial name never matches.
+     */
+    public Optional<UUID> getPlayerIdByName(String name) {
+        return storage.getUuidByName(name);
+    }
+
+    /**
+     * Resolve a full or partial player name (online or offline) to a UUID.
+     * An exact match wins, otherwise the name must be the prefix of exactly one player.
+     * Served from the name index - does not load any player file.
+     */
+    public Optional<UUID> resolvePlayerId(String name) {
+        return storage.resolveName(name);
+    }
+
+    /**
+     * Known player names starting with a prefix (case-insensitive), for tab completion.
+     */
+    public List<String> findPlayerNames(String prefix, int limit) {
+        return storage.findNamesByPrefix(prefix, limit);
+    }
+
+    /**
+     * Find an online player by full or partial name (case-insensitive).
+     * An exact match wins; otherwise the name must be the prefix of exactly one
+     * online player. Only the online set is scanned, so offline players sharing
+     * the prefix never hide or disambiguate a match.
+     */
+    public PlayerRef findOnlinePlayer(String name) {
+        String lower = name.toLowerCase();
+        PlayerRef match = null;
+        boolean ambiguous = false;
+        for (PlayerRef p : Universe.get().getPlayers()) {
+            String username = p.getUsername();
+            if (username.equalsIgnoreCase(name)) {
+                return p;
+            }
+            if (username.toLowerCase().startsWith(lower)) {
+                ambiguous |= match != null;
+                match = p;
+            }
+        }
+        return ambiguous ? null : match;
     }
 
     /**
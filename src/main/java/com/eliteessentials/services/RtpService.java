@@ -4,10 +4,8 @@ import com.eliteessentials.config.ConfigManager;
 import com.eliteessentials.model.Location;
 import com.eliteessentials.permissions.PermissionService;
 
-import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for random teleportation functionality.
@@ -16,14 +14,14 @@ import java.util.concurrent.ConcurrentHashMap;
 public class RtpService {
 
     private static final Random random = new Random();
+    private static final String COOLDOWN_KEY = "rtp";
 
     private final ConfigManager configManager;
-    
-    // UUID -> Last RTP timestamp
-    private final Map<UUID, Long> cooldowns = new ConcurrentHashMap<>();
+    private final CooldownService cooldownService;
 
-    public RtpService(ConfigManager configManager) {
+    public RtpService(ConfigManager configManager, CooldownService cooldownService) {
         this.configManager = configManager;
+        this.cooldownService = cooldownService;
     }
 
     /**
@@ -38,21 +36,12 @@ public class RtpService {
 
     /**
      * Check if a player is on cooldown.
-     * Uses permission-based cooldown overrides if available.
      * 
      * @param playerId Player UUID
      * @return Remaining cooldown in seconds, or 0 if not on cooldown
      */
     public int getCooldownRemaining(UUID playerId) {
-        Long lastUse = cooldowns.get(playerId);
-        if (lastUse == null) return 0;
-        
-        long elapsed = (System.currentTimeMillis() - lastUse) / 1000;
-        
-        // Get effective cooldown (checks permission overrides)
-        int cooldown = getEffectiveCooldown(playerId);
-        
-        return Math.max(0, cooldown - (int) elapsed);
+        return cooldownService.getCooldownRemaining(COOLDOWN_KEY, playerId);
     }
     
     /**
@@ -76,9 +65,10 @@ public class RtpService {
 
     /**
      * Set the cooldown for a player (called after successful RTP).
+     * Uses permission-based cooldown overrides if available, resolved at the time of use.
      */
     public void setCooldown(UUID playerId) {
-        cooldowns.put(playerId, System.currentTimeMillis());
+        cooldownService.setCooldown(COOLDOWN_KEY, playerId, getEffectiveCooldown(playerId));
     }
 
     /**
@@ -137,13 +127,13 @@ public class RtpService {
      * Clear a player's cooldown (admin command).
      */
     public void clearCooldown(UUID playerId) {
-        cooldowns.remove(playerId);
+        cooldownService.clearCooldown(COOLDOWN_KEY, playerId);
     }
 
     /**
      * Clear all cooldowns.
      */
     public void clearAllCooldowns() {
-        cooldowns.clear();
+        cooldownService.clearCooldownForAll(COOLDOWN_KEY);
     }
 }
@@ -0,0 +1,230 @@
+package com.eliteessentials.services;
+
+import com.hypixel.hytale.server.core.universe.world.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Plugin-wide scheduler shared by all services (warmups, TPA expiry, sleep
+ * checks, playtime rewards, auto broadcasts, join/quit delays, cooldown
+ * expiry, RTP invulnerability).
+ *
+ * One small daemon pool replaces a single-thread executor per service. Every
+ * task is registered under a name ("warmup.poll", "joinquit.motd", ...) and
+ * gets run count, run time and overrun metrics per name, shown by /ee stats.
+ * An exception in a task is logged and counted instead of silently stopping a
+ * repeating task.
+ *
+ * Tasks that touch entities or components must run on their world's thread -
+ * use scheduleOnWorld, which only uses the pool as a timer and hands the task
+ * to World.execute.
+ *
+ * Player storage (one flush thread that also runs the offline cache sweep and
+ * name index saves, the journal and prefetch), the economy pool and the economy
+ * ledger keep their own threads: they do blocking disk I/O, rely on running on
+ * one dedicated thread, and have to outlive this scheduler to write their final
+ * state on shutdown.
+ */
+public class SchedulerService {
+
+    private static final Logger logger = Logger.getLogger("EliteEssentials");
+    private static final int THREADS = 2;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Map<String, TaskMetrics> metrics = new ConcurrentHashMap<>();
+
+    public SchedulerService() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(THREADS, r -> {
+            Thread t = new Thread(r, "EliteEssentials-Scheduler-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        // Pending delays (MOTDs, reminders) are dropped on shutdown instead of holding it up
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * A scheduled task, cancellable by its owner.
+     */
+    public static final class Task {
+        private final String name;
+        private volatile ScheduledFuture<?> future;
+        private volatile boolean cancelled;
+
+        private Task(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Cancel the task. A run already in progress finishes.
+         */
+        public void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    // ==================== Scheduling ====================
+
+    /**
+     * Run a task once after a delay, on a scheduler thread.
+     */
+    public Task schedule(String name, Runnable task, long delay, TimeUnit unit) {
+        Task handle = new Task(name);
+        TaskMetrics taskMetrics = metricsFor(name);
+        handle.future = submit(() -> run(handle, taskMetrics, task, 0), delay, unit);
+        return handle;
+    }
+
+    /**
+     * Run a task repeatedly at a fixed rate, on a scheduler thread.
+     * A run taking longer than the period counts as an overrun; the next run
+     * then starts late rather than overlapping.
+     */
+    public Task scheduleAtFixedRate(String name, Runnable task, long initialDelay, long period, TimeUnit unit) {
+        Task handle = new Task(name);
+        TaskMetrics taskMetrics = metricsFor(name);
+        long periodNanos = unit.toNanos(period);
+        try {
+            handle.future = executor.scheduleAtFixedRate(() -> run(handle, taskMetrics, task, periodNanos),
+                    initialDelay, period, unit);
+        } catch (RejectedExecutionException e) {
+            handle.cancelled = true; // Scheduler already shut down
+        }
+        return handle;
+    }
+
+    /**
+     * Run a task once after a delay, on a world's thread.
+     * Dropped if the world no longer accepts tasks (e.g. it is shutting down).
+     */
+    public Task scheduleOnWorld(String name, World world, Runnable task, long delay, TimeUnit unit) {
+        Task handle = new Task(name);
+        TaskMetrics taskMetrics = metricsFor(name);
+        handle.future = submit(() -> {
+            if (handle.cancelled) return;
+            try {
+                world.execute(() -> run(handle, taskMetrics, task, 0));
+            } catch (Exception e) {
+                logger.fine("[Scheduler] World rejected task '" + name + "': " + e.getMessage());
+            }
+        }, delay, unit);
+        return handle;
+    }
+
+    private ScheduledFuture<?> submit(Runnable task, long delay, TimeUnit unit) {
+        try {
+            return executor.schedule(task, delay, unit);
+        } catch (RejectedExecutionException e) {
+            return null; // Scheduler already shut down
+        }
+    }
+
+    private void run(Task handle, TaskMetrics taskMetrics, Runnable task, long periodNanos) {
+        if (handle.cancelled) return;
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } catch (Exception e) {
+            taskMetrics.failures.incrementAndGet();
+            logger.warning("[Scheduler] Task '" + handle.name + "' failed: " + e.getMessage());
+        } finally {
+            taskMetrics.record(System.nanoTime() - start, periodNanos);
+        }
+    }
+
+    private TaskMetrics metricsFor(String name) {
+        return metrics.computeIfAbsent(name, k -> new TaskMetrics());
+    }
+
+    // ==================== Shutdown ====================
+
+    /**
+     * Drop pending tasks and wait for running ones. Called once on plugin shutdown,
+     * after the services have cancelled their own tasks.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== Stats ====================
+
+    private static final class TaskMetrics {
+        final AtomicLong runs = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong overruns = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos, long periodNanos) {
+            runs.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (periodNanos > 0 && nanos > periodNanos) {
+                overruns.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Metrics of every task name that has been scheduled.
+     */
+    public List<TaskStats> getStats() {
+        List<TaskStats> stats = new ArrayList<>(metrics.size());
+        for (Map.Entry<String, TaskMetrics> entry : metrics.entrySet()) {
+            TaskMetrics m = entry.getValue();
+            stats.add(new TaskStats(entry.getKey(), m.runs.get(), m.failures.get(), m.overruns.get(),
+                    m.totalNanos.get() / 1_000_000.0, m.maxNanos.get() / 1_000_000.0));
+        }
+        stats.sort((a, b) -> a.name().compareTo(b.name()));
+        return stats;
+    }
+
+    /**
+     * Pending timers, including repeating tasks.
+     */
+    public int getQueuedTasks() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Scheduler metrics for one task name.
+     */
+    public record TaskStats(String name, long runs, long failures, long overruns,
+                            double totalMs, double maxMs) {
+        public double avgMs() {
+            return runs > 0 ? totalMs / runs : 0.0;
+        }
+    }
+}
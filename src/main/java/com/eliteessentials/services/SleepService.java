@@ -6,8 +6,12 @@ import com.hypixel.hytale.builtin.beds.sleep.components.PlayerSleep;
 import com.hypixel.hytale.builtin.beds.sleep.components.PlayerSomnolence;
 import com.hypixel.hytale.builtin.beds.sleep.resources.WorldSlumber;
 import com.hypixel.hytale.builtin.beds.sleep.resources.WorldSomnolence;
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.component.Holder;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.event.EventRegistry;
+import com.hypixel.hytale.server.core.event.events.player.DrainPlayerFromWorldEvent;
 import com.hypixel.hytale.server.core.modules.time.WorldTimeResource;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.Universe;
@@ -18,32 +22,55 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Service that monitors sleeping players and triggers night skip
  * when the configured percentage of players are sleeping.
+ *
+ * Event-driven: PlayerSleepSystem reports every PlayerSomnolence change, and
+ * each world keeps the set of players currently in bed. A world is only
+ * checked when that set changes or a player leaves the world. While someone
+ * is in bed but not counted yet (still nodding off, or it isn't night by the
+ * configured hours), the world rechecks itself until that resolves. Worlds
+ * where nobody is in bed cost nothing.
  */
 public class SleepService {
 
     // Time in milliseconds a player must be in NoddingOff state before counting as sleeping
     private static final long NODDING_OFF_THRESHOLD_MS = 3200;
+    
+    // Recheck interval while players are in bed before the configured night start
+    private static final long NIGHT_WAIT_RECHECK_MS = 1000;
 
     private final ConfigManager configManager;
-    private final ScheduledExecutorService scheduler;
-    private volatile boolean initialized = false;
+    private final SchedulerService scheduler;
     
-    // Per-world sleep state tracking to prevent race conditions
+    // Per-world sleep state, keyed by world name
     private final Map<String, WorldSleepState> worldSleepStates = new ConcurrentHashMap<>();
     
+    /**
+     * Sleep state of one world. Only touched on that world's thread.
+     */
     private static class WorldSleepState {
-        volatile boolean slumberTriggered = false;
-        volatile int lastSleepingCount = -1;
+        final World world;
+        // Players in bed (NoddingOff or Slumber)
+        final Map<UUID, Ref<EntityStore>> sleepers = new HashMap<>();
+        boolean slumberTriggered = false;
+        int lastSleepingCount = -1;
+        volatile boolean checkQueued = false;
+        SchedulerService.Task recheckTask;
+        long recheckAt;
+        
+        WorldSleepState(World world) {
+            this.world = world;
+        }
         
         void reset() {
             slumberTriggered = false;
@@ -51,153 +78,254 @@ public class SleepService {
         }
     }
 
-    public SleepService(ConfigManager configManager) {
+    public SleepService(ConfigManager configManager, SchedulerService scheduler) {
         this.configManager = configManager;
-        
-        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "EliteEssentials-SleepCheck");
-            t.setDaemon(true);
-            return t;
-        });
-        
-        // Delay start by 10 seconds to let the world fully initialize
-        scheduler.schedule(() -> initialized = true, 10, TimeUnit.SECONDS);
-        
-        // Check every 1 second
-        scheduler.scheduleAtFixedRate(this::checkSleepingPlayers, 10, 1, TimeUnit.SECONDS);
+        this.scheduler = scheduler;
     }
 
-    private void checkSleepingPlayers() {
-        if (!initialized || !configManager.getConfig().sleep.enabled) {
-            return;
-        }
-        
-        int requiredPercent = configManager.getConfig().sleep.sleepPercentage;
-        
-        // If 100%, let vanilla handle it
-        if (requiredPercent >= 100) {
-            return;
-        }
-        
+    /**
+     * Register the world leave listener - a player leaving can complete the required percentage.
+     */
+    public void registerEvents(EventRegistry eventRegistry) {
+        eventRegistry.registerGlobal(DrainPlayerFromWorldEvent.class, this::onPlayerDrainFromWorld);
+    }
+
+    // ==================== Events ====================
+
+    /**
+     * A player's PlayerSomnolence component was added, replaced or removed (null).
+     * Called by PlayerSleepSystem on the world thread.
+     */
+    public void onSomnolenceChanged(Ref<EntityStore> ref, PlayerSomnolence somnolence, Store<EntityStore> store) {
         try {
             Universe universe = Universe.get();
             if (universe == null) return;
             
-            for (World world : universe.getWorlds().values()) {
-                checkWorldSleep(world, requiredPercent);
+            ComponentType<EntityStore, PlayerRef> playerRefType = universe.getPlayerRefComponentType();
+            if (playerRefType == null) return;
+            
+            PlayerRef playerRef = store.getComponent(ref, playerRefType);
+            if (playerRef == null) return;
+            
+            EntityStore entityStore = store.getExternalData();
+            World world = entityStore != null ? entityStore.getWorld() : null;
+            if (world == null) return;
+            
+            UUID playerId = playerRef.getUuid();
+            boolean inBed = somnolence != null && isInBed(somnolence.getSleepState());
+            
+            WorldSleepState sleepState = worldSleepStates.get(world.getName());
+            if (inBed) {
+                if (sleepState == null) {
+                    sleepState = worldSleepStates.computeIfAbsent(world.getName(), k -> new WorldSleepState(world));
+                }
+                sleepState.sleepers.put(playerId, ref);
+            } else if (sleepState == null || sleepState.sleepers.remove(playerId) == null) {
+                return; // Wasn't in bed and still isn't
             }
+            
+            queueCheck(sleepState);
         } catch (Exception e) {
-            // Silently ignore - universe might not be ready
+            // Silently ignore - entity may be leaving
         }
     }
 
-    private void checkWorldSleep(World world, int requiredPercent) {
-        // Get or create per-world state BEFORE entering world.execute()
-        String worldName = world.getName();
-        WorldSleepState sleepState = worldSleepStates.computeIfAbsent(worldName, k -> new WorldSleepState());
+    private void onPlayerDrainFromWorld(DrainPlayerFromWorldEvent event) {
+        World world = event.getWorld();
+        if (world == null) return;
         
-        world.execute(() -> {
-            try {
-                EntityStore entityStore = world.getEntityStore();
-                if (entityStore == null) return;
-                
-                Store<EntityStore> store = entityStore.getStore();
-                if (store == null) return;
-                
-                // Get WorldSomnolence resource - this tracks the world's sleep state
-                WorldSomnolence worldSomnolence = store.getResource(WorldSomnolence.getResourceType());
-                if (worldSomnolence == null) return;
-                
-                // If world is already in slumber (skipping to morning), don't interfere
-                if (worldSomnolence.getState() instanceof WorldSlumber) {
-                    return;
-                }
-                
-                List<PlayerRef> players = new ArrayList<>(world.getPlayerRefs());
-                if (players.isEmpty()) return;
-                
-                int totalPlayers = players.size();
-                int sleepingPlayers = 0;
-                
-                // Get current game time for checking NoddingOff/MorningWakeUp states
-                WorldTimeResource timeResource = store.getResource(WorldTimeResource.getResourceType());
-                if (timeResource == null) return;
-                
-                Instant gameTime = timeResource.getGameTime();
-                
-                // Check if it's nighttime based on config settings
-                // Default: Sleep is allowed from 9 PM (21:00) to 5 AM (05:00)
-                LocalDateTime currentDateTime = LocalDateTime.ofInstant(gameTime, ZoneOffset.UTC);
-                double currentFractionalHour = currentDateTime.getHour() + currentDateTime.getMinute() / 60.0;
-                
-                double nightStart = configManager.getConfig().sleep.nightStartHour;
-                double morningHour = configManager.getConfig().sleep.morningHour;
-                
-                // Nighttime check depends on whether night spans midnight
-                // If nightStart > morningHour (e.g., 21 to 5), night spans midnight
-                boolean isNighttime;
-                if (nightStart > morningHour) {
-                    // Night spans midnight: hour >= nightStart OR hour < morningHour
-                    isNighttime = currentFractionalHour >= nightStart || currentFractionalHour < morningHour;
-                } else {
-                    // Night doesn't span midnight (unusual but supported)
-                    isNighttime = currentFractionalHour >= nightStart && currentFractionalHour < morningHour;
+        WorldSleepState sleepState = worldSleepStates.get(world.getName());
+        if (sleepState == null) return; // Nobody in bed there
+        
+        Holder<EntityStore> holder = event.getHolder();
+        PlayerRef playerRef = holder != null ? holder.getComponent(PlayerRef.getComponentType()) : null;
+        UUID playerId = playerRef != null ? playerRef.getUuid() : null;
+        
+        try {
+            world.execute(() -> {
+                if (playerId != null) {
+                    sleepState.sleepers.remove(playerId);
                 }
-                
-                if (!isNighttime) {
-                    // Reset flags during daytime
-                    sleepState.reset();
-                    return;
+                queueCheck(sleepState);
+            });
+        } catch (Exception e) {
+            // World is shutting down
+        }
+    }
+
+    // ==================== Checks ====================
+
+    /**
+     * Check a world after the current tick's changes. Changes in the same tick share one check.
+     */
+    private void queueCheck(WorldSleepState sleepState) {
+        if (sleepState.checkQueued) return;
+        sleepState.checkQueued = true;
+        try {
+            sleepState.world.execute(() -> {
+                sleepState.checkQueued = false;
+                checkWorldSleep(sleepState);
+            });
+        } catch (Exception e) {
+            sleepState.checkQueued = false; // World is shutting down
+        }
+    }
+
+    /**
+     * Check a world again after a delay, unless a recheck is already due by then.
+     */
+    private void scheduleRecheck(WorldSleepState sleepState, long delayMs) {
+        long at = System.currentTimeMillis() + delayMs;
+        if (sleepState.recheckTask != null && !sleepState.recheckTask.isCancelled()) {
+            if (sleepState.recheckAt <= at) return;
+            sleepState.recheckTask.cancel();
+        }
+        sleepState.recheckAt = at;
+        sleepState.recheckTask = scheduler.scheduleOnWorld("sleep.recheck", sleepState.world, () -> {
+            sleepState.recheckTask = null;
+            checkWorldSleep(sleepState);
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Count the world's sleepers and skip the night if enough are asleep. Runs on the world thread.
+     */
+    private void checkWorldSleep(WorldSleepState sleepState) {
+        try {
+            // Nobody in bed: nothing to count until someone lies down
+            if (sleepState.sleepers.isEmpty()) {
+                sleepState.reset();
+                worldSleepStates.computeIfPresent(sleepState.world.getName(),
+                        (k, current) -> current == sleepState && current.sleepers.isEmpty() ? null : current);
+                return;
+            }
+            
+            if (!configManager.getConfig().sleep.enabled) {
+                return;
+            }
+            
+            int requiredPercent = configManager.getConfig().sleep.sleepPercentage;
+            
+            // If 100%, let vanilla handle it
+            if (requiredPercent >= 100) {
+                return;
+            }
+            
+            World world = sleepState.world;
+            EntityStore entityStore = world.getEntityStore();
+            if (entityStore == null) return;
+            
+            Store<EntityStore> store = entityStore.getStore();
+            if (store == null) return;
+            
+            // Get WorldSomnolence resource - this tracks the world's sleep state
+            WorldSomnolence worldSomnolence = store.getResource(WorldSomnolence.getResourceType());
+            if (worldSomnolence == null) return;
+            
+            // If world is already in slumber (skipping to morning), don't interfere
+            if (worldSomnolence.getState() instanceof WorldSlumber) {
+                return;
+            }
+            
+            // Get current game time for checking NoddingOff/MorningWakeUp states
+            WorldTimeResource timeResource = store.getResource(WorldTimeResource.getResourceType());
+            if (timeResource == null) return;
+            
+            if (!isNighttime(timeResource.getGameTime())) {
+                // Reset flags during daytime, and look again once night begins
+                sleepState.reset();
+                scheduleRecheck(sleepState, NIGHT_WAIT_RECHECK_MS);
+                return;
+            }
+            
+            List<PlayerRef> players = new ArrayList<>(world.getPlayerRefs());
+            if (players.isEmpty()) return;
+            
+            int totalPlayers = players.size();
+            int sleepingPlayers = 0;
+            long nextRecheckMs = Long.MAX_VALUE;
+            Instant now = Instant.now();
+            
+            Iterator<Ref<EntityStore>> it = sleepState.sleepers.values().iterator();
+            while (it.hasNext()) {
+                Ref<EntityStore> ref = it.next();
+                if (ref == null || !ref.isValid()) {
+                    it.remove();
+                    continue;
                 }
                 
-                for (PlayerRef player : players) {
-                    Ref<EntityStore> ref = player.getReference();
-                    if (ref == null) continue;
-                    
-                    PlayerSomnolence somnolence = store.getComponent(ref, PlayerSomnolence.getComponentType());
-                    if (somnolence == null) continue;
-                    
-                    PlayerSleep state = somnolence.getSleepState();
-                    
-                    // Only count players in Slumber state (fully asleep - game only allows this at night)
-                    if (state instanceof PlayerSleep.Slumber) {
-                        sleepingPlayers++;
-                    }
-                    // Count NoddingOff only if enough time has passed
-                    else if (state instanceof PlayerSleep.NoddingOff noddingOff) {
-                        Instant threshold = noddingOff.realTimeStart().plusMillis(NODDING_OFF_THRESHOLD_MS);
-                        if (Instant.now().isAfter(threshold)) {
-                            sleepingPlayers++;
-                        }
-                    }
-                }
+                PlayerSomnolence somnolence = store.getComponent(ref, PlayerSomnolence.getComponentType());
+                PlayerSleep state = somnolence != null ? somnolence.getSleepState() : null;
                 
-                // Reset when no one is sleeping
-                if (sleepingPlayers == 0) {
-                    sleepState.reset();
-                    return;
+                // Only count players in Slumber state (fully asleep - game only allows this at night)
+                if (state instanceof PlayerSleep.Slumber) {
+                    sleepingPlayers++;
                 }
-                // Calculate percentage and check threshold
-                int currentPercent = (sleepingPlayers * 100) / totalPlayers;
-                int playersNeeded = Math.max(1, (int) Math.ceil(totalPlayers * requiredPercent / 100.0));
-                
-                // Synchronized block to prevent race conditions between check and update
-                synchronized (sleepState) {
-                    if (currentPercent >= requiredPercent && !sleepState.slumberTriggered) {
-                        triggerSlumber(store, world, worldSomnolence, players, sleepingPlayers, playersNeeded);
-                        sleepState.slumberTriggered = true;
-                        sleepState.lastSleepingCount = sleepingPlayers;
-                    } else if (sleepingPlayers != sleepState.lastSleepingCount && !sleepState.slumberTriggered && sleepingPlayers > 0) {
-                        // Only send message if count changed, slumber not triggered, and someone is sleeping
-                        sleepState.lastSleepingCount = sleepingPlayers;
-                        sendSleepMessage(players, sleepingPlayers, playersNeeded);
+                // Count NoddingOff only if enough time has passed
+                else if (state instanceof PlayerSleep.NoddingOff noddingOff) {
+                    Instant threshold = noddingOff.realTimeStart().plusMillis(NODDING_OFF_THRESHOLD_MS);
+                    if (now.isAfter(threshold)) {
+                        sleepingPlayers++;
+                    } else {
+                        // Count them once the threshold has passed
+                        nextRecheckMs = Math.min(nextRecheckMs, threshold.toEpochMilli() - now.toEpochMilli() + 1);
                     }
+                } else {
+                    it.remove(); // Left bed without us seeing the change
                 }
-                
-            } catch (Exception e) {
-                // Silently ignore errors
             }
-        });
+            
+            if (nextRecheckMs != Long.MAX_VALUE) {
+                scheduleRecheck(sleepState, nextRecheckMs);
+            }
+            
+            // Reset when no one is sleeping
+            if (sleepingPlayers == 0) {
+                sleepState.reset();
+                return;
+            }
+            // Calculate percentage and check threshold
+            int currentPercent = (sleepingPlayers * 100) / totalPlayers;
+            int playersNeeded = Math.max(1, (int) Math.ceil(totalPlayers * requiredPercent / 100.0));
+            
+            if (currentPercent >= requiredPercent && !sleepState.slumberTriggered) {
+                sleepState.slumberTriggered = true;
+                sleepState.lastSleepingCount = sleepingPlayers;
+                triggerSlumber(store, world, worldSomnolence, players, sleepingPlayers, playersNeeded);
+            } else if (sleepingPlayers != sleepState.lastSleepingCount && !sleepState.slumberTriggered) {
+                // Only send message if count changed and slumber not triggered
+                sleepState.lastSleepingCount = sleepingPlayers;
+                sendSleepMessage(players, sleepingPlayers, playersNeeded);
+            }
+            
+        } catch (Exception e) {
+            // Silently ignore errors
+        }
+    }
+    
+    private static boolean isInBed(PlayerSleep state) {
+        return state instanceof PlayerSleep.NoddingOff || state instanceof PlayerSleep.Slumber;
+    }
+    
+    /**
+     * Check if it's nighttime based on config settings.
+     * Default: Sleep is allowed from 9 PM (21:00) to 5 AM (05:00)
+     */
+    private boolean isNighttime(Instant gameTime) {
+        LocalDateTime currentDateTime = LocalDateTime.ofInstant(gameTime, ZoneOffset.UTC);
+        double currentFractionalHour = currentDateTime.getHour() + currentDateTime.getMinute() / 60.0;
+        
+        double nightStart = configManager.getConfig().sleep.nightStartHour;
+        double morningHour = configManager.getConfig().sleep.morningHour;
+        
+        // Nighttime check depends on whether night spans midnight
+        // If nightStart > morningHour (e.g., 21 to 5), night spans midnight
+        if (nightStart > morningHour) {
+            // Night spans midnight: hour >= nightStart OR hour < morningHour
+            return currentFractionalHour >= nightStart || currentFractionalHour < morningHour;
+        }
+        // Night doesn't span midnight (unusual but supported)
+        return currentFractionalHour >= nightStart && currentFractionalHour < morningHour;
     }
     
     private void sendSleepMessage(List<PlayerRef> players, int sleeping, int needed) {
@@ -290,17 +418,20 @@ public class SleepService {
     public void setSleepPercentage(int percent) {
         configManager.getConfig().sleep.sleepPercentage = Math.max(0, Math.min(100, percent));
         configManager.saveConfig();
+        
+        // A lower percentage may already be met in worlds where players are in bed
+        for (WorldSleepState sleepState : worldSleepStates.values()) {
+            queueCheck(sleepState);
+        }
     }
 
     public void shutdown() {
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
+        for (WorldSleepState sleepState : worldSleepStates.values()) {
+            SchedulerService.Task task = sleepState.recheckTask;
+            if (task != null) {
+                task.cancel();
             }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
         }
+        worldSleepStates.clear();
     }
 }
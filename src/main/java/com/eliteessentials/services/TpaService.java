@@ -2,6 +2,9 @@ package com.eliteessentials.services;
 
 import com.eliteessentials.config.ConfigManager;
 import com.eliteessentials.model.TpaRequest;
+import com.eliteessentials.util.MessageFormatter;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
 
 import java.util.*;
 import java.util.concurrent.*;
@@ -10,28 +13,41 @@ import java.util.logging.Logger;
 /**
  * Service for managing teleport requests between players.
  * Handles request creation, expiration, acceptance, and denial.
+ *
+ * Requests are indexed by target (in arrival order, for "most recent") and by
+ * requester, so accepting, denying or cancelling a request is a couple of hash
+ * operations instead of a scan. Expiry uses a queue ordered by expiry time and a
+ * single scheduler task set for the earliest one: each request expires on time
+ * and costs one queue insert and removal. Requests accepted or denied before
+ * then are skipped when they come up. Requests expiring together are removed
+ * and announced to both players in one batch.
  */
 public class TpaService {
 
     private static final Logger logger = Logger.getLogger("EliteEssentials");
 
     private final ConfigManager configManager;
+    private final SchedulerService scheduler;
     
-    // Target UUID -> List of pending requests to that player
-    private final Map<UUID, List<TpaRequest>> pendingRequests = new ConcurrentHashMap<>();
+    // Guards the indexes and the expiry queue
+    private final Object lock = new Object();
     
-    // Scheduler for cleaning up expired requests
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-        Thread t = new Thread(r, "EliteEssentials-TpaCleanup");
-        t.setDaemon(true);
-        return t;
-    });
-
-    public TpaService(ConfigManager configManager) {
+    // Target UUID -> (requester UUID -> request), oldest first
+    private final Map<UUID, LinkedHashMap<UUID, TpaRequest>> requestsByTarget = new HashMap<>();
+    
+    // Requester UUID -> (target UUID -> request)
+    private final Map<UUID, Map<UUID, TpaRequest>> requestsByRequester = new HashMap<>();
+    
+    // Pending expiries, earliest first (may hold requests already resolved)
+    private final PriorityQueue<TpaRequest> expiryQueue = new PriorityQueue<>(Comparator.comparingLong(TpaRequest::getExpiresAt));
+    
+    // Task firing at the earliest expiry
+    private SchedulerService.Task expiryTask;
+    private long expiryTaskAt = Long.MAX_VALUE;
+
+    public TpaService(ConfigManager configManager, SchedulerService scheduler) {
         this.configManager = configManager;
-        
-        // Schedule cleanup every 5 seconds
-        scheduler.scheduleAtFixedRate(this::cleanupExpired, 5, 5, TimeUnit.SECONDS);
+        this.scheduler = scheduler;
     }
 
     /**
@@ -64,26 +80,31 @@ public class TpaService {
             return Result.SELF_REQUEST;
         }
 
-        // Check for existing request from same player
-        List<TpaRequest> targetRequests = pendingRequests.computeIfAbsent(targetId, k -> new CopyOnWriteArrayList<>());
-        
-        boolean alreadyPending = targetRequests.stream()
-                .anyMatch(r -> r.getRequesterId().equals(requesterId) && !r.isExpired());
-        
-        if (alreadyPending) {
-            return Result.ALREADY_PENDING;
-        }
-
-        TpaRequest request = new TpaRequest(
-                requesterId,
-                requesterName,
-                targetId,
-                targetName,
-                type,
-                configManager.getTpaTimeout()
-        );
-        
-        targetRequests.add(request);
+        TpaRequest request;
+        synchronized (lock) {
+            // Check for existing request from same player
+            TpaRequest existing = getRequest(targetId, requesterId);
+            if (existing != null) {
+                if (!existing.isExpired()) {
+                    return Result.ALREADY_PENDING;
+                }
+                removeRequest(existing);
+            }
+
+            request = new TpaRequest(
+                    requesterId,
+                    requesterName,
+                    targetId,
+                    targetName,
+                    type,
+                    configManager.getTpaTimeout()
+            );
+            
+            requestsByTarget.computeIfAbsent(targetId, k -> new LinkedHashMap<>()).put(requesterId, request);
+            requestsByRequester.computeIfAbsent(requesterId, k -> new HashMap<>()).put(targetId, request);
+            expiryQueue.add(request);
+            scheduleExpiry(request.getExpiresAt());
+        }
         logger.info("TPA request created: " + requesterName + " -> " + targetName + " (type: " + type + ")");
         
         return Result.REQUEST_SENT;
@@ -103,24 +124,13 @@ public class TpaService {
      * @return The accepted request, or empty if none pending
      */
     public Optional<TpaRequest> acceptRequest(UUID targetId) {
-        List<TpaRequest> requests = pendingRequests.get(targetId);
-        if (requests == null || requests.isEmpty()) {
-            return Optional.empty();
-        }
-
-        // Get most recent non-expired request
-        TpaRequest request = null;
-        for (int i = requests.size() - 1; i >= 0; i--) {
-            TpaRequest r = requests.get(i);
-            if (!r.isExpired()) {
-                request = r;
-                requests.remove(i);
-                break;
+        TpaRequest request;
+        synchronized (lock) {
+            request = getMostRecent(targetId);
+            if (request == null) {
+                return Optional.empty();
             }
-        }
-
-        if (request == null) {
-            return Optional.empty();
+            removeRequest(request);
         }
 
         logger.info("TPA request accepted: " + request.getRequesterName() + " -> " + request.getTargetName());
@@ -131,112 +141,211 @@ public class TpaService {
      * Accept a specific request from a player.
      */
     public Optional<TpaRequest> acceptRequestFrom(UUID targetId, UUID requesterId) {
-        List<TpaRequest> requests = pendingRequests.get(targetId);
-        if (requests == null) return Optional.empty();
-
-        for (int i = 0; i < requests.size(); i++) {
-            TpaRequest r = requests.get(i);
-            if (r.getRequesterId().equals(requesterId) && !r.isExpired()) {
-                requests.remove(i);
-                logger.info("TPA request accepted: " + r.getRequesterName() + " -> " + r.getTargetName());
-                return Optional.of(r);
+        TpaRequest request;
+        synchronized (lock) {
+            request = getRequest(targetId, requesterId);
+            if (request == null || request.isExpired()) {
+                return Optional.empty();
             }
+            removeRequest(request);
         }
-        return Optional.empty();
+
+        logger.info("TPA request accepted: " + request.getRequesterName() + " -> " + request.getTargetName());
+        return Optional.of(request);
     }
 
     /**
      * Deny the most recent teleport request for a player.
      */
     public Optional<TpaRequest> denyRequest(UUID targetId) {
-        List<TpaRequest> requests = pendingRequests.get(targetId);
-        if (requests == null || requests.isEmpty()) {
-            return Optional.empty();
-        }
-
-        // Remove most recent non-expired request
-        for (int i = requests.size() - 1; i >= 0; i--) {
-            TpaRequest r = requests.get(i);
-            if (!r.isExpired()) {
-                requests.remove(i);
-                logger.info("TPA request denied: " + r.getRequesterName() + " -> " + r.getTargetName());
-                return Optional.of(r);
+        TpaRequest request;
+        synchronized (lock) {
+            request = getMostRecent(targetId);
+            if (request == null) {
+                return Optional.empty();
             }
+            removeRequest(request);
         }
-        return Optional.empty();
+
+        logger.info("TPA request denied: " + request.getRequesterName() + " -> " + request.getTargetName());
+        return Optional.of(request);
     }
 
     /**
      * Deny a specific request from a player.
      */
     public Optional<TpaRequest> denyRequestFrom(UUID targetId, UUID requesterId) {
-        List<TpaRequest> requests = pendingRequests.get(targetId);
-        if (requests == null) return Optional.empty();
-
-        for (int i = 0; i < requests.size(); i++) {
-            TpaRequest r = requests.get(i);
-            if (r.getRequesterId().equals(requesterId)) {
-                requests.remove(i);
-                logger.info("TPA request denied: " + r.getRequesterName() + " -> " + r.getTargetName());
-                return Optional.of(r);
+        TpaRequest request;
+        synchronized (lock) {
+            request = getRequest(targetId, requesterId);
+            if (request == null) {
+                return Optional.empty();
             }
+            removeRequest(request);
         }
-        return Optional.empty();
+
+        logger.info("TPA request denied: " + request.getRequesterName() + " -> " + request.getTargetName());
+        return Optional.of(request);
     }
 
     /**
-     * Get all pending requests for a player.
+     * Get all pending requests for a player, oldest first.
      */
     public List<TpaRequest> getPendingRequests(UUID targetId) {
-        List<TpaRequest> requests = pendingRequests.get(targetId);
-        if (requests == null) return Collections.emptyList();
-        
-        // Return only non-expired
-        return requests.stream()
-                .filter(r -> !r.isExpired())
-                .toList();
+        synchronized (lock) {
+            LinkedHashMap<UUID, TpaRequest> requests = requestsByTarget.get(targetId);
+            if (requests == null) return Collections.emptyList();
+            
+            // Return only non-expired
+            List<TpaRequest> pending = new ArrayList<>(requests.size());
+            for (TpaRequest request : requests.values()) {
+                if (!request.isExpired()) {
+                    pending.add(request);
+                }
+            }
+            return pending;
+        }
     }
 
     /**
      * Check if a player has any pending requests.
      */
     public boolean hasPendingRequests(UUID targetId) {
-        List<TpaRequest> requests = pendingRequests.get(targetId);
-        if (requests == null) return false;
-        return requests.stream().anyMatch(r -> !r.isExpired());
+        synchronized (lock) {
+            return getMostRecent(targetId) != null;
+        }
     }
 
     /**
      * Cancel all outgoing requests from a player.
      */
     public void cancelOutgoingRequests(UUID requesterId) {
-        for (List<TpaRequest> requests : pendingRequests.values()) {
-            requests.removeIf(r -> r.getRequesterId().equals(requesterId));
+        synchronized (lock) {
+            Map<UUID, TpaRequest> outgoing = requestsByRequester.remove(requesterId);
+            if (outgoing == null) return;
+            for (TpaRequest request : outgoing.values()) {
+                removeFromTarget(request);
+            }
         }
     }
 
+    // ==================== Indexes ====================
+
+    private TpaRequest getRequest(UUID targetId, UUID requesterId) {
+        LinkedHashMap<UUID, TpaRequest> requests = requestsByTarget.get(targetId);
+        return requests != null ? requests.get(requesterId) : null;
+    }
+
     /**
-     * Clean up expired requests.
+     * Newest non-expired request to a player. Expired ones are only still here
+     * until the expiry task (about to run) removes them.
      */
-    private void cleanupExpired() {
-        for (List<TpaRequest> requests : pendingRequests.values()) {
-            requests.removeIf(TpaRequest::isExpired);
+    private TpaRequest getMostRecent(UUID targetId) {
+        LinkedHashMap<UUID, TpaRequest> requests = requestsByTarget.get(targetId);
+        if (requests == null) return null;
+        for (TpaRequest request : requests.sequencedValues().reversed()) {
+            if (!request.isExpired()) {
+                return request;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remove a request from both indexes. Its expiry queue entry is skipped later.
+     * Returns false if it was already resolved.
+     */
+    private boolean removeRequest(TpaRequest request) {
+        Map<UUID, TpaRequest> outgoing = requestsByRequester.get(request.getRequesterId());
+        if (outgoing == null || !outgoing.remove(request.getTargetId(), request)) {
+            return false;
+        }
+        if (outgoing.isEmpty()) {
+            requestsByRequester.remove(request.getRequesterId());
+        }
+        removeFromTarget(request);
+        return true;
+    }
+
+    private void removeFromTarget(TpaRequest request) {
+        LinkedHashMap<UUID, TpaRequest> requests = requestsByTarget.get(request.getTargetId());
+        if (requests != null && requests.remove(request.getRequesterId(), request) && requests.isEmpty()) {
+            requestsByTarget.remove(request.getTargetId());
+        }
+    }
+
+    // ==================== Expiry ====================
+
+    /**
+     * Make sure the expiry task fires by the given time. Called with the lock held.
+     */
+    private void scheduleExpiry(long expiresAt) {
+        if (expiresAt >= expiryTaskAt) {
+            return;
+        }
+        if (expiryTask != null) {
+            expiryTask.cancel();
+        }
+        // isExpired() turns true 1ms after expiresAt
+        long delay = Math.max(0, expiresAt + 1 - System.currentTimeMillis());
+        expiryTaskAt = expiresAt;
+        expiryTask = scheduler.schedule("tpa.expire", this::expireDue, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Remove every request that has expired, then tell both players of each.
+     */
+    private void expireDue() {
+        List<TpaRequest> expired = new ArrayList<>();
+        synchronized (lock) {
+            expiryTask = null;
+            expiryTaskAt = Long.MAX_VALUE;
+            while (!expiryQueue.isEmpty() && expiryQueue.peek().isExpired()) {
+                TpaRequest request = expiryQueue.poll();
+                if (removeRequest(request)) {
+                    expired.add(request);
+                }
+            }
+            if (!expiryQueue.isEmpty()) {
+                scheduleExpiry(expiryQueue.peek().getExpiresAt());
+            }
+        }
+        if (!expired.isEmpty()) {
+            notifyExpired(expired);
+        }
+    }
+
+    private void notifyExpired(List<TpaRequest> expired) {
+        Universe universe = Universe.get();
+        if (universe == null) return;
+        
+        for (TpaRequest request : expired) {
+            PlayerRef requester = universe.getPlayer(request.getRequesterId());
+            if (requester != null) {
+                requester.sendMessage(MessageFormatter.formatWithFallback(
+                        configManager.getMessage("tpaExpiredRequester", "player", request.getTargetName()), "#FF5555"));
+            }
+            PlayerRef target = universe.getPlayer(request.getTargetId());
+            if (target != null) {
+                target.sendMessage(MessageFormatter.formatWithFallback(
+                        configManager.getMessage("tpaExpiredTarget", "player", request.getRequesterName()), "#FF5555"));
+            }
         }
     }
 
     /**
-     * Shutdown the service and cleanup scheduler.
+     * Shutdown the service and cancel the expiry task.
      */
     public void shutdown() {
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
+        synchronized (lock) {
+            if (expiryTask != null) {
+                expiryTask.cancel();
+                expiryTask = null;
             }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
+            expiryTaskAt = Long.MAX_VALUE;
+            requestsByTarget.clear();
+            requestsByRequester.clear();
+            expiryQueue.clear();
         }
-        pendingRequests.clear();
     }
 }
@@ -4,6 +4,7 @@ import com.eliteessentials.config.ConfigManager;
 import com.eliteessentials.config.PluginConfig;
 import com.eliteessentials.model.PlayerFile;
 import com.eliteessentials.storage.PlayerFileStorage;
+import com.eliteessentials.storage.PlayerJournal;
 import com.eliteessentials.util.MessageFormatter;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
@@ -92,7 +93,7 @@ public class VanishService {
             PlayerFile playerFile = playerFileStorage.getPlayer(playerId);
             if (playerFile != null) {
                 playerFile.setVanished(vanished);
-                playerFileStorage.saveAndMarkDirty(playerId);
+                playerFileStorage.saveFields(playerId, PlayerJournal.Field.VANISHED);
             }
         }
         
@@ -0,0 +1,381 @@
+package com.eliteessentials.services;
+
+import com.eliteessentials.model.PlayerFile;
+import com.eliteessentials.model.PlayerSummary;
+import com.eliteessentials.storage.EconomyLedger;
+import com.eliteessentials.storage.PlayerFileStorage;
+import com.eliteessentials.storage.PlayerJournal;
+
+import java.util.*;
+
+/**
+ * Thread-safe wallet updates for PlayerService and the economy integrations.
+ *
+ * Balances are still stored in PlayerFile as a double (so the file formats, the
+ * journal and the leaderboards are unchanged), but every change is computed in
+ * fixed-point units of 1/{@value #SCALE}. Repeated deposits and withdrawals
+ * therefore never accumulate floating point drift, and a balance can't overflow
+ * silently.
+ *
+ * Each account is guarded by one of {@value #STRIPES} locks picked by UUID, so
+ * updates to different players rarely contend and there is no global economy
+ * lock. A transfer takes both players' locks in stripe order, so two opposite
+ * transfers can't deadlock, and the debit and credit happen as one step.
+ *
+ * When an EconomyLedger is attached, every change is appended to it while the
+ * account lock is still held, so the ledger sees each account's changes in order.
+ * The append only queues the entry; it never waits for the disk. Single changes
+ * are also persisted (journaled) before the lock is released, so a change can't
+ * reach the journal after - and be replayed over - a newer one.
+ *
+ * Bulk operations (mass payouts, taxes) still lock and update one account at a
+ * time, but persist the changed wallets in batches through
+ * PlayerFileStorage.saveFieldsBatch instead of one save per player.
+ *
+ * Every account is pinned in PlayerFileStorage until its change is persisted
+ * (for bulk operations, until the batch is), so an offline player can't be
+ * evicted with an unsaved balance and reloaded from the old file.
+ */
+public class WalletEngine {
+
+    /** Fixed-point units per currency unit (4 decimal places) */
+    public static final long SCALE = 10_000;
+
+    private static final int STRIPES = 64;
+
+    private final PlayerFileStorage storage;
+    private final Object[] locks = new Object[STRIPES];
+    private volatile EconomyLedger ledger;
+
+    public WalletEngine(PlayerFileStorage storage) {
+        this.storage = storage;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Record every change in this ledger from now on (null to stop recording).
+     */
+    public void setLedger(EconomyLedger ledger) {
+        this.ledger = ledger;
+    }
+
+    // ==================== Fixed Point ====================
+
+    /**
+     * Convert an amount to fixed-point units, rounding to the nearest unit.
+     *
+     * @throws ArithmeticException if the amount is not finite or too large
+     */
+    public static long toUnits(double amount) {
+        if (!Double.isFinite(amount) || Math.abs(amount) >= Long.MAX_VALUE / (double) SCALE) {
+            throw new ArithmeticException("Amount out of range: " + amount);
+        }
+        return Math.round(amount * SCALE);
+    }
+
+    public static double toAmount(long units) {
+        return units / (double) SCALE;
+    }
+
+    private Object lockFor(UUID playerId) {
+        return locks[stripe(playerId)];
+    }
+
+    private static int stripe(UUID playerId) {
+        int h = playerId.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    // ==================== Operations ====================
+
+    /**
+     * Add an amount to a player's wallet.
+     *
+     * @param source who made the change, recorded in the ledger (plugin or command name)
+     * @return false if the player has no data or the amount is invalid
+     */
+    public boolean deposit(UUID playerId, double amount, String source) {
+        return apply(playerId, amount, EconomyLedger.Type.DEPOSIT, source);
+    }
+
+    /**
+     * Take an amount from a player's wallet.
+     *
+     * @return false if the player has no data, can't afford it, or the amount is invalid
+     */
+    public boolean withdraw(UUID playerId, double amount, String source) {
+        return apply(playerId, -amount, EconomyLedger.Type.WITHDRAW, source);
+    }
+
+    /**
+     * Set a player's balance.
+     *
+     * @return false if the player has no data or the amount is invalid
+     */
+    public boolean set(UUID playerId, double amount, String source) {
+        return apply(playerId, amount, EconomyLedger.Type.SET, source);
+    }
+
+    private boolean apply(UUID playerId, double amount, EconomyLedger.Type type, String source) {
+        if (storage.pin(playerId) == null) {
+            return false;
+        }
+        try {
+            return update(playerId, amount, type, source, true);
+        } finally {
+            storage.unpin(playerId);
+        }
+    }
+
+    /**
+     * Change one pinned wallet under its lock, persisting it before the lock is
+     * released if asked to (bulk operations persist in batches instead).
+     */
+    private boolean update(UUID playerId, double amount, EconomyLedger.Type type, String source, boolean persist) {
+        boolean replace = type == EconomyLedger.Type.SET;
+        long units;
+        try {
+            units = toUnits(amount);
+        } catch (ArithmeticException e) {
+            return false;
+        }
+        if (replace && units < 0) {
+            return false;
+        }
+
+        synchronized (lockFor(playerId)) {
+            // Fetched under the lock; the pin keeps it the cached instance
+            PlayerFile data = storage.getPlayer(playerId);
+            if (data == null) {
+                return false;
+            }
+            long balance;
+            try {
+                balance = replace ? units : Math.addExact(toUnits(data.getWallet()), units);
+            } catch (ArithmeticException e) {
+                return false;
+            }
+            if (balance < 0) {
+                return false;
+            }
+            data.setWallet(toAmount(balance));
+            
+            EconomyLedger l = ledger;
+            if (l != null) {
+                l.append(type, playerId, Math.abs(units), balance, null, 0, source);
+            }
+            if (persist) {
+                storage.saveFields(playerId, PlayerJournal.Field.WALLET);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Move an amount from one player to another as a single step: either both
+     * wallets change or neither does.
+     *
+     * @return false if either player has no data, the sender can't afford it,
+     *         the players are the same or the amount is invalid
+     */
+    public boolean transfer(UUID from, UUID to, double amount, String source) {
+        if (from.equals(to) || amount <= 0) {
+            return false;
+        }
+        long units;
+        try {
+            units = toUnits(amount);
+        } catch (ArithmeticException e) {
+            return false;
+        }
+        if (storage.pin(from) == null) {
+            return false;
+        }
+        try {
+            if (storage.pin(to) == null) {
+                return false;
+            }
+            try {
+                return transferPinned(from, to, units, source);
+            } finally {
+                storage.unpin(to);
+            }
+        } finally {
+            storage.unpin(from);
+        }
+    }
+
+    /**
+     * Move units between two pinned players under both account locks.
+     */
+    private boolean transferPinned(UUID from, UUID to, long units, String source) {
+        // Always lock the lower stripe first so opposite transfers can't deadlock
+        int fromStripe = stripe(from);
+        int toStripe = stripe(to);
+        Object first = locks[Math.min(fromStripe, toStripe)];
+        Object second = locks[Math.max(fromStripe, toStripe)];
+        synchronized (first) {
+            synchronized (second) {
+                PlayerFile sender = storage.getPlayer(from);
+                PlayerFile receiver = storage.getPlayer(to);
+                if (sender == null || receiver == null) {
+                    return false;
+                }
+                long senderBalance = toUnits(sender.getWallet()) - units;
+                long receiverBalance;
+                try {
+                    receiverBalance = Math.addExact(toUnits(receiver.getWallet()), units);
+                } catch (ArithmeticException e) {
+                    return false;
+                }
+                if (senderBalance < 0) {
+                    return false;
+                }
+                sender.setWallet(toAmount(senderBalance));
+                receiver.setWallet(toAmount(receiverBalance));
+                
+                EconomyLedger l = ledger;
+                if (l != null) {
+                    l.append(EconomyLedger.Type.TRANSFER, from, units, senderBalance, to, receiverBalance, source);
+                }
+                storage.saveFields(from, PlayerJournal.Field.WALLET);
+                storage.saveFields(to, PlayerJournal.Field.WALLET);
+            }
+        }
+        return true;
+    }
+
+    // ==================== Bulk Operations ====================
+
+    /** Accounts pinned and persisted per batch - bounds how many offline players a bulk operation holds in memory */
+    private static final int BULK_BATCH = 256;
+
+    /**
+     * Add an amount to several wallets. Each account changes atomically on its
+     * own; the changes are persisted in batches.
+     *
+     * @return per-player result, in the given order (duplicates are paid once)
+     */
+    public Map<UUID, Boolean> depositAll(Collection<UUID> playerIds, double amount, String source) {
+        return applyAll(playerIds, amount, EconomyLedger.Type.DEPOSIT, source);
+    }
+
+    /**
+     * Take an amount from several wallets. Players who can't afford it are
+     * left unchanged and reported as false.
+     *
+     * @return per-player result, in the given order (duplicates are charged once)
+     */
+    public Map<UUID, Boolean> withdrawAll(Collection<UUID> playerIds, double amount, String source) {
+        return applyAll(playerIds, -amount, EconomyLedger.Type.WITHDRAW, source);
+    }
+
+    private Map<UUID, Boolean> applyAll(Collection<UUID> playerIds, double amount, EconomyLedger.Type type, String source) {
+        Map<UUID, Boolean> results = new LinkedHashMap<>();
+        List<UUID> pinned = new ArrayList<>(Math.min(playerIds.size(), BULK_BATCH));
+        List<UUID> changed = new ArrayList<>(Math.min(playerIds.size(), BULK_BATCH));
+        try {
+            for (UUID playerId : playerIds) {
+                if (playerId == null || results.containsKey(playerId)) continue;
+                if (storage.pin(playerId) == null) {
+                    results.put(playerId, false);
+                    continue;
+                }
+                pinned.add(playerId);
+                boolean success = update(playerId, amount, type, source, false);
+                results.put(playerId, success);
+                if (success) {
+                    changed.add(playerId);
+                }
+                if (pinned.size() >= BULK_BATCH) {
+                    persistBatch(changed, pinned);
+                }
+            }
+        } finally {
+            persistBatch(changed, pinned);
+        }
+        return results;
+    }
+
+    /**
+     * Persist a batch of changed wallets, then release the batch's pins.
+     */
+    private void persistBatch(List<UUID> changed, List<UUID> pinned) {
+        try {
+            if (!changed.isEmpty()) {
+                storage.saveFieldsBatch(changed, PlayerJournal.Field.WALLET);
+            }
+        } finally {
+            storage.unpinAll(pinned);
+            changed.clear();
+            pinned.clear();
+        }
+    }
+
+    /**
+     * Take a percentage of every positive balance (online and offline players).
+     * The tax is rounded down to whole units, so it never exceeds the balance.
+     *
+     * @param percent percentage to take, greater than 0 and at most 100
+     * @return amount taken per taxed player
+     */
+    public Map<UUID, Double> tax(double percent, String source) {
+        Map<UUID, Double> taken = new LinkedHashMap<>();
+        if (!(percent > 0 && percent <= 100)) {
+            return taken;
+        }
+        double rate = percent / 100.0;
+
+        // Accounts with money, from the stats index (no disk scan)
+        List<UUID> pinned = new ArrayList<>(BULK_BATCH);
+        List<UUID> changed = new ArrayList<>(BULK_BATCH);
+        try {
+            for (PlayerSummary summary : storage.getTopByWallet(Integer.MAX_VALUE)) {
+                if (summary.wallet() <= 0) break;
+                UUID playerId = summary.uuid();
+                if (storage.pin(playerId) == null) continue;
+                pinned.add(playerId);
+                long units = taxOne(playerId, rate, source);
+                if (units > 0) {
+                    taken.put(playerId, toAmount(units));
+                    changed.add(playerId);
+                }
+                if (pinned.size() >= BULK_BATCH) {
+                    persistBatch(changed, pinned);
+                }
+            }
+        } finally {
+            persistBatch(changed, pinned);
+        }
+        return taken;
+    }
+
+    /**
+     * Take a fraction of one pinned wallet under its lock, without persisting it.
+     *
+     * @return units taken, or 0 if nothing was taken
+     */
+    private long taxOne(UUID playerId, double rate, String source) {
+        synchronized (lockFor(playerId)) {
+            PlayerFile data = storage.getPlayer(playerId);
+            if (data == null) {
+                return 0;
+            }
+            long balance = toUnits(data.getWallet());
+            long units = (long) Math.floor(balance * rate);
+            if (units <= 0) {
+                return 0;
+            }
+            balance -= units;
+            data.setWallet(toAmount(balance));
+            
+            EconomyLedger l = ledger;
+            if (l != null) {
+                l.append(EconomyLedger.Type.WITHDRAW, playerId, units, balance, null, 0, source);
+            }
+            return units;
+        }
+    }
+}
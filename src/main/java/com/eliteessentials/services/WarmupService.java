@@ -3,6 +3,7 @@ package com.eliteessentials.services;
 import com.eliteessentials.EliteEssentials;
 import com.eliteessentials.config.ConfigManager;
 import com.eliteessentials.util.MessageFormatter;
+import com.hypixel.hytale.component.ComponentType;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.math.vector.Vector3d;
@@ -20,6 +21,12 @@ import java.util.logging.Logger;
 /**
  * Service for handling teleport warmups - players must stand still for a duration.
  * Uses a polling approach similar to HomeManager for reliable movement detection.
+ *
+ * Pending warmups are grouped by world. Each poll submits one task per world
+ * that has warmups, and that task checks all of them on the world thread with
+ * the component types and config resolved once. Task submissions scale with
+ * worlds instead of players. A world that hasn't run its previous tick yet
+ * (e.g. while lagging) is skipped instead of queueing more ticks.
  */
 public class WarmupService {
 
@@ -31,16 +38,13 @@ public class WarmupService {
     // Poll interval in milliseconds - frequent polling catches movement reliably
     private static final long POLL_INTERVAL_MS = 100;
 
-    private final ScheduledExecutorService poller;
+    private final SchedulerService scheduler;
     private final Map<UUID, PendingWarmup> pending = new ConcurrentHashMap<>();
-    private ScheduledFuture<?> pollTask;
+    private final Map<World, WorldWarmups> worlds = new ConcurrentHashMap<>();
+    private SchedulerService.Task pollTask;
 
-    public WarmupService() {
-        this.poller = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "EliteEssentials-Warmup");
-            t.setDaemon(true);
-            return t;
-        });
+    public WarmupService(SchedulerService scheduler) {
+        this.scheduler = scheduler;
     }
 
     /**
@@ -62,10 +66,7 @@ public class WarmupService {
         UUID playerId = player.getUuid();
         
         // Cancel any existing warmup for this player
-        PendingWarmup existing = pending.remove(playerId);
-        if (existing != null) {
-            existing.cancelled = true;
-        }
+        cancelWarmup(playerId);
         
         // If no warmup needed, execute immediately
         if (warmupSeconds <= 0) {
@@ -93,6 +94,13 @@ public class WarmupService {
         );
         
         pending.put(playerId, warmup);
+        worlds.compute(world, (w, worldWarmups) -> {
+            if (worldWarmups == null) {
+                worldWarmups = new WorldWarmups();
+            }
+            worldWarmups.warmups.put(playerId, warmup);
+            return worldWarmups;
+        });
         ensurePollerRunning();
     }
     
@@ -104,103 +112,117 @@ public class WarmupService {
         startWarmup(player, startPosition, warmupSeconds, onComplete, commandName, null, null, null);
     }
     
-    private void ensurePollerRunning() {
+    private synchronized void ensurePollerRunning() {
         if (pollTask != null && !pollTask.isCancelled()) {
             return;
         }
-        pollTask = poller.scheduleAtFixedRate(
-            this::pollWarmups,
+        pollTask = scheduler.scheduleAtFixedRate(
+            "warmup.poll", this::pollWarmups,
             POLL_INTERVAL_MS, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS
         );
     }
     
     private void pollWarmups() {
-        if (pending.isEmpty()) {
-            return;
-        }
-        
-        for (PendingWarmup warmup : pending.values()) {
-            if (warmup.cancelled) {
-                pending.remove(warmup.playerUuid);
+        for (Map.Entry<World, WorldWarmups> entry : worlds.entrySet()) {
+            World world = entry.getKey();
+            WorldWarmups worldWarmups = entry.getValue();
+            if (worldWarmups.warmups.isEmpty()) {
+                // Atomic with startWarmup adding to the same world
+                worlds.computeIfPresent(world, (w, current) -> current.warmups.isEmpty() ? null : current);
                 continue;
             }
-            
-            World world = warmup.world;
-            if (world == null) {
-                pending.remove(warmup.playerUuid);
-                continue;
+            if (worldWarmups.tickQueued) {
+                continue; // Previous tick hasn't run yet
             }
             
-            // Execute the tick on the game thread
-            world.execute(() -> tickWarmup(warmup));
+            // Tick all of this world's warmups in one task on the game thread
+            worldWarmups.tickQueued = true;
+            try {
+                world.execute(() -> tickWorld(worldWarmups));
+            } catch (Exception e) {
+                // World is shutting down - its players are leaving anyway
+                worlds.remove(world, worldWarmups);
+                for (PendingWarmup warmup : worldWarmups.warmups.values()) {
+                    pending.remove(warmup.playerUuid, warmup);
+                }
+            }
         }
         
-        // Stop poller if no more pending warmups
+        stopPollerIfIdle();
+    }
+    
+    private synchronized void stopPollerIfIdle() {
         if (pending.isEmpty() && pollTask != null) {
-            pollTask.cancel(false);
+            pollTask.cancel();
             pollTask = null;
         }
     }
 
-    private void tickWarmup(PendingWarmup warmup) {
+    private void tickWorld(WorldWarmups worldWarmups) {
+        worldWarmups.tickQueued = false;
+        
+        // Resolved once for every warmup in this world
+        ConfigManager configManager = EliteEssentials.getInstance().getConfigManager();
+        ComponentType<EntityStore, Player> playerType = Player.getComponentType();
+        ComponentType<EntityStore, TransformComponent> transformType = TransformComponent.getComponentType();
+        long now = System.nanoTime();
+        
+        for (PendingWarmup warmup : worldWarmups.warmups.values()) {
+            if (warmup.cancelled || !tickWarmup(warmup, configManager, playerType, transformType, now)) {
+                worldWarmups.warmups.remove(warmup.playerUuid, warmup);
+                pending.remove(warmup.playerUuid, warmup);
+            }
+        }
+    }
+
+    /**
+     * Check one warmup. Returns false once it is finished (completed, cancelled or invalid).
+     */
+    private boolean tickWarmup(PendingWarmup warmup, ConfigManager configManager,
+                               ComponentType<EntityStore, Player> playerType,
+                               ComponentType<EntityStore, TransformComponent> transformType, long now) {
         Store<EntityStore> store = warmup.store;
         Ref<EntityStore> ref = warmup.playerRef;
         
         // Validate ref is still valid before accessing components
         if (ref == null || !ref.isValid()) {
-            pending.remove(warmup.playerUuid);
-            return;
+            return false;
         }
         
-        // Get Player component to send messages
+        // Get Player component to send messages, and current position
         Player playerComponent;
+        TransformComponent transform;
         try {
-            playerComponent = (Player) store.getComponent(ref, Player.getComponentType());
+            playerComponent = store.getComponent(ref, playerType);
+            transform = store.getComponent(ref, transformType);
         } catch (Exception e) {
-            pending.remove(warmup.playerUuid);
-            return;
-        }
-        
-        if (playerComponent == null) {
-            pending.remove(warmup.playerUuid);
-            return;
+            // Entity may have been removed
+            return false;
         }
         
-        // Get current position
-        Vector3d currentPos = getPlayerPosition(ref, store);
-        if (currentPos == null) {
-            pending.remove(warmup.playerUuid);
-            return;
+        if (playerComponent == null || transform == null) {
+            return false;
         }
         
-        ConfigManager configManager = EliteEssentials.getInstance().getConfigManager();
-        
         // Check if player moved (using squared distance like HomeManager)
-        if (hasMoved(warmup.startPos, currentPos)) {
-            pending.remove(warmup.playerUuid);
+        if (hasMoved(warmup.startPos, transform.getPosition())) {
             playerComponent.sendMessage(MessageFormatter.formatWithFallback(configManager.getMessage("warmupCancelled"), "#FF5555"));
-            return;
+            return false;
         }
         
         // Check if warmup time has elapsed
-        long now = System.nanoTime();
         long remainingNanos = warmup.endTimeNanos - now;
         
         if (remainingNanos <= 0) {
-            // Warmup complete - execute the teleport
-            pending.remove(warmup.playerUuid);
-            
-            // Final validation before executing teleport
-            if (ref == null || !ref.isValid()) {
-                return;
+            // Warmup complete - execute the teleport (unless cancelled meanwhile)
+            if (pending.remove(warmup.playerUuid, warmup)) {
+                try {
+                    warmup.onComplete.run();
+                } catch (Exception e) {
+                    logger.warning("[Warmup] Error executing teleport: " + e.getMessage());
+                }
             }
-            
-            try {
-                warmup.onComplete.run();
-            } catch (Exception e) {
-                logger.warning("[Warmup] Error executing teleport: " + e.getMessage());
-            }
-            return;
+            return false;
         }
         
         // Announce countdown (only when seconds change, and not in silent mode)
@@ -209,6 +231,7 @@ public class WarmupService {
             warmup.lastAnnouncedSeconds = remainingSeconds;
             playerComponent.sendMessage(MessageFormatter.formatWithFallback(configManager.getMessage("warmupCountdown", "seconds", String.valueOf(remainingSeconds)), "#FFAA00"));
         }
+        return true;
     }
     
     private boolean hasMoved(Vector3d start, Vector3d current) {
@@ -219,26 +242,14 @@ public class WarmupService {
         return distanceSquared > MOVE_EPSILON_SQUARED;
     }
     
-    private Vector3d getPlayerPosition(Ref<EntityStore> ref, Store<EntityStore> store) {
-        try {
-            if (ref == null || !ref.isValid()) {
-                return null;
-            }
-            TransformComponent transform = (TransformComponent) store.getComponent(ref, TransformComponent.getComponentType());
-            if (transform == null) {
-                return null;
-            }
-            return transform.getPosition();
-        } catch (Exception e) {
-            // Entity may have been removed
-            return null;
-        }
-    }
-
     public void cancelWarmup(UUID playerId) {
         PendingWarmup warmup = pending.remove(playerId);
         if (warmup != null) {
             warmup.cancelled = true;
+            WorldWarmups worldWarmups = worlds.get(warmup.world);
+            if (worldWarmups != null) {
+                worldWarmups.warmups.remove(playerId, warmup);
+            }
         }
     }
 
@@ -251,21 +262,24 @@ public class WarmupService {
             cancelWarmup(playerId);
         }
         
-        if (pollTask != null) {
-            pollTask.cancel(false);
-        }
+        worlds.clear();
         
-        poller.shutdown();
-        try {
-            if (!poller.awaitTermination(5, TimeUnit.SECONDS)) {
-                poller.shutdownNow();
+        synchronized (this) {
+            if (pollTask != null) {
+                pollTask.cancel();
+                pollTask = null;
             }
-        } catch (InterruptedException e) {
-            poller.shutdownNow();
-            Thread.currentThread().interrupt();
         }
     }
 
+    /**
+     * Pending warmups of one world, ticked together.
+     */
+    private static class WorldWarmups {
+        final Map<UUID, PendingWarmup> warmups = new ConcurrentHashMap<>();
+        volatile boolean tickQueued;
+    }
+
     /**
      * Internal class to track pending warmup state.
      */
@@ -204,7 +204,7 @@ public class WarpService {
             
             // Try to get custom limit from LuckPerms (any value)
             if (LuckPermsIntegration.isAvailable()) {
-                int lpLimit = getHighestLuckPermsLimit(playerId, Permissions.WARP_LIMIT_PREFIX);
+                int lpLimit = PermissionService.get().getHighestPermissionValue(playerId, Permissions.WARP_LIMIT_PREFIX);
                 if (lpLimit > 0) {
                     return lpLimit;
                 }
@@ -222,58 +222,6 @@ public class WarpService {
         return config.maxWarps;
     }
     
-    /**
-     * Get the highest limit value from LuckPerms permissions.
-     * Scans for permissions matching the prefix and returns the highest number found.
-     */
-    private int getHighestLuckPermsLimit(UUID playerId, String permissionPrefix) {
-        try {
-            Class<?> providerClass = Class.forName("net.luckperms.api.LuckPermsProvider");
-            java.lang.reflect.Method getMethod = providerClass.getMethod("get");
-            Object luckPerms = getMethod.invoke(null);
-            
-            if (luckPerms == null) return -1;
-            
-            java.lang.reflect.Method getUserManagerMethod = luckPerms.getClass().getMethod("getUserManager");
-            Object userManager = getUserManagerMethod.invoke(luckPerms);
-            
-            java.lang.reflect.Method getUserMethod = userManager.getClass().getMethod("getUser", UUID.class);
-            Object user = getUserMethod.invoke(userManager, playerId);
-            
-            if (user == null) return -1;
-            
-            // Get CachedData -> PermissionData -> PermissionMap
-            java.lang.reflect.Method getCachedDataMethod = user.getClass().getMethod("getCachedData");
-            Object cachedData = getCachedDataMethod.invoke(user);
-            
-            java.lang.reflect.Method getPermissionDataMethod = cachedData.getClass().getMethod("getPermissionData");
-            Object permissionData = getPermissionDataMethod.invoke(cachedData);
-            
-            java.lang.reflect.Method getPermissionMapMethod = permissionData.getClass().getMethod("getPermissionMap");
-            @SuppressWarnings("unchecked")
-            Map<String, Boolean> permMap = (Map<String, Boolean>) getPermissionMapMethod.invoke(permissionData);
-            
-            int highestValue = -1;
-            
-            for (Map.Entry<String, Boolean> entry : permMap.entrySet()) {
-                if (entry.getValue() && entry.getKey().startsWith(permissionPrefix)) {
-                    String valuePart = entry.getKey().substring(permissionPrefix.length());
-                    try {
-                        int value = Integer.parseInt(valuePart);
-                        if (value > highestValue) {
-                            highestValue = value;
-                        }
-                    } catch (NumberFormatException ignored) {}
-                }
-            }
-            
-            return highestValue;
-            
-        } catch (Exception e) {
-            return -1;
-        }
-    }
-    
     /**
      * Get the highest warp limit from a player's groups.
      * Returns Integer.MIN_VALUE if no group limit found.
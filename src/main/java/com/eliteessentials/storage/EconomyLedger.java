@@ -0,0 +1,650 @@
+package com.eliteessentials.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only ledger of every wallet change, for auditing (data/ledger).
+ *
+ * append() only assigns a transaction id and queues the entry, so wallet
+ * operations never wait for the disk. A single writer thread drains the queue
+ * and writes everything that accumulated in one sequential write followed by
+ * one fsync (group commit): under load, batches simply grow instead of each
+ * transaction paying for its own fsync.
+ *
+ * Every entry carries the balance it left behind, so the latest balance of each
+ * account can be reconstructed by replaying the ledger: the writer keeps a
+ * snapshot of all balances (snapshot.dat) taken whenever a segment is rotated,
+ * and open() replays the segment written since then on top of it.
+ *
+ * The most recent entries of each player are indexed in memory by file position,
+ * so /eco history reads a handful of records instead of scanning the ledger.
+ *
+ * Files:
+ * - ledger-000001.log, ... - segments, rotated by size; the oldest are deleted
+ * - snapshot.dat - balances as of the end of the last rotated segment
+ *
+ * Record layout: length(4) body crc32(4), where body is
+ * txid(8) timestamp(8) type(1) account(16) amount(8) balance(8)
+ * hasCounterparty(1) [counterparty(16) counterpartyBalance(8)] source(UTF)
+ */
+public class EconomyLedger {
+
+    private static final Logger logger = Logger.getLogger("EliteEssentials");
+    private static final Pattern SEGMENT_NAME = Pattern.compile("ledger-(\\d+)\\.log");
+    private static final int MAX_BODY_SIZE = 1024;
+    private static final int MAX_SOURCE_LENGTH = 64;
+    private static final int MAX_BATCH = 4096;
+    private static final int RECENT_PER_PLAYER = 64;
+    // Delay before retrying a failed write, doubled per consecutive failure
+    private static final long RETRY_MIN_MS = 100;
+    private static final long RETRY_MAX_MS = 5000;
+    // Attempts left for unwritten entries once close() has been called
+    private static final int CLOSE_ATTEMPTS = 3;
+
+    /**
+     * Kinds of wallet change. Codes are persisted - never reuse one.
+     */
+    public enum Type {
+        DEPOSIT(1),
+        WITHDRAW(2),
+        SET(3),
+        TRANSFER(4);
+
+        final byte code;
+
+        Type(int code) {
+            this.code = (byte) code;
+        }
+
+        static Type byCode(byte code) {
+            for (Type type : values()) {
+                if (type.code == code) return type;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One wallet change. Amounts and balances are in WalletEngine fixed-point units.
+     * For transfers the account is the sender and the counterparty the receiver.
+     */
+    public record Entry(long txid, long timestamp, Type type, UUID account, long amount, long balance,
+                        UUID counterparty, long counterpartyBalance, String source) {
+    }
+
+    /**
+     * File positions of one player's latest entries (segment number << 32 | offset).
+     */
+    private static final class RecentPositions {
+        private final long[] ring = new long[RECENT_PER_PLAYER];
+        private int count;
+        private int next;
+
+        synchronized void add(long position) {
+            ring[next] = position;
+            next = (next + 1) % ring.length;
+            if (count < ring.length) count++;
+        }
+
+        synchronized long[] newestFirst(int limit) {
+            int n = Math.min(limit, count);
+            long[] positions = new long[n];
+            for (int i = 0; i < n; i++) {
+                positions[i] = ring[Math.floorMod(next - 1 - i, ring.length)];
+            }
+            return positions;
+        }
+    }
+
+    private final File folder;
+    private final File snapshotFile;
+    private final long maxSegmentBytes;
+    private final int keepSegments;
+    private final long fsyncIntervalMs;
+
+    private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Object appendLock = new Object();
+    private long lastTxid;
+    private volatile boolean running;
+
+    // Latest balance of every account, as of the last written entry
+    private final Map<UUID, Long> balances = new ConcurrentHashMap<>();
+    private final Map<UUID, RecentPositions> recent = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, File> segments = new ConcurrentSkipListMap<>();
+
+    // Writer state - owned by the writer thread once open() returns
+    private Thread writer;
+    private FileChannel channel;
+    private int segmentNo;
+    private long segmentSize;
+    private volatile long lastWrittenTxid;
+    private long lastSync;
+    private boolean unsynced;
+    private boolean segmentSuspect;
+    private final CRC32 crc = new CRC32();
+
+    // Metrics
+    private final AtomicLong writtenEntries = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong syncCount = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+    private volatile int retrying;
+    private volatile String lastError;
+
+    public EconomyLedger(File dataFolder, int segmentSizeKb, int keepSegments, long fsyncIntervalMs) {
+        this.folder = new File(dataFolder, "ledger");
+        this.snapshotFile = new File(folder, "snapshot.dat");
+        this.maxSegmentBytes = Math.max(64, segmentSizeKb) * 1024L;
+        this.keepSegments = Math.max(1, keepSegments);
+        this.fsyncIntervalMs = Math.max(0, fsyncIntervalMs);
+    }
+
+    // ==================== Open / Replay ====================
+
+    /**
+     * Load the last snapshot, replay the segments after it and start the writer thread.
+     * A torn record at the end of the newest segment (crash mid-write) is cut off.
+     *
+     * @return number of entries replayed
+     */
+    public int open() throws IOException {
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        long snapshotTxid = loadSnapshot();
+        lastWrittenTxid = snapshotTxid;
+
+        File[] files = folder.listFiles((dir, name) -> SEGMENT_NAME.matcher(name).matches());
+        if (files != null) {
+            for (File file : files) {
+                Matcher m = SEGMENT_NAME.matcher(file.getName());
+                if (m.matches()) {
+                    segments.put(Integer.parseInt(m.group(1)), file);
+                }
+            }
+        }
+
+        int replayed = 0;
+        for (Map.Entry<Integer, File> segment : segments.entrySet()) {
+            boolean newest = segment.getKey().equals(segments.lastKey());
+            replayed += scan(segment.getKey(), segment.getValue(), snapshotTxid, newest);
+        }
+
+        if (segments.isEmpty()) {
+            segmentNo = 1;
+            segments.put(segmentNo, segmentFile(segmentNo));
+        } else {
+            segmentNo = segments.lastKey();
+        }
+        File active = segments.get(segmentNo);
+        channel = FileChannel.open(active.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentSize = channel.size();
+        lastTxid = lastWrittenTxid;
+        lastSync = System.currentTimeMillis();
+
+        running = true;
+        writer = new Thread(this::writeLoop, "EliteEssentials-Ledger");
+        writer.setDaemon(true);
+        writer.start();
+        return replayed;
+    }
+
+    private int scan(int number, File file, long snapshotTxid, boolean truncateTail) throws IOException {
+        int count = 0;
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 65536))) {
+            while (true) {
+                byte[] body;
+                int storedCrc;
+                try {
+                    int length = in.readInt();
+                    if (length <= 0 || length > MAX_BODY_SIZE) {
+                        logger.warning("[EconomyLedger] Corrupt record in " + file.getName() + " at offset " + validLength + ", ignoring the rest.");
+                        break;
+                    }
+                    body = new byte[length];
+                    in.readFully(body);
+                    storedCrc = in.readInt();
+                } catch (EOFException e) {
+                    break; // End of segment or torn tail
+                }
+                crc.reset();
+                crc.update(body);
+                Entry entry = storedCrc == (int) crc.getValue() ? decode(body) : null;
+                if (entry == null) {
+                    logger.warning("[EconomyLedger] Corrupt record in " + file.getName() + " at offset " + validLength + ", ignoring the rest.");
+                    break;
+                }
+
+                indexEntry(entry, position(number, validLength));
+                if (entry.txid() > snapshotTxid) {
+                    applyBalances(entry);
+                }
+                lastWrittenTxid = Math.max(lastWrittenTxid, entry.txid());
+                validLength += 8 + body.length;
+                count++;
+            }
+        }
+
+        if (truncateTail && validLength < file.length()) {
+            try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                out.truncate(validLength);
+            }
+        }
+        return count;
+    }
+
+    private long loadSnapshot() {
+        if (!snapshotFile.exists()) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            long txid = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                balances.put(new UUID(in.readLong(), in.readLong()), in.readLong());
+            }
+            return txid;
+        } catch (IOException e) {
+            // Without the snapshot, the balances of accounts with no entry in the
+            // retained segments can't be reconstructed - history is still readable
+            logger.severe("[EconomyLedger] Failed to load ledger snapshot: " + e.getMessage());
+            balances.clear();
+            return 0;
+        }
+    }
+
+    // ==================== Append ====================
+
+    /**
+     * Queue a wallet change for writing and return its transaction id.
+     * Never blocks on I/O. Callers must append while still holding the lock that
+     * ordered the change, so entries of one account are in txid order.
+     *
+     * @return the transaction id, or -1 if the ledger is closed
+     */
+    public long append(Type type, UUID account, long amount, long balance,
+                       UUID counterparty, long counterpartyBalance, String source) {
+        String trimmed = source == null ? "" : source.length() > MAX_SOURCE_LENGTH ? source.substring(0, MAX_SOURCE_LENGTH) : source;
+        synchronized (appendLock) {
+            if (!running) {
+                return -1;
+            }
+            long txid = ++lastTxid;
+            queue.add(new Entry(txid, System.currentTimeMillis(), type, account, amount, balance,
+                    counterparty, counterpartyBalance, trimmed));
+            return txid;
+        }
+    }
+
+    // ==================== Writer ====================
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>();
+        int failures = 0;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                // A batch that failed is kept and retried before anything queued after it,
+                // so entries still reach the segment in txid order
+                if (batch.isEmpty()) {
+                    Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first != null) {
+                        batch.add(first);
+                        queue.drainTo(batch, MAX_BATCH - 1);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                    batch.clear();
+                    retrying = 0;
+                }
+                if (segmentSize >= maxSegmentBytes) {
+                    rotate();
+                }
+                if (unsynced && System.currentTimeMillis() - lastSync >= fsyncIntervalMs) {
+                    sync();
+                }
+                if (failures > 0) {
+                    logger.info("[EconomyLedger] Ledger writes recovered after " + failures + " failed attempts");
+                    failures = 0;
+                    lastError = null;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                failures++;
+                writeFailures.incrementAndGet();
+                retrying = batch.size();
+                lastError = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                if (failures == 1) {
+                    logger.severe("[EconomyLedger] Failed to write ledger, retrying " + batch.size()
+                            + " entries: " + lastError);
+                }
+                if (!running && failures >= CLOSE_ATTEMPTS) {
+                    logger.severe("[EconomyLedger] Giving up on " + (batch.size() + queue.size())
+                            + " unwritten entries at shutdown: " + lastError);
+                    return;
+                }
+                try {
+                    Thread.sleep(Math.min(RETRY_MAX_MS, RETRY_MIN_MS << Math.min(failures - 1, 6)));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Append a batch at the end of the active segment. Nothing is indexed or
+     * counted unless the whole batch was written, so a failed batch can be
+     * retried at the same offsets.
+     */
+    private void writeBatch(List<Entry> batch) throws IOException {
+        if (segmentSuspect) {
+            restoreSegment();
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(batch.size() * 128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        long[] offsets = new long[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            byte[] body = encode(batch.get(i));
+            offsets[i] = segmentSize + bytes.size();
+            crc.reset();
+            crc.update(body);
+            out.writeInt(body.length);
+            out.write(body);
+            out.writeInt((int) crc.getValue());
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            // Part of the batch may have reached the file
+            segmentSuspect = true;
+            throw e;
+        }
+        segmentSize += bytes.size();
+        unsynced = true;
+        batchCount.incrementAndGet();
+        writtenEntries.addAndGet(batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            Entry entry = batch.get(i);
+            indexEntry(entry, position(segmentNo, offsets[i]));
+            applyBalances(entry);
+            lastWrittenTxid = entry.txid();
+        }
+    }
+
+    /**
+     * After a failed write, cut the active segment back to the end of the last
+     * complete batch so no torn record sits between good ones and the retry
+     * lands at the offsets it is indexed with. Reopens the segment if the
+     * channel itself was lost.
+     */
+    private void restoreSegment() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(segments.get(segmentNo).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        long size = channel.size();
+        if (size > segmentSize) {
+            channel.truncate(segmentSize);
+        } else if (size < segmentSize) {
+            throw new IOException("Segment " + segmentNo + " is " + size + " bytes, expected " + segmentSize);
+        }
+        segmentSuspect = false;
+    }
+
+    private void sync() {
+        try {
+            channel.force(false);
+            syncCount.incrementAndGet();
+        } catch (IOException e) {
+            logger.severe("[EconomyLedger] Failed to sync ledger: " + e.getMessage());
+        }
+        unsynced = false;
+        lastSync = System.currentTimeMillis();
+    }
+
+    /**
+     * Close the full segment, snapshot the balances it leads to, start a new
+     * segment and delete segments beyond the retention limit.
+     */
+    private void rotate() throws IOException {
+        // The old segment stays active until the new one is open, so a failure
+        // here leaves the writer where it was and rotation is simply retried
+        sync();
+        writeSnapshot();
+
+        File next = segmentFile(segmentNo + 1);
+        FileChannel nextChannel = FileChannel.open(next.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warning("[EconomyLedger] Failed to close segment " + segmentNo + ": " + e.getMessage());
+        }
+        channel = nextChannel;
+        segmentNo++;
+        segments.put(segmentNo, next);
+        segmentSize = 0;
+        segmentSuspect = false;
+
+        while (segments.size() > keepSegments) {
+            Map.Entry<Integer, File> oldest = segments.pollFirstEntry();
+            if (!oldest.getValue().delete()) {
+                logger.warning("[EconomyLedger] Could not delete old segment " + oldest.getValue().getName());
+            }
+        }
+    }
+
+    /**
+     * Written to a temp file and moved into place so a crash never leaves a partial snapshot.
+     */
+    private void writeSnapshot() throws IOException {
+        File tmp = new File(folder, "snapshot.dat.tmp");
+        Map<UUID, Long> copy = new HashMap<>(balances);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeLong(lastWrittenTxid);
+            out.writeInt(copy.size());
+            for (Map.Entry<UUID, Long> entry : copy.entrySet()) {
+                out.writeLong(entry.getKey().getMostSignificantBits());
+                out.writeLong(entry.getKey().getLeastSignificantBits());
+                out.writeLong(entry.getValue());
+            }
+        }
+        try {
+            Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private File segmentFile(int number) {
+        return new File(folder, String.format("ledger-%06d.log", number));
+    }
+
+    private static long position(int segment, long offset) {
+        return ((long) segment << 32) | offset;
+    }
+
+    private void indexEntry(Entry entry, long position) {
+        recent.computeIfAbsent(entry.account(), k -> new RecentPositions()).add(position);
+        if (entry.counterparty() != null) {
+            recent.computeIfAbsent(entry.counterparty(), k -> new RecentPositions()).add(position);
+        }
+    }
+
+    private void applyBalances(Entry entry) {
+        balances.put(entry.account(), entry.balance());
+        if (entry.counterparty() != null) {
+            balances.put(entry.counterparty(), entry.counterpartyBalance());
+        }
+    }
+
+    // ==================== Queries ====================
+
+    /**
+     * A player's most recent written entries, newest first (as sender, receiver or holder).
+     * Entries still queued for the writer show up once written.
+     */
+    public List<Entry> getRecent(UUID account, int limit) {
+        RecentPositions positions = recent.get(account);
+        if (positions == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<Entry> entries = new ArrayList<>();
+        for (long position : positions.newestFirst(limit)) {
+            Entry entry = readAt(position);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private Entry readAt(long position) {
+        File file = segments.get((int) (position >>> 32));
+        if (file == null) {
+            return null; // Segment deleted by retention
+        }
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            in.seek(position & 0xFFFFFFFFL);
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_BODY_SIZE) {
+                return null;
+            }
+            byte[] body = new byte[length];
+            in.readFully(body);
+            int storedCrc = in.readInt();
+            CRC32 check = new CRC32();
+            check.update(body);
+            return storedCrc == (int) check.getValue() ? decode(body) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * An account's balance as reconstructed from the ledger (snapshot plus replayed
+     * entries), in fixed-point units. Empty if the ledger has never seen the account.
+     */
+    public OptionalLong getReplayedBalance(UUID account) {
+        Long balance = balances.get(account);
+        return balance != null ? OptionalLong.of(balance) : OptionalLong.empty();
+    }
+
+    // ==================== Encoding ====================
+
+    private static byte[] encode(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(entry.txid());
+        out.writeLong(entry.timestamp());
+        out.writeByte(entry.type().code);
+        out.writeLong(entry.account().getMostSignificantBits());
+        out.writeLong(entry.account().getLeastSignificantBits());
+        out.writeLong(entry.amount());
+        out.writeLong(entry.balance());
+        out.writeBoolean(entry.counterparty() != null);
+        if (entry.counterparty() != null) {
+            out.writeLong(entry.counterparty().getMostSignificantBits());
+            out.writeLong(entry.counterparty().getLeastSignificantBits());
+            out.writeLong(entry.counterpartyBalance());
+        }
+        out.writeUTF(entry.source());
+        return bytes.toByteArray();
+    }
+
+    private static Entry decode(byte[] body) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+            long txid = in.readLong();
+            long timestamp = in.readLong();
+            Type type = Type.byCode(in.readByte());
+            if (type == null) {
+                return null;
+            }
+            UUID account = new UUID(in.readLong(), in.readLong());
+            long amount = in.readLong();
+            long balance = in.readLong();
+            UUID counterparty = null;
+            long counterpartyBalance = 0;
+            if (in.readBoolean()) {
+                counterparty = new UUID(in.readLong(), in.readLong());
+                counterpartyBalance = in.readLong();
+            }
+            String source = in.readUTF();
+            return new Entry(txid, timestamp, type, account, amount, balance, counterparty, counterpartyBalance, source);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // ==================== Lifecycle ====================
+
+    /**
+     * Stop accepting entries, write everything queued and close the segment.
+     */
+    public void close() {
+        synchronized (appendLock) {
+            if (!running) return;
+            running = false;
+        }
+        // Not interrupted: that would close the channel mid-write. The writer sees
+        // running == false within one poll timeout and drains the queue first.
+        Thread t = writer;
+        if (t != null) {
+            try {
+                t.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (IOException e) {
+            logger.severe("[EconomyLedger] Failed to close ledger: " + e.getMessage());
+        }
+    }
+
+    public LedgerStats getStats() {
+        return new LedgerStats(running, lastWrittenTxid, queue.size() + retrying, writtenEntries.get(),
+                batchCount.get(), syncCount.get(), segments.size(), writeFailures.get(), lastError);
+    }
+
+    /**
+     * Ledger metrics. Entries per batch shows how much group commit is saving.
+     * Last error is set while writes are failing and cleared once one succeeds.
+     */
+    public record LedgerStats(boolean open, long lastTxid, int queued, long written,
+                              long batches, long syncs, int segments,
+                              long writeFailures, String lastError) {
+        public double entriesPerBatch() {
+            return batches > 0 ? written / (double) batches : 0.0;
+        }
+    }
+}
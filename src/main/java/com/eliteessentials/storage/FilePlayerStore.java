@@ -0,0 +1,327 @@
+package com.eliteessentials.storage;
+
+import com.eliteessentials.model.PlayerFile;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Default PlayerStore: one file per player in data/players.
+ *
+ * - players/ab/cd/{uuid}.json - Gson, human-readable (format "json")
+ * - players/ab/cd/{uuid}.dat - PlayerFileCodec (format "binary")
+ *
+ * Files are sharded into two levels of subfolders named after the first four
+ * hex digits of the UUID, so no directory grows past a few entries even with
+ * hundreds of thousands of players. Files from the old flat layout
+ * (players/{uuid}.json) are moved into their shard on startup.
+ *
+ * Reads fall back to the other format so switching storage.format converts
+ * players transparently: they are rewritten in the new format on next save.
+ */
+public class FilePlayerStore implements PlayerStore {
+
+    private static final Logger logger = Logger.getLogger("EliteEssentials");
+    private static final Gson gson = new GsonBuilder()
+            .setPrettyPrinting()
+            .disableHtmlEscaping()
+            .create();
+    static final String JSON_EXTENSION = ".json";
+    static final String BINARY_EXTENSION = ".dat";
+
+    // PlayerFile fields read by loadScalars()
+    private static final Set<String> SCALAR_FIELDS = Set.of(
+            "uuid", "name", "firstJoin", "lastSeen", "playTime", "wallet", "vanished", "journalSeq");
+
+    private final File playersFolder;
+
+    // Write player files with PlayerFileCodec instead of Gson
+    private volatile boolean binaryFormat = false;
+
+    // Some files couldn't be moved out of the flat layout
+    private volatile boolean flatLeftovers = false;
+
+    public FilePlayerStore(File dataFolder) {
+        this.playersFolder = new File(dataFolder, "players");
+
+        // Ensure players folder exists
+        if (!playersFolder.exists()) {
+            playersFolder.mkdirs();
+        }
+
+        migrateFlatLayout();
+    }
+
+    /**
+     * Move player files from the old flat players/{uuid}.json layout into shards.
+     * Files that can't be moved are still found through the flat-path fallback.
+     */
+    private void migrateFlatLayout() {
+        File[] flat = playersFolder.listFiles((dir, name) -> name.endsWith(JSON_EXTENSION) || name.endsWith(BINARY_EXTENSION));
+        if (flat == null || flat.length == 0) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int moved = 0;
+        for (File file : flat) {
+            UUID uuid = parseUuid(file.getName());
+            if (uuid == null) continue;
+
+            File target = new File(getShardFolder(uuid), file.getName());
+            try {
+                target.getParentFile().mkdirs();
+                Files.move(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                moved++;
+            } catch (IOException e) {
+                logger.warning("[FilePlayerStore] Could not move " + file.getName() + " into its shard: " + e.getMessage());
+                flatLeftovers = true;
+            }
+        }
+        logger.info("[FilePlayerStore] Moved " + moved + " player files into sharded folders in "
+                + (System.currentTimeMillis() - start) + "ms.");
+    }
+
+    /**
+     * Select the on-disk format ("json" or "binary").
+     */
+    public void setBinaryFormat(boolean binary) {
+        this.binaryFormat = binary;
+    }
+
+    public boolean isBinaryFormat() {
+        return binaryFormat;
+    }
+
+    public File getPlayersFolder() {
+        return playersFolder;
+    }
+
+    // ==================== Paths ====================
+
+    /**
+     * Get a player's data file path in the configured format.
+     */
+    private File getPlayerFile(UUID uuid) {
+        return binaryFormat ? getBinaryFile(uuid) : getJsonFile(uuid);
+    }
+
+    /**
+     * Get a player's data file path in the format that isn't configured.
+     */
+    private File getOtherFormatFile(UUID uuid) {
+        return binaryFormat ? getJsonFile(uuid) : getBinaryFile(uuid);
+    }
+
+    /**
+     * players/ab/cd for a UUID starting with "abcd".
+     */
+    private File getShardFolder(UUID uuid) {
+        String id = uuid.toString();
+        return new File(new File(playersFolder, id.substring(0, 2)), id.substring(2, 4));
+    }
+
+    private File getJsonFile(UUID uuid) {
+        return new File(getShardFolder(uuid), uuid.toString() + JSON_EXTENSION);
+    }
+
+    private File getBinaryFile(UUID uuid) {
+        return new File(getShardFolder(uuid), uuid.toString() + BINARY_EXTENSION);
+    }
+
+    /**
+     * A file left in the flat layout (only if the startup migration couldn't move it).
+     */
+    private File findFlatFile(UUID uuid) {
+        if (!flatLeftovers) return null;
+        File json = new File(playersFolder, uuid.toString() + JSON_EXTENSION);
+        if (json.exists()) return json;
+        File binary = new File(playersFolder, uuid.toString() + BINARY_EXTENSION);
+        return binary.exists() ? binary : null;
+    }
+
+    private static UUID parseUuid(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0) return null;
+        try {
+            return UUID.fromString(fileName.substring(0, dot));
+        } catch (IllegalArgumentException e) {
+            // Invalid UUID filename, skip
+            return null;
+        }
+    }
+
+    // ==================== PlayerStore ====================
+
+    /**
+     * The file holding a player's data: configured format first, then the other
+     * format, then the flat layout. Null if there is none.
+     */
+    private File findExisting(UUID uuid) {
+        File file = getPlayerFile(uuid);
+        if (file.exists()) return file;
+        file = getOtherFormatFile(uuid);
+        if (file.exists()) return file;
+        return findFlatFile(uuid);
+    }
+
+    @Override
+    public PlayerFile load(UUID uuid) throws IOException {
+        File file = findExisting(uuid);
+        if (file == null) {
+            return null;
+        }
+
+        if (file.getName().endsWith(BINARY_EXTENSION)) {
+            return PlayerFileCodec.decode(Files.readAllBytes(file.toPath()));
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, PlayerFile.class);
+        }
+    }
+
+    /**
+     * Read only the scalar fields, without materializing homes or mailbox.
+     *
+     * Binary files are read up to the end of the scalar header. JSON files are
+     * streamed token by token: the scalar fields are declared (and so written by
+     * Gson) before every collection, so reading stops as soon as they have all
+     * been seen and the rest of the file is never read. Hand-edited files with
+     * a different field order still work - unknown values are skipped.
+     */
+    @Override
+    public PlayerFile loadScalars(UUID uuid) throws IOException {
+        File file = findExisting(uuid);
+        if (file == null) {
+            return null;
+        }
+
+        if (file.getName().endsWith(BINARY_EXTENSION)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 512))) {
+                return PlayerFileCodec.decodeScalars(in);
+            }
+        }
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            return readJsonScalars(reader);
+        }
+    }
+
+    private static PlayerFile readJsonScalars(JsonReader reader) throws IOException {
+        PlayerFile data = new PlayerFile();
+        int remaining = SCALAR_FIELDS.size();
+        reader.beginObject();
+        while (remaining > 0 && reader.hasNext()) {
+            String field = reader.nextName();
+            if (!SCALAR_FIELDS.contains(field)) {
+                reader.skipValue();
+                continue;
+            }
+            remaining--;
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "uuid" -> data.setUuid(UUID.fromString(reader.nextString()));
+                case "name" -> data.setName(reader.nextString());
+                case "firstJoin" -> data.setFirstJoin(reader.nextLong());
+                case "lastSeen" -> data.setLastSeen(reader.nextLong());
+                case "playTime" -> data.setPlayTime(reader.nextLong());
+                case "wallet" -> data.setWallet(reader.nextDouble());
+                case "vanished" -> data.setVanished(reader.nextBoolean());
+                case "journalSeq" -> data.setJournalSeq(reader.nextLong());
+                default -> reader.skipValue();
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Write a player's data in the configured format, removing any copy left
+     * in the other format. Serialized per player on the PlayerFile instance.
+     */
+    @Override
+    public void save(PlayerFile data) throws IOException {
+        UUID uuid = data.getUuid();
+        File shard = getShardFolder(uuid);
+        if (!shard.exists()) {
+            shard.mkdirs();
+        }
+        // Written to a temp file and moved into place, so a concurrent load never reads a partial file
+        File target = binaryFormat ? getBinaryFile(uuid) : getJsonFile(uuid);
+        File tmp = new File(shard, target.getName() + ".tmp");
+        synchronized (data) {
+            if (binaryFormat) {
+                Files.write(tmp.toPath(), PlayerFileCodec.encode(data));
+            } else {
+                try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+                    gson.toJson(data, writer);
+                }
+            }
+            try {
+                Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        File stale = getOtherFormatFile(uuid);
+        if (stale.exists() && !stale.delete()) {
+            logger.warning("[FilePlayerStore] Could not delete old format file " + stale.getName());
+        }
+        File flat = findFlatFile(uuid);
+        if (flat != null && !flat.delete()) {
+            logger.warning("[FilePlayerStore] Could not delete unsharded file " + flat.getName());
+        }
+    }
+
+    @Override
+    public boolean exists(UUID uuid) {
+        return getJsonFile(uuid).exists() || getBinaryFile(uuid).exists() || findFlatFile(uuid) != null;
+    }
+
+    /**
+     * List the UUIDs of all player files on disk (both formats).
+     * Walks every shard - PlayerFileStorage only calls this once at startup.
+     */
+    @Override
+    public Set<UUID> listPlayers() {
+        Set<UUID> uuids = new HashSet<>();
+        collectPlayerFiles(playersFolder, uuids);
+        File[] outer = playersFolder.listFiles(File::isDirectory);
+        if (outer != null) {
+            for (File first : outer) {
+                File[] inner = first.listFiles(File::isDirectory);
+                if (inner == null) continue;
+                for (File second : inner) {
+                    collectPlayerFiles(second, uuids);
+                }
+            }
+        }
+        return uuids;
+    }
+
+    private static void collectPlayerFiles(File folder, Set<UUID> uuids) {
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(JSON_EXTENSION) || name.endsWith(BINARY_EXTENSION));
+        if (files == null) return;
+        for (File file : files) {
+            UUID uuid = parseUuid(file.getName());
+            if (uuid != null) {
+                uuids.add(uuid);
+            }
+        }
+    }
+
+    @Override
+    public String describe() {
+        return binaryFormat ? "binary files" : "JSON files";
+    }
+}
@@ -0,0 +1,105 @@
+package com.eliteessentials.storage;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Logger;
+
+/**
+ * Monotonic sequence numbers for the player journal and the snapshot stamps.
+ *
+ * The counter never looks at the clock once it exists, so a clock stepping
+ * backwards can't issue a sequence lower than one already stamped into a player
+ * file (which would make replay skip the newer record). Numbers are reserved in
+ * blocks: the upper bound of the current block is written to player_journal.seq
+ * before any number in it is handed out, and a restart resumes above that bound.
+ *
+ * The first run without the file starts from the clock, since older versions
+ * stamped files with microsecond timestamps. Stamps seen in loaded files and
+ * recovered journal records are observed too, so the counter always ends up
+ * above anything already on disk.
+ */
+final class JournalSequence {
+
+    private static final Logger logger = Logger.getLogger("EliteEssentials");
+    private static final long BLOCK = 1L << 20;
+
+    private final File file;
+    private long last;
+    private long reserved;
+
+    JournalSequence(File dataFolder) {
+        this.file = new File(dataFolder, "player_journal.seq");
+        load();
+    }
+
+    private void load() {
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+                reserved = in.readLong();
+                last = reserved;
+                return;
+            } catch (IOException e) {
+                logger.warning("[JournalSequence] Could not read " + file.getName() + ", restarting from the clock: " + e.getMessage());
+            }
+        }
+        last = System.currentTimeMillis() * 1000L;
+        reserved = 0;
+    }
+
+    /**
+     * Issue the next sequence number.
+     *
+     * @throws IOException if the next block couldn't be reserved
+     */
+    synchronized long next() throws IOException {
+        if (last >= reserved) {
+            reserve(last + BLOCK);
+        }
+        return ++last;
+    }
+
+    /**
+     * The most recently issued (or observed) sequence number.
+     */
+    synchronized long current() {
+        return last;
+    }
+
+    /**
+     * Move past a sequence found on disk (a file stamp or a recovered record).
+     */
+    synchronized void observe(long seq) {
+        if (seq <= last) {
+            return;
+        }
+        last = seq;
+        if (last > reserved) {
+            try {
+                reserve(last + BLOCK);
+            } catch (IOException e) {
+                // Retried by the next call to next()
+                logger.warning("[JournalSequence] Failed to persist sequence: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Written to a temp file, fsynced and moved into place so a crash never leaves a partial bound.
+     */
+    private void reserve(long bound) throws IOException {
+        file.getParentFile().mkdirs();
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp); DataOutputStream out = new DataOutputStream(fos)) {
+            out.writeLong(bound);
+            out.flush();
+            fos.getFD().sync();
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        reserved = bound;
+    }
+}
@@ -0,0 +1,282 @@
+package com.eliteessentials.storage;
+
+import com.eliteessentials.model.Home;
+import com.eliteessentials.model.Location;
+import com.eliteessentials.model.MailMessage;
+import com.eliteessentials.model.PlayerFile;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Hand-written binary encoding for PlayerFile (players/{uuid}.dat).
+ *
+ * No reflection: every field is written explicitly in a fixed order, so a save
+ * is a straight sequence of primitive writes. The scalar fields come first as a
+ * fixed-size header (after the name) so they can be read without decoding the
+ * homes, back history or mailbox.
+ *
+ * Layout (version 2):
+ * - magic "EEPF", version (short)
+ * - uuid, name, firstJoin, lastSeen, playTime, wallet, vanished, journalSeq
+ * - homes, backHistory, kitClaims, kitCooldowns, playtimeClaims, mailbox
+ *
+ * Strings are length-prefixed UTF-8 (length -1 = null). Collections are
+ * count-prefixed. Bump VERSION and branch in decode() when the layout changes.
+ */
+public final class PlayerFileCodec {
+
+    public static final int MAGIC = 0x45455046; // "EEPF"
+    public static final short VERSION = 2;
+
+    private PlayerFileCodec() {}
+
+    // ==================== Encode ====================
+
+    public static byte[] encode(PlayerFile data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        encode(data, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    public static void encode(PlayerFile data, DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+
+        writeUuid(out, data.getUuid());
+        writeString(out, data.getName());
+        out.writeLong(data.getFirstJoin());
+        out.writeLong(data.getLastSeen());
+        out.writeLong(data.getPlayTime());
+        out.writeDouble(data.getWallet());
+        out.writeBoolean(data.isVanished());
+        out.writeLong(data.getJournalSeq());
+
+        Map<String, Home> homes = data.getHomes();
+        out.writeInt(homes.size());
+        for (Map.Entry<String, Home> entry : homes.entrySet()) {
+            writeString(out, entry.getKey());
+            Home home = entry.getValue();
+            writeString(out, home.getName());
+            writeLocation(out, home.getLocation());
+            out.writeLong(home.getCreatedAt());
+        }
+
+        List<Location> backHistory = data.getBackHistory();
+        out.writeInt(backHistory.size());
+        for (Location location : backHistory) {
+            writeLocation(out, location);
+        }
+
+        writeStrings(out, data.getKitClaims());
+
+        Map<String, Long> kitCooldowns = data.getKitCooldowns();
+        out.writeInt(kitCooldowns.size());
+        for (Map.Entry<String, Long> entry : kitCooldowns.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeLong(entry.getValue() != null ? entry.getValue() : 0L);
+        }
+
+        PlayerFile.PlaytimeClaims claims = data.getPlaytimeClaims();
+        writeStrings(out, claims.claimedMilestones != null ? claims.claimedMilestones : Collections.emptySet());
+        Map<String, Integer> repeatable = claims.repeatableCounts != null ? claims.repeatableCounts : Collections.emptyMap();
+        out.writeInt(repeatable.size());
+        for (Map.Entry<String, Integer> entry : repeatable.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue() != null ? entry.getValue() : 0);
+        }
+
+        List<MailMessage> mailbox = data.getMailbox();
+        out.writeInt(mailbox.size());
+        for (MailMessage mail : mailbox) {
+            writeString(out, mail.getId());
+            writeUuid(out, mail.getSenderUuid());
+            writeString(out, mail.getSenderName());
+            writeString(out, mail.getMessage());
+            out.writeLong(mail.getTimestamp());
+            out.writeBoolean(mail.isRead());
+        }
+        out.flush();
+    }
+
+    // ==================== Decode ====================
+
+    public static PlayerFile decode(byte[] bytes) throws IOException {
+        return decode(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    public static PlayerFile decode(DataInputStream in) throws IOException {
+        PlayerFile data = decodeScalars(in);
+
+        int homeCount = in.readInt();
+        Map<String, Home> homes = new LinkedHashMap<>(Math.max(16, homeCount * 2));
+        for (int i = 0; i < homeCount; i++) {
+            String key = readString(in);
+            Home home = new Home();
+            home.setName(readString(in));
+            home.setLocation(readLocation(in));
+            home.setCreatedAt(in.readLong());
+            homes.put(key, home);
+        }
+        data.setHomes(homes);
+
+        int backCount = in.readInt();
+        List<Location> backHistory = new ArrayList<>(backCount);
+        for (int i = 0; i < backCount; i++) {
+            backHistory.add(readLocation(in));
+        }
+        data.setBackHistory(backHistory);
+
+        data.setKitClaims(readStrings(in, new HashSet<>()));
+
+        int cooldownCount = in.readInt();
+        Map<String, Long> kitCooldowns = new HashMap<>(Math.max(16, cooldownCount * 2));
+        for (int i = 0; i < cooldownCount; i++) {
+            kitCooldowns.put(readString(in), in.readLong());
+        }
+        data.setKitCooldowns(kitCooldowns);
+
+        PlayerFile.PlaytimeClaims claims = new PlayerFile.PlaytimeClaims();
+        claims.claimedMilestones = readStrings(in, new HashSet<>());
+        int repeatableCount = in.readInt();
+        for (int i = 0; i < repeatableCount; i++) {
+            claims.repeatableCounts.put(readString(in), in.readInt());
+        }
+        data.setPlaytimeClaims(claims);
+
+        int mailCount = in.readInt();
+        List<MailMessage> mailbox = new ArrayList<>(mailCount);
+        for (int i = 0; i < mailCount; i++) {
+            MailMessage mail = new MailMessage();
+            mail.setId(readString(in));
+            mail.setSenderUuid(readUuid(in));
+            mail.setSenderName(readString(in));
+            mail.setMessage(readString(in));
+            mail.setTimestamp(in.readLong());
+            mail.setRead(in.readBoolean());
+            mailbox.add(mail);
+        }
+        data.setMailbox(mailbox);
+
+        return data;
+    }
+
+    /**
+     * Decode only the scalar fields at the start of the file (uuid through journalSeq),
+     * leaving homes, back history, kits and mailbox empty and unread.
+     * The stream is left positioned at the homes section.
+     */
+    public static PlayerFile decodeScalars(DataInputStream in) throws IOException {
+        int version = readHeader(in);
+
+        PlayerFile data = new PlayerFile();
+        data.setUuid(readUuid(in));
+        data.setName(readString(in));
+        data.setFirstJoin(in.readLong());
+        data.setLastSeen(in.readLong());
+        data.setPlayTime(in.readLong());
+        data.setWallet(in.readDouble());
+        data.setVanished(in.readBoolean());
+        if (version >= 2) {
+            data.setJournalSeq(in.readLong());
+        }
+        return data;
+    }
+
+    /**
+     * Validate magic and version, returning the version.
+     */
+    static int readHeader(DataInputStream in) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException("Not an EliteEssentials player file (bad magic)");
+        }
+        int version = in.readShort();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported player file version " + version);
+        }
+        return version;
+    }
+
+    // ==================== Primitives ====================
+
+    private static void writeLocation(DataOutputStream out, Location location) throws IOException {
+        if (location == null) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        writeString(out, location.getWorld());
+        out.writeDouble(location.getX());
+        out.writeDouble(location.getY());
+        out.writeDouble(location.getZ());
+        out.writeFloat(location.getYaw());
+        out.writeFloat(location.getPitch());
+    }
+
+    private static Location readLocation(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        String world = readString(in);
+        double x = in.readDouble();
+        double y = in.readDouble();
+        double z = in.readDouble();
+        float yaw = in.readFloat();
+        float pitch = in.readFloat();
+        return new Location(world, x, y, z, yaw, pitch);
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        if (uuid == null) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    static UUID readUuid(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static <C extends Collection<String>> C readStrings(DataInputStream in, C target) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            target.add(readString(in));
+        }
+        return target;
+    }
+}
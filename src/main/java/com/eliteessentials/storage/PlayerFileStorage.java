@@ -1,29 +1,50 @@
 package com.eliteessentials.storage;
 
 import com.eliteessentials.model.PlayerFile;
+import com.eliteessentials.model.PlayerSummary;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 
 import java.io.*;
-import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 /**
  * Handles per-player data storage in individual JSON files.
  * 
  * Structure:
- * - data/players/{uuid}.json - individual player files
+ * - data/players/ab/cd/{uuid}.json - individual player files, sharded by the first
+ *   four hex digits of the UUID (or {uuid}.dat in binary format)
  * - data/player_index.json - name -> uuid lookup for offline players
  * 
+ * Reading and writing whole players is delegated to a PlayerStore: the player
+ * files above by default (FilePlayerStore), or an embedded database (SqlPlayerStore).
+ * 
  * Features:
  * - Lazy loading: only loads player data when needed
- * - Caching: keeps online players' data in memory
+ * - Join prefetch: optionally starts loading a player on connect, off the world thread
+ * - Caching: keeps online players' data pinned in memory; offline players loaded
+ *   for lookups live in a bounded, access-ordered tier that expires after a TTL
  * - Auto-save: saves individual player files on changes
+ * - Write-behind: optionally coalesces changes and flushes them in batches
+ *   on a background I/O thread instead of rewriting the file on every change
+ * - Journal: optionally appends wallet/playtime/last seen/vanish changes to an
+ *   append-only log (PlayerJournal) that is periodically compacted into the files
  * - Index: maintains name->uuid mapping for commands like /seen
+ * - Stats index: sorted wallet/playtime/last-seen indexes for leaderboards
  */
 public class PlayerFileStorage {
     
@@ -32,138 +53,302 @@ public class PlayerFileStorage {
             .setPrettyPrinting()
             .disableHtmlEscaping()
             .create();
-    private static final Type INDEX_TYPE = new TypeToken<Map<String, UUID>>(){}.getType();
+    private static final String JSON_EXTENSION = ".json";
     
     private final File dataFolder;
     private final File playersFolder;
-    private final File indexFile;
     
-    // In-memory cache of loaded players (typically online players)
+    // Where whole players are read from and written to
+    private final PlayerStore store;
+    
+    // In-memory cache of online players (pinned until unloadPlayer)
     private final Map<UUID, PlayerFile> cache = new ConcurrentHashMap<>();
     
+    // Offline players loaded for lookups (eco targets, mail recipients, ...).
+    // Access-ordered so the eldest entry is always the least recently used one.
+    private final LinkedHashMap<UUID, OfflineEntry> offlineCache = new LinkedHashMap<>(64, 0.75f, true);
+    private volatile int offlineCacheSize = 500;
+    private volatile long offlineCacheTtlMs = 300_000;
+    private volatile ScheduledFuture<?> sweepTask;
+    // Players held in memory by pin() (uuid -> pin count), guarded by the offline cache lock
+    private final Map<UUID, Integer> pins = new HashMap<>();
+    
+    // Cache metrics
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong cacheEvictions = new AtomicLong();
+    private final AtomicLong evictionWriteBacks = new AtomicLong();
+    private final AtomicLong scalarReads = new AtomicLong();
+    
+    // Join prefetch: loads started when a player connects, removed once finished
+    private final Map<UUID, CompletableFuture<PlayerFile>> prefetches = new ConcurrentHashMap<>();
+    private volatile ExecutorService prefetchExecutor;
+    private volatile long prefetchTimeoutMs = 2000;
+    private final AtomicLong prefetchCount = new AtomicLong();
+    private final AtomicLong prefetchWaits = new AtomicLong();
+    private final AtomicLong prefetchTimeouts = new AtomicLong();
+    
+    // Every player with stored data, loaded once at startup so counting and
+    // enumerating players never lists the players folder again
+    private final Set<UUID> knownPlayers = ConcurrentHashMap.newKeySet();
+    
     // Name -> UUID index for lookups (lowercase name -> UUID)
-    private final Map<String, UUID> nameIndex = new ConcurrentHashMap<>();
+    private final PlayerNameIndex nameIndex;
     
-    // Lock for index file writes
-    private final Object indexLock = new Object();
+    // Sorted wallet / playtime / last seen indexes for leaderboards
+    private final PlayerStatsIndex statsIndex;
     
     // Track dirty players that need saving
     private final Set<UUID> dirtyPlayers = ConcurrentHashMap.newKeySet();
+    // Players whose dirty flag was taken by a write still in progress (uuid -> writers)
+    private final Map<UUID, Integer> writing = new ConcurrentHashMap<>();
+    
+    // Background storage work: write-behind flushes, the offline TTL sweep, eviction
+    // write-backs and name index saves. Outlives the plugin scheduler on shutdown.
+    private final ScheduledExecutorService flushExecutor;
+    
+    // Write-behind flushing (false = synchronous saves)
+    private volatile boolean writeBehind;
+    private volatile ScheduledFuture<?> flushTask;
+    private volatile int maxFlushBatchSize = 256;
+    private final AtomicBoolean earlyFlushQueued = new AtomicBoolean(false);
+    private final Object flushLock = new Object();
+    
+    // Write-behind metrics
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedFiles = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+    private volatile int lastFlushSize;
+    
+    // Append-only journal for scalar field changes (null = disabled)
+    private volatile PlayerJournal journal;
+    // Journal sequence source, also used for stamps while the journal is off
+    private final JournalSequence journalSequence;
+    private volatile ScheduledExecutorService journalExecutor;
+    private volatile long journalMaxBytes = 4L * 1024 * 1024;
+    private final AtomicBoolean compactionQueued = new AtomicBoolean(false);
+    private final Object compactLock = new Object();
+    
+    // Journal metrics
+    private final AtomicLong journalAppends = new AtomicLong();
+    private final AtomicLong compactionCount = new AtomicLong();
+    private volatile long lastCompactionNanos;
+    private volatile int lastCompactionSize;
     
     public PlayerFileStorage(File dataFolder) {
+        this(dataFolder, new FilePlayerStore(dataFolder));
+    }
+    
+    public PlayerFileStorage(File dataFolder, PlayerStore store) {
         this.dataFolder = dataFolder;
         this.playersFolder = new File(dataFolder, "players");
-        this.indexFile = new File(dataFolder, "player_index.json");
-        
-        // Ensure players folder exists
-        if (!playersFolder.exists()) {
-            playersFolder.mkdirs();
-        }
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "EliteEssentials-PlayerFlush");
+            t.setDaemon(true);
+            return t;
+        });
+        this.nameIndex = new PlayerNameIndex(dataFolder, flushExecutor);
+        this.statsIndex = new PlayerStatsIndex(dataFolder);
+        this.store = store;
+        this.journalSequence = new JournalSequence(dataFolder);
         
         // Load the name index
-        loadIndex();
+        nameIndex.load();
+        
+        // Load (or rebuild) the leaderboard indexes and the known player set
+        loadStatsIndex();
+        restoreNameCase();
     }
     
     // ==================== Index Management ====================
     
     /**
-     * Load the name -> UUID index from file.
+     * Update the index with a player's name.
+     * O(1) per call; the index file is written in batches by PlayerNameIndex.
      */
-    private void loadIndex() {
-        if (!indexFile.exists()) {
-            logger.info("[PlayerFileStorage] No player_index.json found, starting fresh.");
-            return;
-        }
-        
-        try (Reader reader = new InputStreamReader(new FileInputStream(indexFile), StandardCharsets.UTF_8)) {
-            Map<String, UUID> loaded = gson.fromJson(reader, INDEX_TYPE);
-            if (loaded != null) {
-                nameIndex.clear();
-                nameIndex.putAll(loaded);
-                logger.info("[PlayerFileStorage] Loaded player index with " + nameIndex.size() + " entries.");
-            }
-        } catch (Exception e) {
-            logger.severe("[PlayerFileStorage] Failed to load player_index.json: " + e.getMessage());
-        }
+    private void updateIndex(UUID uuid, String name) {
+        nameIndex.put(uuid, name);
     }
     
     /**
-     * Save the name -> UUID index to file.
+     * Load the leaderboard indexes saved at last shutdown, or rebuild them
+     * from the player files if they weren't saved cleanly.
      */
-    private void saveIndex() {
-        synchronized (indexLock) {
-            try (Writer writer = new OutputStreamWriter(new FileOutputStream(indexFile), StandardCharsets.UTF_8)) {
-                gson.toJson(nameIndex, INDEX_TYPE, writer);
-            } catch (Exception e) {
-                logger.severe("[PlayerFileStorage] Failed to save player_index.json: " + e.getMessage());
-            }
+    private void loadStatsIndex() {
+        if (statsIndex.load()) {
+            knownPlayers.addAll(store.listPlayers());
+            logger.info("[PlayerFileStorage] Loaded player stats index with " + statsIndex.size() + " entries.");
+            return;
         }
+        
+        long start = System.currentTimeMillis();
+        List<PlayerSummary> summaries = store.loadSummaries();
+        for (PlayerSummary summary : summaries) {
+            knownPlayers.add(summary.uuid());
+            // Names added after the last index save are lost in a crash - restore them
+            nameIndex.putIfAbsent(summary.uuid(), summary.name());
+        }
+        statsIndex.rebuild(summaries);
+        logger.info("[PlayerFileStorage] Rebuilt player stats index with " + summaries.size() + " entries in "
+                + (System.currentTimeMillis() - start) + "ms.");
     }
     
     /**
-     * Update the index with a player's name.
+     * player_index.json keeps names lowercased; put back the case players actually
+     * use from the stats index, which holds the name from each player file.
      */
-    private void updateIndex(UUID uuid, String name) {
-        String lowerName = name.toLowerCase();
-        UUID existing = nameIndex.get(lowerName);
-        
-        // Only update if name is new or changed
-        if (existing == null || !existing.equals(uuid)) {
-            // Remove old name if this UUID had a different name
-            nameIndex.entrySet().removeIf(e -> e.getValue().equals(uuid) && !e.getKey().equals(lowerName));
-            nameIndex.put(lowerName, uuid);
-            saveIndex();
+    private void restoreNameCase() {
+        for (PlayerSummary summary : statsIndex.summaries()) {
+            nameIndex.restoreCase(summary.uuid(), summary.name());
         }
     }
     
     // ==================== Player File Operations ====================
     
     /**
-     * Get a player's data file path.
+     * Check if a player has stored data (file or database row).
      */
-    private File getPlayerFile(UUID uuid) {
-        return new File(playersFolder, uuid.toString() + ".json");
+    public boolean hasPlayerFile(UUID uuid) {
+        return store.exists(uuid);
     }
     
     /**
-     * Load a player's data from disk.
+     * Load a player's data from the store.
      */
     private PlayerFile loadFromDisk(UUID uuid) {
-        File file = getPlayerFile(uuid);
-        if (!file.exists()) {
+        try {
+            while (true) {
+                PlayerJournal j = journal;
+                long compactions = j != null ? j.finishedCompactions() : 0;
+                PlayerFile data = store.load(uuid);
+                if (data != null) {
+                    // Ensure UUID is set (in case file was manually created)
+                    if (data.getUuid() == null) {
+                        data.setUuid(uuid);
+                    }
+                    journalSequence.observe(data.getJournalSeq());
+                    
+                    // Apply journaled changes that haven't been compacted into the file yet
+                    if (j != null) {
+                        j.applyPending(uuid, data);
+                    }
+                }
+                // A compaction that finished meanwhile may have dropped records the read file lacks
+                if (j == null || j.finishedCompactions() == compactions) {
+                    return data;
+                }
+            }
+        } catch (Exception e) {
+            logger.severe("[PlayerFileStorage] Failed to load player file " + uuid + ": " + e.getMessage());
             return null;
         }
-        
-        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
-            PlayerFile data = gson.fromJson(reader, PlayerFile.class);
-            if (data != null) {
-                // Ensure UUID is set (in case file was manually created)
-                if (data.getUuid() == null) {
-                    data.setUuid(uuid);
+    }
+    
+    /**
+     * Read a player's scalar fields from the store (with journaled changes applied)
+     * without decoding their collections. The result is never cached.
+     */
+    private PlayerFile loadScalarsFromDisk(UUID uuid) {
+        try {
+            while (true) {
+                PlayerJournal j = journal;
+                long compactions = j != null ? j.finishedCompactions() : 0;
+                PlayerFile data = store.loadScalars(uuid);
+                if (data != null) {
+                    if (data.getUuid() == null) {
+                        data.setUuid(uuid);
+                    }
+                    journalSequence.observe(data.getJournalSeq());
+                    if (j != null) {
+                        j.applyPending(uuid, data);
+                    }
+                }
+                if (j == null || j.finishedCompactions() == compactions) {
+                    return data;
                 }
             }
-            return data;
         } catch (Exception e) {
-            logger.severe("[PlayerFileStorage] Failed to load player file " + uuid + ": " + e.getMessage());
+            logger.severe("[PlayerFileStorage] Failed to read player file " + uuid + ": " + e.getMessage());
             return null;
         }
     }
     
+    /**
+     * Stamp a player with the journal sequence its next write covers, so older
+     * journal records are never replayed over it.
+     */
+    private void stampJournalSeq(PlayerFile data) {
+        PlayerJournal j = journal;
+        data.setJournalSeq(j != null ? j.currentSeq() : journalSequence.current());
+    }
+    
+    /**
+     * Write a player's data to the store.
+     */
+    private void writePlayerFile(UUID uuid, PlayerFile data) throws IOException {
+        if (data.getUuid() == null) {
+            data.setUuid(uuid);
+        }
+        stampJournalSeq(data);
+        store.save(data);
+        knownPlayers.add(uuid);
+    }
+    
     /**
      * Save a player's data to disk.
      */
     public void savePlayer(UUID uuid) {
-        PlayerFile data = cache.get(uuid);
+        PlayerFile data = getLoaded(uuid);
         if (data == null) {
             return;
         }
         
-        File file = getPlayerFile(uuid);
-        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
-            gson.toJson(data, writer);
-            dirtyPlayers.remove(uuid);
-        } catch (Exception e) {
-            logger.severe("[PlayerFileStorage] Failed to save player file " + uuid + ": " + e.getMessage());
+        // Clear the dirty flag before writing so changes made during the write re-mark it
+        beginWrite(uuid);
+        try {
+            if (!writeToDisk(uuid, data)) {
+                dirtyPlayers.add(uuid);
+            }
+        } finally {
+            endWrite(uuid);
+        }
+    }
+    
+    /**
+     * Take a player's dirty flag for a write. Until endWrite the offline tier
+     * keeps the player as if still dirty, so it isn't evicted as clean and
+     * reloaded from the file before the write lands.
+     */
+    private void beginWrite(UUID uuid) {
+        writing.merge(uuid, 1, Integer::sum);
+        dirtyPlayers.remove(uuid);
+    }
+    
+    private void endWrite(UUID uuid) {
+        writing.computeIfPresent(uuid, (k, count) -> count > 1 ? count - 1 : null);
+    }
+    
+    /**
+     * Serialize a player's data to its file.
+     * Writes for the same player are serialized on the PlayerFile instance so the
+     * flush thread and a disconnect save never interleave on one file.
+     * 
+     * @return true if the file was written
+     */
+    private boolean writeToDisk(UUID uuid, PlayerFile data) {
+        synchronized (data) {
+            try {
+                writePlayerFile(uuid, data);
+                return true;
+            } catch (ConcurrentModificationException e) {
+                // Player data changed mid-serialization; the caller re-marks it dirty for the next flush
+                return false;
+            } catch (Exception e) {
+                logger.severe("[PlayerFileStorage] Failed to save player file " + uuid + ": " + e.getMessage());
+                return false;
+            }
         }
     }
     
@@ -173,17 +358,17 @@ public class PlayerFileStorage {
     public void savePlayerDirect(PlayerFile data) {
         if (data == null || data.getUuid() == null) return;
         
-        File file = getPlayerFile(data.getUuid());
-        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
-            gson.toJson(data, writer);
+        try {
+            writePlayerFile(data.getUuid(), data);
         } catch (Exception e) {
             logger.severe("[PlayerFileStorage] Failed to save player file " + data.getUuid() + ": " + e.getMessage());
         }
         
-        // Update index
+        // Update indexes
         if (data.getName() != null) {
             updateIndex(data.getUuid(), data.getName());
         }
+        statsIndex.update(PlayerSummary.of(data));
     }
     
     // ==================== Public API ====================
@@ -191,11 +376,16 @@ public class PlayerFileStorage {
     /**
      * Get a player's data, loading from disk if necessary.
      * Creates a new PlayerFile if the player doesn't exist.
+     * 
+     * This is the join path: the player is pinned in the online cache until
+     * {@link #unloadPlayer(UUID)}. Use {@link #getOrCreatePlayer(UUID, String)}
+     * for players that aren't online.
      */
     public PlayerFile getPlayer(UUID uuid, String name) {
         // Check cache first
         PlayerFile data = cache.get(uuid);
         if (data != null) {
+            cacheHits.incrementAndGet();
             // Update name if changed
             if (name != null && !name.equals(data.getName())) {
                 data.setName(name);
@@ -204,16 +394,44 @@ public class PlayerFileStorage {
             return data;
         }
         
+        // A prefetch started on connect puts the player in the offline tier
+        awaitPrefetch(uuid);
+        
+        // Promote from the offline tier if it was recently looked up
+        synchronized (offlineCache) {
+            data = removeOffline(uuid);
+            if (data != null) {
+                cache.put(uuid, data);
+            }
+        }
+        if (data != null) {
+            cacheHits.incrementAndGet();
+            if (name != null && !name.equals(data.getName())) {
+                data.setName(name);
+                markDirty(uuid);
+            }
+            return data;
+        }
+        
         // Try to load from disk
+        cacheMisses.incrementAndGet();
         data = loadFromDisk(uuid);
         if (data != null) {
             // Update name if changed
+            synchronized (offlineCache) {
+                // An offline lookup (or a late prefetch) may have loaded the player meanwhile - keep one instance
+                PlayerFile offline = removeOffline(uuid);
+                if (offline != null) {
+                    data = offline;
+                }
+                cache.put(uuid, data);
+            }
             if (name != null && !name.equals(data.getName())) {
                 data.setName(name);
                 markDirty(uuid);
             }
-            cache.put(uuid, data);
             updateIndex(uuid, data.getName());
+            statsIndex.update(PlayerSummary.of(data));
             return data;
         }
         
@@ -225,22 +443,43 @@ public class PlayerFileStorage {
         return data;
     }
     
+    /**
+     * Get a player's data, creating it if the player doesn't exist,
+     * without pinning it in the online cache (for migrations and offline targets).
+     */
+    public PlayerFile getOrCreatePlayer(UUID uuid, String name) {
+        PlayerFile data = getPlayer(uuid);
+        if (data != null) {
+            return data;
+        }
+        
+        data = putOffline(uuid, new PlayerFile(uuid, name));
+        updateIndex(uuid, name);
+        markDirty(uuid);
+        return data;
+    }
+    
     /**
      * Get a player's data by UUID only (for offline lookups).
      * Returns null if player doesn't exist.
+     * Players that aren't online are kept in the bounded offline tier.
      */
     public PlayerFile getPlayer(UUID uuid) {
         // Check cache first
         PlayerFile data = cache.get(uuid);
+        if (data == null) {
+            data = getOffline(uuid);
+        }
         if (data != null) {
+            cacheHits.incrementAndGet();
             return data;
         }
         
         // Try to load from disk
+        cacheMisses.incrementAndGet();
         data = loadFromDisk(uuid);
         if (data != null) {
-            cache.put(uuid, data);
-            return data;
+            return putOffline(uuid, data);
         }
         
         return null;
@@ -250,7 +489,32 @@ public class PlayerFileStorage {
      * Get a player's UUID by name (case-insensitive).
      */
     public Optional<UUID> getUuidByName(String name) {
-        return Optional.ofNullable(nameIndex.get(name.toLowerCase()));
+        UUID uuid = nameIndex.get(name);
+        return uuid != null ? Optional.of(uuid) : store.findUuidByName(name);
+    }
+    
+    /**
+     * Get a player's last known name from the name index (no file access).
+     */
+    public Optional<String> getNameByUuid(UUID uuid) {
+        return Optional.ofNullable(nameIndex.getName(uuid));
+    }
+    
+    /**
+     * Resolve a full or partial name (case-insensitive): an exact match wins,
+     * otherwise the name must be the prefix of exactly one known player.
+     */
+    public Optional<UUID> resolveName(String partial) {
+        Optional<UUID> exact = getUuidByName(partial);
+        return exact.isPresent() ? exact : nameIndex.resolve(partial);
+    }
+    
+    /**
+     * Known player names starting with a prefix (case-insensitive), for
+     * tab completion and partial-name matching.
+     */
+    public List<String> findNamesByPrefix(String prefix, int limit) {
+        return nameIndex.findByPrefix(prefix, limit);
     }
     
     /**
@@ -258,34 +522,140 @@ public class PlayerFileStorage {
      * Returns null if player doesn't exist.
      */
     public PlayerFile getPlayerByName(String name) {
-        UUID uuid = nameIndex.get(name.toLowerCase());
-        if (uuid == null) {
-            return null;
-        }
-        return getPlayer(uuid);
+        return getUuidByName(name).map(this::getPlayer).orElse(null);
     }
     
     /**
      * Check if a player exists (has a file on disk or in cache).
      */
     public boolean hasPlayer(UUID uuid) {
-        return cache.containsKey(uuid) || getPlayerFile(uuid).exists();
+        return getLoaded(uuid) != null || knownPlayers.contains(uuid);
     }
     
     /**
      * Mark a player's data as dirty (needs saving).
+     * Also refreshes the player's leaderboard entry.
      */
     public void markDirty(UUID uuid) {
         dirtyPlayers.add(uuid);
+        
+        PlayerFile data = getLoaded(uuid);
+        if (data != null) {
+            statsIndex.update(PlayerSummary.of(data));
+        }
     }
     
     /**
      * Save a player and mark as dirty.
      * Call this after modifying player data.
+     * In write-behind mode the player is only queued; the flush thread writes it
+     * with the next batch (or early, once the batch size limit is reached).
      */
     public void saveAndMarkDirty(UUID uuid) {
         markDirty(uuid);
-        savePlayer(uuid);
+        
+        if (!writeBehind) {
+            savePlayer(uuid);
+            return;
+        }
+        
+        if (dirtyPlayers.size() >= maxFlushBatchSize && earlyFlushQueued.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(() -> {
+                    earlyFlushQueued.set(false);
+                    flushDirty();
+                });
+            } catch (Exception e) {
+                // Executor is shutting down - the shutdown flush will pick this player up
+                earlyFlushQueued.set(false);
+            }
+        }
+    }
+    
+    /**
+     * Persist a change to scalar fields (wallet, play time, last seen, vanish).
+     * With the journal enabled this appends one small record per field instead
+     * of rewriting the player file; otherwise it is the same as saveAndMarkDirty.
+     */
+    public void saveFields(UUID uuid, PlayerJournal.Field... fields) {
+        PlayerJournal j = journal;
+        PlayerFile data = getLoaded(uuid);
+        if (j == null || data == null) {
+            saveAndMarkDirty(uuid);
+            return;
+        }
+        
+        try {
+            for (PlayerJournal.Field field : fields) {
+                j.append(uuid, field, data);
+            }
+        } catch (Exception e) {
+            logger.severe("[PlayerFileStorage] Journal append failed for " + uuid + ", saving file instead: " + e.getMessage());
+            saveAndMarkDirty(uuid);
+            return;
+        }
+        journalAppends.addAndGet(fields.length);
+        statsIndex.update(PlayerSummary.of(data));
+        compactEarlyIfFull(j);
+    }
+    
+    /**
+     * Persist the same scalar field change of many players as one batch.
+     * With the journal enabled this is a single journal write; otherwise the
+     * players are marked dirty and written together by one flush (right away
+     * when write-behind is off) instead of one file rewrite each.
+     */
+    public void saveFieldsBatch(Collection<UUID> uuids, PlayerJournal.Field... fields) {
+        Map<UUID, PlayerFile> loaded = new LinkedHashMap<>();
+        for (UUID uuid : uuids) {
+            PlayerFile data = getLoaded(uuid);
+            if (data != null) {
+                loaded.put(uuid, data);
+            }
+        }
+        if (loaded.isEmpty()) {
+            return;
+        }
+        
+        PlayerJournal j = journal;
+        if (j != null) {
+            try {
+                j.appendAll(loaded, fields);
+                journalAppends.addAndGet((long) loaded.size() * fields.length);
+                for (PlayerFile data : loaded.values()) {
+                    statsIndex.update(PlayerSummary.of(data));
+                }
+                compactEarlyIfFull(j);
+                return;
+            } catch (Exception e) {
+                logger.severe("[PlayerFileStorage] Journal batch append failed, saving files instead: " + e.getMessage());
+            }
+        }
+        
+        for (UUID uuid : loaded.keySet()) {
+            markDirty(uuid);
+        }
+        if (!writeBehind) {
+            flushDirty();
+        }
+    }
+    
+    /**
+     * Queue an early compaction once the journal passes its size limit.
+     */
+    private void compactEarlyIfFull(PlayerJournal j) {
+        ScheduledExecutorService executor = journalExecutor;
+        if (executor != null && j.sizeBytes() >= journalMaxBytes && compactionQueued.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    compactionQueued.set(false);
+                    compactJournal();
+                });
+            } catch (Exception e) {
+                // Executor is shutting down - the shutdown compaction covers this
+                compactionQueued.set(false);
+            }
+        }
     }
     
     /**
@@ -296,7 +666,13 @@ public class PlayerFileStorage {
         if (dirtyPlayers.contains(uuid)) {
             savePlayer(uuid);
         }
-        cache.remove(uuid);
+        synchronized (offlineCache) {
+            PlayerFile data = cache.remove(uuid);
+            // Still pinned - keep the instance being changed in the offline tier
+            if (data != null && pins.containsKey(uuid)) {
+                offlineCache.put(uuid, new OfflineEntry(data));
+            }
+        }
     }
     
     /**
@@ -315,107 +691,903 @@ public class PlayerFileStorage {
         for (UUID uuid : cache.keySet()) {
             savePlayer(uuid);
         }
-        saveIndex();
+        List<UUID> offline;
+        synchronized (offlineCache) {
+            offline = new ArrayList<>(offlineCache.keySet());
+        }
+        for (UUID uuid : offline) {
+            savePlayer(uuid);
+        }
+        nameIndex.save();
     }
     
+    // ==================== Format & Export ====================
+    
     /**
-     * Get all cached players (online players).
+     * Select the on-disk format ("json" or "binary").
+     * Existing files are converted lazily as players are saved.
      */
-    public Collection<PlayerFile> getCachedPlayers() {
-        return Collections.unmodifiableCollection(cache.values());
+    public void configureFormat(String format) {
+        if (!(store instanceof FilePlayerStore files)) {
+            return;
+        }
+        boolean binary = "binary".equalsIgnoreCase(format);
+        if (!binary && !"json".equalsIgnoreCase(format)) {
+            logger.warning("[PlayerFileStorage] Unknown storage format '" + format + "', using json.");
+        }
+        if (binary != files.isBinaryFormat()) {
+            logger.info("[PlayerFileStorage] Player files will be saved as " + (binary ? "binary (.dat)" : "JSON (.json)") + ".");
+        }
+        files.setBinaryFormat(binary);
     }
     
     /**
-     * Get all player UUIDs (from index).
+     * Where player data is stored, e.g. "JSON files" or "H2 database".
      */
-    public Collection<UUID> getAllPlayerUuids() {
-        return Collections.unmodifiableCollection(nameIndex.values());
+    public String describeStore() {
+        return store.describe();
     }
     
     /**
-     * Get all players sorted by a comparator.
-     * WARNING: This loads ALL player files - use sparingly!
+     * Get the folder used for JSON exports/imports.
      */
-    public List<PlayerFile> getAllPlayersSorted(Comparator<PlayerFile> comparator) {
-        List<PlayerFile> all = new ArrayList<>();
+    public File getExportFolder() {
+        return new File(dataFolder, "player_exports");
+    }
+    
+    /**
+     * Export a player's data as pretty-printed JSON to player_exports/{uuid}.json
+     * for manual editing, regardless of the configured format.
+     * 
+     * @return the written file, or null if the player doesn't exist
+     */
+    public File exportJson(UUID uuid) throws IOException {
+        PlayerFile data = getLoaded(uuid);
+        if (data == null) {
+            data = loadFromDisk(uuid);
+        }
+        if (data == null) {
+            return null;
+        }
         
-        // Get all UUIDs from index
-        Set<UUID> allUuids = new HashSet<>(nameIndex.values());
+        File folder = getExportFolder();
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        File file = new File(folder, uuid.toString() + JSON_EXTENSION);
+        synchronized (data) {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+                gson.toJson(data, writer);
+            }
+        }
+        return file;
+    }
+    
+    /**
+     * Import player_exports/{uuid}.json, replacing the player's stored data.
+     * The player must be offline so the import can't race live changes.
+     * 
+     * @return the imported data, or null if there is no export file
+     * @throws IllegalStateException if the player is online
+     */
+    public PlayerFile importJson(UUID uuid) throws IOException {
+        if (cache.containsKey(uuid)) {
+            throw new IllegalStateException("Player is online");
+        }
         
-        // Also scan the players folder for any files not in index
-        File[] files = playersFolder.listFiles((dir, name) -> name.endsWith(".json"));
-        if (files != null) {
-            for (File file : files) {
-                try {
-                    String uuidStr = file.getName().replace(".json", "");
-                    UUID uuid = UUID.fromString(uuidStr);
-                    allUuids.add(uuid);
-                } catch (IllegalArgumentException e) {
-                    // Invalid UUID filename, skip
+        File file = new File(getExportFolder(), uuid.toString() + JSON_EXTENSION);
+        if (!file.exists()) {
+            return null;
+        }
+        
+        PlayerFile data;
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            data = gson.fromJson(reader, PlayerFile.class);
+        }
+        if (data == null) {
+            throw new IOException("Export file is empty");
+        }
+        data.setUuid(uuid);
+        
+        // Drop any cached copy (and its pending changes) in favour of the imported data
+        removeOffline(uuid);
+        dirtyPlayers.remove(uuid);
+        savePlayerDirect(data);
+        return data;
+    }
+    
+    // ==================== Offline Cache ====================
+    
+    /**
+     * A player loaded for an offline lookup.
+     */
+    private static final class OfflineEntry {
+        final PlayerFile data;
+        long lastAccess;
+        // Evicted while dirty - stays cached until the write-back lands
+        boolean writingBack;
+        
+        OfflineEntry(PlayerFile data) {
+            this.data = data;
+            this.lastAccess = System.currentTimeMillis();
+        }
+    }
+    
+    /**
+     * Apply offline tier limits from config.
+     */
+    public void configureOfflineCache(int maxSize, int ttlSeconds) {
+        this.offlineCacheSize = Math.max(0, maxSize);
+        this.offlineCacheTtlMs = Math.max(1, ttlSeconds) * 1000L;
+        
+        stopSweeping();
+        long interval = Math.min(60_000, Math.max(1000, offlineCacheTtlMs / 2));
+        try {
+            sweepTask = flushExecutor.scheduleWithFixedDelay(this::sweepOfflineCache, 0, interval, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+    
+    /**
+     * Stop the TTL sweep. Pending eviction write-backs still run.
+     */
+    private void stopSweeping() {
+        ScheduledFuture<?> task = sweepTask;
+        if (task != null) {
+            task.cancel(false);
+            sweepTask = null;
+        }
+    }
+    
+    /**
+     * Whether a player is in memory (online or offline tier).
+     */
+    public boolean isLoaded(UUID uuid) {
+        return getLoaded(uuid) != null;
+    }
+    
+    /**
+     * Get a player only if they are in memory - never reads the store.
+     */
+    public PlayerFile getIfLoaded(UUID uuid) {
+        return getLoaded(uuid);
+    }
+    
+    /**
+     * Look up a loaded player in either tier without counting a hit or miss.
+     */
+    private PlayerFile getLoaded(UUID uuid) {
+        PlayerFile data = cache.get(uuid);
+        if (data != null) {
+            return data;
+        }
+        return getOffline(uuid);
+    }
+    
+    private PlayerFile getOffline(UUID uuid) {
+        synchronized (offlineCache) {
+            OfflineEntry entry = offlineCache.get(uuid);
+            if (entry == null) {
+                return null;
+            }
+            entry.lastAccess = System.currentTimeMillis();
+            return entry.data;
+        }
+    }
+    
+    private PlayerFile removeOffline(UUID uuid) {
+        synchronized (offlineCache) {
+            OfflineEntry entry = offlineCache.remove(uuid);
+            return entry != null ? entry.data : null;
+        }
+    }
+    
+    /**
+     * Add a player to the offline tier, evicting expired and excess entries.
+     * If another thread loaded the same player first, that instance is returned.
+     */
+    private PlayerFile putOffline(UUID uuid, PlayerFile data) {
+        List<Map.Entry<UUID, OfflineEntry>> evicted;
+        synchronized (offlineCache) {
+            // Checked under the lock: the join path pins players under it too
+            PlayerFile online = cache.get(uuid);
+            if (online != null) {
+                return online;
+            }
+            OfflineEntry existing = offlineCache.get(uuid);
+            if (existing != null) {
+                existing.lastAccess = System.currentTimeMillis();
+                return existing.data;
+            }
+            offlineCache.put(uuid, new OfflineEntry(data));
+            evicted = evictOffline();
+        }
+        if (!evicted.isEmpty()) {
+            try {
+                flushExecutor.execute(() -> writeBackEvicted(evicted));
+                return data;
+            } catch (RejectedExecutionException e) {
+                // Shutting down - write them here
+            }
+            writeBackEvicted(evicted);
+        }
+        return data;
+    }
+    
+    /**
+     * Load a player and keep them in memory until {@link #unpin(UUID)}, even if the
+     * offline tier is full. For changes that are persisted later than they are
+     * made (like batched wallet updates): an evicted clean entry would be reloaded
+     * from the file without the change. Pins nest.
+     *
+     * @return the pinned instance, or null if the player doesn't exist (nothing is pinned)
+     */
+    public PlayerFile pin(UUID uuid) {
+        // Pinned before the lookup, so whichever instance it finds or loads stays cached
+        synchronized (offlineCache) {
+            pins.merge(uuid, 1, Integer::sum);
+        }
+        PlayerFile data = getPlayer(uuid);
+        if (data == null) {
+            unpin(uuid);
+        }
+        return data;
+    }
+    
+    /**
+     * Release a pin taken by {@link #pin(UUID)}. The player becomes evictable
+     * again once every pin is released.
+     */
+    public void unpin(UUID uuid) {
+        synchronized (offlineCache) {
+            pins.computeIfPresent(uuid, (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+    
+    /**
+     * Release one pin of each player.
+     */
+    public void unpinAll(Collection<UUID> uuids) {
+        synchronized (offlineCache) {
+            for (UUID uuid : uuids) {
+                pins.computeIfPresent(uuid, (k, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+    }
+    
+    /**
+     * Drop expired and excess offline entries (runs on the cache thread and on config change).
+     */
+    private void sweepOfflineCache() {
+        List<Map.Entry<UUID, OfflineEntry>> evicted;
+        synchronized (offlineCache) {
+            evicted = evictOffline();
+        }
+        writeBackEvicted(evicted);
+    }
+    
+    /**
+     * Evict least recently used entries while over capacity or past the TTL.
+     * Clean entries are dropped right away. Dirty ones stay cached, flagged as
+     * writing back, and are returned so the caller can write them after releasing
+     * the offline cache lock - a lookup in between still finds the live instance
+     * instead of reading the stale file. Pinned players are skipped.
+     * Must hold the offline cache lock.
+     */
+    private List<Map.Entry<UUID, OfflineEntry>> evictOffline() {
+        long expireBefore = System.currentTimeMillis() - offlineCacheTtlMs;
+        List<Map.Entry<UUID, OfflineEntry>> evicted = new ArrayList<>();
+        int leaving = 0;
+        Iterator<Map.Entry<UUID, OfflineEntry>> it = offlineCache.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<UUID, OfflineEntry> eldest = it.next();
+            OfflineEntry entry = eldest.getValue();
+            if (offlineCache.size() - leaving <= offlineCacheSize && entry.lastAccess >= expireBefore) {
+                break;
+            }
+            if (entry.writingBack) {
+                leaving++;
+                continue;
+            }
+            
+            UUID uuid = eldest.getKey();
+            if (pins.containsKey(uuid)) {
+                continue;
+            }
+            if (dirtyPlayers.remove(uuid)) {
+                entry.writingBack = true;
+                evicted.add(eldest);
+                leaving++;
+            } else if (writing.containsKey(uuid)) {
+                // Being saved - evicted by a later sweep once the file is written
+                continue;
+            } else {
+                it.remove();
+                cacheEvictions.incrementAndGet();
+            }
+        }
+        return evicted;
+    }
+    
+    /**
+     * Write back dirty entries picked by evictOffline, then drop them from the
+     * offline tier unless they were changed again while being written.
+     */
+    private void writeBackEvicted(List<Map.Entry<UUID, OfflineEntry>> evicted) {
+        for (Map.Entry<UUID, OfflineEntry> e : evicted) {
+            UUID uuid = e.getKey();
+            OfflineEntry entry = e.getValue();
+            evictionWriteBacks.incrementAndGet();
+            boolean written = writeToDisk(uuid, entry.data);
+            if (!written) {
+                logger.warning("[PlayerFileStorage] Failed to write back evicted player " + uuid);
+            }
+            
+            synchronized (offlineCache) {
+                entry.writingBack = false;
+                if (!written) {
+                    dirtyPlayers.add(uuid);
+                } else if (!dirtyPlayers.contains(uuid) && !writing.containsKey(uuid) && !pins.containsKey(uuid)
+                        && offlineCache.remove(uuid, entry)) {
+                    cacheEvictions.incrementAndGet();
                 }
             }
         }
+    }
+    
+    /**
+     * Snapshot of cache sizes and hit/miss/eviction counters.
+     */
+    public CacheStats getCacheStats() {
+        int offline;
+        synchronized (offlineCache) {
+            offline = offlineCache.size();
+        }
+        return new CacheStats(cache.size(), offline, offlineCacheSize,
+                cacheHits.get(), cacheMisses.get(), cacheEvictions.get(), evictionWriteBacks.get(), scalarReads.get());
+    }
+    
+    /**
+     * Player cache metrics.
+     */
+    public record CacheStats(int onlineEntries, int offlineEntries, int offlineCapacity,
+                             long hits, long misses, long evictions, long writeBacks, long scalarReads) {
+        public double hitRatio() {
+            long total = hits + misses;
+            return total > 0 ? hits / (double) total : 0.0;
+        }
+    }
+    
+    // ==================== Join Prefetch ====================
+    
+    /**
+     * Apply join prefetch settings from config.
+     */
+    public void configurePrefetch(boolean enabled, long timeoutMs) {
+        stopPrefetch();
+        this.prefetchTimeoutMs = Math.max(0, timeoutMs);
+        if (!enabled) {
+            return;
+        }
+        prefetchExecutor = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "EliteEssentials-Prefetch");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+    
+    private void stopPrefetch() {
+        ExecutorService executor = prefetchExecutor;
+        if (executor != null) {
+            prefetchExecutor = null;
+            executor.shutdown();
+        }
+    }
+    
+    /**
+     * Start loading a connecting player's data in the background.
+     * The loaded player waits in the offline tier until {@link #getPlayer(UUID, String)}
+     * pins it on join, so the join handler doesn't touch the disk. New players
+     * (nothing stored) and players already loaded are skipped.
+     */
+    public void prefetchPlayer(UUID uuid) {
+        ExecutorService executor = prefetchExecutor;
+        if (executor == null || getLoaded(uuid) != null || !knownPlayers.contains(uuid)) {
+            return;
+        }
         
-        // Load all players
-        for (UUID uuid : allUuids) {
-            PlayerFile player = getPlayer(uuid);
-            if (player != null) {
-                all.add(player);
-            }
+        CompletableFuture<PlayerFile> future = new CompletableFuture<>();
+        if (prefetches.putIfAbsent(uuid, future) != null) {
+            return;
+        }
+        prefetchCount.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(getPlayer(uuid));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    prefetches.remove(uuid, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down or reconfiguring - the join loads the player itself
+            prefetches.remove(uuid, future);
+            future.complete(null);
+        }
+    }
+    
+    /**
+     * Wait for an unfinished prefetch of this player, up to the configured timeout.
+     * On timeout or failure the caller loads the player itself.
+     */
+    private void awaitPrefetch(UUID uuid) {
+        CompletableFuture<PlayerFile> pending = prefetches.get(uuid);
+        if (pending == null) {
+            return;
+        }
+        prefetchWaits.incrementAndGet();
+        try {
+            pending.get(prefetchTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            prefetchTimeouts.incrementAndGet();
+            logger.warning("[PlayerFileStorage] Prefetch of " + uuid + " took longer than " + prefetchTimeoutMs
+                    + "ms, loading on the join thread.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warning("[PlayerFileStorage] Prefetch of " + uuid + " failed: " + e.getCause());
+        }
+    }
+    
+    /**
+     * Snapshot of join prefetch counters.
+     */
+    public PrefetchStats getPrefetchStats() {
+        return new PrefetchStats(prefetchExecutor != null, prefetches.size(),
+                prefetchCount.get(), prefetchWaits.get(), prefetchTimeouts.get());
+    }
+    
+    /**
+     * Join prefetch metrics. Waits are joins that found their prefetch still running.
+     */
+    public record PrefetchStats(boolean enabled, int inFlight, long prefetches, long waits, long timeouts) {
+    }
+    
+    // ==================== Write-Behind ====================
+    
+    /**
+     * Apply write-behind settings from config.
+     * Safe to call again on reload - the flush schedule is replaced.
+     */
+    public void configureWriteBehind(boolean enabled, long flushIntervalMs, int maxBatchSize) {
+        stopFlushing();
+        if (!enabled) {
+            logger.info("[PlayerFileStorage] Write-behind disabled, player files are saved on every change.");
+            return;
+        }
+        
+        long interval = Math.max(100, flushIntervalMs);
+        this.maxFlushBatchSize = Math.max(1, maxBatchSize);
+        
+        try {
+            flushTask = flushExecutor.scheduleWithFixedDelay(this::flushDirty, interval, interval, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return; // Shutting down
+        }
+        writeBehind = true;
+        logger.info("[PlayerFileStorage] Write-behind enabled (interval: " + interval + "ms, batch size: " + this.maxFlushBatchSize + ").");
+    }
+    
+    /**
+     * Write every dirty player to disk as one batch.
+     * Runs on the flush thread; repeated changes to the same player since the
+     * last flush collapse into a single write.
+     */
+    private void flushDirty() {
+        if (dirtyPlayers.isEmpty()) {
+            return;
         }
         
-        all.sort(comparator);
-        return all;
+        synchronized (flushLock) {
+            long start = System.nanoTime();
+            int written = 0;
+            Map<UUID, PlayerFile> batch = new LinkedHashMap<>();
+            try {
+                for (UUID uuid : new ArrayList<>(dirtyPlayers)) {
+                    beginWrite(uuid);
+                    PlayerFile data = getLoaded(uuid);
+                    // Unloaded since it was marked - unloadPlayer already saved it
+                    if (data == null) {
+                        endWrite(uuid);
+                    } else {
+                        // The store serializes each file under this same lock
+                        synchronized (data) {
+                            stampJournalSeq(data);
+                        }
+                        batch.put(uuid, data);
+                    }
+                }
+                
+                Set<UUID> failed = store.saveBatch(batch.values());
+                written = batch.size() - failed.size();
+                knownPlayers.addAll(batch.keySet());
+                for (UUID uuid : failed) {
+                    PlayerFile data = batch.get(uuid);
+                    if (getLoaded(uuid) == data) {
+                        dirtyPlayers.add(uuid);
+                    } else if (writeToDisk(uuid, data)) {
+                        // Unloaded while we were writing - retry now, nobody else will
+                        written++;
+                    }
+                }
+            } catch (Exception e) {
+                logger.severe("[PlayerFileStorage] Flush failed: " + e.getMessage());
+            } finally {
+                for (UUID uuid : batch.keySet()) {
+                    endWrite(uuid);
+                }
+            }
+            
+            long elapsed = System.nanoTime() - start;
+            flushCount.incrementAndGet();
+            flushedFiles.addAndGet(written);
+            totalFlushNanos.addAndGet(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+            lastFlushNanos = elapsed;
+            lastFlushSize = written;
+        }
     }
     
     /**
-     * Get players sorted by wallet (highest first).
+     * Stop write-behind flushing, letting an in-progress batch finish.
+     * Players still dirty are saved synchronously from now on.
      */
-    public List<PlayerFile> getPlayersByWallet() {
-        return getAllPlayersSorted(Comparator.comparingDouble(PlayerFile::getWallet).reversed());
+    private void stopFlushing() {
+        writeBehind = false;
+        ScheduledFuture<?> task = flushTask;
+        if (task != null) {
+            task.cancel(false);
+            flushTask = null;
+        }
+        // Waits for a flush already running on the flush thread
+        synchronized (flushLock) {
+            earlyFlushQueued.set(false);
+        }
     }
     
     /**
-     * Get players sorted by play time (highest first).
+     * Stop the flush thread once queued work (eviction write-backs) is done.
      */
-    public List<PlayerFile> getPlayersByPlayTime() {
-        return getAllPlayersSorted(Comparator.comparingLong(PlayerFile::getPlayTime).reversed());
+    private void stopFlushThread() {
+        flushExecutor.shutdown();
+        try {
+            if (!flushExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                flushExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flushExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
     }
     
     /**
-     * Get players sorted by last seen (most recent first).
+     * Stop write-behind flushing and save everything (for plugin shutdown).
      */
-    public List<PlayerFile> getPlayersByLastSeen() {
-        return getAllPlayersSorted(Comparator.comparingLong(PlayerFile::getLastSeen).reversed());
+    public void shutdown() {
+        stopPrefetch();
+        stopFlushing();
+        stopSweeping();
+        // Before the flush thread stops, so it isn't held up by a delayed index save
+        nameIndex.close();
+        stopFlushThread();
+        stopJournal();
+        saveAll();
+        statsIndex.save();
+        nameIndex.save();
+        store.close();
     }
     
     /**
-     * Get total number of players (from index + files).
+     * Whether changes are currently being flushed in the background.
      */
-    public int getPlayerCount() {
-        Set<UUID> allUuids = new HashSet<>(nameIndex.values());
+    public boolean isWriteBehindEnabled() {
+        return writeBehind;
+    }
+    
+    /**
+     * Snapshot of write-behind queue and flush metrics.
+     */
+    public FlushStats getFlushStats() {
+        long flushes = flushCount.get();
+        return new FlushStats(
+            isWriteBehindEnabled(),
+            dirtyPlayers.size(),
+            flushes,
+            flushedFiles.get(),
+            lastFlushSize,
+            lastFlushNanos / 1_000_000.0,
+            flushes > 0 ? totalFlushNanos.get() / (double) flushes / 1_000_000.0 : 0.0,
+            maxFlushNanos.get() / 1_000_000.0
+        );
+    }
+    
+    /**
+     * Write-behind metrics. Latencies are in milliseconds.
+     */
+    public record FlushStats(boolean writeBehind, int queueDepth, long flushes, long filesWritten,
+                             int lastBatchSize, double lastFlushMs, double avgFlushMs, double maxFlushMs) {
+    }
+    
+    // ==================== Journal ====================
+    
+    /**
+     * Apply journal settings from config.
+     * Safe to call again on reload - the current journal is compacted and reopened.
+     * A journal left by a previous run is always recovered, even when disabled.
+     * 
+     * @param fsyncIntervalMs how often appended records are fsynced (0 = on every append)
+     * @param compactIntervalSeconds how often the journal is folded into player files
+     * @param maxSizeKb compact early once the journal grows past this size
+     */
+    public void configureJournal(boolean enabled, long fsyncIntervalMs, int compactIntervalSeconds, int maxSizeKb) {
+        stopJournal();
+        if (!enabled && !PlayerJournal.exists(dataFolder)) {
+            return;
+        }
         
-        File[] files = playersFolder.listFiles((dir, name) -> name.endsWith(".json"));
-        if (files != null) {
-            for (File file : files) {
+        PlayerJournal j = new PlayerJournal(dataFolder, journalSequence, fsyncIntervalMs <= 0);
+        try {
+            int recovered = j.open();
+            journal = j;
+            if (recovered > 0) {
+                logger.info("[PlayerFileStorage] Recovered " + recovered + " journal records, compacting.");
+                // Twice: an interrupted compaction segment first, then the active one
+                compactJournal();
+                compactJournal();
+            }
+        } catch (IOException e) {
+            logger.severe("[PlayerFileStorage] Failed to open player journal, journaling disabled: " + e.getMessage());
+            journal = null;
+            j.close();
+            return;
+        }
+        
+        if (!enabled) {
+            stopJournal();
+            return;
+        }
+        
+        this.journalMaxBytes = Math.max(64, maxSizeKb) * 1024L;
+        long compactInterval = Math.max(5, compactIntervalSeconds);
+        
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "EliteEssentials-Journal");
+            t.setDaemon(true);
+            return t;
+        });
+        if (fsyncIntervalMs > 0) {
+            executor.scheduleWithFixedDelay(j::sync, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        executor.scheduleWithFixedDelay(this::compactJournal, compactInterval, compactInterval, TimeUnit.SECONDS);
+        journalExecutor = executor;
+        logger.info("[PlayerFileStorage] Player journal enabled (fsync: " + (fsyncIntervalMs > 0 ? fsyncIntervalMs + "ms" : "every change")
+                + ", compaction: " + compactInterval + "s).");
+    }
+    
+    /**
+     * Fold the journal into the player files: rotate the active segment, write
+     * every player it touched, then drop the segment. If any write fails the
+     * segment is kept and retried on the next compaction.
+     */
+    public void compactJournal() {
+        PlayerJournal j = journal;
+        if (j == null) {
+            return;
+        }
+        
+        synchronized (compactLock) {
+            long start = System.nanoTime();
+            Set<UUID> players;
+            try {
+                players = j.beginCompaction();
+            } catch (IOException e) {
+                logger.severe("[PlayerFileStorage] Journal compaction failed: " + e.getMessage());
+                return;
+            }
+            if (players.isEmpty()) {
+                return;
+            }
+            
+            boolean complete = true;
+            for (UUID uuid : players) {
+                // Pinned so the instance written stays the cached one: the snapshot is
+                // stamped with the current sequence, which a copy evicted meanwhile
+                // (and changed through a reloaded instance) wouldn't cover
+                PlayerFile data = pin(uuid);
+                if (data == null) {
+                    continue;
+                }
                 try {
-                    String uuidStr = file.getName().replace(".json", "");
-                    UUID uuid = UUID.fromString(uuidStr);
-                    allUuids.add(uuid);
-                } catch (IllegalArgumentException e) {
-                    // Invalid UUID filename, skip
+                    if (writeToDisk(uuid, data)) {
+                        statsIndex.update(PlayerSummary.of(data));
+                    } else {
+                        complete = false;
+                    }
+                } finally {
+                    unpin(uuid);
+                }
+            }
+            if (complete) {
+                j.finishCompaction();
+            }
+            
+            compactionCount.incrementAndGet();
+            lastCompactionNanos = System.nanoTime() - start;
+            lastCompactionSize = players.size();
+        }
+    }
+    
+    /**
+     * Compact and close the journal, stopping its background thread.
+     */
+    private void stopJournal() {
+        ScheduledExecutorService executor = journalExecutor;
+        if (executor != null) {
+            journalExecutor = null;
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
                 }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
             }
+            compactionQueued.set(false);
         }
         
-        return allUuids.size();
+        PlayerJournal j = journal;
+        if (j != null) {
+            // Closing first makes concurrent changes fall back to full saves,
+            // so nothing is appended after the final compaction
+            j.close();
+            compactJournal();
+            compactJournal();
+            journal = null;
+        }
+    }
+    
+    public boolean isJournalEnabled() {
+        return journal != null;
+    }
+    
+    /**
+     * Snapshot of journal size and compaction metrics.
+     */
+    public JournalStats getJournalStats() {
+        PlayerJournal j = journal;
+        return new JournalStats(
+            j != null,
+            j != null ? j.sizeBytes() : 0,
+            journalAppends.get(),
+            compactionCount.get(),
+            lastCompactionSize,
+            lastCompactionNanos / 1_000_000.0
+        );
+    }
+    
+    /**
+     * Journal metrics. Latencies are in milliseconds.
+     */
+    public record JournalStats(boolean enabled, long sizeBytes, long appends, long compactions,
+                               int lastCompactionPlayers, double lastCompactionMs) {
+    }
+    
+    /**
+     * Get all cached players (online players, not the offline tier).
+     */
+    public Collection<PlayerFile> getCachedPlayers() {
+        return Collections.unmodifiableCollection(cache.values());
+    }
+    
+    /**
+     * Get all player UUIDs (from memory - never lists the players folder).
+     */
+    public Collection<UUID> getAllPlayerUuids() {
+        return Collections.unmodifiableCollection(knownPlayers);
+    }
+    
+    /**
+     * Get the top players by wallet (highest first).
+     * Served from the stats index - does not load player files.
+     */
+    public List<PlayerSummary> getTopByWallet(int limit) {
+        return statsIndex.topByWallet(limit);
+    }
+    
+    /**
+     * Get the top players by play time (highest first).
+     */
+    public List<PlayerSummary> getTopByPlayTime(int limit) {
+        return statsIndex.topByPlayTime(limit);
+    }
+    
+    /**
+     * Get the most recently seen players (most recent first).
+     */
+    public List<PlayerSummary> getRecentlySeen(int limit) {
+        return statsIndex.topByLastSeen(limit);
+    }
+    
+    /**
+     * Get a player's leaderboard summary without loading their file.
+     * Players missing from the stats index are read with {@link #readSummary(UUID)}.
+     */
+    public Optional<PlayerSummary> getSummary(UUID uuid) {
+        Optional<PlayerSummary> summary = statsIndex.get(uuid);
+        if (summary.isPresent() || !knownPlayers.contains(uuid)) {
+            return summary;
+        }
+        return readSummary(uuid);
+    }
+    
+    /**
+     * Read a player's current name, wallet, play time and last seen.
+     * Uses the cached player if loaded; otherwise only the scalar fields are
+     * read from the store (the mailbox and homes are skipped) and nothing is
+     * cached, so one-off offline queries like a balance check stay cheap.
+     */
+    public Optional<PlayerSummary> readSummary(UUID uuid) {
+        PlayerFile data = getLoaded(uuid);
+        if (data != null) {
+            cacheHits.incrementAndGet();
+            return Optional.of(PlayerSummary.of(data));
+        }
+        scalarReads.incrementAndGet();
+        data = loadScalarsFromDisk(uuid);
+        return data != null ? Optional.of(PlayerSummary.of(data)) : Optional.empty();
+    }
+    
+    /**
+     * A player's summary from memory only: the loaded player, else the stats
+     * index. Never reads the store, so it is safe on a world thread.
+     */
+    public Optional<PlayerSummary> getCachedSummary(UUID uuid) {
+        PlayerFile data = getLoaded(uuid);
+        return data != null ? Optional.of(PlayerSummary.of(data)) : statsIndex.get(uuid);
+    }
+    
+    /**
+     * Get a player's 1-based wallet rank, or -1 if unknown.
+     */
+    public int getWalletRank(UUID uuid) {
+        return statsIndex.walletRank(uuid);
+    }
+    
+    /**
+     * Get a player's 1-based play time rank, or -1 if unknown.
+     */
+    public int getPlayTimeRank(UUID uuid) {
+        return statsIndex.playTimeRank(uuid);
+    }
+    
+    /**
+     * Get total number of players with stored data.
+     */
+    public int getPlayerCount() {
+        return knownPlayers.size();
     }
     
     /**
      * Reload the index (for /ee reload).
      */
     public void reload() {
-        loadIndex();
+        nameIndex.save();
+        nameIndex.load();
+        restoreNameCase();
     }
     
     /**
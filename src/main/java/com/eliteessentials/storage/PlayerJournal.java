@@ -0,0 +1,416 @@
+package com.eliteessentials.storage;
+
+import com.eliteessentials.model.PlayerFile;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal for small player field changes (wallet, play time, last seen, vanish).
+ *
+ * Instead of rewriting a whole player file for a one-field change, PlayerFileStorage
+ * appends a fixed-size record here and the change is durable once the append (and,
+ * depending on config, the next fsync) completes. PlayerFileStorage periodically
+ * compacts the journal: it rotates the active file, writes the affected players'
+ * snapshot files, then deletes the rotated segment.
+ *
+ * Ordering: every record carries a sequence number and every snapshot written by
+ * PlayerFileStorage is stamped with the sequence it covers (PlayerFile.journalSeq).
+ * A record is only applied to a snapshot if its sequence is newer, so replaying a
+ * journal over a snapshot that already contains it is harmless. Sequences come
+ * from a persisted JournalSequence, so they keep increasing across restarts and
+ * truncation whatever the wall clock does.
+ *
+ * Files:
+ * - player_journal.log - active segment
+ * - player_journal.compacting - segment being folded into snapshots
+ *
+ * Record layout (37 bytes): field(1) seq(8) uuidMsb(8) uuidLsb(8) value(8) crc32(4)
+ */
+public class PlayerJournal {
+
+    private static final Logger logger = Logger.getLogger("EliteEssentials");
+    private static final int RECORD_SIZE = 1 + 8 + 8 + 8 + 8 + 4;
+
+    /**
+     * Player fields that can be journaled. Codes are persisted - never reuse one.
+     */
+    public enum Field {
+        WALLET(1),
+        PLAY_TIME(2),
+        LAST_SEEN(3),
+        VANISHED(4);
+
+        final byte code;
+
+        Field(int code) {
+            this.code = (byte) code;
+        }
+
+        static Field byCode(byte code) {
+            for (Field field : values()) {
+                if (field.code == code) return field;
+            }
+            return null;
+        }
+
+        long read(PlayerFile data) {
+            return switch (this) {
+                case WALLET -> Double.doubleToRawLongBits(data.getWallet());
+                case PLAY_TIME -> data.getPlayTime();
+                case LAST_SEEN -> data.getLastSeen();
+                case VANISHED -> data.isVanished() ? 1L : 0L;
+            };
+        }
+
+        void apply(PlayerFile data, long value) {
+            switch (this) {
+                case WALLET -> data.setWallet(Double.longBitsToDouble(value));
+                case PLAY_TIME -> data.setPlayTime(value);
+                case LAST_SEEN -> data.setLastSeen(value);
+                case VANISHED -> data.setVanished(value != 0L);
+            }
+        }
+    }
+
+    /**
+     * Latest journaled value (and its sequence) of each field for one player.
+     * Written under the append lock, read by loading threads.
+     */
+    private static final class Pending {
+        final long[] seqs = new long[Field.values().length];
+        final long[] values = new long[Field.values().length];
+
+        synchronized void put(Field field, long seq, long value) {
+            int i = field.ordinal();
+            if (seq > seqs[i]) {
+                seqs[i] = seq;
+                values[i] = value;
+            }
+        }
+
+        synchronized void applyTo(PlayerFile data) {
+            for (Field field : Field.values()) {
+                int i = field.ordinal();
+                if (seqs[i] > data.getJournalSeq()) {
+                    field.apply(data, values[i]);
+                }
+            }
+        }
+    }
+
+    private final File activeFile;
+    private final File compactingFile;
+    private final Object appendLock = new Object();
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final boolean syncEveryAppend;
+    private final JournalSequence sequence;
+
+    private FileChannel channel;
+    private boolean unsynced;
+    private volatile long finishedCompactions;
+
+    // Changes not yet folded into snapshot files, applied when a player is loaded from disk
+    private volatile Map<UUID, Pending> activePending = new ConcurrentHashMap<>();
+    private volatile Map<UUID, Pending> compactingPending = new ConcurrentHashMap<>();
+
+    PlayerJournal(File dataFolder, JournalSequence sequence, boolean syncEveryAppend) {
+        this.activeFile = new File(dataFolder, "player_journal.log");
+        this.compactingFile = new File(dataFolder, "player_journal.compacting");
+        this.sequence = sequence;
+        this.syncEveryAppend = syncEveryAppend;
+    }
+
+    /**
+     * Whether a journal from a previous run is waiting to be recovered.
+     */
+    public static boolean exists(File dataFolder) {
+        return new File(dataFolder, "player_journal.log").exists()
+            || new File(dataFolder, "player_journal.compacting").exists();
+    }
+
+    // ==================== Open / Recovery ====================
+
+    /**
+     * Open the journal, replaying any segments left by the previous run.
+     * A torn record at the end of the active segment (crash mid-append) is cut off.
+     *
+     * @return number of records recovered
+     */
+    public int open() throws IOException {
+        int recovered = 0;
+        if (compactingFile.exists()) {
+            recovered += replay(compactingFile, compactingPending, false);
+        }
+        if (activeFile.exists()) {
+            recovered += replay(activeFile, activePending, true);
+        }
+        channel = openActive();
+        return recovered;
+    }
+
+    private int replay(File file, Map<UUID, Pending> target, boolean truncateTail) throws IOException {
+        int count = 0;
+        long validLength = 0;
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            while (true) {
+                record.clear();
+                while (record.hasRemaining()) {
+                    if (in.read(record) < 0) break;
+                }
+                if (record.hasRemaining()) break; // Torn tail
+
+                record.flip();
+                crc.reset();
+                crc.update(record.array(), 0, RECORD_SIZE - 4);
+                Field field = Field.byCode(record.get());
+                long seq = record.getLong();
+                UUID uuid = new UUID(record.getLong(), record.getLong());
+                long value = record.getLong();
+                int storedCrc = record.getInt();
+                if (field == null || storedCrc != (int) crc.getValue()) {
+                    logger.warning("[PlayerJournal] Corrupt record in " + file.getName() + " at offset " + validLength + ", ignoring the rest.");
+                    break;
+                }
+
+                target.computeIfAbsent(uuid, k -> new Pending()).put(field, seq, value);
+                sequence.observe(seq);
+                validLength += RECORD_SIZE;
+                count++;
+            }
+        }
+
+        if (truncateTail && validLength < file.length()) {
+            try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                out.truncate(validLength);
+            }
+        }
+        return count;
+    }
+
+    // ==================== Append ====================
+
+    /**
+     * Append one field change. Returns once the record has been written to the
+     * journal file (and fsynced when syncing on every append).
+     * The value is read under the append lock, after any earlier append, so a
+     * record never carries an older value than one with a lower sequence.
+     */
+    public void append(UUID uuid, Field field, PlayerFile data) throws IOException {
+        synchronized (appendLock) {
+            if (channel == null) {
+                throw new IOException("Journal is closed");
+            }
+            long value = field.read(data);
+            long seq = nextSeq();
+            buffer.clear();
+            putRecord(buffer, field, seq, uuid, value);
+            buffer.flip();
+            write(buffer);
+            activePending.computeIfAbsent(uuid, k -> new Pending()).put(field, seq, value);
+        }
+    }
+
+    /**
+     * Append the same fields of several players with one write (and at most one
+     * fsync), for bulk changes like mass payouts.
+     */
+    public void appendAll(Map<UUID, PlayerFile> players, Field... fields) throws IOException {
+        synchronized (appendLock) {
+            if (channel == null) {
+                throw new IOException("Journal is closed");
+            }
+            int count = players.size() * fields.length;
+            ByteBuffer batch = ByteBuffer.allocate(count * RECORD_SIZE);
+            UUID[] uuids = new UUID[count];
+            Field[] batchFields = new Field[count];
+            long[] seqs = new long[count];
+            long[] values = new long[count];
+            int i = 0;
+            for (Map.Entry<UUID, PlayerFile> entry : players.entrySet()) {
+                for (Field field : fields) {
+                    uuids[i] = entry.getKey();
+                    batchFields[i] = field;
+                    seqs[i] = nextSeq();
+                    values[i] = field.read(entry.getValue());
+                    putRecord(batch, field, seqs[i], uuids[i], values[i]);
+                    i++;
+                }
+            }
+            batch.flip();
+            write(batch);
+            for (i = 0; i < count; i++) {
+                activePending.computeIfAbsent(uuids[i], k -> new Pending()).put(batchFields[i], seqs[i], values[i]);
+            }
+        }
+    }
+
+    private void putRecord(ByteBuffer target, Field field, long seq, UUID uuid, long value) {
+        int start = target.position();
+        target.put(field.code);
+        target.putLong(seq);
+        target.putLong(uuid.getMostSignificantBits());
+        target.putLong(uuid.getLeastSignificantBits());
+        target.putLong(value);
+        crc.reset();
+        crc.update(target.array(), start, RECORD_SIZE - 4);
+        target.putInt((int) crc.getValue());
+    }
+
+    private void write(ByteBuffer records) throws IOException {
+        while (records.hasRemaining()) {
+            channel.write(records);
+        }
+        if (syncEveryAppend) {
+            channel.force(false);
+        } else {
+            unsynced = true;
+        }
+    }
+
+    /**
+     * Issued under the append lock, so sequences follow the order records are written.
+     */
+    private long nextSeq() throws IOException {
+        return sequence.next();
+    }
+
+    /**
+     * The most recently issued sequence number.
+     * A snapshot stamped with it contains every record issued so far.
+     */
+    public long currentSeq() {
+        synchronized (appendLock) {
+            return sequence.current();
+        }
+    }
+
+    /**
+     * Fsync appended records (batched durability).
+     */
+    public void sync() {
+        synchronized (appendLock) {
+            if (!unsynced || channel == null) return;
+            try {
+                channel.force(false);
+                unsynced = false;
+            } catch (IOException e) {
+                logger.severe("[PlayerJournal] Failed to sync journal: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Apply journaled changes newer than the snapshot to a player loaded from disk.
+     */
+    public void applyPending(UUID uuid, PlayerFile data) {
+        // Active first: a rotation in between moves it to compacting, where it is read again
+        Pending active = activePending.get(uuid);
+        Pending compacting = compactingPending.get(uuid);
+        if (compacting != null) {
+            compacting.applyTo(data);
+        }
+        if (active != null) {
+            active.applyTo(data);
+        }
+    }
+
+    public long sizeBytes() {
+        synchronized (appendLock) {
+            try {
+                return channel != null ? channel.size() : 0;
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+    }
+
+    // ==================== Compaction ====================
+
+    /**
+     * Rotate the active segment out for compaction and return the players it touched.
+     * If a previous compaction didn't finish, its segment is returned again instead.
+     * Also works after close(), to fold in what was appended before closing.
+     */
+    public Set<UUID> beginCompaction() throws IOException {
+        synchronized (appendLock) {
+            if (!compactingFile.exists()) {
+                if (activeFile.length() == 0) {
+                    return Collections.emptySet();
+                }
+                boolean open = channel != null;
+                if (open) {
+                    channel.force(false);
+                    unsynced = false;
+                    channel.close();
+                    channel = null;
+                }
+                boolean rotated = activeFile.renameTo(compactingFile);
+                if (open) {
+                    channel = openActive();
+                }
+                if (!rotated) {
+                    throw new IOException("Could not rotate " + activeFile.getName());
+                }
+                compactingPending = activePending;
+                activePending = new ConcurrentHashMap<>();
+            }
+            return new HashSet<>(compactingPending.keySet());
+        }
+    }
+
+    /**
+     * Drop the compacted segment once every affected snapshot has been written.
+     */
+    public void finishCompaction() {
+        synchronized (appendLock) {
+            if (compactingFile.exists() && !compactingFile.delete()) {
+                logger.warning("[PlayerJournal] Could not delete " + compactingFile.getName());
+                return;
+            }
+            compactingPending = new ConcurrentHashMap<>();
+            finishedCompactions++;
+        }
+    }
+
+    /**
+     * Number of finished compactions. A player read from disk while this changed
+     * may have missed records dropped with the compacted segment and must be re-read.
+     */
+    public long finishedCompactions() {
+        return finishedCompactions;
+    }
+
+    private FileChannel openActive() throws IOException {
+        return FileChannel.open(activeFile.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Stop accepting appends. Pending changes stay available to applyPending()
+     * and beginCompaction() until the journal is dropped.
+     */
+    public void close() {
+        synchronized (appendLock) {
+            if (channel == null) return;
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                logger.severe("[PlayerJournal] Failed to close journal: " + e.getMessage());
+            }
+            channel = null;
+            if (activeFile.length() == 0) {
+                activeFile.delete();
+            }
+        }
+    }
+}
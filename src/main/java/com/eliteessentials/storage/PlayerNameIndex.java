@@ -0,0 +1,289 @@
+package com.eliteessentials.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.*;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Name <-> UUID index for offline lookups, stored in player_index.json.
+ *
+ * - Forward map (lowercase name -> UUID) is a sorted skip list, so exact lookups
+ *   are O(log n) and prefix searches walk only the matching range.
+ * - Reverse map (UUID -> name) makes renames O(1): the old name is found
+ *   directly instead of scanning every entry.
+ * - Changes only mark the index dirty; it is written at most once per save
+ *   delay (and on shutdown), so a join wave of new players costs one write
+ *   instead of one full rewrite per player.
+ *
+ * A crash can lose the last few seconds of names. PlayerFileStorage repairs
+ * them from the player data when it rebuilds the stats index after a crash.
+ */
+public class PlayerNameIndex {
+
+    private static final Logger logger = Logger.getLogger("EliteEssentials");
+    private static final Gson gson = new GsonBuilder()
+            .setPrettyPrinting()
+            .disableHtmlEscaping()
+            .create();
+    private static final Type INDEX_TYPE = new TypeToken<Map<String, UUID>>(){}.getType();
+    private static final long SAVE_DELAY_MS = 5000;
+
+    private final File indexFile;
+
+    // lowercase name -> UUID
+    private final ConcurrentSkipListMap<String, UUID> byName = new ConcurrentSkipListMap<>();
+
+    // UUID -> name as last seen (original case)
+    private final Map<UUID, String> byUuid = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService saveExecutor;
+    private ScheduledFuture<?> pendingSave;
+    private boolean dirty;
+    private boolean closed;
+
+    /**
+     * @param saveExecutor runs the delayed saves (shared with PlayerFileStorage's flush thread)
+     */
+    public PlayerNameIndex(File dataFolder, ScheduledExecutorService saveExecutor) {
+        this.indexFile = new File(dataFolder, "player_index.json");
+        this.saveExecutor = saveExecutor;
+    }
+
+    // ==================== Updates ====================
+
+    /**
+     * Record a player's current name, replacing their previous one.
+     *
+     * @return true if the index changed
+     */
+    public synchronized boolean put(UUID uuid, String name) {
+        if (uuid == null || name == null) return false;
+        String lowerName = name.toLowerCase();
+
+        String oldName = byUuid.put(uuid, name);
+        UUID previousOwner = byName.put(lowerName, uuid);
+        if (name.equals(oldName) && uuid.equals(previousOwner)) {
+            return false;
+        }
+
+        // Drop this player's old name (if it still points at them)
+        if (oldName != null) {
+            String oldLower = oldName.toLowerCase();
+            if (!oldLower.equals(lowerName)) {
+                byName.remove(oldLower, uuid);
+            }
+        }
+        // Another player used to have this name - they no longer own it
+        if (previousOwner != null && !previousOwner.equals(uuid)) {
+            String ownerName = byUuid.get(previousOwner);
+            if (ownerName != null && ownerName.toLowerCase().equals(lowerName)) {
+                byUuid.remove(previousOwner);
+            }
+        }
+
+        scheduleSave();
+        return true;
+    }
+
+    /**
+     * Add a player only if the index doesn't know them yet (crash repair).
+     */
+    public synchronized void putIfAbsent(UUID uuid, String name) {
+        if (uuid != null && name != null && !byUuid.containsKey(uuid) && !byName.containsKey(name.toLowerCase())) {
+            put(uuid, name);
+        }
+    }
+
+    /**
+     * Restore the original case of a name loaded from player_index.json, which only
+     * stores lowercase names. Ignored if the player is indexed under a different name.
+     */
+    public synchronized void restoreCase(UUID uuid, String name) {
+        if (uuid == null || name == null) return;
+        String current = byUuid.get(uuid);
+        if (current != null && !current.equals(name) && current.equalsIgnoreCase(name)) {
+            byUuid.put(uuid, name);
+        }
+    }
+
+    // ==================== Queries ====================
+
+    /**
+     * Exact lookup (case-insensitive).
+     */
+    public UUID get(String name) {
+        return byName.get(name.toLowerCase());
+    }
+
+    /**
+     * A player's last known name.
+     */
+    public String getName(UUID uuid) {
+        return byUuid.get(uuid);
+    }
+
+    /**
+     * Names starting with the given prefix (case-insensitive), alphabetically.
+     */
+    public List<String> findByPrefix(String prefix, int limit) {
+        List<String> names = new ArrayList<>();
+        for (UUID uuid : prefixRange(prefix).values()) {
+            if (names.size() >= limit) break;
+            String name = byUuid.get(uuid);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * UUIDs of players whose name starts with the given prefix, alphabetically.
+     */
+    public List<UUID> findUuidsByPrefix(String prefix, int limit) {
+        List<UUID> uuids = new ArrayList<>();
+        for (UUID uuid : prefixRange(prefix).values()) {
+            if (uuids.size() >= limit) break;
+            uuids.add(uuid);
+        }
+        return uuids;
+    }
+
+    /**
+     * Resolve a full or partial name: an exact match wins, otherwise the name
+     * must be the prefix of exactly one player.
+     */
+    public Optional<UUID> resolve(String partial) {
+        UUID exact = get(partial);
+        if (exact != null) {
+            return Optional.of(exact);
+        }
+        List<UUID> matches = findUuidsByPrefix(partial, 2);
+        return matches.size() == 1 ? Optional.of(matches.get(0)) : Optional.empty();
+    }
+
+    private NavigableMap<String, UUID> prefixRange(String prefix) {
+        String lower = prefix.toLowerCase();
+        return byName.subMap(lower, true, lower + Character.MAX_VALUE, false);
+    }
+
+    public Collection<UUID> uuids() {
+        return Collections.unmodifiableCollection(byUuid.keySet());
+    }
+
+    public int size() {
+        return byName.size();
+    }
+
+    // ==================== Persistence ====================
+
+    /**
+     * Load the index from player_index.json (replacing the current contents).
+     */
+    public synchronized void load() {
+        if (!indexFile.exists()) {
+            logger.info("[PlayerFileStorage] No player_index.json found, starting fresh.");
+            return;
+        }
+
+        try (Reader reader = new InputStreamReader(new FileInputStream(indexFile), StandardCharsets.UTF_8)) {
+            Map<String, UUID> loaded = gson.fromJson(reader, INDEX_TYPE);
+            if (loaded != null) {
+                byName.clear();
+                byUuid.clear();
+                for (Map.Entry<String, UUID> entry : loaded.entrySet()) {
+                    if (entry.getKey() == null || entry.getValue() == null) continue;
+                    // The file only stores lowercase names; PlayerFileStorage restores the real case
+                    byName.put(entry.getKey().toLowerCase(), entry.getValue());
+                    byUuid.put(entry.getValue(), entry.getKey());
+                }
+                logger.info("[PlayerFileStorage] Loaded player index with " + byName.size() + " entries.");
+            }
+        } catch (Exception e) {
+            logger.severe("[PlayerFileStorage] Failed to load player_index.json: " + e.getMessage());
+        }
+    }
+
+    private synchronized void scheduleSave() {
+        dirty = true;
+        if (!closed && (pendingSave == null || pendingSave.isDone())) {
+            try {
+                pendingSave = saveExecutor.schedule(this::save, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                // Shutting down - close() saves
+            }
+        }
+    }
+
+    /**
+     * Write the index if it changed since the last save.
+     * Written to a temp file and moved into place so a crash mid-write
+     * never leaves a truncated index.
+     */
+    public void save() {
+        Map<String, UUID> snapshot;
+        synchronized (this) {
+            if (!dirty) return;
+            dirty = false;
+            snapshot = new TreeMap<>(byName);
+        }
+
+        File tmp = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+            gson.toJson(snapshot, INDEX_TYPE, writer);
+        } catch (Exception e) {
+            logger.severe("[PlayerFileStorage] Failed to save player_index.json: " + e.getMessage());
+            synchronized (this) {
+                dirty = true;
+            }
+            return;
+        }
+        try {
+            Files.move(tmp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.move(tmp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e2) {
+                logger.severe("[PlayerFileStorage] Failed to save player_index.json: " + e2.getMessage());
+                synchronized (this) {
+                    dirty = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Force the next save() to write even if nothing changed.
+     */
+    public synchronized void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Stop scheduling delayed saves and write changes now (plugin shutdown).
+     * Later changes are only written by an explicit save().
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            if (pendingSave != null) {
+                pendingSave.cancel(false);
+                pendingSave = null;
+            }
+        }
+        save();
+    }
+}
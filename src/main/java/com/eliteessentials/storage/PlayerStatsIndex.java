@@ -0,0 +1,345 @@
+package com.eliteessentials.storage;
+
+import com.eliteessentials.model.PlayerSummary;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.*;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Logger;
+
+/**
+ * Sorted secondary indexes over player wallet, play time and last seen.
+ *
+ * Every player is kept as a small PlayerSummary in three order-statistic trees,
+ * so top-N is O(log n + N) and the rank of a single player is O(log n).
+ * Entries are updated incrementally whenever PlayerFileStorage sees a change,
+ * which means leaderboard queries never have to load offline player files.
+ *
+ * The index is written to player_stats.json on clean shutdown and read back
+ * (then deleted) on startup. If the file is missing - first run or after a
+ * crash - PlayerFileStorage rebuilds it once from the player files.
+ */
+public class PlayerStatsIndex {
+
+    private static final Logger logger = Logger.getLogger("EliteEssentials");
+    private static final Gson gson = new Gson();
+    private static final Type LIST_TYPE = new TypeToken<List<PlayerSummary>>(){}.getType();
+
+    private static final Comparator<PlayerSummary> BY_WALLET = Comparator
+            .comparingDouble(PlayerSummary::wallet).reversed()
+            .thenComparing(PlayerSummary::uuid);
+    private static final Comparator<PlayerSummary> BY_PLAY_TIME = Comparator
+            .comparingLong(PlayerSummary::playTime).reversed()
+            .thenComparing(PlayerSummary::uuid);
+    private static final Comparator<PlayerSummary> BY_LAST_SEEN = Comparator
+            .comparingLong(PlayerSummary::lastSeen).reversed()
+            .thenComparing(PlayerSummary::uuid);
+
+    private final File indexFile;
+    private final Map<UUID, PlayerSummary> entries = new HashMap<>();
+    private final RankedSet byWallet = new RankedSet(BY_WALLET);
+    private final RankedSet byPlayTime = new RankedSet(BY_PLAY_TIME);
+    private final RankedSet byLastSeen = new RankedSet(BY_LAST_SEEN);
+
+    public PlayerStatsIndex(File dataFolder) {
+        this.indexFile = new File(dataFolder, "player_stats.json");
+    }
+
+    // ==================== Updates ====================
+
+    /**
+     * Insert or refresh a player's entry. No-op if nothing indexed changed.
+     */
+    public synchronized void update(PlayerSummary summary) {
+        if (summary.uuid() == null) return;
+
+        PlayerSummary old = entries.put(summary.uuid(), summary);
+        if (summary.equals(old)) {
+            return;
+        }
+        if (old != null) {
+            byWallet.remove(old);
+            byPlayTime.remove(old);
+            byLastSeen.remove(old);
+        }
+        byWallet.add(summary);
+        byPlayTime.add(summary);
+        byLastSeen.add(summary);
+    }
+
+    /**
+     * Remove a player from all indexes.
+     */
+    public synchronized void remove(UUID uuid) {
+        PlayerSummary old = entries.remove(uuid);
+        if (old != null) {
+            byWallet.remove(old);
+            byPlayTime.remove(old);
+            byLastSeen.remove(old);
+        }
+    }
+
+    /**
+     * Replace the whole index.
+     */
+    public synchronized void rebuild(Collection<PlayerSummary> summaries) {
+        entries.clear();
+        byWallet.clear();
+        byPlayTime.clear();
+        byLastSeen.clear();
+        for (PlayerSummary summary : summaries) {
+            update(summary);
+        }
+    }
+
+    // ==================== Queries ====================
+
+    public synchronized Optional<PlayerSummary> get(UUID uuid) {
+        return Optional.ofNullable(entries.get(uuid));
+    }
+
+    public synchronized boolean contains(UUID uuid) {
+        return entries.containsKey(uuid);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized List<PlayerSummary> summaries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    public synchronized List<PlayerSummary> topByWallet(int limit) {
+        return byWallet.first(limit);
+    }
+
+    public synchronized List<PlayerSummary> topByPlayTime(int limit) {
+        return byPlayTime.first(limit);
+    }
+
+    public synchronized List<PlayerSummary> topByLastSeen(int limit) {
+        return byLastSeen.first(limit);
+    }
+
+    /**
+     * 1-based wallet rank of a player, or -1 if the player is not indexed.
+     */
+    public synchronized int walletRank(UUID uuid) {
+        PlayerSummary summary = entries.get(uuid);
+        return summary != null ? byWallet.rank(summary) + 1 : -1;
+    }
+
+    /**
+     * 1-based play time rank of a player, or -1 if the player is not indexed.
+     */
+    public synchronized int playTimeRank(UUID uuid) {
+        PlayerSummary summary = entries.get(uuid);
+        return summary != null ? byPlayTime.rank(summary) + 1 : -1;
+    }
+
+    // ==================== Persistence ====================
+
+    /**
+     * Load the index saved at the last clean shutdown.
+     * The file is deleted after reading so a crash later on forces a rebuild
+     * instead of trusting stale values.
+     *
+     * @return true if the index was loaded
+     */
+    public boolean load() {
+        if (!indexFile.exists()) {
+            return false;
+        }
+
+        List<PlayerSummary> loaded = null;
+        try (Reader reader = new InputStreamReader(new FileInputStream(indexFile), StandardCharsets.UTF_8)) {
+            loaded = gson.fromJson(reader, LIST_TYPE);
+        } catch (Exception e) {
+            logger.warning("[PlayerStatsIndex] Failed to load player_stats.json, rebuilding: " + e.getMessage());
+        }
+
+        if (!indexFile.delete()) {
+            logger.warning("[PlayerStatsIndex] Could not delete player_stats.json after loading.");
+        }
+
+        if (loaded == null) {
+            return false;
+        }
+        rebuild(loaded);
+        return true;
+    }
+
+    /**
+     * Write the index to disk (clean shutdown only).
+     */
+    public void save() {
+        List<PlayerSummary> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(entries.values());
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(indexFile), StandardCharsets.UTF_8)) {
+            gson.toJson(snapshot, LIST_TYPE, writer);
+        } catch (Exception e) {
+            logger.severe("[PlayerStatsIndex] Failed to save player_stats.json: " + e.getMessage());
+        }
+    }
+
+    // ==================== Order-Statistic Tree ====================
+
+    /**
+     * Treap augmented with subtree sizes.
+     * Supports insert, remove and rank in O(log n) expected time.
+     * Not thread-safe; guarded by the enclosing index.
+     */
+    private static final class RankedSet {
+
+        private static final class Node {
+            final PlayerSummary value;
+            final int priority = ThreadLocalRandom.current().nextInt();
+            Node left;
+            Node right;
+            int size = 1;
+
+            Node(PlayerSummary value) {
+                this.value = value;
+            }
+        }
+
+        private final Comparator<PlayerSummary> comparator;
+        private Node root;
+
+        RankedSet(Comparator<PlayerSummary> comparator) {
+            this.comparator = comparator;
+        }
+
+        void clear() {
+            root = null;
+        }
+
+        void add(PlayerSummary value) {
+            root = insert(root, value);
+        }
+
+        void remove(PlayerSummary value) {
+            root = delete(root, value);
+        }
+
+        /**
+         * Number of elements ordered before the given one.
+         */
+        int rank(PlayerSummary value) {
+            int rank = 0;
+            Node node = root;
+            while (node != null) {
+                int cmp = comparator.compare(value, node.value);
+                if (cmp <= 0) {
+                    if (cmp == 0) {
+                        return rank + size(node.left);
+                    }
+                    node = node.left;
+                } else {
+                    rank += size(node.left) + 1;
+                    node = node.right;
+                }
+            }
+            return rank;
+        }
+
+        /**
+         * The first {@code limit} elements in order.
+         */
+        List<PlayerSummary> first(int limit) {
+            List<PlayerSummary> result = new ArrayList<>(Math.max(0, Math.min(limit, size(root))));
+            Deque<Node> stack = new ArrayDeque<>();
+            Node node = root;
+            while ((node != null || !stack.isEmpty()) && result.size() < limit) {
+                while (node != null) {
+                    stack.push(node);
+                    node = node.left;
+                }
+                node = stack.pop();
+                result.add(node.value);
+                node = node.right;
+            }
+            return result;
+        }
+
+        private Node insert(Node node, PlayerSummary value) {
+            if (node == null) {
+                return new Node(value);
+            }
+            int cmp = comparator.compare(value, node.value);
+            if (cmp == 0) {
+                return node;
+            }
+            if (cmp < 0) {
+                node.left = insert(node.left, value);
+                if (node.left.priority > node.priority) {
+                    node = rotateRight(node);
+                }
+            } else {
+                node.right = insert(node.right, value);
+                if (node.right.priority > node.priority) {
+                    node = rotateLeft(node);
+                }
+            }
+            update(node);
+            return node;
+        }
+
+        private Node delete(Node node, PlayerSummary value) {
+            if (node == null) {
+                return null;
+            }
+            int cmp = comparator.compare(value, node.value);
+            if (cmp < 0) {
+                node.left = delete(node.left, value);
+            } else if (cmp > 0) {
+                node.right = delete(node.right, value);
+            } else {
+                if (node.left == null) return node.right;
+                if (node.right == null) return node.left;
+                if (node.left.priority > node.right.priority) {
+                    node = rotateRight(node);
+                    node.right = delete(node.right, value);
+                } else {
+                    node = rotateLeft(node);
+                    node.left = delete(node.left, value);
+                }
+            }
+            update(node);
+            return node;
+        }
+
+        private Node rotateRight(Node node) {
+            Node left = node.left;
+            node.left = left.right;
+            left.right = node;
+            update(node);
+            update(left);
+            return left;
+        }
+
+        private Node rotateLeft(Node node) {
+            Node right = node.right;
+            node.right = right.left;
+            right.left = node;
+            update(node);
+            update(right);
+            return right;
+        }
+
+        private static void update(Node node) {
+            node.size = 1 + size(node.left) + size(node.right);
+        }
+
+        private static int size(Node node) {
+            return node != null ? node.size : 0;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.eliteessentials.storage;
+
+import com.eliteessentials.model.PlayerFile;
+import com.eliteessentials.model.PlayerSummary;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Persistence backend for per-player data.
+ *
+ * PlayerFileStorage owns caching, dirty tracking, write-behind, the journal and
+ * the in-memory indexes; a PlayerStore only reads and writes whole players.
+ *
+ * Implementations:
+ * - FilePlayerStore: players/{uuid}.json or .dat (default)
+ * - SqlPlayerStore: embedded H2 database (playerdata.mv.db)
+ */
+public interface PlayerStore {
+
+    /**
+     * Load a player, or null if the store has no data for them.
+     */
+    PlayerFile load(UUID uuid) throws IOException;
+
+    /**
+     * Load only a player's scalar fields (name, first join, last seen, play time,
+     * wallet, vanish, journal sequence), or null if the store has no data for them.
+     * Homes, back history, kits and mailbox are left empty, so the result is a
+     * read-only projection: it must never be cached or saved.
+     * The default loads the whole player; stores should override it to skip
+     * decoding the collections.
+     */
+    default PlayerFile loadScalars(UUID uuid) throws IOException {
+        return load(uuid);
+    }
+
+    /**
+     * Write a player, replacing any stored copy.
+     * Writes of the same player must not interleave, and the player must be
+     * serialized while holding its lock (see PlayerFile).
+     */
+    void save(PlayerFile data) throws IOException;
+
+    /**
+     * Write several players at once, each serialized under its own lock like save.
+     * Players that couldn't be written (for example because they were modified
+     * mid-serialization) are returned so the caller can retry them.
+     */
+    default Set<UUID> saveBatch(Collection<PlayerFile> players) {
+        Set<UUID> failed = new HashSet<>();
+        for (PlayerFile data : players) {
+            try {
+                save(data);
+            } catch (ConcurrentModificationException e) {
+                failed.add(data.getUuid());
+            } catch (Exception e) {
+                Logger.getLogger("EliteEssentials").severe("[PlayerStore] Failed to save player " + data.getUuid() + ": " + e.getMessage());
+                failed.add(data.getUuid());
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Whether the store has data for a player.
+     */
+    boolean exists(UUID uuid);
+
+    /**
+     * UUIDs of every stored player.
+     */
+    Set<UUID> listPlayers();
+
+    /**
+     * Leaderboard summaries of every stored player (used to rebuild the stats index).
+     * The default reads each player's scalar fields; stores with indexed columns
+     * should override it.
+     */
+    default List<PlayerSummary> loadSummaries() {
+        List<PlayerSummary> summaries = new ArrayList<>();
+        for (UUID uuid : listPlayers()) {
+            try {
+                PlayerFile data = loadScalars(uuid);
+                if (data != null) {
+                    if (data.getUuid() == null) {
+                        data.setUuid(uuid);
+                    }
+                    summaries.add(PlayerSummary.of(data));
+                }
+            } catch (Exception e) {
+                Logger.getLogger("EliteEssentials").warning("[PlayerStore] Skipping unreadable player " + uuid + ": " + e.getMessage());
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Look up a player's UUID by name (case-insensitive), if the store can do so
+     * without scanning. The name index in PlayerFileStorage is checked first.
+     */
+    default Optional<UUID> findUuidByName(String name) {
+        return Optional.empty();
+    }
+
+    /**
+     * Short human-readable description, e.g. "JSON files".
+     */
+    String describe();
+
+    /**
+     * Release resources (connections, file handles).
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,417 @@
+package com.eliteessentials.storage;
+
+import com.eliteessentials.model.PlayerFile;
+import com.eliteessentials.model.PlayerSummary;
+
+import java.io.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * PlayerStore backed by an embedded H2 database (data/playerdata.mv.db).
+ *
+ * Each player is one row: the leaderboard columns (name, wallet, play time,
+ * last seen) are stored as indexed columns and the full player is stored as a
+ * PlayerFileCodec blob, so loads are a single primary key lookup and summaries
+ * for the stats index come from one query without decoding any blobs.
+ *
+ * Writes go through one lock so two saves of the same player can never land
+ * out of order; batches are written as one transaction with JDBC batching.
+ * Reads use a small fixed-size connection pool.
+ */
+public class SqlPlayerStore implements PlayerStore {
+
+    private static final Logger logger = Logger.getLogger("EliteEssentials");
+    private static final String DRIVER = "org.h2.Driver";
+    private static final int BATCH_SIZE = 500;
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS ee_players ("
+            + "uuid CHAR(36) PRIMARY KEY, "
+            + "name VARCHAR(64), "
+            + "name_lower VARCHAR(64), "
+            + "wallet DOUBLE NOT NULL, "
+            + "play_time BIGINT NOT NULL, "
+            + "last_seen BIGINT NOT NULL, "
+            + "data BLOB NOT NULL)";
+    private static final String[] CREATE_INDEXES = {
+        "CREATE INDEX IF NOT EXISTS ee_players_name ON ee_players (name_lower)",
+        "CREATE INDEX IF NOT EXISTS ee_players_wallet ON ee_players (wallet)",
+        "CREATE INDEX IF NOT EXISTS ee_players_play_time ON ee_players (play_time)",
+        "CREATE INDEX IF NOT EXISTS ee_players_last_seen ON ee_players (last_seen)"
+    };
+    private static final String UPSERT = "MERGE INTO ee_players "
+            + "(uuid, name, name_lower, wallet, play_time, last_seen, data) KEY (uuid) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_DATA = "SELECT data FROM ee_players WHERE uuid = ?";
+    private static final String SELECT_EXISTS = "SELECT 1 FROM ee_players WHERE uuid = ?";
+    private static final String SELECT_UUIDS = "SELECT uuid FROM ee_players";
+    private static final String SELECT_SUMMARIES = "SELECT uuid, name, wallet, play_time, last_seen FROM ee_players";
+    private static final String SELECT_BY_NAME = "SELECT uuid FROM ee_players WHERE name_lower = ?";
+    private static final String SELECT_COUNT = "SELECT COUNT(*) FROM ee_players";
+
+    private final ConnectionPool pool;
+    private final Object writeLock = new Object();
+
+    /**
+     * Open (or create) the database.
+     *
+     * @throws IOException if the H2 driver is missing or the database can't be opened
+     */
+    public SqlPlayerStore(File dataFolder, int poolSize) throws IOException {
+        try {
+            // Registers the driver with DriverManager from the plugin class loader
+            Class.forName(DRIVER);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("H2 driver not found", e);
+        }
+
+        String url = "jdbc:h2:file:" + new File(dataFolder, "playerdata").getAbsolutePath();
+        try {
+            this.pool = new ConnectionPool(url, Math.max(2, poolSize));
+        } catch (SQLException e) {
+            throw new IOException("Could not open " + url + ": " + e.getMessage(), e);
+        }
+
+        try (Connection conn = pool.borrow(); Statement statement = conn.createStatement()) {
+            statement.execute(CREATE_TABLE);
+            for (String index : CREATE_INDEXES) {
+                statement.execute(index);
+            }
+        } catch (SQLException e) {
+            pool.close();
+            throw new IOException("Could not create player table: " + e.getMessage(), e);
+        }
+    }
+
+    // ==================== PlayerStore ====================
+
+    @Override
+    public PlayerFile load(UUID uuid) throws IOException {
+        try (Connection conn = pool.borrow(); PreparedStatement statement = conn.prepareStatement(SELECT_DATA)) {
+            statement.setString(1, uuid.toString());
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return PlayerFileCodec.decode(rs.getBytes(1));
+            }
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decode only the scalar prefix of the blob; the collections that follow are never read.
+     */
+    @Override
+    public PlayerFile loadScalars(UUID uuid) throws IOException {
+        try (Connection conn = pool.borrow(); PreparedStatement statement = conn.prepareStatement(SELECT_DATA)) {
+            statement.setString(1, uuid.toString());
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                try (InputStream blob = rs.getBinaryStream(1)) {
+                    return PlayerFileCodec.decodeScalars(new DataInputStream(new BufferedInputStream(blob, 256)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void save(PlayerFile data) throws IOException {
+        synchronized (writeLock) {
+            try (Connection conn = pool.borrow(); PreparedStatement statement = conn.prepareStatement(UPSERT)) {
+                synchronized (data) {
+                    bind(statement, data, PlayerFileCodec.encode(data));
+                }
+                statement.executeUpdate();
+            } catch (SQLException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Write players in one transaction, BATCH_SIZE rows per JDBC batch.
+     * A player modified mid-encoding is skipped and returned for a retry.
+     */
+    @Override
+    public Set<UUID> saveBatch(Collection<PlayerFile> players) {
+        Set<UUID> failed = new HashSet<>();
+        if (players.isEmpty()) {
+            return failed;
+        }
+
+        synchronized (writeLock) {
+            try (Connection conn = pool.borrow()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement statement = conn.prepareStatement(UPSERT)) {
+                    int pending = 0;
+                    for (PlayerFile data : players) {
+                        synchronized (data) {
+                            byte[] bytes;
+                            try {
+                                bytes = PlayerFileCodec.encode(data);
+                            } catch (ConcurrentModificationException | IOException e) {
+                                failed.add(data.getUuid());
+                                continue;
+                            }
+                            bind(statement, data, bytes);
+                        }
+                        statement.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            statement.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) {
+                        statement.executeBatch();
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                logger.severe("[SqlPlayerStore] Batch save failed: " + e.getMessage());
+                for (PlayerFile data : players) {
+                    failed.add(data.getUuid());
+                }
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public boolean exists(UUID uuid) {
+        try (Connection conn = pool.borrow(); PreparedStatement statement = conn.prepareStatement(SELECT_EXISTS)) {
+            statement.setString(1, uuid.toString());
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            logger.severe("[SqlPlayerStore] Lookup failed for " + uuid + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public Set<UUID> listPlayers() {
+        Set<UUID> uuids = new HashSet<>();
+        try (Connection conn = pool.borrow();
+             Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery(SELECT_UUIDS)) {
+            while (rs.next()) {
+                uuids.add(UUID.fromString(rs.getString(1)));
+            }
+        } catch (SQLException e) {
+            logger.severe("[SqlPlayerStore] Failed to list players: " + e.getMessage());
+        }
+        return uuids;
+    }
+
+    /**
+     * Summaries straight from the indexed columns - no blobs are decoded.
+     */
+    @Override
+    public List<PlayerSummary> loadSummaries() {
+        List<PlayerSummary> summaries = new ArrayList<>();
+        try (Connection conn = pool.borrow();
+             Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery(SELECT_SUMMARIES)) {
+            while (rs.next()) {
+                summaries.add(new PlayerSummary(UUID.fromString(rs.getString(1)), rs.getString(2),
+                        rs.getDouble(3), rs.getLong(4), rs.getLong(5)));
+            }
+        } catch (SQLException e) {
+            logger.severe("[SqlPlayerStore] Failed to load player summaries: " + e.getMessage());
+        }
+        return summaries;
+    }
+
+    @Override
+    public Optional<UUID> findUuidByName(String name) {
+        try (Connection conn = pool.borrow(); PreparedStatement statement = conn.prepareStatement(SELECT_BY_NAME)) {
+            statement.setString(1, name.toLowerCase());
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? Optional.of(UUID.fromString(rs.getString(1))) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            logger.severe("[SqlPlayerStore] Name lookup failed for " + name + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "H2 database";
+    }
+
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            pool.close();
+        }
+    }
+
+    // ==================== Migration ====================
+
+    /**
+     * Number of stored players.
+     */
+    public int count() {
+        try (Connection conn = pool.borrow();
+             Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery(SELECT_COUNT)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            logger.severe("[SqlPlayerStore] Failed to count players: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Copy every player from another store (one-time migration from player files).
+     * Source files are left in place.
+     *
+     * @return number of players imported
+     */
+    public int importFrom(PlayerStore source) {
+        List<PlayerFile> batch = new ArrayList<>(BATCH_SIZE);
+        int imported = 0;
+        for (UUID uuid : source.listPlayers()) {
+            try {
+                PlayerFile data = source.load(uuid);
+                if (data == null) continue;
+                if (data.getUuid() == null) {
+                    data.setUuid(uuid);
+                }
+                batch.add(data);
+            } catch (Exception e) {
+                logger.warning("[SqlPlayerStore] Skipping unreadable player " + uuid + ": " + e.getMessage());
+            }
+            if (batch.size() == BATCH_SIZE) {
+                imported += batch.size() - saveBatch(batch).size();
+                batch.clear();
+            }
+        }
+        imported += batch.size() - saveBatch(batch).size();
+        return imported;
+    }
+
+    // ==================== Helpers ====================
+
+    private static void bind(PreparedStatement statement, PlayerFile data, byte[] bytes) throws SQLException {
+        String name = data.getName();
+        statement.setString(1, data.getUuid().toString());
+        statement.setString(2, name);
+        statement.setString(3, name != null ? name.toLowerCase() : null);
+        statement.setDouble(4, data.getWallet());
+        statement.setLong(5, data.getPlayTime());
+        statement.setLong(6, data.getLastSeen());
+        statement.setBytes(7, bytes);
+    }
+
+    /**
+     * Fixed-size pool of connections to the embedded database.
+     * Connections hand themselves back to the pool when closed.
+     */
+    private static final class ConnectionPool {
+
+        private final String url;
+        private final BlockingQueue<Connection> idle;
+        private final List<Connection> all = new ArrayList<>();
+        private volatile boolean closed;
+
+        ConnectionPool(String url, int size) throws SQLException {
+            this.url = url;
+            this.idle = new ArrayBlockingQueue<>(size);
+            for (int i = 0; i < size; i++) {
+                Connection conn = DriverManager.getConnection(url);
+                all.add(conn);
+                idle.add(conn);
+            }
+        }
+
+        /**
+         * Borrow a connection, waiting up to 5 seconds for one to come back.
+         * The returned proxy releases the connection on close().
+         */
+        Connection borrow() throws SQLException {
+            if (closed) {
+                throw new SQLException("Connection pool is closed");
+            }
+            Connection conn;
+            try {
+                conn = idle.poll(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted waiting for a connection");
+            }
+            if (conn == null) {
+                throw new SQLException("Timed out waiting for a database connection");
+            }
+            if (conn.isClosed()) {
+                synchronized (all) {
+                    all.remove(conn);
+                    conn = DriverManager.getConnection(url);
+                    all.add(conn);
+                }
+            }
+            return pooled(conn);
+        }
+
+        private Connection pooled(Connection conn) {
+            return (Connection) java.lang.reflect.Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new java.lang.reflect.InvocationHandler() {
+                    private boolean released;
+
+                    @Override
+                    public Object invoke(Object proxy, java.lang.reflect.Method method, Object[] args) throws Throwable {
+                        if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                            if (!released) {
+                                released = true;
+                                if (closed) {
+                                    conn.close();
+                                } else {
+                                    idle.offer(conn);
+                                }
+                            }
+                            return null;
+                        }
+                        if (released) {
+                            throw new SQLException("Connection already returned to the pool");
+                        }
+                        try {
+                            return method.invoke(conn, args);
+                        } catch (java.lang.reflect.InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+        }
+
+        void close() {
+            closed = true;
+            synchronized (all) {
+                for (Connection conn : all) {
+                    try {
+                        conn.close();
+                    } catch (SQLException e) {
+                        // Closing anyway
+                    }
+                }
+            }
+        }
+    }
+}
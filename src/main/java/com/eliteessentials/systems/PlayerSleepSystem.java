@@ -0,0 +1,52 @@
+package com.eliteessentials.systems;
+
+import com.eliteessentials.services.SleepService;
+import com.hypixel.hytale.builtin.beds.sleep.components.PlayerSomnolence;
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.query.Query;
+import com.hypixel.hytale.component.system.RefChangeSystem;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+/**
+ * Reports sleep state changes (entering bed, falling asleep, waking up) to SleepService,
+ * so sleeping players are counted when something changes instead of on a timer.
+ */
+public class PlayerSleepSystem extends RefChangeSystem<EntityStore, PlayerSomnolence> {
+
+    private final SleepService sleepService;
+
+    public PlayerSleepSystem(SleepService sleepService) {
+        this.sleepService = sleepService;
+    }
+
+    @Override
+    public ComponentType<EntityStore, PlayerSomnolence> componentType() {
+        return PlayerSomnolence.getComponentType();
+    }
+
+    @Override
+    public Query<EntityStore> getQuery() {
+        return Query.any();
+    }
+
+    @Override
+    public void onComponentAdded(Ref<EntityStore> ref, PlayerSomnolence somnolence,
+                                 Store<EntityStore> store, CommandBuffer<EntityStore> commandBuffer) {
+        sleepService.onSomnolenceChanged(ref, somnolence, store);
+    }
+
+    @Override
+    public void onComponentSet(Ref<EntityStore> ref, PlayerSomnolence oldComponent, PlayerSomnolence newComponent,
+                               Store<EntityStore> store, CommandBuffer<EntityStore> commandBuffer) {
+        sleepService.onSomnolenceChanged(ref, newComponent, store);
+    }
+
+    @Override
+    public void onComponentRemoved(Ref<EntityStore> ref, PlayerSomnolence somnolence,
+                                   Store<EntityStore> store, CommandBuffer<EntityStore> commandBuffer) {
+        sleepService.onSomnolenceChanged(ref, null, store);
+    }
+}
@@ -0,0 +1,186 @@
+package com.eliteessentials.services;
+
+import com.eliteessentials.model.PlayerFile;
+import com.eliteessentials.storage.PlayerFileStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent deposits, withdrawals and transfers on offline players while other
+ * lookups keep evicting them from a tiny offline tier. Every successful change
+ * must be reflected exactly once, in memory and after a restart.
+ */
+class WalletEngineConcurrencyTest {
+
+    private static final int ACCOUNTS = 32;
+    private static final int FILLERS = 64;
+    private static final int WORKERS = 8;
+    private static final int OPS_PER_WORKER = 2_000;
+    private static final long START_UNITS = 100 * WalletEngine.SCALE;
+
+    @TempDir
+    File dataFolder;
+
+    @Test
+    void stressWithWriteBehind() throws Exception {
+        stress(false, true);
+    }
+
+    @Test
+    void stressWithJournal() throws Exception {
+        stress(true, false);
+    }
+
+    @Test
+    void stressWithDirectSaves() throws Exception {
+        stress(false, false);
+    }
+
+    private void stress(boolean journal, boolean writeBehind) throws Exception {
+        List<UUID> accounts = create(ACCOUNTS, START_UNITS);
+        List<UUID> fillers = create(FILLERS, 0);
+
+        PlayerFileStorage storage = new PlayerFileStorage(dataFolder);
+        storage.configureWriteBehind(writeBehind, 100, 64);
+        storage.configureOfflineCache(4, 300);
+        storage.configureJournal(journal, 50, 60, 64);
+        WalletEngine wallets = new WalletEngine(storage);
+
+        // Expected balance of each account in units, updated only for successful changes
+        AtomicLongArray expected = new AtomicLongArray(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            expected.set(i, START_UNITS);
+        }
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < WORKERS; w++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int op = 0; op < OPS_PER_WORKER; op++) {
+                        int a = random.nextInt(ACCOUNTS);
+                        long units = 1 + random.nextInt(5 * (int) WalletEngine.SCALE);
+                        double amount = WalletEngine.toAmount(units);
+                        switch (random.nextInt(3)) {
+                            case 0 -> {
+                                if (wallets.deposit(accounts.get(a), amount, "stress")) {
+                                    expected.addAndGet(a, units);
+                                }
+                            }
+                            case 1 -> {
+                                if (wallets.withdraw(accounts.get(a), amount, "stress")) {
+                                    expected.addAndGet(a, -units);
+                                }
+                            }
+                            default -> {
+                                int b = random.nextInt(ACCOUNTS);
+                                if (a != b && wallets.transfer(accounts.get(a), accounts.get(b), amount, "stress")) {
+                                    expected.addAndGet(a, -units);
+                                    expected.addAndGet(b, units);
+                                }
+                            }
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }, "wallet-worker-" + w));
+        }
+
+        // Keeps loading other players so the accounts are evicted and reloaded throughout
+        Thread evictor = new Thread(() -> {
+            try {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    assertNotNull(storage.getPlayer(fillers.get(random.nextInt(FILLERS))));
+                }
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+        }, "wallet-evictor");
+        threads.add(evictor);
+
+        try {
+            run(threads, evictor, running, start, failure);
+            assertBalances(storage, accounts, expected);
+        } finally {
+            running.set(false);
+            storage.shutdown();
+        }
+
+        // Everything must have reached the disk
+        PlayerFileStorage reopened = new PlayerFileStorage(dataFolder);
+        try {
+            for (int i = 0; i < ACCOUNTS; i++) {
+                assertEquals(expected.get(i), WalletEngine.toUnits(reopened.getPlayer(accounts.get(i)).getWallet()),
+                        "persisted balance of account " + i);
+            }
+        } finally {
+            reopened.shutdown();
+        }
+    }
+
+    private static void run(List<Thread> threads, Thread evictor, AtomicBoolean running, CountDownLatch start,
+                            AtomicReference<Throwable> failure) throws InterruptedException {
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            if (thread != evictor) {
+                thread.join(60_000);
+                assertFalse(thread.isAlive(), thread.getName() + " did not finish");
+            }
+        }
+        running.set(false);
+        evictor.join(10_000);
+        if (failure.get() != null) {
+            fail(failure.get());
+        }
+    }
+
+    private static void assertBalances(PlayerFileStorage storage, List<UUID> accounts, AtomicLongArray expected) {
+        long total = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            long units = WalletEngine.toUnits(storage.getPlayer(accounts.get(i)).getWallet());
+            assertTrue(units >= 0, "negative balance");
+            assertEquals(expected.get(i), units, "balance of account " + i);
+            total += units;
+        }
+        long expectedTotal = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            expectedTotal += expected.get(i);
+        }
+        assertEquals(expectedTotal, total);
+    }
+
+    private List<UUID> create(int count, long units) {
+        PlayerFileStorage storage = new PlayerFileStorage(dataFolder);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID uuid = UUID.randomUUID();
+            PlayerFile data = new PlayerFile(uuid, "Stress" + uuid.toString().substring(0, 8));
+            data.setWallet(WalletEngine.toAmount(units));
+            storage.savePlayerDirect(data);
+            ids.add(uuid);
+        }
+        storage.shutdown();
+        return ids;
+    }
+}
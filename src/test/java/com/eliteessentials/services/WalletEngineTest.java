@@ -0,0 +1,122 @@
+package com.eliteessentials.services;
+
+import com.eliteessentials.model.PlayerFile;
+import com.eliteessentials.storage.PlayerFileStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk wallet changes on offline players with an offline tier far smaller than the batch.
+ */
+class WalletEngineTest {
+
+    private static final int PLAYERS = 300;
+
+    @TempDir
+    File dataFolder;
+
+    private List<UUID> createPlayers(double balance) {
+        PlayerFileStorage storage = new PlayerFileStorage(dataFolder);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            UUID uuid = UUID.randomUUID();
+            PlayerFile data = new PlayerFile(uuid, "Player" + i);
+            data.setWallet(balance);
+            storage.savePlayerDirect(data);
+            ids.add(uuid);
+        }
+        storage.shutdown();
+        return ids;
+    }
+
+    private PlayerFileStorage open(boolean journal, boolean writeBehind) {
+        PlayerFileStorage storage = new PlayerFileStorage(dataFolder);
+        storage.configureWriteBehind(writeBehind, 100, 64);
+        storage.configureOfflineCache(2, 300);
+        storage.configureJournal(journal, 0, 60, 1024);
+        return storage;
+    }
+
+    private void assertBalances(List<UUID> ids, double expected) {
+        PlayerFileStorage reopened = new PlayerFileStorage(dataFolder);
+        reopened.configureJournal(false, 0, 60, 1024);
+        for (UUID uuid : ids) {
+            assertEquals(expected, reopened.getPlayer(uuid).getWallet(), 1e-9, "wallet of " + uuid);
+        }
+        reopened.shutdown();
+    }
+
+    private void depositAllSurvivesEviction(boolean journal, boolean writeBehind) {
+        List<UUID> ids = createPlayers(0);
+        PlayerFileStorage storage = open(journal, writeBehind);
+        WalletEngine wallets = new WalletEngine(storage);
+
+        Map<UUID, Boolean> results = wallets.depositAll(ids, 12.5, "test");
+        assertEquals(PLAYERS, results.size());
+        assertTrue(results.values().stream().allMatch(Boolean::booleanValue));
+        for (UUID uuid : ids) {
+            assertEquals(12.5, storage.getPlayer(uuid).getWallet(), 1e-9);
+        }
+        storage.shutdown();
+
+        assertBalances(ids, 12.5);
+    }
+
+    @Test
+    void depositAllSavesFiles() {
+        depositAllSurvivesEviction(false, false);
+    }
+
+    @Test
+    void depositAllWithWriteBehind() {
+        depositAllSurvivesEviction(false, true);
+    }
+
+    @Test
+    void depositAllWithJournal() {
+        depositAllSurvivesEviction(true, false);
+    }
+
+    @Test
+    void taxSurvivesEviction() {
+        List<UUID> ids = createPlayers(100);
+        PlayerFileStorage storage = open(false, true);
+        WalletEngine wallets = new WalletEngine(storage);
+
+        Map<UUID, Double> taken = wallets.tax(10, "test");
+        assertEquals(PLAYERS, taken.size());
+        storage.shutdown();
+
+        assertBalances(ids, 90);
+    }
+
+    @Test
+    void singleChangesSurviveEviction() {
+        List<UUID> ids = createPlayers(0);
+        PlayerFileStorage storage = open(false, true);
+        WalletEngine wallets = new WalletEngine(storage);
+
+        for (UUID uuid : ids) {
+            assertTrue(wallets.deposit(uuid, 3, "test"));
+        }
+        for (int i = 0; i + 1 < ids.size(); i += 2) {
+            assertTrue(wallets.transfer(ids.get(i), ids.get(i + 1), 1, "test"));
+        }
+        storage.shutdown();
+
+        PlayerFileStorage reopened = new PlayerFileStorage(dataFolder);
+        for (int i = 0; i + 1 < ids.size(); i += 2) {
+            assertEquals(2, reopened.getPlayer(ids.get(i)).getWallet(), 1e-9);
+            assertEquals(4, reopened.getPlayer(ids.get(i + 1)).getWallet(), 1e-9);
+        }
+        reopened.shutdown();
+    }
+}
@@ -0,0 +1,82 @@
+package com.eliteessentials.storage;
+
+import com.eliteessentials.model.PlayerFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerJournalTest {
+
+    @TempDir
+    File dataFolder;
+
+    @Test
+    void sequenceContinuesAcrossRestarts() throws Exception {
+        JournalSequence first = new JournalSequence(dataFolder);
+        long issued = 0;
+        for (int i = 0; i < 10; i++) {
+            issued = first.next();
+        }
+
+        JournalSequence restarted = new JournalSequence(dataFolder);
+        assertTrue(restarted.next() > issued);
+    }
+
+    @Test
+    void sequenceIgnoresTheClockOnceStored() throws Exception {
+        // A bound far ahead of the clock, as if the clock had stepped back since it was written
+        long bound = System.currentTimeMillis() * 1000L + 1_000_000_000_000L;
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(new File(dataFolder, "player_journal.seq")))) {
+            out.writeLong(bound);
+        }
+
+        JournalSequence sequence = new JournalSequence(dataFolder);
+        assertTrue(sequence.next() > bound);
+    }
+
+    @Test
+    void sequenceMovesPastObservedStamps() throws Exception {
+        JournalSequence sequence = new JournalSequence(dataFolder);
+        long stamp = sequence.current() + 5_000_000L;
+        sequence.observe(stamp);
+        assertTrue(sequence.next() > stamp);
+        assertTrue(new JournalSequence(dataFolder).next() > stamp);
+    }
+
+    @Test
+    void recordsAfterRestartApplyOverNewerStamps() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        PlayerFile data = new PlayerFile(uuid, "Journaled");
+
+        PlayerJournal journal = new PlayerJournal(dataFolder, new JournalSequence(dataFolder), true);
+        journal.open();
+        data.setWallet(10);
+        journal.append(uuid, PlayerJournal.Field.WALLET, data);
+        data.setJournalSeq(journal.currentSeq());
+        journal.close();
+        journal.beginCompaction();
+        journal.finishCompaction();
+
+        // Restart: the snapshot stamp must stay below every new record
+        PlayerJournal reopened = new PlayerJournal(dataFolder, new JournalSequence(dataFolder), true);
+        reopened.open();
+        data.setWallet(25);
+        reopened.append(uuid, PlayerJournal.Field.WALLET, data);
+        reopened.close();
+
+        PlayerJournal recovered = new PlayerJournal(dataFolder, new JournalSequence(dataFolder), true);
+        assertEquals(1, recovered.open());
+        PlayerFile snapshot = new PlayerFile(uuid, "Journaled");
+        snapshot.setWallet(10);
+        snapshot.setJournalSeq(data.getJournalSeq());
+        recovered.applyPending(uuid, snapshot);
+        assertEquals(25.0, snapshot.getWallet());
+        recovered.close();
+    }
+}
@@ -0,0 +1,50 @@
+package com.eliteessentials.storage;
+
+import com.eliteessentials.model.PlayerFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerNameIndexTest {
+
+    @TempDir
+    File dataFolder;
+
+    @Test
+    void namesKeepTheirCaseAcrossRestarts() {
+        UUID uuid = UUID.randomUUID();
+        PlayerFileStorage storage = new PlayerFileStorage(dataFolder);
+        storage.savePlayerDirect(new PlayerFile(uuid, "SteveMC"));
+        storage.shutdown();
+
+        PlayerFileStorage reopened = new PlayerFileStorage(dataFolder);
+        try {
+            assertEquals("SteveMC", reopened.getNameByUuid(uuid).orElseThrow());
+            assertEquals(List.of("SteveMC"), reopened.findNamesByPrefix("steve", 10));
+            assertEquals(uuid, reopened.getUuidByName("stevemc").orElseThrow());
+        } finally {
+            reopened.shutdown();
+        }
+    }
+
+    @Test
+    void restoreCaseIgnoresOtherNames() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        PlayerNameIndex index = new PlayerNameIndex(dataFolder, executor);
+        UUID uuid = UUID.randomUUID();
+        index.put(uuid, "alex");
+        index.restoreCase(uuid, "Steve");
+        assertEquals("alex", index.getName(uuid));
+        index.restoreCase(uuid, "Alex");
+        assertEquals("Alex", index.getName(uuid));
+        index.close();
+        executor.shutdownNow();
+    }
+}